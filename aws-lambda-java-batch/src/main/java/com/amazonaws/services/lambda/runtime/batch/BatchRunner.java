@@ -0,0 +1,202 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.batch;
+
+import com.amazonaws.services.lambda.runtime.Context;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs the items of a batch concurrently. Items with the same group key run one after the other in batch order and
+ * a failed item fails the rest of its group, items without a group key run independently. Each of at most
+ * maxConcurrency workers takes the next group or item from a shared counter, one of them runs on the calling thread.
+ * Workers stop taking items once the invocation is within the deadline margin of its timeout, the items they did not
+ * start count as failed so that they are retried.
+ *
+ * For streams, which are retried from the earliest failed item on, items after the earliest failure so far are
+ * skipped, as they would be processed again anyway.
+ */
+final class BatchRunner {
+
+    @FunctionalInterface
+    interface ItemHandler<T> {
+        void process(T item) throws Exception;
+    }
+
+    private final Executor executor;
+    private final int maxConcurrency;
+    private final long deadlineMarginMillis;
+
+    BatchRunner(Executor executor, int maxConcurrency, long deadlineMarginMillis) {
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+        this.deadlineMarginMillis = deadlineMarginMillis;
+    }
+
+    /**
+     * @return a cached pool of daemon threads
+     */
+    static Executor defaultExecutor(String threadNamePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newCachedThreadPool(threadFactory);
+    }
+
+    /**
+     * @param items items of the batch
+     * @param groupKey group key of an item, or null for items that do not need to be ordered
+     * @param handler processes an item, fails it by throwing an exception
+     * @param context context of the invocation, for its deadline, or null to process all items
+     * @param skipAfterFailure whether to skip the items after the earliest failed item
+     * @return for each item, whether it failed or was not processed
+     */
+    <T> boolean[] run(List<T> items, Function<? super T, String> groupKey, ItemHandler<? super T> handler,
+                      Context context, boolean skipAfterFailure) {
+        List<List<Integer>> units = toUnits(items, groupKey);
+        boolean[] succeeded = new boolean[items.size()];
+        Worker<T> worker = new Worker<>(items, units, handler, context, succeeded, skipAfterFailure);
+
+        int workers = Math.min(maxConcurrency, units.size());
+        List<FutureTask<Void>> tasks = new ArrayList<>(workers);
+        for (int i = 1; i < workers; i++) {
+            FutureTask<Void> task = new FutureTask<>(worker, null);
+            executor.execute(task);
+            tasks.add(task);
+        }
+        Throwable error = null;
+        try {
+            worker.run();
+        } catch (Error e) {
+            error = e;
+        }
+
+        boolean interrupted = false;
+        for (FutureTask<Void> task : tasks) {
+            while (true) {
+                try {
+                    task.get();
+                    break;
+                } catch (InterruptedException e) {
+                    // stop taking items, but wait for the running ones to finish their item
+                    interrupted = true;
+                    worker.stopped = true;
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        error = e.getCause();
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        if (error != null) {
+            throw new IllegalStateException(error);
+        }
+
+        boolean[] failed = new boolean[items.size()];
+        for (int i = 0; i < failed.length; i++) {
+            failed[i] = !succeeded[i];
+        }
+        return failed;
+    }
+
+    /**
+     * @return the indices of the items of each group and of each item without a group, ordered by their first item
+     */
+    private static <T> List<List<Integer>> toUnits(List<T> items, Function<? super T, String> groupKey) {
+        List<List<Integer>> units = new ArrayList<>(items.size());
+        Map<String, List<Integer>> groups = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            String key = groupKey.apply(items.get(i));
+            if (key == null) {
+                List<Integer> unit = new ArrayList<>(1);
+                unit.add(i);
+                units.add(unit);
+                continue;
+            }
+            List<Integer> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(key, group);
+                units.add(group);
+            }
+            group.add(i);
+        }
+        return units;
+    }
+
+    private final class Worker<T> implements Runnable {
+        private final List<T> items;
+        private final List<List<Integer>> units;
+        private final ItemHandler<? super T> handler;
+        private final Context context;
+        private final boolean[] succeeded;
+        private final boolean skipAfterFailure;
+        private final AtomicInteger nextUnit = new AtomicInteger();
+        private final AtomicInteger earliestFailure = new AtomicInteger(Integer.MAX_VALUE);
+        volatile boolean stopped;
+
+        Worker(List<T> items, List<List<Integer>> units, ItemHandler<? super T> handler, Context context,
+               boolean[] succeeded, boolean skipAfterFailure) {
+            this.items = items;
+            this.units = units;
+            this.handler = handler;
+            this.context = context;
+            this.succeeded = succeeded;
+            this.skipAfterFailure = skipAfterFailure;
+        }
+
+        @Override
+        public void run() {
+            try {
+                int unit;
+                while (!stopped && (unit = nextUnit.getAndIncrement()) < units.size()) {
+                    for (int index : units.get(unit)) {
+                        if (stopped || isNearDeadline()) {
+                            stopped = true;
+                            return;
+                        }
+                        // the indices of a group ascend, the rest of the group is after the failure as well
+                        if (skipAfterFailure && index > earliestFailure.get()) {
+                            break;
+                        }
+                        try {
+                            handler.process(items.get(index));
+                        } catch (Exception e) {
+                            earliestFailure.accumulateAndGet(index, Math::min);
+                            // the rest of the group is not processed, so it is retried in order
+                            break;
+                        }
+                        succeeded[index] = true;
+                    }
+                }
+            } catch (Error e) {
+                stopped = true;
+                throw e;
+            }
+        }
+
+        private boolean isNearDeadline() {
+            return context != null && context.getRemainingTimeInMillis() <= deadlineMarginMillis;
+        }
+    }
+}
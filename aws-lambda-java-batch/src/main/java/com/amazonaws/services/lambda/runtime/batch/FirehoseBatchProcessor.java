@@ -0,0 +1,374 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.batch;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.KinesisAnalyticsFirehoseInputPreprocessingEvent;
+import com.amazonaws.services.lambda.runtime.events.KinesisAnalyticsInputPreprocessingResponse;
+import com.amazonaws.services.lambda.runtime.events.KinesisAnalyticsInputPreprocessingResponse.Result;
+import com.amazonaws.services.lambda.runtime.events.KinesisFirehoseEvent;
+import com.amazonaws.services.lambda.runtime.events.models.Base64Binary;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * Transforms the records of a {@link KinesisFirehoseEvent} or a {@link KinesisAnalyticsFirehoseInputPreprocessingEvent}
+ * concurrently, for data transformation with Kinesis Data Firehose and preprocessing with Kinesis Data Analytics:
+ *
+ * <pre>
+ * {@code
+ * private final FirehoseBatchProcessor processor = FirehoseBatchProcessor.builder().build();
+ *
+ * public KinesisAnalyticsInputPreprocessingResponse handleRequest(KinesisFirehoseEvent event, Context context) {
+ *     return processor.process(event, context, (recordId, data, output) -> {
+ *         output.write(data);
+ *         output.write('\n');
+ *         return Result.Ok;
+ *     });
+ * }
+ * }
+ * </pre>
+ *
+ * <ul>
+ * <li>Records are decoded into pooled buffers and transformed into pooled {@link RecordOutput}s, only the transformed
+ * data of each record is allocated.</li>
+ * <li>The response lists the records in batch order. A record whose transformation throws an exception is returned
+ * as ProcessingFailed with its original data.</li>
+ * <li>Once the invocation is within the deadline margin of its timeout, no further record is started and the records
+ * not started are returned as ProcessingFailed.</li>
+ * <li>The process methods that take an OutputStream write the response JSON directly, as the base64 text of each
+ * transformed record, for handlers that implement RequestStreamHandler.</li>
+ * </ul>
+ *
+ * Transformations are usually bound by CPU, records are therefore transformed on as many threads as there are
+ * processors by default. The processor is thread-safe and meant to be created once and reused across invocations.
+ */
+public class FirehoseBatchProcessor {
+
+    public static final Duration DEFAULT_DEADLINE_MARGIN = Duration.ofSeconds(1);
+
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+    private static final int RESPONSE_BUFFER_SIZE = 64 * 1024;
+
+    @FunctionalInterface
+    public interface RecordTransformer {
+        /**
+         * @param recordId id of the record
+         * @param data data of the record, in a buffer that is reused once the transformation returns
+         * @param output output to write the transformed data to, reused once the transformation returns
+         * @return Ok to return the output as the data of the record, Dropped to drop the record, ProcessingFailed to
+         * fail it
+         * @throws Exception to fail the record
+         */
+        Result transform(String recordId, ByteBuffer data, RecordOutput output) throws Exception;
+    }
+
+    private final BatchRunner runner;
+    private final ConcurrentLinkedQueue<Buffers> pool = new ConcurrentLinkedQueue<>();
+
+    private FirehoseBatchProcessor(BatchRunner runner) {
+        this.runner = runner;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param event event with the records to transform
+     * @param context context of the invocation, for its deadline, or null to transform every record
+     * @param transformer transformation called for each record, possibly from several threads at the same time
+     * @return response with the transformed records, in batch order
+     */
+    public KinesisAnalyticsInputPreprocessingResponse process(KinesisFirehoseEvent event, Context context,
+                                                              RecordTransformer transformer) {
+        return toResponse(transform(FIREHOSE_RECORDS, event.getRecords(), context, transformer, false));
+    }
+
+    /**
+     * @param event event with the records to transform
+     * @param context context of the invocation, for its deadline, or null to transform every record
+     * @param transformer transformation called for each record, possibly from several threads at the same time
+     * @return response with the transformed records, in batch order
+     */
+    public KinesisAnalyticsInputPreprocessingResponse process(KinesisAnalyticsFirehoseInputPreprocessingEvent event,
+                                                              Context context, RecordTransformer transformer) {
+        return toResponse(transform(ANALYTICS_RECORDS, event.getRecords(), context, transformer, false));
+    }
+
+    /**
+     * Transforms the records and writes the response JSON, the output is flushed but not closed.
+     *
+     * @param event event with the records to transform
+     * @param context context of the invocation, for its deadline, or null to transform every record
+     * @param transformer transformation called for each record, possibly from several threads at the same time
+     * @param output output to write the response to
+     * @throws IOException if the response cannot be written
+     */
+    public void process(KinesisFirehoseEvent event, Context context, RecordTransformer transformer,
+                        OutputStream output) throws IOException {
+        writeResponse(transform(FIREHOSE_RECORDS, event.getRecords(), context, transformer, true), output);
+    }
+
+    /**
+     * Transforms the records and writes the response JSON, the output is flushed but not closed.
+     *
+     * @param event event with the records to transform
+     * @param context context of the invocation, for its deadline, or null to transform every record
+     * @param transformer transformation called for each record, possibly from several threads at the same time
+     * @param output output to write the response to
+     * @throws IOException if the response cannot be written
+     */
+    public void process(KinesisAnalyticsFirehoseInputPreprocessingEvent event, Context context,
+                        RecordTransformer transformer, OutputStream output) throws IOException {
+        writeResponse(transform(ANALYTICS_RECORDS, event.getRecords(), context, transformer, true), output);
+    }
+
+    private <R> Transformed<R> transform(RecordAccess<R> access, List<R> records, Context context,
+                                         RecordTransformer transformer, boolean base64) {
+        if (records == null) {
+            records = Collections.emptyList();
+        }
+        Transformed<R> transformed = new Transformed<>(access, records);
+        List<Integer> indices = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            indices.add(i);
+        }
+        List<R> batch = records;
+        boolean[] failed = runner.run(indices, index -> null, index -> {
+            Buffers buffers = pool.poll();
+            if (buffers == null) {
+                buffers = new Buffers();
+            }
+            try {
+                R record = batch.get(index);
+                ByteBuffer data = access.decode(record, buffers);
+                Result result = Objects.requireNonNull(
+                        transformer.transform(access.recordId(record), data, buffers.output), "result");
+                if (result == Result.Ok) {
+                    transformed.data[index] = base64 ? buffers.output.toBase64() : buffers.output.toByteArray();
+                }
+                transformed.results[index] = result;
+            } finally {
+                buffers.output.reset();
+                pool.offer(buffers);
+            }
+        }, context, false);
+        for (int i = 0; i < failed.length; i++) {
+            if (failed[i]) {
+                transformed.results[i] = Result.ProcessingFailed;
+            }
+        }
+        return transformed;
+    }
+
+    private static <R> KinesisAnalyticsInputPreprocessingResponse toResponse(Transformed<R> transformed) {
+        List<KinesisAnalyticsInputPreprocessingResponse.Record> records = new ArrayList<>(transformed.records.size());
+        for (int i = 0; i < transformed.records.size(); i++) {
+            R record = transformed.records.get(i);
+            Result result = transformed.results[i];
+            ByteBuffer data = result == Result.Ok
+                    ? ByteBuffer.wrap(transformed.data[i])
+                    : transformed.access.data(record);
+            records.add(new KinesisAnalyticsInputPreprocessingResponse.Record(
+                    transformed.access.recordId(record), result, data));
+        }
+        return new KinesisAnalyticsInputPreprocessingResponse(records);
+    }
+
+    private static <R> void writeResponse(Transformed<R> transformed, OutputStream output) throws IOException {
+        BufferedOutputStream out = new BufferedOutputStream(output, RESPONSE_BUFFER_SIZE);
+        out.write(ascii("{\"records\":["));
+        for (int i = 0; i < transformed.records.size(); i++) {
+            R record = transformed.records.get(i);
+            Result result = transformed.results[i];
+            out.write(ascii(i == 0 ? "{\"recordId\":" : ",{\"recordId\":"));
+            writeString(out, transformed.access.recordId(record));
+            out.write(ascii(",\"result\":\"" + result.name() + "\",\"data\":"));
+            if (result == Result.Ok) {
+                out.write('"');
+                out.write(transformed.data[i]);
+                out.write('"');
+            } else {
+                writeString(out, transformed.access.encodedData(record));
+            }
+            out.write('}');
+        }
+        out.write(ascii("]}"));
+        out.flush();
+    }
+
+    private static void writeString(OutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.write(ascii("null"));
+            return;
+        }
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        out.write(json.append('"').toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Reads the id and data of the records of an event type
+     */
+    private interface RecordAccess<R> {
+        String recordId(R record);
+
+        /**
+         * @return the data of the record, decoded into the pooled input buffer if it is base64 text
+         */
+        ByteBuffer decode(R record, Buffers buffers);
+
+        ByteBuffer data(R record);
+
+        String encodedData(R record);
+    }
+
+    private static final RecordAccess<KinesisFirehoseEvent.Record> FIREHOSE_RECORDS =
+            new RecordAccess<KinesisFirehoseEvent.Record>() {
+        @Override
+        public String recordId(KinesisFirehoseEvent.Record record) {
+            return record.getRecordId();
+        }
+
+        @Override
+        public ByteBuffer decode(KinesisFirehoseEvent.Record record, Buffers buffers) {
+            String encoded = record.getEncodedData();
+            if (encoded == null) {
+                return ByteBuffer.allocate(0);
+            }
+            int length = Base64Binary.decodedLength(encoded);
+            if (length > buffers.input.capacity()) {
+                // the larger buffer stays in the pool
+                buffers.input = ByteBuffer.allocate(length);
+            }
+            ByteBuffer input = buffers.input;
+            input.clear();
+            Base64Binary.decode(encoded, input);
+            input.flip();
+            return input;
+        }
+
+        @Override
+        public ByteBuffer data(KinesisFirehoseEvent.Record record) {
+            return record.getData();
+        }
+
+        @Override
+        public String encodedData(KinesisFirehoseEvent.Record record) {
+            return record.getEncodedData();
+        }
+    };
+
+    private static final RecordAccess<KinesisAnalyticsFirehoseInputPreprocessingEvent.Record> ANALYTICS_RECORDS =
+            new RecordAccess<KinesisAnalyticsFirehoseInputPreprocessingEvent.Record>() {
+        @Override
+        public String recordId(KinesisAnalyticsFirehoseInputPreprocessingEvent.Record record) {
+            return record.getRecordId();
+        }
+
+        @Override
+        public ByteBuffer decode(KinesisAnalyticsFirehoseInputPreprocessingEvent.Record record, Buffers buffers) {
+            // the data is decoded when the event is deserialized
+            ByteBuffer data = record.getData();
+            return data != null ? data.asReadOnlyBuffer() : ByteBuffer.allocate(0);
+        }
+
+        @Override
+        public ByteBuffer data(KinesisAnalyticsFirehoseInputPreprocessingEvent.Record record) {
+            return record.getData();
+        }
+
+        @Override
+        public String encodedData(KinesisAnalyticsFirehoseInputPreprocessingEvent.Record record) {
+            return Base64Binary.encode(record.getData());
+        }
+    };
+
+    private static final class Buffers {
+        ByteBuffer input = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        final RecordOutput output = new RecordOutput(INITIAL_BUFFER_SIZE);
+    }
+
+    private static final class Transformed<R> {
+        final RecordAccess<R> access;
+        final List<R> records;
+        final Result[] results;
+        final byte[][] data;
+
+        Transformed(RecordAccess<R> access, List<R> records) {
+            this.access = access;
+            this.records = records;
+            this.results = new Result[records.size()];
+            this.data = new byte[records.size()][];
+        }
+    }
+
+    public static final class Builder {
+        private Executor executor;
+        private int maxConcurrency = Runtime.getRuntime().availableProcessors();
+        private Duration deadlineMargin = DEFAULT_DEADLINE_MARGIN;
+
+        private Builder() {
+        }
+
+        /**
+         * @param executor executor to run the transformations on, it is not shut down by the processor
+         */
+        public Builder withExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrency number of records transformed at the same time at most, including on the calling
+         *                       thread, the number of available processors by default
+         */
+        public Builder withMaxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * @param deadlineMargin remaining time of the invocation below which no further record is started
+         */
+        public Builder withDeadlineMargin(Duration deadlineMargin) {
+            this.deadlineMargin = deadlineMargin;
+            return this;
+        }
+
+        public FirehoseBatchProcessor build() {
+            return new FirehoseBatchProcessor(new BatchRunner(
+                    executor != null ? executor : BatchRunner.defaultExecutor("firehose-batch-processor-"),
+                    maxConcurrency,
+                    deadlineMargin.toMillis()));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.batch;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * The transformed data of a record, see {@link FirehoseBatchProcessor.RecordTransformer}. Outputs are pooled by the
+ * processor and reused for later records, so they must not be kept after the transformation returns.
+ */
+public final class RecordOutput extends OutputStream {
+
+    private byte[] bytes;
+    private int size;
+
+    RecordOutput(int initialCapacity) {
+        this.bytes = new byte[initialCapacity];
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(size + 1);
+        bytes[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        ensureCapacity(size + len);
+        System.arraycopy(b, off, bytes, size, len);
+        size += len;
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer, its position is advanced to its limit.
+     *
+     * @param data buffer to write
+     */
+    public void write(ByteBuffer data) {
+        int len = data.remaining();
+        ensureCapacity(size + len);
+        data.get(bytes, size, len);
+        size += len;
+    }
+
+    /**
+     * @return number of bytes written
+     */
+    public int size() {
+        return size;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    /**
+     * @return the bytes written as base64 text in US-ASCII
+     */
+    byte[] toBase64() {
+        return Base64.getEncoder().encode(ByteBuffer.wrap(bytes, 0, size)).array();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new OutOfMemoryError("Record output too large");
+        }
+        if (capacity > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.batch;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Processes the messages of an {@link SQSEvent} concurrently and reports the failed ones in an
+ * {@link SQSBatchResponse}, for event source mappings with ReportBatchItemFailures enabled:
+ *
+ * <pre>
+ * {@code
+ * private final SQSBatchProcessor processor = SQSBatchProcessor.builder().withMaxConcurrency(32).build();
+ *
+ * public SQSBatchResponse handleRequest(SQSEvent event, Context context) {
+ *     return processor.process(event, context, message -> store(message.getBody()));
+ * }
+ * }
+ * </pre>
+ *
+ * <ul>
+ * <li>A message fails if the handler throws an exception, it is then reported so that SQS delivers it again.</li>
+ * <li>Messages of a FIFO queue with the same MessageGroupId are processed one after the other in order. After a
+ * failed message, the rest of its group is not processed and reported as failed, so the group is retried in order.
+ * Other messages are processed independently.</li>
+ * <li>Once the invocation is within the deadline margin of its timeout, no further message is started and the
+ * messages not started are reported as failed.</li>
+ * </ul>
+ *
+ * By default, messages are processed on a cached pool of daemon threads. On Java 21 and later, pass
+ * Executors.newVirtualThreadPerTaskExecutor() to {@link Builder#withExecutor} to process them on virtual threads. The
+ * processor is thread-safe and meant to be created once and reused across invocations.
+ */
+public class SQSBatchProcessor {
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 16;
+    public static final Duration DEFAULT_DEADLINE_MARGIN = Duration.ofSeconds(1);
+
+    static final String MESSAGE_GROUP_ID = "MessageGroupId";
+
+    @FunctionalInterface
+    public interface MessageHandler {
+        /**
+         * @param message message to process
+         * @throws Exception to fail the message
+         */
+        void process(SQSEvent.SQSMessage message) throws Exception;
+    }
+
+    private final BatchRunner runner;
+
+    private SQSBatchProcessor(BatchRunner runner) {
+        this.runner = runner;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param event event with the messages to process
+     * @param context context of the invocation, for its deadline, or null to process every message
+     * @param handler handler called for each message, possibly from several threads at the same time
+     * @return response listing the message ids of the failed and the unprocessed messages, in batch order
+     */
+    public SQSBatchResponse process(SQSEvent event, Context context, MessageHandler handler) {
+        List<SQSEvent.SQSMessage> messages = event.getRecords() != null
+                ? event.getRecords()
+                : Collections.<SQSEvent.SQSMessage>emptyList();
+        boolean[] failed = runner.run(messages, SQSBatchProcessor::getMessageGroupId, handler::process, context, false);
+
+        List<SQSBatchResponse.BatchItemFailure> batchItemFailures = new ArrayList<>();
+        for (int i = 0; i < failed.length; i++) {
+            if (failed[i]) {
+                batchItemFailures.add(new SQSBatchResponse.BatchItemFailure(messages.get(i).getMessageId()));
+            }
+        }
+        return new SQSBatchResponse(batchItemFailures);
+    }
+
+    private static String getMessageGroupId(SQSEvent.SQSMessage message) {
+        Map<String, String> attributes = message.getAttributes();
+        return attributes != null ? attributes.get(MESSAGE_GROUP_ID) : null;
+    }
+
+    public static final class Builder {
+        private Executor executor;
+        private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+        private Duration deadlineMargin = DEFAULT_DEADLINE_MARGIN;
+
+        private Builder() {
+        }
+
+        /**
+         * @param executor executor to run the messages on, it is not shut down by the processor
+         */
+        public Builder withExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrency number of messages processed at the same time at most, including on the calling
+         *                       thread
+         */
+        public Builder withMaxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * @param deadlineMargin remaining time of the invocation below which no further message is started
+         */
+        public Builder withDeadlineMargin(Duration deadlineMargin) {
+            this.deadlineMargin = deadlineMargin;
+            return this;
+        }
+
+        public SQSBatchProcessor build() {
+            return new SQSBatchProcessor(new BatchRunner(
+                    executor != null ? executor : BatchRunner.defaultExecutor("sqs-batch-processor-"),
+                    maxConcurrency,
+                    deadlineMargin.toMillis()));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.batch;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.KinesisEvent;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Processes the records of a {@link KinesisEvent} or a {@link DynamodbEvent} concurrently while keeping the order of
+ * the records with the same key, and reports the checkpoint in a {@link StreamsEventResponse}, for event source
+ * mappings with ReportBatchItemFailures enabled:
+ *
+ * <pre>
+ * {@code
+ * private final StreamsBatchProcessor processor = StreamsBatchProcessor.builder().build();
+ *
+ * public StreamsEventResponse handleRequest(KinesisEvent event, Context context) {
+ *     return processor.process(event, context, record -> store(record.getKinesis().getData()));
+ * }
+ * }
+ * </pre>
+ *
+ * <ul>
+ * <li>Kinesis records are ordered by their partition key, DynamoDB records by the key attributes of their item.
+ * Records with the same key are processed one after the other in batch order, records with different keys
+ * concurrently.</li>
+ * <li>A record fails if the handler throws an exception. Lambda then retries the batch from the earliest failed record
+ * on, so the response reports the sequence number of the earliest record that failed or was not processed. Records
+ * after it are not processed once it failed, as they are retried anyway.</li>
+ * <li>Once the invocation is within the deadline margin of its timeout, no further record is started.</li>
+ * </ul>
+ *
+ * By default, records are processed on a cached pool of daemon threads. On Java 21 and later, pass
+ * Executors.newVirtualThreadPerTaskExecutor() to {@link Builder#withExecutor} to process them on virtual threads. The
+ * processor is thread-safe and meant to be created once and reused across invocations.
+ */
+public class StreamsBatchProcessor {
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 16;
+    public static final Duration DEFAULT_DEADLINE_MARGIN = Duration.ofSeconds(1);
+
+    @FunctionalInterface
+    public interface RecordHandler<T> {
+        /**
+         * @param record record to process
+         * @throws Exception to fail the record
+         */
+        void process(T record) throws Exception;
+    }
+
+    private final BatchRunner runner;
+
+    private StreamsBatchProcessor(BatchRunner runner) {
+        this.runner = runner;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param event event with the records to process
+     * @param context context of the invocation, for its deadline, or null to process every record
+     * @param handler handler called for each record, possibly from several threads at the same time
+     * @return response with the sequence number of the earliest failed or unprocessed record, if any
+     */
+    public StreamsEventResponse process(KinesisEvent event, Context context,
+                                        RecordHandler<KinesisEvent.KinesisEventRecord> handler) {
+        return process(event.getRecords(), StreamsBatchProcessor::getPartitionKey,
+                record -> record.getKinesis().getSequenceNumber(), context, handler);
+    }
+
+    /**
+     * @param event event with the records to process
+     * @param context context of the invocation, for its deadline, or null to process every record
+     * @param handler handler called for each record, possibly from several threads at the same time
+     * @return response with the sequence number of the earliest failed or unprocessed record, if any
+     */
+    public StreamsEventResponse process(DynamodbEvent event, Context context,
+                                        RecordHandler<DynamodbEvent.DynamodbStreamRecord> handler) {
+        return process(event.getRecords(), StreamsBatchProcessor::getItemKey,
+                record -> record.getDynamodb().getSequenceNumber(), context, handler);
+    }
+
+    private <T> StreamsEventResponse process(List<T> records, Function<T, String> key,
+                                             Function<T, String> sequenceNumber, Context context,
+                                             RecordHandler<T> handler) {
+        if (records == null) {
+            records = Collections.emptyList();
+        }
+        boolean[] failed = runner.run(records, key, handler::process, context, true);
+
+        List<StreamsEventResponse.BatchItemFailure> batchItemFailures = new ArrayList<>(1);
+        for (int i = 0; i < failed.length; i++) {
+            // a batch holds records of one shard in sequence order, the first failed record is the checkpoint
+            if (failed[i]) {
+                batchItemFailures.add(new StreamsEventResponse.BatchItemFailure(sequenceNumber.apply(records.get(i))));
+                break;
+            }
+        }
+        return new StreamsEventResponse(batchItemFailures);
+    }
+
+    private static String getPartitionKey(KinesisEvent.KinesisEventRecord record) {
+        return record.getKinesis() != null ? record.getKinesis().getPartitionKey() : null;
+    }
+
+    /**
+     * @return the key attributes in a canonical form, e.g. "2:idS3:abc" for the key {"id": {"S": "abc"}}
+     */
+    static String getItemKey(DynamodbEvent.DynamodbStreamRecord record) {
+        if (record.getDynamodb() == null || record.getDynamodb().getKeys() == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder();
+        for (Map.Entry<String, AttributeValue> attribute : new TreeMap<>(record.getDynamodb().getKeys()).entrySet()) {
+            key.append(attribute.getKey().length()).append(':').append(attribute.getKey());
+            AttributeValue value = attribute.getValue();
+            if (value.getS() != null) {
+                key.append('S').append(value.getS().length()).append(':').append(value.getS());
+            } else if (value.getN() != null) {
+                key.append('N').append(value.getN().length()).append(':').append(value.getN());
+            } else if (value.getB() != null) {
+                ByteBuffer b = value.getB().duplicate();
+                byte[] bytes = new byte[b.remaining()];
+                b.get(bytes);
+                String encoded = Base64.getEncoder().encodeToString(bytes);
+                key.append('B').append(encoded.length()).append(':').append(encoded);
+            } else {
+                // key attributes are strings, numbers or binaries
+                key.append('?').append(value);
+            }
+        }
+        return key.toString();
+    }
+
+    public static final class Builder {
+        private Executor executor;
+        private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+        private Duration deadlineMargin = DEFAULT_DEADLINE_MARGIN;
+
+        private Builder() {
+        }
+
+        /**
+         * @param executor executor to run the records on, it is not shut down by the processor
+         */
+        public Builder withExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrency number of keys processed at the same time at most, including on the calling thread
+         */
+        public Builder withMaxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * @param deadlineMargin remaining time of the invocation below which no further record is started
+         */
+        public Builder withDeadlineMargin(Duration deadlineMargin) {
+            this.deadlineMargin = deadlineMargin;
+            return this;
+        }
+
+        public StreamsBatchProcessor build() {
+            return new StreamsBatchProcessor(new BatchRunner(
+                    executor != null ? executor : BatchRunner.defaultExecutor("streams-batch-processor-"),
+                    maxConcurrency,
+                    deadlineMargin.toMillis()));
+        }
+    }
+}
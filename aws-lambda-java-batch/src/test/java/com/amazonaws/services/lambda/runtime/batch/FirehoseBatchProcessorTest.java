@@ -0,0 +1,159 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.batch;
+
+import com.amazonaws.services.lambda.runtime.events.KinesisAnalyticsFirehoseInputPreprocessingEvent;
+import com.amazonaws.services.lambda.runtime.events.KinesisAnalyticsInputPreprocessingResponse;
+import com.amazonaws.services.lambda.runtime.events.KinesisAnalyticsInputPreprocessingResponse.Result;
+import com.amazonaws.services.lambda.runtime.events.KinesisFirehoseEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FirehoseBatchProcessorTest {
+
+    private static final FirehoseBatchProcessor.RecordTransformer UPPER_CASE = (recordId, data, output) -> {
+        String text = UTF_8.decode(data).toString();
+        if (text.startsWith("fail")) {
+            throw new IllegalStateException("failed " + recordId);
+        }
+        if (text.startsWith("drop")) {
+            return Result.Dropped;
+        }
+        output.write(text.toUpperCase().getBytes(UTF_8));
+        return Result.Ok;
+    };
+
+    private static KinesisFirehoseEvent.Record record(String id, String data) {
+        KinesisFirehoseEvent.Record record = new KinesisFirehoseEvent.Record().withRecordId(id);
+        record.setEncodedData(Base64.getEncoder().encodeToString(data.getBytes(UTF_8)));
+        return record;
+    }
+
+    private static KinesisFirehoseEvent event(KinesisFirehoseEvent.Record... records) {
+        return new KinesisFirehoseEvent().withRecords(Arrays.asList(records));
+    }
+
+    private static String string(ByteBuffer data) {
+        return UTF_8.decode(data.duplicate()).toString();
+    }
+
+    @Test
+    public void transformsRecordsInBatchOrder() {
+        FirehoseBatchProcessor processor = FirehoseBatchProcessor.builder().withMaxConcurrency(4).build();
+        KinesisFirehoseEvent.Record[] records = new KinesisFirehoseEvent.Record[50];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = record("r" + i, (i % 7 == 3 ? "fail " : i % 11 == 5 ? "drop " : "record ") + i);
+        }
+
+        KinesisAnalyticsInputPreprocessingResponse response = processor.process(event(records), null, UPPER_CASE);
+
+        assertEquals(records.length, response.getRecords().size());
+        for (int i = 0; i < records.length; i++) {
+            KinesisAnalyticsInputPreprocessingResponse.Record record = response.getRecords().get(i);
+            assertEquals("r" + i, record.getRecordId());
+            if (i % 7 == 3) {
+                assertEquals(Result.ProcessingFailed, record.getResult());
+                assertEquals("fail " + i, string(record.getData()));
+            } else if (i % 11 == 5) {
+                assertEquals(Result.Dropped, record.getResult());
+            } else {
+                assertEquals(Result.Ok, record.getResult());
+                assertEquals("RECORD " + i, string(record.getData()));
+            }
+        }
+    }
+
+    @Test
+    public void writesResponseJson() throws Exception {
+        FirehoseBatchProcessor processor = FirehoseBatchProcessor.builder().withMaxConcurrency(2).build();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        processor.process(event(record("r\"0", "hello"), record("r1", "fail"), record("r2", "drop")), null,
+                UPPER_CASE, output);
+
+        assertEquals("{\"records\":["
+                + "{\"recordId\":\"r\\\"0\",\"result\":\"Ok\",\"data\":\"SEVMTE8=\"},"
+                + "{\"recordId\":\"r1\",\"result\":\"ProcessingFailed\",\"data\":\"ZmFpbA==\"},"
+                + "{\"recordId\":\"r2\",\"result\":\"Dropped\",\"data\":\"ZHJvcA==\"}]}",
+                new String(output.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void transformsAnalyticsRecords() throws Exception {
+        FirehoseBatchProcessor processor = FirehoseBatchProcessor.builder().build();
+        KinesisAnalyticsFirehoseInputPreprocessingEvent event = new KinesisAnalyticsFirehoseInputPreprocessingEvent(
+                "invocation", "application", "stream", Arrays.asList(
+                new KinesisAnalyticsFirehoseInputPreprocessingEvent.Record("r0", null, ByteBuffer.wrap("a".getBytes(UTF_8))),
+                new KinesisAnalyticsFirehoseInputPreprocessingEvent.Record("r1", null, ByteBuffer.wrap("fail".getBytes(UTF_8)))));
+
+        KinesisAnalyticsInputPreprocessingResponse response = processor.process(event, null, UPPER_CASE);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        processor.process(event, null, UPPER_CASE, output);
+
+        assertEquals("A", string(response.getRecords().get(0).getData()));
+        assertEquals(Result.ProcessingFailed, response.getRecords().get(1).getResult());
+        assertEquals("{\"records\":[{\"recordId\":\"r0\",\"result\":\"Ok\",\"data\":\"QQ==\"},"
+                + "{\"recordId\":\"r1\",\"result\":\"ProcessingFailed\",\"data\":\"ZmFpbA==\"}]}",
+                new String(output.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void transformsRecordsLargerThanPooledBuffers() {
+        FirehoseBatchProcessor processor = FirehoseBatchProcessor.builder().withMaxConcurrency(1).build();
+        char[] large = new char[100_000];
+        Arrays.fill(large, 'x');
+        String data = new String(large);
+
+        KinesisAnalyticsInputPreprocessingResponse response = processor.process(
+                event(record("r0", "small"), record("r1", data), record("r2", "small")), null, UPPER_CASE);
+
+        assertEquals("SMALL", string(response.getRecords().get(0).getData()));
+        assertEquals(data.toUpperCase(), string(response.getRecords().get(1).getData()));
+        assertEquals("SMALL", string(response.getRecords().get(2).getData()));
+    }
+
+    @Test
+    public void failsRecordsNotStartedNearDeadline() {
+        FirehoseBatchProcessor processor = FirehoseBatchProcessor.builder().withMaxConcurrency(1).build();
+        AtomicInteger transformed = new AtomicInteger();
+        // every record takes a second of the four the invocation has left
+        TestContext context = new TestContext(() -> 4000 - 1000 * transformed.get());
+
+        KinesisAnalyticsInputPreprocessingResponse response = processor.process(
+                event(record("r0", "a"), record("r1", "b"), record("r2", "c"), record("r3", "d"), record("r4", "e")),
+                context, (recordId, data, output) -> {
+                    transformed.incrementAndGet();
+                    output.write(data);
+                    return Result.Ok;
+                });
+
+        List<Result> results = new ArrayList<>();
+        response.getRecords().forEach(record -> results.add(record.getResult()));
+        assertEquals(Arrays.asList(Result.Ok, Result.Ok, Result.Ok, Result.ProcessingFailed, Result.ProcessingFailed),
+                results);
+    }
+
+    @Test
+    public void processesEmptyBatch() {
+        FirehoseBatchProcessor processor = FirehoseBatchProcessor.builder().build();
+
+        KinesisAnalyticsInputPreprocessingResponse response = processor.process(
+                new KinesisFirehoseEvent().withRecords(Collections.emptyList()), null, (recordId, data, output) -> {
+                    throw new AssertionError("no records to transform");
+                });
+
+        assertTrue(response.getRecords().isEmpty());
+    }
+}
@@ -0,0 +1,148 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.batch;
+
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SQSBatchProcessorTest {
+
+    private static SQSEvent.SQSMessage message(String id, String messageGroupId) {
+        SQSEvent.SQSMessage message = new SQSEvent.SQSMessage();
+        message.setMessageId(id);
+        message.setBody("body of " + id);
+        if (messageGroupId != null) {
+            message.setAttributes(Collections.singletonMap(SQSBatchProcessor.MESSAGE_GROUP_ID, messageGroupId));
+        }
+        return message;
+    }
+
+    private static SQSEvent event(SQSEvent.SQSMessage... messages) {
+        SQSEvent event = new SQSEvent();
+        event.setRecords(Arrays.asList(messages));
+        return event;
+    }
+
+    private static List<String> failedIds(SQSBatchResponse response) {
+        return response.getBatchItemFailures().stream()
+                .map(SQSBatchResponse.BatchItemFailure::getItemIdentifier)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void reportsFailedMessagesInBatchOrder() {
+        SQSBatchProcessor processor = SQSBatchProcessor.builder().withMaxConcurrency(4).build();
+        SQSEvent.SQSMessage[] messages = new SQSEvent.SQSMessage[20];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = message("m" + i, null);
+        }
+
+        SQSBatchResponse response = processor.process(event(messages), null, message -> {
+            if (message.getMessageId().equals("m13") || message.getMessageId().equals("m2")) {
+                throw new IllegalStateException("failed " + message.getMessageId());
+            }
+        });
+
+        assertEquals(Arrays.asList("m2", "m13"), failedIds(response));
+    }
+
+    @Test
+    public void processesMessagesConcurrently() {
+        int maxConcurrency = 4;
+        SQSBatchProcessor processor = SQSBatchProcessor.builder().withMaxConcurrency(maxConcurrency).build();
+        CyclicBarrier barrier = new CyclicBarrier(maxConcurrency);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        SQSEvent.SQSMessage[] messages = new SQSEvent.SQSMessage[maxConcurrency * 3];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = message("m" + i, null);
+        }
+
+        SQSBatchResponse response = processor.process(event(messages), null, message -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            // only passes if maxConcurrency messages are processed at the same time
+            barrier.await(10, TimeUnit.SECONDS);
+            running.decrementAndGet();
+        });
+
+        assertEquals(Collections.emptyList(), failedIds(response));
+        assertEquals(maxConcurrency, maxRunning.get());
+    }
+
+    @Test
+    public void processesMessageGroupsInOrderAndStopsAtFirstFailure() {
+        SQSBatchProcessor processor = SQSBatchProcessor.builder().withMaxConcurrency(8).build();
+        List<String> processed = Collections.synchronizedList(new ArrayList<>());
+
+        SQSBatchResponse response = processor.process(event(
+                message("a1", "A"), message("b1", "B"), message("a2", "A"), message("b2", "B"),
+                message("a3", "A"), message("c1", null), message("b3", "B")
+        ), null, message -> {
+            processed.add(message.getMessageId());
+            if (message.getMessageId().equals("a2")) {
+                throw new IllegalStateException("failed a2");
+            }
+        });
+
+        assertEquals(Arrays.asList("a2", "a3"), failedIds(response));
+        assertEquals(Arrays.asList("a1", "a2"), filter(processed, "a"));
+        assertEquals(Arrays.asList("b1", "b2", "b3"), filter(processed, "b"));
+        assertEquals(Collections.singletonList("c1"), filter(processed, "c"));
+    }
+
+    private static List<String> filter(List<String> ids, String prefix) {
+        return ids.stream().filter(id -> id.startsWith(prefix)).collect(Collectors.toList());
+    }
+
+    @Test
+    public void stopsStartingMessagesNearDeadline() {
+        SQSBatchProcessor processor = SQSBatchProcessor.builder().withMaxConcurrency(1).build();
+        AtomicInteger processed = new AtomicInteger();
+        // every message takes a second of the five the invocation has left
+        TestContext context = new TestContext(() -> 5000 - 1000 * processed.get());
+
+        SQSBatchResponse response = processor.process(event(
+                message("m0", null), message("m1", null), message("m2", null), message("m3", null),
+                message("m4", null), message("m5", null)
+        ), context, message -> processed.incrementAndGet());
+
+        assertEquals(4, processed.get());
+        assertEquals(Arrays.asList("m4", "m5"), failedIds(response));
+    }
+
+    @Test
+    public void processesEmptyBatch() {
+        SQSBatchProcessor processor = SQSBatchProcessor.builder().build();
+
+        SQSBatchResponse response = processor.process(new SQSEvent(), null, message -> {
+            throw new AssertionError("no messages to process");
+        });
+
+        assertTrue(response.getBatchItemFailures().isEmpty());
+    }
+
+    @Test
+    public void rethrowsErrors() {
+        SQSBatchProcessor processor = SQSBatchProcessor.builder().withMaxConcurrency(2).build();
+
+        assertThrows(OutOfMemoryError.class, () -> processor.process(event(
+                message("m0", null), message("m1", null), message("m2", null)
+        ), null, message -> {
+            throw new OutOfMemoryError();
+        }));
+    }
+}
@@ -0,0 +1,201 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.batch;
+
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.KinesisEvent;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StreamsBatchProcessorTest {
+
+    private static KinesisEvent kinesisEvent(String... partitionKeys) {
+        List<KinesisEvent.KinesisEventRecord> records = new ArrayList<>();
+        for (int i = 0; i < partitionKeys.length; i++) {
+            KinesisEvent.Record kinesis = new KinesisEvent.Record();
+            kinesis.setPartitionKey(partitionKeys[i]);
+            kinesis.setSequenceNumber(String.valueOf(1000 + i));
+            KinesisEvent.KinesisEventRecord record = new KinesisEvent.KinesisEventRecord();
+            record.setKinesis(kinesis);
+            records.add(record);
+        }
+        KinesisEvent event = new KinesisEvent();
+        event.setRecords(records);
+        return event;
+    }
+
+    private static int index(KinesisEvent.KinesisEventRecord record) {
+        return Integer.parseInt(record.getKinesis().getSequenceNumber()) - 1000;
+    }
+
+    private static List<String> checkpoints(StreamsEventResponse response) {
+        List<String> checkpoints = new ArrayList<>();
+        for (StreamsEventResponse.BatchItemFailure failure : response.getBatchItemFailures()) {
+            checkpoints.add(failure.getItemIdentifier());
+        }
+        return checkpoints;
+    }
+
+    @Test
+    public void keepsOrderOfRecordsWithSamePartitionKey() {
+        StreamsBatchProcessor processor = StreamsBatchProcessor.builder().withMaxConcurrency(8).build();
+        Random random = new Random(42);
+        String[] partitionKeys = new String[500];
+        for (int i = 0; i < partitionKeys.length; i++) {
+            partitionKeys[i] = "key" + random.nextInt(20);
+        }
+        Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+
+        StreamsEventResponse response = processor.process(kinesisEvent(partitionKeys), null, record -> {
+            if (random.nextInt(10) == 0) {
+                Thread.sleep(1);
+            }
+            processed.computeIfAbsent(record.getKinesis().getPartitionKey(),
+                    k -> Collections.synchronizedList(new ArrayList<>())).add(index(record));
+        });
+
+        assertEquals(Collections.emptyList(), checkpoints(response));
+        assertEquals(20, processed.size());
+        int records = 0;
+        for (Map.Entry<String, List<Integer>> entry : processed.entrySet()) {
+            List<Integer> indices = entry.getValue();
+            for (int i = 0; i < indices.size(); i++) {
+                assertEquals(entry.getKey(), partitionKeys[indices.get(i)]);
+                if (i > 0) {
+                    assertTrue(indices.get(i - 1) < indices.get(i), entry.getKey() + " out of order: " + indices);
+                }
+            }
+            records += indices.size();
+        }
+        assertEquals(partitionKeys.length, records);
+    }
+
+    @Test
+    public void reportsEarliestFailedRecordAsCheckpoint() {
+        StreamsBatchProcessor processor = StreamsBatchProcessor.builder().withMaxConcurrency(8).build();
+
+        StreamsEventResponse response = processor.process(kinesisEvent("a", "b", "c", "a", "b", "c", "a", "b"), null,
+                record -> {
+                    if (index(record) == 5 || index(record) == 3) {
+                        throw new IllegalStateException("failed " + index(record));
+                    }
+                });
+
+        assertEquals(Collections.singletonList("1003"), checkpoints(response));
+    }
+
+    @Test
+    public void skipsRecordsAfterEarliestFailure() {
+        StreamsBatchProcessor processor = StreamsBatchProcessor.builder().withMaxConcurrency(1).build();
+        List<Integer> processed = new ArrayList<>();
+
+        StreamsEventResponse response = processor.process(kinesisEvent("a", "b", "a", "b", "a", "b"), null,
+                record -> {
+                    processed.add(index(record));
+                    if (index(record) == 2) {
+                        throw new IllegalStateException("failed 2");
+                    }
+                });
+
+        // a runs first up to its failure, b is processed up to the checkpoint only
+        assertEquals(Arrays.asList(0, 2, 1), processed);
+        assertEquals(Collections.singletonList("1002"), checkpoints(response));
+    }
+
+    @Test
+    public void processesPartitionKeysConcurrently() {
+        int maxConcurrency = Math.max(4, Runtime.getRuntime().availableProcessors());
+        StreamsBatchProcessor processor = StreamsBatchProcessor.builder().withMaxConcurrency(maxConcurrency).build();
+        CyclicBarrier barrier = new CyclicBarrier(maxConcurrency);
+        String[] partitionKeys = new String[maxConcurrency * 4];
+        for (int i = 0; i < partitionKeys.length; i++) {
+            partitionKeys[i] = "key" + i % maxConcurrency;
+        }
+
+        // only passes if every key is processed at the same time as the others
+        StreamsEventResponse response = processor.process(kinesisEvent(partitionKeys), null,
+                record -> barrier.await(10, TimeUnit.SECONDS));
+
+        assertEquals(Collections.emptyList(), checkpoints(response));
+    }
+
+    @Test
+    public void stopsStartingRecordsNearDeadline() {
+        StreamsBatchProcessor processor = StreamsBatchProcessor.builder().withMaxConcurrency(1).build();
+        AtomicInteger processed = new AtomicInteger();
+        TestContext context = new TestContext(() -> 3000 - 1000 * processed.get());
+
+        StreamsEventResponse response = processor.process(kinesisEvent("a", "a", "a", "a"), context,
+                record -> processed.incrementAndGet());
+
+        assertEquals(2, processed.get());
+        assertEquals(Collections.singletonList("1002"), checkpoints(response));
+    }
+
+    private static DynamodbEvent.DynamodbStreamRecord dynamodbRecord(Map<String, AttributeValue> keys,
+                                                                     String sequenceNumber) {
+        StreamRecord streamRecord = new StreamRecord();
+        streamRecord.setKeys(keys);
+        streamRecord.setSequenceNumber(sequenceNumber);
+        DynamodbEvent.DynamodbStreamRecord record = new DynamodbEvent.DynamodbStreamRecord();
+        record.setDynamodb(streamRecord);
+        return record;
+    }
+
+    @Test
+    public void ordersDynamodbRecordsByItemKey() {
+        Map<String, AttributeValue> keys = new LinkedHashMap<>();
+        keys.put("pk", new AttributeValue().withS("user"));
+        keys.put("sk", new AttributeValue().withN("1"));
+        Map<String, AttributeValue> reordered = new LinkedHashMap<>();
+        reordered.put("sk", new AttributeValue().withN("1"));
+        reordered.put("pk", new AttributeValue().withS("user"));
+        Map<String, AttributeValue> binary = new HashMap<>();
+        binary.put("pk", new AttributeValue().withB(ByteBuffer.wrap(new byte[]{1, 2})));
+        Map<String, AttributeValue> otherBinary = new HashMap<>();
+        otherBinary.put("pk", new AttributeValue().withB(ByteBuffer.wrap(new byte[]{1, 3})));
+
+        assertEquals("2:pkS4:user2:skN1:1", StreamsBatchProcessor.getItemKey(dynamodbRecord(keys, "1")));
+        assertEquals(StreamsBatchProcessor.getItemKey(dynamodbRecord(keys, "1")),
+                StreamsBatchProcessor.getItemKey(dynamodbRecord(reordered, "2")));
+        assertNotEquals(StreamsBatchProcessor.getItemKey(dynamodbRecord(binary, "1")),
+                StreamsBatchProcessor.getItemKey(dynamodbRecord(otherBinary, "2")));
+
+        StreamsBatchProcessor processor = StreamsBatchProcessor.builder().withMaxConcurrency(1).build();
+        DynamodbEvent event = new DynamodbEvent();
+        event.setRecords(Arrays.asList(dynamodbRecord(keys, "10"), dynamodbRecord(binary, "11"),
+                dynamodbRecord(reordered, "12"), dynamodbRecord(otherBinary, "13")));
+        List<String> processed = new ArrayList<>();
+
+        StreamsEventResponse response = processor.process(event, null, record -> {
+            processed.add(record.getDynamodb().getSequenceNumber());
+            if (record.getDynamodb().getSequenceNumber().equals("10")) {
+                throw new IllegalStateException("failed 10");
+            }
+        });
+
+        // 12 has the key of 10 and the others are after the failure
+        assertEquals(Collections.singletonList("10"), processed);
+        assertEquals(Collections.singletonList("10"), checkpoints(response));
+    }
+}
@@ -0,0 +1,28 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime;
+
+/**
+ * Input type of a {@link RequestHandler} that processes the records of a batch event one at a time, e.g.
+ * {@code RequestHandler<EventRecords<SQSEvent, SQSEvent.SQSMessage>, SQSBatchResponse>}. The runtime parses each
+ * record from the event payload when the iteration reaches it, instead of deserializing all records of the event
+ * before the handler is called, so the heap holds one record at a time rather than the whole batch.
+ *
+ * <p>
+ * Supported events are SQSEvent, KinesisEvent, DynamodbEvent, KinesisFirehoseEvent and KafkaEvent (whose records of all
+ * topic partitions are iterated in turn). The records can be iterated once, within the handler call.
+ * </p>
+ *
+ * @param <E> event type
+ * @param <R> record type
+ */
+public interface EventRecords<E, R> extends Iterable<R> {
+
+    /**
+     * Returns the event without its records. Fields that follow the records in the payload are only set once the
+     * iteration has reached the end of the records, the events delivered by Lambda list their records last.
+     *
+     * @return the event, with null records
+     */
+    E getEvent();
+}
@@ -2,6 +2,10 @@
 
 package com.amazonaws.services.lambda.runtime;
 
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+
+import java.util.Arrays;
+
 /**
  * A low level Lambda runtime logger
  *
@@ -32,5 +36,41 @@ public interface LambdaLogger {
      * @param message byte array containing logs
      */
     void log(byte[] message);
+
+    /**
+     * Logs a string with a level to AWS CloudWatch Logs. The message is dropped before it is encoded if its level is
+     * below the minimum level of the function, set with the AWS_LAMBDA_LOG_LEVEL environment variable.
+     *
+     * @param message A string containing the event to log.
+     * @param logLevel Level of the message
+     */
+    default void log(String message, LogLevel logLevel) {
+        log(message);
+    }
+
+    /**
+     * Logs a byte array with a level to AWS CloudWatch Logs
+     *
+     * @param message byte array containing logs
+     * @param logLevel Level of the message
+     * @see #log(String, LogLevel)
+     */
+    default void log(byte[] message, LogLevel logLevel) {
+        log(message);
+    }
+
+    /**
+     * Logs length bytes of a byte array with a level to AWS CloudWatch Logs, without copying them into an array of
+     * their own first. The bytes have been logged or copied when the call returns, so the array can be reused.
+     *
+     * @param message byte array containing logs
+     * @param offset index of the first byte to log
+     * @param length number of bytes to log
+     * @param logLevel Level of the message
+     * @see #log(String, LogLevel)
+     */
+    default void log(byte[] message, int offset, int length, LogLevel logLevel) {
+        log(Arrays.copyOfRange(message, offset, offset + length), logLevel);
+    }
 }
 
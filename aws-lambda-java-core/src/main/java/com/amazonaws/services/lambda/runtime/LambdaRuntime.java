@@ -1,6 +1,9 @@
 /* Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
 package com.amazonaws.services.lambda.runtime;
 
+import com.amazonaws.services.lambda.runtime.metrics.LambdaMetrics;
+import com.amazonaws.services.lambda.runtime.metrics.MetricUnit;
+
 import java.io.IOException;
 
 public final class LambdaRuntime {
@@ -22,6 +25,18 @@ public final class LambdaRuntime {
         }
     };
 
+    private static volatile LambdaMetrics metrics = new LambdaMetrics() {
+
+        public void count(String name, long delta) {
+        }
+
+        public void gauge(String name, double value, MetricUnit unit) {
+        }
+
+        public void record(String name, double value, MetricUnit unit) {
+        }
+    };
+
     /**
      * Returns the global lambda logger instance
      *
@@ -29,4 +44,12 @@ public final class LambdaRuntime {
 	public static LambdaLogger getLogger() {
         return logger;
     }
+
+    /**
+     * Returns the global lambda metrics instance. Outside of the Lambda runtime, metrics are discarded.
+     *
+     */
+    public static LambdaMetrics getMetrics() {
+        return metrics;
+    }
 }
@@ -10,6 +10,10 @@ public final class LambdaRuntimeInternal {
 
     private static boolean useLog4jAppender;
 
+    private static volatile boolean useLog4jContextDataProvider;
+
+    private static volatile Invocation currentInvocation;
+
     public static void setUseLog4jAppender(boolean useLog4j) {
         useLog4jAppender = useLog4j;
     }
@@ -17,4 +21,53 @@ public final class LambdaRuntimeInternal {
     public static boolean getUseLog4jAppender() {
         return useLog4jAppender;
     }
+
+    /**
+     * Set by the log4j2 ContextDataProvider of aws-lambda-java-log4j2, which adds the request id to log events
+     * itself, so the runtime does not need to put it into the log4j ThreadContext
+     */
+    public static void setUseLog4jContextDataProvider(boolean useContextDataProvider) {
+        useLog4jContextDataProvider = useContextDataProvider;
+    }
+
+    public static boolean getUseLog4jContextDataProvider() {
+        return useLog4jContextDataProvider;
+    }
+
+    /**
+     * Set by the runtime when it receives an invocation, readable from any thread
+     * @param awsRequestId id of the invocation
+     * @param xrayTraceId X-Ray trace header of the invocation, or null
+     */
+    public static void setCurrentInvocation(String awsRequestId, String xrayTraceId) {
+        currentInvocation = new Invocation(awsRequestId, xrayTraceId);
+    }
+
+    /**
+     * @return the invocation the runtime received last, or null before the first one
+     */
+    public static Invocation getCurrentInvocation() {
+        return currentInvocation;
+    }
+
+    /**
+     * The ids of an invocation, for logging libraries to add to log events
+     */
+    public static final class Invocation {
+        private final String awsRequestId;
+        private final String xrayTraceId;
+
+        private Invocation(String awsRequestId, String xrayTraceId) {
+            this.awsRequestId = awsRequestId;
+            this.xrayTraceId = xrayTraceId;
+        }
+
+        public String getAwsRequestId() {
+            return awsRequestId;
+        }
+
+        public String getXrayTraceId() {
+            return xrayTraceId;
+        }
+    }
 }
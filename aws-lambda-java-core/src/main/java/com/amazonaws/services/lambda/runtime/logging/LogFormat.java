@@ -0,0 +1,28 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.logging;
+
+import java.util.Locale;
+
+/**
+ * Format of the log messages a function emits
+ */
+public enum LogFormat {
+    /**
+     * each message is a JSON object with the message, its level, a timestamp and the request id
+     */
+    JSON,
+    /**
+     * each message is written as is
+     */
+    TEXT;
+
+    /**
+     * @param logFormat name of the format, case insensitive
+     * @return the format with the name
+     * @throws IllegalArgumentException if there is no format with the name
+     */
+    public static LogFormat fromString(String logFormat) {
+        return LogFormat.valueOf(logFormat.trim().toUpperCase(Locale.ROOT));
+    }
+}
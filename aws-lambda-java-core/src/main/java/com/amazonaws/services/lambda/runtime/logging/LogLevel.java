@@ -0,0 +1,28 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.logging;
+
+import java.util.Locale;
+
+/**
+ * Level of a log message, from the least to the most severe. Messages logged without a level are UNDEFINED and are
+ * never filtered out.
+ */
+public enum LogLevel {
+    UNDEFINED,
+    TRACE,
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    FATAL;
+
+    /**
+     * @param logLevel name of the level, case insensitive
+     * @return the level with the name
+     * @throws IllegalArgumentException if there is no level with the name
+     */
+    public static LogLevel fromString(String logLevel) {
+        return LogLevel.valueOf(logLevel.trim().toUpperCase(Locale.ROOT));
+    }
+}
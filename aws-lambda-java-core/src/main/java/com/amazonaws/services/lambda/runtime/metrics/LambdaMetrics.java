@@ -0,0 +1,57 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.metrics;
+
+/**
+ * Records custom CloudWatch metrics. Datapoints are aggregated in memory and published by the runtime as a few
+ * CloudWatch embedded metric format documents in the function's logs, at the end of the invocation or earlier if a
+ * lot has been recorded. Recording a datapoint does not write anything.
+ *
+ * <p>
+ * All methods are thread-safe. A metric name is either a counter, a gauge or a distribution, using it as another kind
+ * fails. Its unit is set by the first datapoint. Values that are NaN or infinite are ignored. Metric names should not
+ * be made from unbounded values such as ids, every name is aggregated for as long as the runtime lives. The names
+ * FunctionName, AWSRequestId and _aws are reserved for the members the runtime adds to the published documents.
+ * </p>
+ */
+public interface LambdaMetrics {
+
+    /**
+     * Adds 1 to a counter, the counter is published with the unit Count as the total of the invocation
+     *
+     * @param name name of the metric
+     */
+    default void count(String name) {
+        count(name, 1);
+    }
+
+    /**
+     * Adds to a counter, the counter is published with the unit Count as the total of the invocation
+     *
+     * @param name name of the metric
+     * @param delta number to add
+     * @throws IllegalArgumentException if the name is reserved or already used by a gauge or a distribution
+     */
+    void count(String name, long delta);
+
+    /**
+     * Sets a gauge, the gauge is published as the last value set in the invocation
+     *
+     * @param name name of the metric
+     * @param value value of the metric
+     * @param unit unit of the metric
+     * @throws IllegalArgumentException if the name is reserved or already used by a counter or a distribution
+     */
+    void gauge(String name, double value, MetricUnit unit);
+
+    /**
+     * Adds a value to a distribution, e.g. a latency per record. The distribution is published with every value
+     * recorded in the invocation, so CloudWatch can compute its percentiles. Values are kept to about 1% precision.
+     *
+     * @param name name of the metric
+     * @param value value to add
+     * @param unit unit of the metric
+     * @throws IllegalArgumentException if the name is reserved or already used by a counter or a gauge
+     */
+    void record(String name, double value, MetricUnit unit);
+}
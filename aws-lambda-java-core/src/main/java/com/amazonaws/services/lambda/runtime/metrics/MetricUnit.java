@@ -0,0 +1,49 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.metrics;
+
+/**
+ * Unit of a metric, one of the units CloudWatch accepts
+ */
+public enum MetricUnit {
+    SECONDS("Seconds"),
+    MICROSECONDS("Microseconds"),
+    MILLISECONDS("Milliseconds"),
+    BYTES("Bytes"),
+    KILOBYTES("Kilobytes"),
+    MEGABYTES("Megabytes"),
+    GIGABYTES("Gigabytes"),
+    TERABYTES("Terabytes"),
+    BITS("Bits"),
+    KILOBITS("Kilobits"),
+    MEGABITS("Megabits"),
+    GIGABITS("Gigabits"),
+    TERABITS("Terabits"),
+    PERCENT("Percent"),
+    COUNT("Count"),
+    BYTES_PER_SECOND("Bytes/Second"),
+    KILOBYTES_PER_SECOND("Kilobytes/Second"),
+    MEGABYTES_PER_SECOND("Megabytes/Second"),
+    GIGABYTES_PER_SECOND("Gigabytes/Second"),
+    TERABYTES_PER_SECOND("Terabytes/Second"),
+    BITS_PER_SECOND("Bits/Second"),
+    KILOBITS_PER_SECOND("Kilobits/Second"),
+    MEGABITS_PER_SECOND("Megabits/Second"),
+    GIGABITS_PER_SECOND("Gigabits/Second"),
+    TERABITS_PER_SECOND("Terabits/Second"),
+    COUNT_PER_SECOND("Count/Second"),
+    NONE("None");
+
+    private final String cloudWatchName;
+
+    MetricUnit(String cloudWatchName) {
+        this.cloudWatchName = cloudWatchName;
+    }
+
+    /**
+     * @return name of the unit in CloudWatch, e.g. "Bytes/Second"
+     */
+    public String getCloudWatchName() {
+        return cloudWatchName;
+    }
+}
@@ -0,0 +1,163 @@
+package com.amazonaws.services.lambda.runtime.events.transformers;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A map of SDK attribute values that is a view of a map of event attribute values. Each value is converted when it is
+ * first read and then cached, so a handler that reads a few attributes of a wide item only pays for those. The first
+ * change to the map converts all values and detaches it from the event.
+ *
+ * Like the event map, the map can be read from several threads, values converted by two threads at the same time are
+ * cached once. Changes are not thread-safe, like those of a HashMap.
+ *
+ * @param <S> attribute value type of the events library
+ * @param <T> attribute value type of the SDK
+ */
+public final class LazyAttributeValueMap<S, T> extends AbstractMap<String, T> {
+
+    private final Map<String, S> source;
+    private final Function<? super S, ? extends T> converter;
+    // the converted values are never null
+    private final ConcurrentHashMap<String, T> converted = new ConcurrentHashMap<>();
+    private volatile Map<String, T> detached;
+
+    public LazyAttributeValueMap(final Map<String, S> source, final Function<? super S, ? extends T> converter) {
+        this.source = source;
+        this.converter = converter;
+    }
+
+    @Override
+    public T get(final Object key) {
+        Map<String, T> values = detached;
+        if (values != null) {
+            return values.get(key);
+        }
+        if (!(key instanceof String)) {
+            return null;
+        }
+        T value = converted.get(key);
+        if (value == null) {
+            S sourceValue = source.get(key);
+            if (sourceValue == null) {
+                return null;
+            }
+            value = converter.apply(sourceValue);
+            T cached = converted.putIfAbsent((String) key, value);
+            if (cached != null) {
+                value = cached;
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        Map<String, T> values = detached;
+        return values != null ? values.containsKey(key) : source.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        Map<String, T> values = detached;
+        return values != null ? values.size() : source.size();
+    }
+
+    @Override
+    public Set<Entry<String, T>> entrySet() {
+        return new AbstractSet<Entry<String, T>>() {
+            @Override
+            public Iterator<Entry<String, T>> iterator() {
+                Map<String, T> values = detached;
+                if (values != null) {
+                    return values.entrySet().iterator();
+                }
+                Iterator<String> keys = source.keySet().iterator();
+                return new Iterator<Entry<String, T>>() {
+                    private String lastKey;
+                    private boolean canRemove;
+
+                    @Override
+                    public boolean hasNext() {
+                        return keys.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, T> next() {
+                        lastKey = keys.next();
+                        canRemove = true;
+                        return new LazyEntry(lastKey, get(lastKey));
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (!canRemove) {
+                            throw new IllegalStateException();
+                        }
+                        // the source keys are still iterated, the remaining values are read from the detached map
+                        detach().remove(lastKey);
+                        canRemove = false;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return LazyAttributeValueMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public T put(final String key, final T value) {
+        return detach().put(key, value);
+    }
+
+    @Override
+    public T remove(final Object key) {
+        return detach().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        detach().clear();
+    }
+
+    /**
+     * An entry of the map that is not detached yet, setting its value detaches the map
+     */
+    private final class LazyEntry extends SimpleEntry<String, T> {
+
+        LazyEntry(final String key, final T value) {
+            super(key, value);
+        }
+
+        @Override
+        public T setValue(final T value) {
+            super.setValue(value);
+            return detach().put(getKey(), value);
+        }
+    }
+
+    /**
+     * @return all values converted, in a map that no longer reads from the source
+     */
+    private Map<String, T> detach() {
+        Map<String, T> values = detached;
+        if (values == null) {
+            values = new LinkedHashMap<>();
+            for (String key : source.keySet()) {
+                values.put(key, get(key));
+            }
+            detached = values;
+            converted.clear();
+        }
+        return values;
+    }
+}
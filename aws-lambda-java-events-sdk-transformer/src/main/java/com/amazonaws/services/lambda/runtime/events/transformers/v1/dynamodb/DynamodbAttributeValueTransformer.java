@@ -1,6 +1,7 @@
 package com.amazonaws.services.lambda.runtime.events.transformers.v1.dynamodb;
 
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.lambda.runtime.events.transformers.LazyAttributeValueMap;
 
 import java.util.Collections;
 import java.util.Map;
@@ -60,15 +61,12 @@ public class DynamodbAttributeValueTransformer {
         }
     }
 
+    /**
+     * @return a view of the map that converts each value when it is first read, nested maps are views as well
+     */
     public static Map<String, AttributeValue> toAttributeValueMapV1(
             final Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> attributeValueMap
     ) {
-        return attributeValueMap
-                .entrySet()
-                .stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> toAttributeValueV1(entry.getValue())
-                ));
+        return new LazyAttributeValueMap<>(attributeValueMap, DynamodbAttributeValueTransformer::toAttributeValueV1);
     }
 }
@@ -0,0 +1,258 @@
+package com.amazonaws.services.lambda.runtime.events.transformers.v2;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Identity;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+import software.amazon.awssdk.services.dynamodb.model.StreamRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the JSON of a DynamoDB stream event straight into SDK v2 records, without building a
+ * {@link com.amazonaws.services.lambda.runtime.events.DynamodbEvent} first. The records are equal to the ones
+ * {@link DynamodbEventTransformer#toRecordsV2} returns for the same event, binary attributes are decoded from base64
+ * once into the bytes of their {@link SdkBytes}.
+ */
+public class DynamodbEventDeserializer {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory().disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+    public static List<Record> toRecordsV2(final InputStream json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            List<Record> records = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("Records".equals(name) && token == JsonToken.START_ARRAY) {
+                    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                        // null records are left out, as by DynamodbEventTransformer
+                        if (token != JsonToken.VALUE_NULL) {
+                            records.add(readRecord(parser));
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return records;
+        }
+    }
+
+    private static Record readRecord(final JsonParser parser) throws IOException {
+        expect(parser, parser.getCurrentToken(), JsonToken.START_OBJECT);
+        Record.Builder record = Record.builder();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            switch (name) {
+                case "eventID":
+                    record.eventID(parser.getValueAsString());
+                    break;
+                case "eventName":
+                    record.eventName(parser.getValueAsString());
+                    break;
+                case "eventVersion":
+                    record.eventVersion(parser.getValueAsString());
+                    break;
+                case "eventSource":
+                    record.eventSource(parser.getValueAsString());
+                    break;
+                case "awsRegion":
+                    record.awsRegion(parser.getValueAsString());
+                    break;
+                case "dynamodb":
+                    record.dynamodb(readStreamRecord(parser));
+                    break;
+                case "userIdentity":
+                    record.userIdentity(readIdentity(parser));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return record.build();
+    }
+
+    private static StreamRecord readStreamRecord(final JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, parser.getCurrentToken(), JsonToken.START_OBJECT);
+        StreamRecord.Builder streamRecord = StreamRecord.builder();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (name) {
+                case "ApproximateCreationDateTime":
+                    // seconds since the epoch, truncated to milliseconds as by the events serialization
+                    double seconds = parser.getValueAsDouble();
+                    streamRecord.approximateCreationDateTime(
+                            seconds == 0.0 ? null : Instant.ofEpochMilli((long) (seconds * 1000.0)));
+                    break;
+                case "Keys":
+                    streamRecord.keys(readAttributeValueMap(parser));
+                    break;
+                case "NewImage":
+                    streamRecord.newImage(readAttributeValueMap(parser));
+                    break;
+                case "OldImage":
+                    streamRecord.oldImage(readAttributeValueMap(parser));
+                    break;
+                case "SequenceNumber":
+                    streamRecord.sequenceNumber(parser.getValueAsString());
+                    break;
+                case "SizeBytes":
+                    streamRecord.sizeBytes(token == JsonToken.VALUE_NULL ? null : parser.getValueAsLong());
+                    break;
+                case "StreamViewType":
+                    streamRecord.streamViewType(parser.getValueAsString());
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return streamRecord.build();
+    }
+
+    private static Identity readIdentity(final JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, parser.getCurrentToken(), JsonToken.START_OBJECT);
+        Identity.Builder identity = Identity.builder();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            if ("principalId".equals(name)) {
+                identity.principalId(parser.getValueAsString());
+            } else if ("type".equals(name)) {
+                identity.type(parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return identity.build();
+    }
+
+    private static Map<String, AttributeValue> readAttributeValueMap(final JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, parser.getCurrentToken(), JsonToken.START_OBJECT);
+        Map<String, AttributeValue> attributeValues = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            attributeValues.put(name, readAttributeValue(parser));
+        }
+        return attributeValues;
+    }
+
+    private static AttributeValue readAttributeValue(final JsonParser parser) throws IOException {
+        expect(parser, parser.getCurrentToken(), JsonToken.START_OBJECT);
+        AttributeValue.Builder value = AttributeValue.builder();
+        boolean hasType = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (name) {
+                case "S":
+                    value.s(parser.getText());
+                    break;
+                case "N":
+                    value.n(parser.getText());
+                    break;
+                case "B":
+                    value.b(SdkBytes.fromByteArrayUnsafe(parser.getBinaryValue()));
+                    break;
+                case "SS":
+                    value.ss(emptyToNull(readStrings(parser)));
+                    break;
+                case "NS":
+                    value.ns(emptyToNull(readStrings(parser)));
+                    break;
+                case "BS":
+                    value.bs(emptyToNull(readBinaries(parser)));
+                    break;
+                case "BOOL":
+                    value.bool(parser.getBooleanValue());
+                    break;
+                case "NULL":
+                    value.nul(parser.getBooleanValue());
+                    break;
+                case "L":
+                    value.l(readAttributeValues(parser));
+                    break;
+                case "M":
+                    value.m(readAttributeValueMap(parser));
+                    break;
+                default:
+                    // unknown members neither make nor unmake a value of a known type
+                    parser.skipChildren();
+                    continue;
+            }
+            hasType = true;
+        }
+        if (!hasType) {
+            throw new JsonParseException(parser, "Unsupported attributeValue type");
+        }
+        return value.build();
+    }
+
+    private static List<String> readStrings(final JsonParser parser) throws IOException {
+        expect(parser, parser.getCurrentToken(), JsonToken.START_ARRAY);
+        List<String> values = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            values.add(parser.getText());
+        }
+        return values;
+    }
+
+    private static List<SdkBytes> readBinaries(final JsonParser parser) throws IOException {
+        expect(parser, parser.getCurrentToken(), JsonToken.START_ARRAY);
+        List<SdkBytes> values = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            values.add(SdkBytes.fromByteArrayUnsafe(parser.getBinaryValue()));
+        }
+        return values;
+    }
+
+    private static List<AttributeValue> readAttributeValues(final JsonParser parser) throws IOException {
+        expect(parser, parser.getCurrentToken(), JsonToken.START_ARRAY);
+        if (parser.nextToken() == JsonToken.END_ARRAY) {
+            return Collections.emptyList();
+        }
+        List<AttributeValue> values = new ArrayList<>();
+        do {
+            values.add(readAttributeValue(parser));
+        } while (parser.nextToken() != JsonToken.END_ARRAY);
+        return values;
+    }
+
+    private static <T> List<T> emptyToNull(final List<T> values) {
+        return values.isEmpty() ? null : values;
+    }
+
+    private static void expect(final JsonParser parser, final JsonToken actual, final JsonToken expected)
+            throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but was " + actual);
+        }
+    }
+}
@@ -1,16 +1,79 @@
 package com.amazonaws.services.lambda.runtime.events.transformers.v2.dynamodb;
 
+import com.amazonaws.services.lambda.runtime.events.transformers.LazyAttributeValueMap;
 import software.amazon.awssdk.core.SdkBytes;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 public class DynamodbAttributeValueTransformer {
 
+    /**
+     * Converts a value and everything nested in it. SDK v2 builders copy the maps and lists they are given, nested
+     * values are therefore converted depth first with an explicit stack, each level built once its children are.
+     */
     public static AttributeValue toAttributeValueV2(final com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue value) {
+        if (!isNested(value)) {
+            return toScalarAttributeValueV2(value);
+        }
+        Deque<NestedValue> stack = new ArrayDeque<>();
+        stack.push(new NestedValue(null, value));
+        while (true) {
+            NestedValue nested = stack.peek();
+            if (nested.hasNext()) {
+                String key = nested.nextKey();
+                com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue child = nested.nextValue();
+                if (isNested(child)) {
+                    stack.push(new NestedValue(key, child));
+                } else {
+                    nested.add(key, toScalarAttributeValueV2(child));
+                }
+                continue;
+            }
+            stack.pop();
+            AttributeValue converted = nested.build();
+            if (stack.isEmpty()) {
+                return converted;
+            }
+            stack.peek().add(nested.key, converted);
+        }
+    }
+
+    /**
+     * @return a view of the map that converts each value when it is first read. The view is copied when it is set on
+     * an SDK v2 builder, it saves conversions when the map is read directly.
+     */
+    public static Map<String, AttributeValue> toAttributeValueMapV2(
+            final Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> attributeValueMap
+    ) {
+        return new LazyAttributeValueMap<>(attributeValueMap, DynamodbAttributeValueTransformer::toAttributeValueV2);
+    }
+
+    /**
+     * @return whether the value is converted from its L or M, the types are checked in the order of
+     * {@link #toScalarAttributeValueV2}
+     */
+    private static boolean isNested(final com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue value) {
+        return Objects.isNull(value.getS())
+                && Objects.isNull(value.getSS())
+                && Objects.isNull(value.getN())
+                && Objects.isNull(value.getNS())
+                && Objects.isNull(value.getB())
+                && Objects.isNull(value.getBS())
+                && Objects.isNull(value.getBOOL())
+                && (Objects.nonNull(value.getL()) || Objects.nonNull(value.getM()));
+    }
+
+    private static AttributeValue toScalarAttributeValueV2(final com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue value) {
         if (Objects.nonNull(value.getS())) {
             return AttributeValue.builder()
                     .s(value.getS())
@@ -37,12 +100,12 @@ public class DynamodbAttributeValueTransformer {
                     .build();
 
         } else if (Objects.nonNull(value.getBS())) {
+            List<SdkBytes> bs = new ArrayList<>(value.getBS().size());
+            for (ByteBuffer b : value.getBS()) {
+                bs.add(SdkBytes.fromByteBuffer(b));
+            }
             return AttributeValue.builder()
-                    .bs(value.getBS().isEmpty()
-                            ? null
-                            : value.getBS().stream()
-                                .map(SdkBytes::fromByteBuffer)
-                                .collect(Collectors.toList()))
+                    .bs(bs.isEmpty() ? null : bs)
                     .build();
 
         } else if (Objects.nonNull(value.getBOOL())) {
@@ -50,20 +113,6 @@ public class DynamodbAttributeValueTransformer {
                     .bool(value.getBOOL())
                     .build();
 
-        } else if (Objects.nonNull(value.getL())) {
-            return AttributeValue.builder()
-                    .l(value.getL().isEmpty()
-                            ? Collections.emptyList()
-                            : value.getL().stream()
-                                .map(DynamodbAttributeValueTransformer::toAttributeValueV2)
-                                .collect(Collectors.toList()))
-                    .build();
-
-        } else if (Objects.nonNull(value.getM())) {
-            return AttributeValue.builder()
-                    .m(toAttributeValueMapV2(value.getM()))
-                    .build();
-
         } else if (Objects.nonNull(value.getNULL())) {
             return AttributeValue.builder()
                     .nul(value.getNULL())
@@ -75,15 +124,55 @@ public class DynamodbAttributeValueTransformer {
         }
     }
 
-    public static Map<String, AttributeValue> toAttributeValueMapV2(
-            final Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> attributeValueMap
-    ) {
-        return attributeValueMap
-                .entrySet()
-                .stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> toAttributeValueV2(entry.getValue())
-                ));
+    /**
+     * An L or M value whose children are being converted
+     */
+    private static final class NestedValue {
+        private final String key;
+        private final Iterator<com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> values;
+        private final Iterator<String> keys;
+        private final List<AttributeValue> l;
+        private final Map<String, AttributeValue> m;
+
+        NestedValue(final String key, final com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue value) {
+            this.key = key;
+            if (Objects.nonNull(value.getL())) {
+                this.values = value.getL().iterator();
+                this.keys = null;
+                this.l = new ArrayList<>(value.getL().size());
+                this.m = null;
+            } else {
+                this.values = value.getM().values().iterator();
+                this.keys = value.getM().keySet().iterator();
+                this.l = null;
+                this.m = new HashMap<>();
+            }
+        }
+
+        boolean hasNext() {
+            return values.hasNext();
+        }
+
+        String nextKey() {
+            return keys != null ? keys.next() : null;
+        }
+
+        com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue nextValue() {
+            return values.next();
+        }
+
+        void add(final String childKey, final AttributeValue child) {
+            if (l != null) {
+                l.add(child);
+            } else {
+                m.put(childKey, child);
+            }
+        }
+
+        AttributeValue build() {
+            return l != null
+                    ? AttributeValue.builder().l(l.isEmpty() ? Collections.emptyList() : l).build()
+                    : AttributeValue.builder().m(m).build();
+        }
     }
 }
@@ -0,0 +1,155 @@
+package com.amazonaws.services.lambda.runtime.events.transformers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+class LazyAttributeValueMapTest {
+
+    private static Map<String, Integer> source() {
+        Map<String, Integer> source = new LinkedHashMap<>();
+        source.put("a", 1);
+        source.put("b", 2);
+        source.put("c", 3);
+        return source;
+    }
+
+    @Test
+    public void testConvertsOnlyTheValuesRead() {
+        AtomicInteger conversions = new AtomicInteger();
+        Function<Integer, String> converter = value -> {
+            conversions.incrementAndGet();
+            return String.valueOf(value);
+        };
+        Map<String, String> map = new LazyAttributeValueMap<>(source(), converter);
+
+        Assertions.assertEquals(3, map.size());
+        Assertions.assertTrue(map.containsKey("c"));
+        Assertions.assertEquals(0, conversions.get());
+
+        Assertions.assertEquals("2", map.get("b"));
+        Assertions.assertEquals("2", map.get("b"));
+        Assertions.assertNull(map.get("d"));
+        Assertions.assertEquals(1, conversions.get());
+    }
+
+    @Test
+    public void testEqualsEagerMap() {
+        Map<String, String> expected = new HashMap<>();
+        expected.put("a", "1");
+        expected.put("b", "2");
+        expected.put("c", "3");
+
+        Map<String, String> map = new LazyAttributeValueMap<>(source(), String::valueOf);
+
+        Assertions.assertEquals(expected, map);
+        Assertions.assertEquals(expected.hashCode(), map.hashCode());
+    }
+
+    @Test
+    public void testChangeDetachesFromSource() {
+        Map<String, Integer> source = source();
+        Map<String, String> map = new LazyAttributeValueMap<>(source, String::valueOf);
+
+        Assertions.assertEquals("1", map.remove("a"));
+        map.put("d", "4");
+        source.put("e", 5);
+
+        Assertions.assertEquals(3, map.size());
+        Assertions.assertFalse(map.containsKey("a"));
+        Assertions.assertEquals("4", map.get("d"));
+        Assertions.assertNull(map.get("e"));
+        Assertions.assertEquals(4, source.size());
+    }
+
+    @Test
+    public void testRemovalThroughViewsDetachesFromSource() {
+        Map<String, Integer> source = source();
+        Map<String, String> map = new LazyAttributeValueMap<>(source, String::valueOf);
+
+        Assertions.assertTrue(map.keySet().remove("a"));
+        Assertions.assertTrue(map.values().remove("2"));
+        Assertions.assertEquals(Collections.singletonMap("c", "3"), map);
+
+        map = new LazyAttributeValueMap<>(source, String::valueOf);
+        Assertions.assertTrue(map.entrySet().removeIf(entry -> !entry.getKey().equals("b")));
+        Assertions.assertEquals(Collections.singletonMap("b", "2"), map);
+
+        map = new LazyAttributeValueMap<>(source, String::valueOf);
+        Iterator<String> keys = map.keySet().iterator();
+        Assertions.assertThrows(IllegalStateException.class, keys::remove);
+        keys.next();
+        keys.remove();
+        Assertions.assertThrows(IllegalStateException.class, keys::remove);
+        Assertions.assertEquals("b", keys.next());
+        Assertions.assertEquals(2, map.size());
+
+        Assertions.assertEquals(source(), source);
+    }
+
+    @Test
+    public void testSettingEntryValueDetachesFromSource() {
+        Map<String, Integer> source = source();
+        Map<String, String> map = new LazyAttributeValueMap<>(source, String::valueOf);
+
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            if (entry.getKey().equals("b")) {
+                Assertions.assertEquals("2", entry.setValue("two"));
+                Assertions.assertEquals("two", entry.getValue());
+            }
+        }
+        source.put("d", 4);
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("a", "1");
+        expected.put("b", "two");
+        expected.put("c", "3");
+        Assertions.assertEquals(expected, map);
+    }
+
+    @Test
+    public void testReadsFromManyThreadsShareConvertedValues() throws InterruptedException {
+        Map<String, Integer> source = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            source.put("key" + i, i);
+        }
+        Map<String, Object> map = new LazyAttributeValueMap<>(source, value -> new Object());
+
+        Object[][] read = new Object[8][source.size()];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[read.length];
+        for (int t = 0; t < threads.length; t++) {
+            Object[] values = read[t];
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = map.get("key" + i);
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int i = 0; i < source.size(); i++) {
+            Object value = map.get("key" + i);
+            for (Object[] values : read) {
+                Assertions.assertSame(value, values[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.amazonaws.services.lambda.runtime.events.transformers.v2;
+
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord;
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Identity;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DynamodbEventDeserializerTest {
+
+    private static final String json = "{\"Records\":[{"
+            + "\"eventID\":\"1\",\"eventName\":\"MODIFY\",\"eventVersion\":\"1.1\",\"eventSource\":\"aws:dynamodb\","
+            + "\"awsRegion\":\"us-west-2\","
+            + "\"eventSourceARN\":\"arn:aws:dynamodb:us-west-2:account-id:table/ExampleTableWithStream/stream/2015-06-27T00:48:05.899\","
+            + "\"dynamodb\":{"
+            + "\"ApproximateCreationDateTime\":1.479499740E9,"
+            + "\"Keys\":{\"Id\":{\"N\":\"101\"}},"
+            + "\"NewImage\":{"
+            + "\"S\":{\"S\":\"New item!\"},\"SS\":{\"SS\":[\"a\",\"b\"]},\"NS\":{\"NS\":[\"1\",\"2\"]},"
+            + "\"B\":{\"B\":\"SGVsbG8=\"},\"BS\":{\"BS\":[\"SGk=\",\"\"]},\"BOOL\":{\"BOOL\":true},\"NULL\":{\"NULL\":true},"
+            + "\"L\":{\"L\":[{\"S\":\"x\"},{\"N\":\"1\"}]},\"EmptyL\":{\"L\":[]},\"EmptySS\":{\"SS\":[]},"
+            + "\"M\":{\"M\":{\"Nested\":{\"M\":{\"Inner\":{\"BOOL\":false}}}}}},"
+            + "\"OldImage\":null,"
+            + "\"SequenceNumber\":\"222\",\"SizeBytes\":59,\"StreamViewType\":\"NEW_AND_OLD_IMAGES\"},"
+            + "\"userIdentity\":{\"principalId\":\"dynamodb.amazonaws.com\",\"type\":\"Service\"}"
+            + "},null,{\"eventID\":\"2\",\"eventName\":\"REMOVE\",\"dynamodb\":{\"Keys\":{\"Id\":{\"N\":\"102\"}}}}]}";
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testToRecordsV2() throws IOException {
+        List<Record> records = DynamodbEventDeserializer.toRecordsV2(stream(json));
+
+        Assertions.assertEquals(2, records.size());
+        Record record = records.get(0);
+        Assertions.assertEquals("1", record.eventID());
+        Assertions.assertEquals("MODIFY", record.eventNameAsString());
+        Assertions.assertEquals("1.1", record.eventVersion());
+        Assertions.assertEquals("aws:dynamodb", record.eventSource());
+        Assertions.assertEquals("us-west-2", record.awsRegion());
+        Assertions.assertEquals(Identity.builder().principalId("dynamodb.amazonaws.com").type("Service").build(),
+                record.userIdentity());
+        Assertions.assertEquals(1479499740000L, record.dynamodb().approximateCreationDateTime().toEpochMilli());
+        Assertions.assertEquals(Collections.singletonMap("Id", AttributeValue.builder().n("101").build()),
+                record.dynamodb().keys());
+        Assertions.assertFalse(record.dynamodb().hasOldImage());
+        Assertions.assertEquals("222", record.dynamodb().sequenceNumber());
+        Assertions.assertEquals(59L, record.dynamodb().sizeBytes());
+        Assertions.assertEquals("NEW_AND_OLD_IMAGES", record.dynamodb().streamViewTypeAsString());
+
+        Map<String, AttributeValue> newImage = record.dynamodb().newImage();
+        Assertions.assertEquals("New item!", newImage.get("S").s());
+        Assertions.assertEquals(Arrays.asList("a", "b"), newImage.get("SS").ss());
+        Assertions.assertEquals(Arrays.asList("1", "2"), newImage.get("NS").ns());
+        Assertions.assertEquals("Hello", newImage.get("B").b().asUtf8String());
+        Assertions.assertEquals(Arrays.asList(SdkBytes.fromUtf8String("Hi"), SdkBytes.fromUtf8String("")),
+                newImage.get("BS").bs());
+        Assertions.assertTrue(newImage.get("BOOL").bool());
+        Assertions.assertTrue(newImage.get("NULL").nul());
+        Assertions.assertEquals(Arrays.asList(AttributeValue.builder().s("x").build(), AttributeValue.builder().n("1").build()),
+                newImage.get("L").l());
+        Assertions.assertTrue(newImage.get("EmptyL").hasL());
+        Assertions.assertFalse(newImage.get("EmptySS").hasSs());
+        Assertions.assertFalse(newImage.get("M").m().get("Nested").m().get("Inner").bool());
+
+        Assertions.assertEquals("2", records.get(1).eventID());
+        Assertions.assertNull(records.get(1).userIdentity());
+    }
+
+    @Test
+    public void testToRecordsV2MatchesDynamodbEventTransformer() throws IOException {
+        Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> image = new HashMap<>();
+        image.put("Id", new com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue().withN("101"));
+        image.put("Image", new com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue()
+                .withB(ByteBuffer.wrap("Hello".getBytes(StandardCharsets.UTF_8))));
+        image.put("Tags", new com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue()
+                .withL(new com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue().withS("a")));
+        DynamodbEvent.DynamodbStreamRecord record = new DynamodbEvent.DynamodbStreamRecord();
+        record.setEventID("1");
+        record.setEventName("INSERT");
+        record.setDynamodb(new StreamRecord()
+                .withApproximateCreationDateTime(new Date(1479499740000L))
+                .withKeys(Collections.singletonMap("Id", image.get("Id")))
+                .withNewImage(image)
+                .withSequenceNumber("1")
+                .withSizeBytes(26L)
+                .withStreamViewType(com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamViewType.NEW_IMAGE));
+        DynamodbEvent event = new DynamodbEvent();
+        event.setRecords(Collections.singletonList(record));
+
+        List<Record> records = DynamodbEventDeserializer.toRecordsV2(stream("{\"Records\":[{\"eventID\":\"1\","
+                + "\"eventName\":\"INSERT\",\"dynamodb\":{\"ApproximateCreationDateTime\":1479499740,"
+                + "\"Keys\":{\"Id\":{\"N\":\"101\"}},\"NewImage\":{\"Id\":{\"N\":\"101\"},\"Image\":{\"B\":\"SGVsbG8=\"},"
+                + "\"Tags\":{\"L\":[{\"S\":\"a\"}]}},\"SequenceNumber\":\"1\",\"SizeBytes\":26,"
+                + "\"StreamViewType\":\"NEW_IMAGE\"}}]}"));
+
+        Assertions.assertEquals(DynamodbEventTransformer.toRecordsV2(event), records);
+    }
+
+    @Test
+    public void testToRecordsV2RejectsUnsupportedAttributeValue() {
+        Assertions.assertThrows(JsonParseException.class, () -> DynamodbEventDeserializer.toRecordsV2(
+                stream("{\"Records\":[{\"dynamodb\":{\"Keys\":{\"Id\":{\"X\":\"1\"}}}}]}")));
+    }
+
+    @Test
+    public void testToRecordsV2SkipsUnknownMembersOfAttributeValue() throws IOException {
+        List<Record> records = DynamodbEventDeserializer.toRecordsV2(stream(
+                "{\"Records\":[{\"dynamodb\":{\"Keys\":{\"Id\":{\"S\":\"a\",\"X\":1},"
+                        + "\"Other\":{\"X\":{\"Y\":2},\"N\":\"1\"}}}}]}"));
+
+        Map<String, AttributeValue> keys = records.get(0).dynamodb().keys();
+        Assertions.assertEquals(AttributeValue.builder().s("a").build(), keys.get("Id"));
+        Assertions.assertEquals(AttributeValue.builder().n("1").build(), keys.get("Other"));
+    }
+}
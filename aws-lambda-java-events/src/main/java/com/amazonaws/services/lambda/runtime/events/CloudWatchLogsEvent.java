@@ -13,6 +13,10 @@
 
 package com.amazonaws.services.lambda.runtime.events;
 
+import com.amazonaws.services.lambda.runtime.events.models.Base64Binary;
+import com.amazonaws.services.lambda.runtime.events.models.cloudwatchlogs.LogEventFilter;
+import com.amazonaws.services.lambda.runtime.events.models.cloudwatchlogs.LogEventReader;
+
 import java.io.Serializable;
 
 /**
@@ -61,6 +65,30 @@ public class CloudWatchLogsEvent implements Serializable, Cloneable {
             return this;
         }
 
+        /**
+         * Decodes the data as it is read, without holding the decompressed JSON or all of its log events.
+         *
+         * @return a reader of the log group, log stream and log events of the data
+         * @throws IllegalStateException if there is no data
+         */
+        public LogEventReader readLogEvents() {
+            return readLogEvents(null);
+        }
+
+        /**
+         * Decodes the data as it is read, without holding the decompressed JSON or all of its log events.
+         *
+         * @param filter selects the log events to return before they are created, or null for all of them
+         * @return a reader of the log group, log stream and log events of the data
+         * @throws IllegalStateException if there is no data
+         */
+        public LogEventReader readLogEvents(LogEventFilter filter) {
+            if (data == null) {
+                throw new IllegalStateException("No data to read log events from");
+            }
+            return new LogEventReader(Base64Binary.decodingStream(data), filter);
+        }
+
         /**
          * Returns a string representation of this object; useful for testing and debugging.
          *
@@ -12,6 +12,7 @@
  */
 package com.amazonaws.services.lambda.runtime.events;
 
+import com.amazonaws.services.lambda.runtime.events.models.kafka.KafkaPartition;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -29,6 +30,16 @@ public class KafkaEvent {
     private String eventSource;
     private String eventSourceArn;
     private String bootstrapServers;
+
+    /**
+     * Groups the records by topic partition, each in offset order. Keys, values and headers of the records are decoded
+     * when they are first read.
+     *
+     * @return the topic partitions of the records
+     */
+    public List<KafkaPartition> readPartitions() {
+        return KafkaPartition.of(this);
+    }
     
     @Data
     @NoArgsConstructor
@@ -13,6 +13,8 @@
 
 package com.amazonaws.services.lambda.runtime.events;
 
+import com.amazonaws.services.lambda.runtime.events.models.Base64Binary;
+
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
@@ -47,6 +49,11 @@ public class KinesisFirehoseEvent implements Serializable, Cloneable {
          */
         private ByteBuffer data;
 
+        /**
+         * The data blob as base64 text, as received in the event. It is decoded into {@link #data} on first access.
+         */
+        private String encodedData;
+
         private String recordId;
 
         private Long approximateArrivalEpoch;
@@ -82,6 +89,7 @@ public class KinesisFirehoseEvent implements Serializable, Cloneable {
          */
         public void setData(ByteBuffer data) {
             this.data = data;
+            this.encodedData = null;
         }
 
         /**
@@ -101,9 +109,50 @@ public class KinesisFirehoseEvent implements Serializable, Cloneable {
          *         before base64-encoding, is 1,000 KB.
          */
         public ByteBuffer getData() {
+            if (this.data == null && this.encodedData != null) {
+                this.data = Base64Binary.decode(this.encodedData);
+            }
             return this.data;
         }
 
+        /**
+         * Sets the data blob as base64 text. The text is only decoded when {@link #getData()} is called, so records
+         * that are forwarded unchanged are never decoded.
+         *
+         * @param encodedData the data blob, base64-encoded
+         */
+        public void setEncodedData(String encodedData) {
+            this.encodedData = encodedData;
+            this.data = null;
+        }
+
+        /**
+         * @return the data blob as base64 text, the text received in the event unless the data was set with
+         *         {@link #setData(ByteBuffer)}, in which case it is encoded
+         */
+        public String getEncodedData() {
+            return this.encodedData != null ? this.encodedData : Base64Binary.encode(this.data);
+        }
+
+        /**
+         * Decodes the data blob into a buffer, starting at its position, without decoding it into a buffer of its own
+         * first. The position of the buffer is advanced by the size of the data.
+         *
+         * @param destination buffer to write the data to, with at least as much space remaining as the size of the data
+         * @return the size of the data, or -1 if the record has no data
+         */
+        public int decodeData(ByteBuffer destination) {
+            if (this.encodedData != null) {
+                return Base64Binary.decode(this.encodedData, destination);
+            }
+            if (this.data == null) {
+                return -1;
+            }
+            int size = this.data.remaining();
+            destination.put(this.data.duplicate());
+            return size;
+        }
+
         /**
          * @return record id
          */
@@ -4,6 +4,8 @@
 
 package com.amazonaws.services.lambda.runtime.events;
 
+import com.amazonaws.services.lambda.runtime.events.models.Base64Binary;
+
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.util.List;
@@ -30,6 +32,10 @@ public class SQSEvent implements Serializable, Cloneable {
 
         private List<ByteBuffer> binaryListValues;
 
+        private String encodedBinaryValue;
+
+        private List<String> encodedBinaryListValues;
+
         private String dataType;
 
         /**
@@ -58,6 +64,9 @@ public class SQSEvent implements Serializable, Cloneable {
          * @return binaryValue
          */
         public ByteBuffer getBinaryValue() {
+            if (binaryValue == null && encodedBinaryValue != null) {
+                binaryValue = Base64Binary.decode(encodedBinaryValue);
+            }
             return binaryValue;
         }
 
@@ -67,6 +76,44 @@ public class SQSEvent implements Serializable, Cloneable {
          */
         public void setBinaryValue(ByteBuffer binaryValue) {
             this.binaryValue = binaryValue;
+            this.encodedBinaryValue = null;
+        }
+
+        /**
+         * Gets the value of message attribute of type Binary as base64 text, the text received in the event unless
+         * the value was set with {@link #setBinaryValue(ByteBuffer)}
+         * @return encodedBinaryValue
+         */
+        public String getEncodedBinaryValue() {
+            return encodedBinaryValue != null ? encodedBinaryValue : Base64Binary.encode(binaryValue);
+        }
+
+        /**
+         * Sets the value of message attribute of type Binary as base64 text, which is only decoded when
+         * {@link #getBinaryValue()} is called
+         * @param encodedBinaryValue A base64 string representing the value of attribute of type Binary
+         */
+        public void setEncodedBinaryValue(String encodedBinaryValue) {
+            this.encodedBinaryValue = encodedBinaryValue;
+            this.binaryValue = null;
+        }
+
+        /**
+         * Decodes the value of message attribute of type Binary into a buffer, starting at its position, without
+         * decoding it into a buffer of its own first. The position of the buffer is advanced by the size of the value.
+         * @param destination buffer to write the value to, with at least as much space remaining as its size
+         * @return the size of the value, or -1 if the attribute has no Binary value
+         */
+        public int decodeBinaryValue(ByteBuffer destination) {
+            if (encodedBinaryValue != null) {
+                return Base64Binary.decode(encodedBinaryValue, destination);
+            }
+            if (binaryValue == null) {
+                return -1;
+            }
+            int size = binaryValue.remaining();
+            destination.put(binaryValue.duplicate());
+            return size;
         }
 
         /**
@@ -90,6 +137,9 @@ public class SQSEvent implements Serializable, Cloneable {
          * @return binaryListValues
          */
         public List<ByteBuffer> getBinaryListValues() {
+            if (binaryListValues == null && encodedBinaryListValues != null) {
+                binaryListValues = Base64Binary.decode(encodedBinaryListValues);
+            }
             return binaryListValues;
         }
 
@@ -99,6 +149,26 @@ public class SQSEvent implements Serializable, Cloneable {
          */
         public void setBinaryListValues(List<ByteBuffer> binaryListValues) {
             this.binaryListValues = binaryListValues;
+            this.encodedBinaryListValues = null;
+        }
+
+        /**
+         * Gets the list of Binary values of message attribute as base64 texts, the texts received in the event unless
+         * the values were set with {@link #setBinaryListValues(List)}
+         * @return encodedBinaryListValues
+         */
+        public List<String> getEncodedBinaryListValues() {
+            return encodedBinaryListValues != null ? encodedBinaryListValues : Base64Binary.encode(binaryListValues);
+        }
+
+        /**
+         * Sets the list of Binary values of message attribute as base64 texts, which are only decoded when
+         * {@link #getBinaryListValues()} is called
+         * @param encodedBinaryListValues A list of base64 strings representing the value of attribute
+         */
+        public void setEncodedBinaryListValues(List<String> encodedBinaryListValues) {
+            this.encodedBinaryListValues = encodedBinaryListValues;
+            this.binaryListValues = null;
         }
 
         /**
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.amazonaws.services.lambda.runtime.events.models;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Base64 conversions of the binary fields of events. Events keep binary fields as the base64 text of the payload and
+ * decode it on first access, these helpers decode and encode with the basic alphabet of RFC 4648 used by Lambda.
+ */
+public final class Base64Binary {
+
+    private static final byte[] DECODE_TABLE = decodeTable();
+
+    private Base64Binary() {
+    }
+
+    /**
+     * @param encoded base64 text, or null
+     * @return a buffer with the decoded bytes, or null
+     * @throws IllegalArgumentException if the text is not valid base64
+     */
+    public static ByteBuffer decode(String encoded) {
+        if (encoded == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(decodedLength(encoded));
+        decode(encoded, buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * @param encoded list of base64 texts, or null
+     * @return a list of buffers with the decoded bytes, or null
+     * @throws IllegalArgumentException if a text is not valid base64
+     */
+    public static List<ByteBuffer> decode(List<String> encoded) {
+        if (encoded == null) {
+            return null;
+        }
+        List<ByteBuffer> decoded = new ArrayList<>(encoded.size());
+        for (String element : encoded) {
+            decoded.add(decode(element));
+        }
+        return decoded;
+    }
+
+    /**
+     * Decodes base64 text into a buffer, starting at its position, without any intermediate copy. The position of the
+     * buffer is advanced by the number of decoded bytes.
+     *
+     * @param encoded base64 text
+     * @param destination buffer to write the decoded bytes to
+     * @return number of decoded bytes
+     * @throws IllegalArgumentException if the text is not valid base64, nothing is written then
+     * @throws BufferOverflowException if the buffer has less remaining space than {@link #decodedLength(String)}
+     */
+    public static int decode(String encoded, ByteBuffer destination) {
+        int length = decodedLength(encoded);
+        if (destination.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        int end = encoded.length() - padding(encoded);
+        int start = destination.position();
+        int bits = 0;
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            char c = encoded.charAt(i);
+            int value = c < DECODE_TABLE.length ? DECODE_TABLE[c] : -1;
+            if (value < 0) {
+                destination.position(start);
+                throw new IllegalArgumentException("Illegal base64 character " + Integer.toHexString(c));
+            }
+            bits = bits << 6 | value;
+            if (++count == 4) {
+                destination.put((byte) (bits >> 16)).put((byte) (bits >> 8)).put((byte) bits);
+                bits = 0;
+                count = 0;
+            }
+        }
+        if (count == 3) {
+            destination.put((byte) (bits >> 10)).put((byte) (bits >> 2));
+        } else if (count == 2) {
+            destination.put((byte) (bits >> 4));
+        }
+        return length;
+    }
+
+    /**
+     * Decodes base64 text as it is read, so a large payload can be processed without holding all of its bytes.
+     *
+     * @param encoded base64 text
+     * @return a stream of the decoded bytes, which throws an IOException on invalid base64
+     */
+    public static InputStream decodingStream(String encoded) {
+        return new DecodingInputStream(encoded);
+    }
+
+    /**
+     * @param encoded base64 text
+     * @return number of bytes the text decodes to
+     * @throws IllegalArgumentException if the text has an invalid length
+     */
+    public static int decodedLength(String encoded) {
+        int length = encoded.length() - padding(encoded);
+        if (length % 4 == 1) {
+            throw new IllegalArgumentException("Invalid base64 length " + encoded.length());
+        }
+        return length / 4 * 3 + Math.max(length % 4 - 1, 0);
+    }
+
+    /**
+     * @param data buffer whose remaining bytes to encode, its position is not changed
+     * @return base64 text, or null
+     */
+    public static String encode(ByteBuffer data) {
+        if (data == null) {
+            return null;
+        }
+        ByteBuffer encoded = Base64.getEncoder().encode(data.duplicate());
+        return new String(encoded.array(), encoded.arrayOffset() + encoded.position(), encoded.remaining(),
+                StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @param data list of buffers whose remaining bytes to encode, or null
+     * @return list of base64 texts, or null
+     */
+    public static List<String> encode(List<ByteBuffer> data) {
+        if (data == null) {
+            return null;
+        }
+        List<String> encoded = new ArrayList<>(data.size());
+        for (ByteBuffer element : data) {
+            encoded.add(encode(element));
+        }
+        return encoded;
+    }
+
+    private static int padding(String encoded) {
+        int length = encoded.length();
+        if (length > 0 && encoded.charAt(length - 1) == '=') {
+            return length > 1 && encoded.charAt(length - 2) == '=' ? 2 : 1;
+        }
+        return 0;
+    }
+
+    private static final class DecodingInputStream extends InputStream {
+        private final String encoded;
+        private final int end;
+        private int index;
+        // decoded bytes not read yet, the first one in the highest bits
+        private int pending;
+        private int pendingCount;
+
+        private DecodingInputStream(String encoded) {
+            this.encoded = encoded;
+            this.end = encoded.length() - padding(encoded);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int n = 0;
+            while (n < len) {
+                if (pendingCount > 0) {
+                    b[off + n++] = (byte) (pending >> 8 * --pendingCount);
+                    continue;
+                }
+                if (index >= end) {
+                    break;
+                }
+                int bits = 0;
+                int count = 0;
+                while (count < 4 && index < end) {
+                    char c = encoded.charAt(index++);
+                    int value = c < DECODE_TABLE.length ? DECODE_TABLE[c] : -1;
+                    if (value < 0) {
+                        throw new IOException("Illegal base64 character " + Integer.toHexString(c));
+                    }
+                    bits = bits << 6 | value;
+                    count++;
+                }
+                if (count == 1) {
+                    throw new IOException("Invalid base64 length " + encoded.length());
+                }
+                // 4 characters decode to 3 bytes, a final 3 or 2 to 2 or 1
+                pendingCount = count - 1;
+                pending = bits >> 2 * (4 - count);
+            }
+            return n == 0 ? -1 : n;
+        }
+    }
+
+    private static byte[] decodeTable() {
+        byte[] table = new byte[128];
+        Arrays.fill(table, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            table[alphabet.charAt(i)] = (byte) i;
+        }
+        return table;
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package com.amazonaws.services.lambda.runtime.events.models.cloudwatchlogs;
+
+/**
+ * Selects the log events a {@link LogEventReader} returns. The filter sees the fields of a log event before a
+ * {@link LogEvent} is created for it, a rejected log event allocates no strings.
+ */
+@FunctionalInterface
+public interface LogEventFilter {
+
+    /**
+     * @param timestamp the timestamp of the log event, in milliseconds since the epoch
+     * @param message the message of the log event, only valid for the duration of the call
+     * @return whether the reader returns the log event
+     */
+    boolean accept(long timestamp, CharSequence message);
+}
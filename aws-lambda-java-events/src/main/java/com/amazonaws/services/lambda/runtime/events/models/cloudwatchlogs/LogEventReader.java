@@ -0,0 +1,537 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package com.amazonaws.services.lambda.runtime.events.models.cloudwatchlogs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * <p>
+ * Reads the data of a CloudWatch Logs subscription as it is decompressed: the data is gzipped JSON with the fields
+ * messageType, owner, logGroup, logStream, subscriptionFilters and logEvents. The fields other than logEvents are read
+ * when the reader is created, the log events one per {@link #next()}, so the memory used does not grow with the number
+ * of log events.
+ * </p>
+ * <p>
+ * Fields that follow the log events in the data are set once {@link #hasNext()} has returned false. A reader that is
+ * not read to the end should be closed.
+ * </p>
+ *
+ * @see com.amazonaws.services.lambda.runtime.events.CloudWatchLogsEvent.AWSLogs#readLogEvents()
+ */
+public final class LogEventReader implements Iterator<LogEvent>, Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final LogEventFilter filter;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder name = new StringBuilder();
+    private final StringBuilder text = new StringBuilder();
+    private final StringBuilder id = new StringBuilder();
+    private final StringBuilder message = new StringBuilder();
+    private int position;
+    private int limit;
+
+    private String messageType;
+    private String owner;
+    private String logGroup;
+    private String logStream;
+    private List<String> subscriptionFilters;
+
+    private boolean inLogEvents;
+    private boolean firstLogEvent;
+    private boolean finished;
+    private LogEvent next;
+
+    /**
+     * @param data the gzipped JSON data of a subscription, base64 decoded
+     */
+    public LogEventReader(InputStream data) {
+        this(data, null);
+    }
+
+    /**
+     * @param data the gzipped JSON data of a subscription, base64 decoded
+     * @param filter selects the log events to return, or null for all of them
+     */
+    public LogEventReader(InputStream data, LogEventFilter filter) {
+        this.filter = filter;
+        try {
+            this.reader = new InputStreamReader(new GZIPInputStream(data, BUFFER_SIZE), StandardCharsets.UTF_8);
+            if (read() != '{') {
+                throw malformed("expected an object");
+            }
+            if (peek() == '}') {
+                read();
+                finished = true;
+            } else {
+                readFields(true);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return DATA_MESSAGE for log events, CONTROL_MESSAGE for the message CloudWatch Logs sends to check the
+     * destination
+     */
+    public String getMessageType() {
+        return messageType;
+    }
+
+    /**
+     * @return The AWS account ID of the log group.
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * @return The name of the log group.
+     */
+    public String getLogGroup() {
+        return logGroup;
+    }
+
+    /**
+     * @return The name of the log stream.
+     */
+    public String getLogStream() {
+        return logStream;
+    }
+
+    /**
+     * @return The names of the subscription filters that matched the log events.
+     */
+    public List<String> getSubscriptionFilters() {
+        return subscriptionFilters;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = readLogEvent();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public LogEvent next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        LogEvent logEvent = next;
+        next = null;
+        return logEvent;
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+        next = null;
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the next accepted log event, or null once the log events are exhausted and the remaining fields have been
+     * read
+     */
+    private LogEvent readLogEvent() throws IOException {
+        while (!finished) {
+            if (!inLogEvents) {
+                readFields(false);
+                continue;
+            }
+            int c = read();
+            if (c == ']') {
+                inLogEvents = false;
+                continue;
+            }
+            if (!firstLogEvent) {
+                if (c != ',') {
+                    throw malformed("expected , or ] after a log event");
+                }
+                c = read();
+            }
+            firstLogEvent = false;
+            if (c != '{') {
+                throw malformed("expected a log event object");
+            }
+            LogEvent logEvent = readLogEventFields();
+            if (logEvent != null) {
+                return logEvent;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the fields of a log event after its opening brace. The filter is applied as soon as the timestamp and
+     * message are read, the remaining fields of a rejected log event are skipped.
+     *
+     * @return the log event, or null if the filter rejects it
+     */
+    private LogEvent readLogEventFields() throws IOException {
+        boolean hasId = false;
+        boolean hasTimestamp = false;
+        boolean hasMessage = false;
+        long timestamp = 0;
+        Map<String, String> extractedFields = null;
+        boolean filtered = filter == null;
+        boolean accepted = true;
+        message.setLength(0);
+
+        if (peek() == '}') {
+            read();
+        } else {
+            do {
+                readName();
+                if (!accepted) {
+                    skipValue();
+                } else if ("id".contentEquals(name)) {
+                    hasId = readNullableString(id);
+                } else if ("timestamp".contentEquals(name)) {
+                    timestamp = readLong();
+                    hasTimestamp = true;
+                } else if ("message".contentEquals(name)) {
+                    hasMessage = readNullableString(message);
+                } else if ("extractedFields".contentEquals(name)) {
+                    extractedFields = readStringMap();
+                } else {
+                    skipValue();
+                }
+                if (!filtered && hasTimestamp && hasMessage) {
+                    accepted = filter.accept(timestamp, message);
+                    filtered = true;
+                }
+            } while (nextMember());
+        }
+
+        if (!filtered) {
+            accepted = filter.accept(timestamp, message);
+        }
+        if (!accepted) {
+            return null;
+        }
+        return new LogEvent(hasId ? id.toString() : null, timestamp, hasMessage ? message.toString() : null,
+                extractedFields);
+    }
+
+    /**
+     * Reads the fields of the data up to the start of the log events, or to its end
+     *
+     * @param first whether no field has been read yet
+     */
+    private void readFields(boolean first) throws IOException {
+        if (!first && !nextMember()) {
+            finished = true;
+            return;
+        }
+        do {
+            readName();
+            if ("logEvents".contentEquals(name)) {
+                if (peek() == '[') {
+                    read();
+                    inLogEvents = true;
+                    firstLogEvent = true;
+                    return;
+                }
+                skipValue();
+            } else if ("messageType".contentEquals(name)) {
+                messageType = readNullableString();
+            } else if ("owner".contentEquals(name)) {
+                owner = readNullableString();
+            } else if ("logGroup".contentEquals(name)) {
+                logGroup = readNullableString();
+            } else if ("logStream".contentEquals(name)) {
+                logStream = readNullableString();
+            } else if ("subscriptionFilters".contentEquals(name)) {
+                subscriptionFilters = readStringList();
+            } else {
+                skipValue();
+            }
+        } while (nextMember());
+        finished = true;
+    }
+
+    /**
+     * @return true after a comma, false after the closing brace of the object
+     */
+    private boolean nextMember() throws IOException {
+        int c = read();
+        if (c == ',') {
+            return true;
+        }
+        if (c != '}') {
+            throw malformed("expected , or } after a field");
+        }
+        return false;
+    }
+
+    private void readName() throws IOException {
+        name.setLength(0);
+        readString(name);
+        if (read() != ':') {
+            throw malformed("expected : after a field name");
+        }
+    }
+
+    private String readNullableString() throws IOException {
+        return readNullableString(text) ? text.toString() : null;
+    }
+
+    /**
+     * @return false if the value is null, the builder is then empty
+     */
+    private boolean readNullableString(StringBuilder value) throws IOException {
+        value.setLength(0);
+        if (peek() == 'n') {
+            skipValue();
+            return false;
+        }
+        readString(value);
+        return true;
+    }
+
+    private List<String> readStringList() throws IOException {
+        if (peek() == 'n') {
+            skipValue();
+            return null;
+        }
+        if (read() != '[') {
+            throw malformed("expected an array");
+        }
+        List<String> values = new ArrayList<>();
+        if (peek() == ']') {
+            read();
+            return values;
+        }
+        int c;
+        do {
+            values.add(readNullableString());
+        } while ((c = read()) == ',');
+        if (c != ']') {
+            throw malformed("expected , or ] after an array element");
+        }
+        return values;
+    }
+
+    /**
+     * Reads an object of string values, values of other types are skipped
+     */
+    private Map<String, String> readStringMap() throws IOException {
+        if (peek() == 'n') {
+            skipValue();
+            return null;
+        }
+        if (read() != '{') {
+            throw malformed("expected an object");
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        if (peek() == '}') {
+            read();
+            return values;
+        }
+        do {
+            readName();
+            int c = peek();
+            if (c == '"' || c == 'n') {
+                values.put(name.toString(), readNullableString());
+            } else {
+                skipValue();
+            }
+        } while (nextMember());
+        return values;
+    }
+
+    private long readLong() throws IOException {
+        boolean negative = peek() == '-';
+        if (negative) {
+            position++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (position < limit || fill()) {
+            char c = buffer[position];
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
+            digits++;
+            position++;
+        }
+        if (digits == 0) {
+            throw malformed("expected an integer");
+        }
+        return negative ? -value : value;
+    }
+
+    private void readString(StringBuilder value) throws IOException {
+        if (read() != '"') {
+            throw malformed("expected a string");
+        }
+        readStringBody(value);
+    }
+
+    /**
+     * Reads a string after its opening quote
+     *
+     * @param value builder to append the string to, or null to skip it
+     */
+    private void readStringBody(StringBuilder value) throws IOException {
+        while (true) {
+            int start = position;
+            while (position < limit && buffer[position] != '"' && buffer[position] != '\\') {
+                position++;
+            }
+            if (value != null) {
+                value.append(buffer, start, position - start);
+            }
+            if (position == limit) {
+                if (!fill()) {
+                    throw malformed("unterminated string");
+                }
+                continue;
+            }
+            if (buffer[position++] == '"') {
+                return;
+            }
+            char escaped = readChar();
+            switch (escaped) {
+                case 'b': escaped = '\b'; break;
+                case 'f': escaped = '\f'; break;
+                case 'n': escaped = '\n'; break;
+                case 'r': escaped = '\r'; break;
+                case 't': escaped = '\t'; break;
+                case 'u': escaped = (char) (hex(readChar()) << 12 | hex(readChar()) << 8 | hex(readChar()) << 4
+                        | hex(readChar())); break;
+                case '"':
+                case '\\':
+                case '/':
+                    break;
+                default:
+                    throw malformed("invalid escape \\" + escaped);
+            }
+            if (value != null) {
+                value.append(escaped);
+            }
+        }
+    }
+
+    private void skipValue() throws IOException {
+        int c = peek();
+        if (c == '"') {
+            readString(null);
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = read();
+                if (c == '"') {
+                    readStringBody(null);
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                } else if (c < 0) {
+                    throw malformed("unexpected end of data");
+                }
+            } while (depth > 0);
+        } else {
+            // a number or a literal
+            int length = 0;
+            while ((position < limit || fill()) && ",}] \t\r\n".indexOf(buffer[position]) < 0) {
+                position++;
+                length++;
+            }
+            if (length == 0) {
+                throw malformed(c < 0 ? "unexpected end of data" : "unexpected character " + (char) c);
+            }
+        }
+    }
+
+    private int hex(char c) {
+        int value = Character.digit(c, 16);
+        if (value < 0) {
+            throw malformed("invalid hex digit " + c);
+        }
+        return value;
+    }
+
+    /**
+     * @return the next character that is not whitespace, without consuming it, or -1 at the end of the data
+     */
+    private int peek() throws IOException {
+        while (position < limit || fill()) {
+            char c = buffer[position];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+            position++;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the next character that is not whitespace, or -1 at the end of the data
+     */
+    private int read() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            position++;
+        }
+        return c;
+    }
+
+    private char readChar() throws IOException {
+        if (position == limit && !fill()) {
+            throw malformed("unexpected end of data");
+        }
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        int n = reader.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    private IllegalArgumentException malformed(String reason) {
+        return new IllegalArgumentException("Malformed CloudWatch Logs data: " + reason);
+    }
+}
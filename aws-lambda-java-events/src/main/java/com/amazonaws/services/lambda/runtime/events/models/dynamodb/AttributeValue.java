@@ -12,6 +12,8 @@
  */
 package com.amazonaws.services.lambda.runtime.events.models.dynamodb;
 
+import com.amazonaws.services.lambda.runtime.events.models.Base64Binary;
+
 import java.io.Serializable;
 
 /**
@@ -63,6 +65,13 @@ public class AttributeValue implements Serializable, Cloneable {
      * </p>
      */
     private java.nio.ByteBuffer b;
+    /**
+     * <p>
+     * An attribute of type Binary as base64 text, as received in the event. It is decoded into {@link #b} on first
+     * access.
+     * </p>
+     */
+    private String encodedB;
     /**
      * <p>
      * An attribute of type String Set. For example:
@@ -94,6 +103,13 @@ public class AttributeValue implements Serializable, Cloneable {
      * </p>
      */
     private java.util.List<java.nio.ByteBuffer> bS;
+    /**
+     * <p>
+     * An attribute of type Binary Set as base64 texts, as received in the event. It is decoded into {@link #bS} on
+     * first access.
+     * </p>
+     */
+    private java.util.List<String> encodedBS;
     /**
      * <p>
      * An attribute of type Map. For example:
@@ -324,6 +340,7 @@ public class AttributeValue implements Serializable, Cloneable {
 
     public void setB(java.nio.ByteBuffer b) {
         this.b = b;
+        this.encodedB = null;
     }
 
     /**
@@ -347,9 +364,63 @@ public class AttributeValue implements Serializable, Cloneable {
      */
 
     public java.nio.ByteBuffer getB() {
+        if (this.b == null && this.encodedB != null) {
+            this.b = Base64Binary.decode(this.encodedB);
+        }
         return this.b;
     }
 
+    /**
+     * <p>
+     * Sets an attribute of type Binary as base64 text. The text is only decoded when {@link #getB()} is called, so
+     * attributes that are forwarded unchanged are never decoded.
+     * </p>
+     *
+     * @param encodedB
+     *        An attribute of type Binary, base64-encoded.
+     */
+
+    public void setEncodedB(String encodedB) {
+        this.encodedB = encodedB;
+        this.b = null;
+    }
+
+    /**
+     * <p>
+     * An attribute of type Binary as base64 text. This is the text received in the event, unless the attribute was
+     * set with {@link #setB(java.nio.ByteBuffer)}, in which case it is encoded.
+     * </p>
+     *
+     * @return An attribute of type Binary, base64-encoded.
+     */
+
+    public String getEncodedB() {
+        return this.encodedB != null ? this.encodedB : Base64Binary.encode(this.b);
+    }
+
+    /**
+     * <p>
+     * Decodes an attribute of type Binary into a buffer, starting at its position, without decoding it into a buffer
+     * of its own first. The position of the buffer is advanced by the size of the attribute.
+     * </p>
+     *
+     * @param destination
+     *        Buffer to write the attribute to, with at least as much space remaining as the size of the attribute.
+     * @return The size of the attribute, or -1 if this is not an attribute of type Binary.
+     */
+
+    public int decodeB(java.nio.ByteBuffer destination) {
+        if (this.encodedB != null) {
+            return Base64Binary.decode(this.encodedB, destination);
+        }
+        if (this.b == null) {
+            return -1;
+        }
+        int size = this.b.remaining();
+        destination.put(this.b.duplicate());
+        return size;
+    }
+
     /**
      * <p>
      * An attribute of type Binary. For example:
@@ -606,9 +677,39 @@ public class AttributeValue implements Serializable, Cloneable {
      */
 
     public java.util.List<java.nio.ByteBuffer> getBS() {
+        if (bS == null && encodedBS != null) {
+            bS = Base64Binary.decode(encodedBS);
+        }
         return bS;
     }
 
+    /**
+     * <p>
+     * Sets an attribute of type Binary Set as base64 texts, which are only decoded when {@link #getBS()} is called.
+     * </p>
+     *
+     * @param encodedBS
+     *        An attribute of type Binary Set, base64-encoded.
+     */
+
+    public void setEncodedBS(java.util.List<String> encodedBS) {
+        this.encodedBS = encodedBS;
+        this.bS = null;
+    }
+
+    /**
+     * <p>
+     * An attribute of type Binary Set as base64 texts. These are the texts received in the event, unless the attribute
+     * was set with {@link #setBS(java.util.Collection)}, in which case they are encoded.
+     * </p>
+     *
+     * @return An attribute of type Binary Set, base64-encoded.
+     */
+
+    public java.util.List<String> getEncodedBS() {
+        return encodedBS != null ? encodedBS : Base64Binary.encode(bS);
+    }
+
     /**
      * <p>
      * An attribute of type Binary Set. For example:
@@ -624,6 +725,7 @@ public class AttributeValue implements Serializable, Cloneable {
      */
 
     public void setBS(java.util.Collection<java.nio.ByteBuffer> bS) {
+        this.encodedBS = null;
         if (bS == null) {
             this.bS = null;
             return;
@@ -653,9 +755,8 @@ public class AttributeValue implements Serializable, Cloneable {
      */
 
     public AttributeValue withBS(java.nio.ByteBuffer... bS) {
-        if (this.bS == null) {
-            setBS(new java.util.ArrayList<java.nio.ByteBuffer>(bS.length));
-        }
+        // values set as base64 texts are decoded first, so that the appended values are not lost to them
+        setBS(getBS() == null ? new java.util.ArrayList<java.nio.ByteBuffer>(bS.length) : getBS());
         for (java.nio.ByteBuffer ele : bS) {
             this.bS.add(ele);
         }
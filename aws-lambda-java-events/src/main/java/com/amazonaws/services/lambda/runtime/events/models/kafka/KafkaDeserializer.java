@@ -0,0 +1,34 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.amazonaws.services.lambda.runtime.events.models.kafka;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts the key or value of a {@link KafkaRecord} into an object, see {@link SchemaRegistryDeserializer} for values
+ * written with a schema registry.
+ *
+ * @param <T> type of the deserialized object
+ */
+@FunctionalInterface
+public interface KafkaDeserializer<T> {
+
+    /**
+     * @param topic the topic of the record
+     * @param data the bytes to deserialize, a read-only buffer owned by the caller for the duration of the call
+     * @return the deserialized object
+     * @throws IllegalArgumentException if the bytes can not be deserialized
+     */
+    T deserialize(String topic, ByteBuffer data);
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.amazonaws.services.lambda.runtime.events.models.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * The headers of a {@link KafkaRecord}. Lambda delivers each header as a map of one key to its value, the headers are
+ * flattened into two arrays once, in the order the producer added them. A key can occur more than once.
+ * </p>
+ */
+public final class KafkaHeaders implements Iterable<Map.Entry<String, byte[]>> {
+
+    private static final KafkaHeaders EMPTY = new KafkaHeaders(new String[0], new byte[0][]);
+
+    private final String[] keys;
+    private final byte[][] values;
+
+    private KafkaHeaders(String[] keys, byte[][] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * @param headers
+     *        The headers of a Kafka event record, or null.
+     * @return The flattened headers.
+     */
+    public static KafkaHeaders of(List<Map<String, byte[]>> headers) {
+        if (headers == null || headers.isEmpty()) {
+            return EMPTY;
+        }
+        int size = 0;
+        for (Map<String, byte[]> header : headers) {
+            size += header == null ? 0 : header.size();
+        }
+        String[] keys = new String[size];
+        byte[][] values = new byte[size][];
+        int index = 0;
+        for (Map<String, byte[]> header : headers) {
+            if (header == null) {
+                continue;
+            }
+            for (Map.Entry<String, byte[]> entry : header.entrySet()) {
+                keys[index] = entry.getKey();
+                values[index] = entry.getValue();
+                index++;
+            }
+        }
+        return new KafkaHeaders(keys, values);
+    }
+
+    /**
+     * @return The number of headers.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @param index
+     *        The index of a header.
+     * @return The key of the header.
+     */
+    public String key(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @param index
+     *        The index of a header.
+     * @return The value of the header, not copied.
+     */
+    public byte[] value(int index) {
+        return values[index];
+    }
+
+    /**
+     * @param key
+     *        The key of a header.
+     * @return The value of the last header with the key, not copied, or null if there is none. Kafka clients read a
+     *         header this way.
+     */
+    public byte[] lastValue(String key) {
+        for (int i = keys.length - 1; i >= 0; i--) {
+            if (keys[i].equals(key)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param key
+     *        The key of a header.
+     * @return The value of the last header with the key decoded as UTF-8, or null if there is none.
+     */
+    public String lastValueAsString(String key) {
+        byte[] value = lastValue(key);
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param key
+     *        The key of a header.
+     * @return The values of all headers with the key, in order.
+     */
+    public List<byte[]> values(String key) {
+        List<byte[]> matching = null;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                if (matching == null) {
+                    matching = new ArrayList<>();
+                }
+                matching.add(values[i]);
+            }
+        }
+        return matching == null ? Collections.emptyList() : matching;
+    }
+
+    @Override
+    public Iterator<Map.Entry<String, byte[]>> iterator() {
+        return new Iterator<Map.Entry<String, byte[]>>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < keys.length;
+            }
+
+            @Override
+            public Map.Entry<String, byte[]> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Map.Entry<String, byte[]> header = new AbstractMap.SimpleImmutableEntry<>(keys[index], values[index]);
+                index++;
+                return header;
+            }
+        };
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.amazonaws.services.lambda.runtime.events.models.kafka;
+
+import com.amazonaws.services.lambda.runtime.events.KafkaEvent;
+import com.amazonaws.services.lambda.runtime.events.KafkaEvent.KafkaEventRecord;
+import com.amazonaws.services.lambda.runtime.events.KafkaEvent.TopicPartition;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * <p>
+ * The records of a {@link KafkaEvent} from one topic partition, in offset order. Lambda groups the records of an event
+ * by topic partition and normally delivers each group in offset order already, it is only sorted if it is not.
+ * </p>
+ * <p>
+ * The {@link KafkaRecord} views are created when they are first read.
+ * </p>
+ */
+public final class KafkaPartition extends AbstractList<KafkaRecord> implements RandomAccess {
+
+    private static final Comparator<KafkaEventRecord> OFFSET_ORDER = Comparator.comparingLong(KafkaEventRecord::getOffset);
+
+    private final TopicPartition topicPartition;
+    private final List<KafkaEventRecord> records;
+    private final KafkaRecord[] views;
+
+    private KafkaPartition(TopicPartition topicPartition, List<KafkaEventRecord> records) {
+        this.topicPartition = topicPartition;
+        this.records = records;
+        this.views = new KafkaRecord[records.size()];
+    }
+
+    /**
+     * @param event
+     *        A Kafka event.
+     * @return The topic partitions of the event, in the order of its records map.
+     * @throws IllegalArgumentException
+     *         if a key of the records map is not of the form topic-partition.
+     */
+    public static List<KafkaPartition> of(KafkaEvent event) {
+        Map<String, List<KafkaEventRecord>> records = event.getRecords();
+        if (records == null || records.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<KafkaPartition> partitions = new ArrayList<>(records.size());
+        for (Map.Entry<String, List<KafkaEventRecord>> entry : records.entrySet()) {
+            List<KafkaEventRecord> partitionRecords = entry.getValue() == null
+                    ? Collections.emptyList()
+                    : inOffsetOrder(entry.getValue());
+            partitions.add(new KafkaPartition(topicPartition(entry.getKey(), partitionRecords), partitionRecords));
+        }
+        return partitions;
+    }
+
+    private static List<KafkaEventRecord> inOffsetOrder(List<KafkaEventRecord> records) {
+        for (int i = 1; i < records.size(); i++) {
+            if (records.get(i - 1).getOffset() > records.get(i).getOffset()) {
+                KafkaEventRecord[] sorted = records.toArray(new KafkaEventRecord[0]);
+                Arrays.sort(sorted, OFFSET_ORDER);
+                return Arrays.asList(sorted);
+            }
+        }
+        return records;
+    }
+
+    private static TopicPartition topicPartition(String key, List<KafkaEventRecord> records) {
+        if (!records.isEmpty()) {
+            KafkaEventRecord first = records.get(0);
+            return new TopicPartition(first.getTopic(), first.getPartition());
+        }
+        // topics can contain '-', the partition follows the last one
+        int separator = key.lastIndexOf('-');
+        try {
+            return new TopicPartition(key.substring(0, separator), Integer.parseInt(key.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid topic partition " + key, e);
+        }
+    }
+
+    /**
+     * @return The topic partition of the records.
+     */
+    public TopicPartition getTopicPartition() {
+        return topicPartition;
+    }
+
+    @Override
+    public KafkaRecord get(int index) {
+        KafkaRecord view = views[index];
+        if (view == null) {
+            view = new KafkaRecord(records.get(index));
+            views[index] = view;
+        }
+        return view;
+    }
+
+    @Override
+    public int size() {
+        return views.length;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.amazonaws.services.lambda.runtime.events.models.kafka;
+
+import com.amazonaws.services.lambda.runtime.events.KafkaEvent.KafkaEventRecord;
+import com.amazonaws.services.lambda.runtime.events.models.Base64Binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * A view of a {@link KafkaEventRecord} that decodes its base64 key and value on first access, and its headers into
+ * {@link KafkaHeaders}. The decoded bytes are kept, the buffers returned are read-only views of them.
+ * </p>
+ * <p>
+ * A record is not safe for use by multiple threads.
+ * </p>
+ */
+public final class KafkaRecord {
+
+    private final KafkaEventRecord record;
+    private ByteBuffer key;
+    private ByteBuffer value;
+    private KafkaHeaders headers;
+
+    /**
+     * @param record
+     *        A record of a Kafka event.
+     */
+    public KafkaRecord(KafkaEventRecord record) {
+        this.record = record;
+    }
+
+    /**
+     * @return The record of the Kafka event.
+     */
+    public KafkaEventRecord getRecord() {
+        return record;
+    }
+
+    public String getTopic() {
+        return record.getTopic();
+    }
+
+    public int getPartition() {
+        return record.getPartition();
+    }
+
+    public long getOffset() {
+        return record.getOffset();
+    }
+
+    public long getTimestamp() {
+        return record.getTimestamp();
+    }
+
+    public String getTimestampType() {
+        return record.getTimestampType();
+    }
+
+    /**
+     * @return The decoded key, or null if the record has no key.
+     * @throws IllegalArgumentException
+     *         if the key is not valid base64.
+     */
+    public ByteBuffer getKey() {
+        if (key == null) {
+            key = Base64Binary.decode(record.getKey());
+            if (key == null) {
+                return null;
+            }
+        }
+        return key.asReadOnlyBuffer();
+    }
+
+    /**
+     * @param deserializer
+     *        Converts the decoded key.
+     * @return The deserialized key, or null if the record has no key.
+     */
+    public <T> T getKey(KafkaDeserializer<T> deserializer) {
+        ByteBuffer decoded = getKey();
+        return decoded == null ? null : deserializer.deserialize(getTopic(), decoded);
+    }
+
+    /**
+     * @return The decoded value, or null if the record has no value, e.g. a tombstone.
+     * @throws IllegalArgumentException
+     *         if the value is not valid base64.
+     */
+    public ByteBuffer getValue() {
+        if (value == null) {
+            value = Base64Binary.decode(record.getValue());
+            if (value == null) {
+                return null;
+            }
+        }
+        return value.asReadOnlyBuffer();
+    }
+
+    /**
+     * @param deserializer
+     *        Converts the decoded value.
+     * @return The deserialized value, or null if the record has no value.
+     */
+    public <T> T getValue(KafkaDeserializer<T> deserializer) {
+        ByteBuffer decoded = getValue();
+        return decoded == null ? null : deserializer.deserialize(getTopic(), decoded);
+    }
+
+    /**
+     * @return The headers of the record, empty if it has none.
+     */
+    public KafkaHeaders getHeaders() {
+        if (headers == null) {
+            headers = KafkaHeaders.of(record.getHeaders());
+        }
+        return headers;
+    }
+
+    @Override
+    public String toString() {
+        return getTopic() + "-" + getPartition() + "@" + getOffset();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.amazonaws.services.lambda.runtime.events.models.kafka;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Deserializes values written with a schema registry, such as Avro or Protobuf values of the Confluent wire format:
+ * a zero magic byte, the schema id as a big-endian int, then the payload. The schema of an id is looked up in the
+ * registry once and kept in a cache of bounded size, least recently used schemas are evicted first. The payload is
+ * decoded by a {@link PayloadDecoder} of the serialization format, so no format library is needed here.
+ * </p>
+ * <p>
+ * A deserializer is safe for use by multiple threads if its registry and decoder are.
+ * </p>
+ *
+ * @param <S> type of the parsed schemas
+ * @param <T> type of the deserialized values
+ */
+public final class SchemaRegistryDeserializer<S, T> implements KafkaDeserializer<T> {
+
+    /**
+     * The default number of schemas kept.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    private static final byte MAGIC_BYTE = 0;
+    private static final int HEADER_LENGTH = 5;
+
+    /**
+     * Looks up schemas by id, e.g. with a client of the registry or, in tests, a local map.
+     *
+     * @param <S> type of the parsed schemas
+     */
+    @FunctionalInterface
+    public interface SchemaRegistry<S> {
+
+        /**
+         * @param id the id of a schema
+         * @return the parsed schema, or null if the registry does not have it
+         */
+        S getSchema(int id);
+    }
+
+    /**
+     * Decodes the payload of a value with its schema.
+     *
+     * @param <S> type of the parsed schemas
+     * @param <T> type of the deserialized values
+     */
+    @FunctionalInterface
+    public interface PayloadDecoder<S, T> {
+
+        /**
+         * @param topic the topic of the record
+         * @param schema the schema the value was written with
+         * @param payload the bytes after the schema id, a read-only buffer owned by the caller for the duration of the call
+         * @return the deserialized value
+         */
+        T decode(String topic, S schema, ByteBuffer payload);
+    }
+
+    private final SchemaRegistry<S> registry;
+    private final PayloadDecoder<S, T> decoder;
+    private final Map<Integer, S> schemas;
+
+    /**
+     * @param registry looks up the schemas that are not cached
+     * @param decoder decodes payloads
+     */
+    public SchemaRegistryDeserializer(SchemaRegistry<S> registry, PayloadDecoder<S, T> decoder) {
+        this(registry, decoder, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param registry looks up the schemas that are not cached
+     * @param decoder decodes payloads
+     * @param cacheSize the maximum number of schemas kept
+     */
+    public SchemaRegistryDeserializer(SchemaRegistry<S> registry, PayloadDecoder<S, T> decoder, int cacheSize) {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Invalid cache size " + cacheSize);
+        }
+        this.registry = registry;
+        this.decoder = decoder;
+        this.schemas = new LinkedHashMap<Integer, S>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, S> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * @throws IllegalArgumentException if the data is not of the wire format, or the registry does not have its schema
+     */
+    @Override
+    public T deserialize(String topic, ByteBuffer data) {
+        if (data.remaining() < HEADER_LENGTH || data.get(data.position()) != MAGIC_BYTE) {
+            throw new IllegalArgumentException("Value of " + topic + " does not start with a schema id");
+        }
+        int id = data.getInt(data.position() + 1);
+        ByteBuffer payload = data.duplicate();
+        payload.position(data.position() + HEADER_LENGTH);
+        return decoder.decode(topic, getSchema(id), payload.slice().asReadOnlyBuffer());
+    }
+
+    /**
+     * @param id the id of a schema
+     * @return the cached schema, or the schema the registry returns
+     * @throws IllegalArgumentException if the registry does not have the schema
+     */
+    public S getSchema(int id) {
+        S schema;
+        synchronized (schemas) {
+            schema = schemas.get(id);
+        }
+        if (schema == null) {
+            // looked up outside of the lock, a schema missed by two threads at once is looked up twice
+            schema = registry.getSchema(id);
+            if (schema == null) {
+                throw new IllegalArgumentException("Unknown schema id " + id);
+            }
+            synchronized (schemas) {
+                schemas.put(id, schema);
+            }
+        }
+        return schema;
+    }
+}
@@ -12,6 +12,8 @@
  */
 package com.amazonaws.services.lambda.runtime.events.models.kinesis;
 
+import com.amazonaws.services.lambda.runtime.events.models.Base64Binary;
+
 import java.io.Serializable;
 
 /**
@@ -45,6 +47,12 @@ public class Record implements Serializable, Cloneable {
      * </p>
      */
     private java.nio.ByteBuffer data;
+    /**
+     * <p>
+     * The data blob as base64 text, as received in the event. It is decoded into {@link #data} on first access.
+     * </p>
+     */
+    private String encodedData;
     /**
      * <p>
      * Identifies which shard in the stream the data record is assigned to.
@@ -169,6 +177,7 @@ public class Record implements Serializable, Cloneable {
      */
     public void setData(java.nio.ByteBuffer data) {
         this.data = data;
+        this.encodedData = null;
     }
 
     /**
@@ -191,9 +200,60 @@ public class Record implements Serializable, Cloneable {
      *         size (1 MB).
      */
     public java.nio.ByteBuffer getData() {
+        if (this.data == null && this.encodedData != null) {
+            this.data = Base64Binary.decode(this.encodedData);
+        }
         return this.data;
     }
 
+    /**
+     * <p>
+     * Sets the data blob as base64 text. The text is only decoded when {@link #getData()} is called, so records that
+     * are routed on their metadata or forwarded unchanged are never decoded.
+     * </p>
+     *
+     * @param encodedData
+     *        The data blob, base64-encoded.
+     */
+    public void setEncodedData(String encodedData) {
+        this.encodedData = encodedData;
+        this.data = null;
+    }
+
+    /**
+     * <p>
+     * The data blob as base64 text. This is the text received in the event, unless the data was set with
+     * {@link #setData(java.nio.ByteBuffer)}, in which case it is encoded.
+     * </p>
+     *
+     * @return The data blob, base64-encoded.
+     */
+    public String getEncodedData() {
+        return this.encodedData != null ? this.encodedData : Base64Binary.encode(this.data);
+    }
+
+    /**
+     * <p>
+     * Decodes the data blob into a buffer, starting at its position, without decoding it into a buffer of its own
+     * first. The position of the buffer is advanced by the size of the data.
+     * </p>
+     *
+     * @param destination
+     *        Buffer to write the data to, with at least as much space remaining as the size of the data.
+     * @return The size of the data, or -1 if the record has no data.
+     */
+    public int decodeData(java.nio.ByteBuffer destination) {
+        if (this.encodedData != null) {
+            return Base64Binary.decode(this.encodedData, destination);
+        }
+        if (this.data == null) {
+            return -1;
+        }
+        int size = this.data.remaining();
+        destination.put(this.data.duplicate());
+        return size;
+    }
+
     /**
      * <p>
      * The data blob. The data in the blob is both opaque and immutable to Kinesis Data Streams, which does not inspect,
@@ -0,0 +1,375 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package com.amazonaws.services.lambda.runtime.events.models.kinesis;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * A user record of a Kinesis record. The Kinesis Producer Library (KPL) can aggregate many user records into one
+ * Kinesis record: the data of such a record is the magic number F3 89 9A C2, followed by an AggregatedRecord protobuf
+ * message and the MD5 digest of the message. A Kinesis record that is not aggregated holds a single user record.
+ * </p>
+ * <p>
+ * {@link #deaggregate(Record)} reads the user records straight from the data of the Kinesis record, without a protobuf
+ * library: the partition key and explicit hash key tables are decoded once per Kinesis record, after which each user
+ * record is a single object whose data is a view of the Kinesis record's data, sliced when {@link #getData()} is called.
+ * </p>
+ */
+public final class UserRecord {
+
+    private static final byte[] AGGREGATED_RECORD_MAGIC = {(byte) 0xF3, (byte) 0x89, (byte) 0x9A, (byte) 0xC2};
+    private static final int DIGEST_LENGTH = 16;
+
+    // AggregatedRecord fields
+    private static final int PARTITION_KEY_TABLE = 1;
+    private static final int EXPLICIT_HASH_KEY_TABLE = 2;
+    private static final int RECORDS = 3;
+
+    // Record fields
+    private static final int PARTITION_KEY_INDEX = 1;
+    private static final int EXPLICIT_HASH_KEY_INDEX = 2;
+    private static final int DATA = 3;
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+    private static final int WIRE_FIXED32 = 5;
+
+    private final Record record;
+    private final ByteBuffer buffer;
+    private final int dataOffset;
+    private final int dataLength;
+    private final String partitionKey;
+    private final String explicitHashKey;
+    private final long subSequenceNumber;
+    private final boolean aggregated;
+
+    private UserRecord(Record record, ByteBuffer buffer, int dataOffset, int dataLength, String partitionKey,
+                       String explicitHashKey, long subSequenceNumber, boolean aggregated) {
+        this.record = record;
+        this.buffer = buffer;
+        this.dataOffset = dataOffset;
+        this.dataLength = dataLength;
+        this.partitionKey = partitionKey;
+        this.explicitHashKey = explicitHashKey;
+        this.subSequenceNumber = subSequenceNumber;
+        this.aggregated = aggregated;
+    }
+
+    /**
+     * <p>
+     * Iterates over the user records of a Kinesis record. A record whose data does not start with the magic number,
+     * or whose digest does not match, is not aggregated and yields itself as its only user record, with the sub-sequence
+     * number 0.
+     * </p>
+     *
+     * @param record
+     *        A Kinesis record.
+     * @return The user records of the Kinesis record, in the order the producer added them.
+     * @throws IllegalArgumentException
+     *         if the record is aggregated but its message is malformed, e.g. a user record references a partition key
+     *         that is not in the table.
+     */
+    public static Iterator<UserRecord> deaggregate(Record record) {
+        ByteBuffer data = record.getData();
+        ByteBuffer buffer = data == null ? ByteBuffer.allocate(0) : data.slice().asReadOnlyBuffer();
+        if (!isAggregated(buffer)) {
+            return Collections.singletonList(new UserRecord(record, buffer, 0, buffer.limit(),
+                    record.getPartitionKey(), null, 0, false)).iterator();
+        }
+        return new UserRecordIterator(record, buffer);
+    }
+
+    /**
+     * @param record
+     *        A Kinesis record.
+     * @return Whether the data of the record is a valid KPL aggregated record.
+     */
+    public static boolean isAggregated(Record record) {
+        ByteBuffer data = record.getData();
+        return data != null && isAggregated(data.slice());
+    }
+
+    private static boolean isAggregated(ByteBuffer buffer) {
+        int length = buffer.limit();
+        if (length < AGGREGATED_RECORD_MAGIC.length + DIGEST_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < AGGREGATED_RECORD_MAGIC.length; i++) {
+            if (buffer.get(i) != AGGREGATED_RECORD_MAGIC[i]) {
+                return false;
+            }
+        }
+        ByteBuffer message = buffer.duplicate();
+        message.limit(length - DIGEST_LENGTH).position(AGGREGATED_RECORD_MAGIC.length);
+        MessageDigest md5 = md5();
+        md5.update(message);
+        byte[] digest = md5.digest();
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            if (buffer.get(length - DIGEST_LENGTH + i) != digest[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The Kinesis record the user record is part of.
+     */
+    public Record getRecord() {
+        return record;
+    }
+
+    /**
+     * @return The data of the user record, a read-only view of the data of the Kinesis record.
+     */
+    public ByteBuffer getData() {
+        ByteBuffer data = buffer.duplicate();
+        data.limit(dataOffset + dataLength).position(dataOffset);
+        return data.slice();
+    }
+
+    /**
+     * @return The size of the data of the user record in bytes.
+     */
+    public int getDataLength() {
+        return dataLength;
+    }
+
+    /**
+     * @return The partition key the producer added the user record with.
+     */
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    /**
+     * @return The explicit hash key the producer added the user record with, or null if it did not set one.
+     */
+    public String getExplicitHashKey() {
+        return explicitHashKey;
+    }
+
+    /**
+     * <p>
+     * The hash key that determined the shard of the user record: its explicit hash key if set, otherwise the MD5
+     * digest of its partition key as a 128-bit unsigned integer.
+     * </p>
+     *
+     * @return The hash key of the user record, in decimal.
+     */
+    public String getEffectiveHashKey() {
+        if (explicitHashKey != null) {
+            return explicitHashKey;
+        }
+        return new BigInteger(1, md5().digest(partitionKey.getBytes(StandardCharsets.UTF_8))).toString();
+    }
+
+    /**
+     * @return The sequence number of the Kinesis record the user record is part of.
+     */
+    public String getSequenceNumber() {
+        return record.getSequenceNumber();
+    }
+
+    /**
+     * @return The index of the user record in its Kinesis record, 0 for a record that is not aggregated.
+     */
+    public long getSubSequenceNumber() {
+        return subSequenceNumber;
+    }
+
+    /**
+     * @return Whether the user record is part of a KPL aggregated record.
+     */
+    public boolean isAggregated() {
+        return aggregated;
+    }
+
+    @Override
+    public String toString() {
+        return "{SequenceNumber: " + getSequenceNumber() + ",SubSequenceNumber: " + subSequenceNumber
+                + ",PartitionKey: " + partitionKey + (explicitHashKey == null ? "" : ",ExplicitHashKey: " + explicitHashKey)
+                + ",DataLength: " + dataLength + "}";
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads the protobuf wire format of the AggregatedRecord message. The key tables are read in a first pass, as the
+     * protobuf encoding does not require them to precede the records, the records are read one per {@link #next()}.
+     */
+    private static final class UserRecordIterator implements Iterator<UserRecord> {
+        private final Record record;
+        private final ByteBuffer buffer;
+        private final int end;
+        private final List<String> partitionKeys = new ArrayList<>();
+        private final List<String> explicitHashKeys = new ArrayList<>();
+        private int position;
+        private long subSequenceNumber;
+        private int nextRecordOffset = -1;
+        private int nextRecordLength;
+
+        private UserRecordIterator(Record record, ByteBuffer buffer) {
+            this.record = record;
+            this.buffer = buffer;
+            this.end = buffer.limit() - DIGEST_LENGTH;
+            this.position = AGGREGATED_RECORD_MAGIC.length;
+            while (position < end) {
+                long tag = readVarint();
+                int field = (int) (tag >>> 3);
+                if ((field == PARTITION_KEY_TABLE || field == EXPLICIT_HASH_KEY_TABLE)
+                        && (tag & 7) == WIRE_LENGTH_DELIMITED) {
+                    int length = readLength(end);
+                    String key = readString(position, length);
+                    (field == PARTITION_KEY_TABLE ? partitionKeys : explicitHashKeys).add(key);
+                    position += length;
+                } else {
+                    skipField(tag, end);
+                }
+            }
+            this.position = AGGREGATED_RECORD_MAGIC.length;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (nextRecordOffset < 0 && position < end) {
+                long tag = readVarint();
+                if (tag >>> 3 == RECORDS && (tag & 7) == WIRE_LENGTH_DELIMITED) {
+                    nextRecordLength = readLength(end);
+                    nextRecordOffset = position;
+                    position += nextRecordLength;
+                } else {
+                    skipField(tag, end);
+                }
+            }
+            return nextRecordOffset >= 0;
+        }
+
+        @Override
+        public UserRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int next = position;
+            int recordEnd = nextRecordOffset + nextRecordLength;
+            position = nextRecordOffset;
+            nextRecordOffset = -1;
+
+            long partitionKeyIndex = -1;
+            long explicitHashKeyIndex = -1;
+            int dataOffset = -1;
+            int dataLength = 0;
+            while (position < recordEnd) {
+                long tag = readVarint();
+                int field = (int) (tag >>> 3);
+                if (field == PARTITION_KEY_INDEX && (tag & 7) == WIRE_VARINT) {
+                    partitionKeyIndex = readVarint();
+                } else if (field == EXPLICIT_HASH_KEY_INDEX && (tag & 7) == WIRE_VARINT) {
+                    explicitHashKeyIndex = readVarint();
+                } else if (field == DATA && (tag & 7) == WIRE_LENGTH_DELIMITED) {
+                    dataLength = readLength(recordEnd);
+                    dataOffset = position;
+                    position += dataLength;
+                } else {
+                    skipField(tag, recordEnd);
+                }
+            }
+            position = next;
+
+            if (partitionKeyIndex < 0 || partitionKeyIndex >= partitionKeys.size() || dataOffset < 0) {
+                throw malformed("user record " + subSequenceNumber + " has no partition key or data");
+            }
+            if (explicitHashKeyIndex >= explicitHashKeys.size()) {
+                throw malformed("user record " + subSequenceNumber + " references a missing explicit hash key");
+            }
+            return new UserRecord(record, buffer, dataOffset, dataLength, partitionKeys.get((int) partitionKeyIndex),
+                    explicitHashKeyIndex < 0 ? null : explicitHashKeys.get((int) explicitHashKeyIndex),
+                    subSequenceNumber++, true);
+        }
+
+        private long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= end) {
+                    throw malformed("truncated varint");
+                }
+                byte b = buffer.get(position++);
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw malformed("varint longer than 64 bits");
+        }
+
+        private int readLength(int limit) {
+            long length = readVarint();
+            // a varint of 10 bytes is negative as a long
+            if (length < 0 || length > limit - position) {
+                throw malformed("field longer than its message");
+            }
+            return (int) length;
+        }
+
+        private void skipField(long tag, int limit) {
+            switch ((int) (tag & 7)) {
+                case WIRE_VARINT:
+                    readVarint();
+                    return;
+                case WIRE_FIXED64:
+                    position += 8;
+                    break;
+                case WIRE_LENGTH_DELIMITED:
+                    int length = readLength(limit);
+                    position += length;
+                    return;
+                case WIRE_FIXED32:
+                    position += 4;
+                    break;
+                default:
+                    throw malformed("unsupported wire type " + (tag & 7));
+            }
+            if (position > limit) {
+                throw malformed("field longer than its message");
+            }
+        }
+
+        private String readString(int offset, int length) {
+            ByteBuffer bytes = buffer.duplicate();
+            bytes.limit(offset + length).position(offset);
+            return StandardCharsets.UTF_8.decode(bytes).toString();
+        }
+
+        private IllegalArgumentException malformed(String reason) {
+            return new IllegalArgumentException("Malformed aggregated record " + record.getSequenceNumber() + ": "
+                    + reason);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package com.amazonaws.services.lambda.runtime.events.models;
+
+import com.amazonaws.services.lambda.runtime.events.models.kinesis.Record;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class Base64BinaryTest {
+
+    @Test
+    public void testDecodesLikeJdkDecoder() throws IOException {
+        Random random = new Random(42);
+        for (int length = 0; length < 64; length++) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            String padded = Base64.getEncoder().encodeToString(bytes);
+            String unpadded = Base64.getEncoder().withoutPadding().encodeToString(bytes);
+
+            assertArrayEquals(bytes, toArray(Base64Binary.decode(padded)));
+            assertArrayEquals(bytes, toArray(Base64Binary.decode(unpadded)));
+            assertEquals(padded, Base64Binary.encode(ByteBuffer.wrap(bytes)));
+            assertArrayEquals(bytes, readAll(Base64Binary.decodingStream(padded)));
+            assertArrayEquals(bytes, readAll(Base64Binary.decodingStream(unpadded)));
+        }
+    }
+
+    @Test
+    public void testDecodesIntoBufferAtItsPosition() {
+        ByteBuffer destination = ByteBuffer.allocateDirect(16);
+        destination.put((byte) '>');
+
+        assertEquals(5, Base64Binary.decode("SGVsbG8=", destination));
+        assertEquals(6, destination.position());
+        destination.flip();
+        assertEquals(">Hello", StandardCharsets.US_ASCII.decode(destination).toString());
+    }
+
+    @Test
+    public void testRejectsInvalidText() {
+        ByteBuffer destination = ByteBuffer.allocate(16);
+
+        assertThrows(IllegalArgumentException.class, () -> Base64Binary.decode("SGV*bG8=", destination));
+        assertEquals(0, destination.position());
+        assertThrows(IllegalArgumentException.class, () -> Base64Binary.decode("SGVsb"));
+        assertThrows(BufferOverflowException.class, () -> Base64Binary.decode("SGVsbG8=", ByteBuffer.allocate(4)));
+        assertThrows(IOException.class, () -> readAll(Base64Binary.decodingStream("SGV*bG8=")));
+        assertThrows(IOException.class, () -> readAll(Base64Binary.decodingStream("SGVsb")));
+    }
+
+    @Test
+    public void testRecordDecodesDataOnDemand() {
+        Record record = new Record();
+        record.setEncodedData("SGVsbG8=");
+
+        assertEquals("SGVsbG8=", record.getEncodedData());
+        ByteBuffer data = record.getData();
+        assertEquals("Hello", StandardCharsets.US_ASCII.decode(data.duplicate()).toString());
+        assertSame(data, record.getData());
+        assertEquals("SGVsbG8=", record.getEncodedData());
+
+        record.setData(ByteBuffer.wrap("Hi".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("SGk=", record.getEncodedData());
+        ByteBuffer destination = ByteBuffer.allocate(2);
+        assertEquals(2, record.decodeData(destination));
+        assertEquals("Hi", new String(destination.array(), StandardCharsets.US_ASCII));
+
+        record.setData(null);
+        assertNull(record.getEncodedData());
+        assertEquals(-1, record.decodeData(destination));
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] chunk = new byte[5];
+        int n;
+        while ((n = input.read(chunk)) >= 0) {
+            bytes.write(chunk, 0, n);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package com.amazonaws.services.lambda.runtime.events.models.cloudwatchlogs;
+
+import com.amazonaws.services.lambda.runtime.events.CloudWatchLogsEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogEventReaderTest {
+
+    @Test
+    public void testReadsSubscriptionData() {
+        String json = "{\"messageType\":\"DATA_MESSAGE\",\"owner\":\"123456789012\",\"logGroup\":\"/aws/lambda/test\","
+                + "\"logStream\":\"2022/01/01/[$LATEST]abc\",\"subscriptionFilters\":[\"filter-a\",\"filter-b\"],"
+                + "\"logEvents\":[\n"
+                + "  {\"id\":\"1\",\"timestamp\":1640995200000,\"message\":\"START \\\"quoted\\\"\\n\\u00e9\\u2713\"},\n"
+                + "  {\"id\":\"2\",\"timestamp\":1640995200001,\"message\":\"[ERROR] failed\",\"unknown\":{\"a\":[1,\"]\"]},"
+                + "\"extractedFields\":{\"level\":\"ERROR\",\"count\":3}}\n"
+                + "]}";
+        CloudWatchLogsEvent.AWSLogs awsLogs = new CloudWatchLogsEvent.AWSLogs().withData(encode(json));
+
+        LogEventReader reader = awsLogs.readLogEvents();
+
+        assertEquals("DATA_MESSAGE", reader.getMessageType());
+        assertEquals("123456789012", reader.getOwner());
+        assertEquals("/aws/lambda/test", reader.getLogGroup());
+        assertEquals("2022/01/01/[$LATEST]abc", reader.getLogStream());
+        assertEquals(Arrays.asList("filter-a", "filter-b"), reader.getSubscriptionFilters());
+        assertEquals(new LogEvent("1", 1640995200000L, "START \"quoted\"\n\u00e9\u2713", null), reader.next());
+        assertEquals(new LogEvent("2", 1640995200001L, "[ERROR] failed", Collections.singletonMap("level", "ERROR")),
+                reader.next());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void testFiltersLogEvents() {
+        String json = "{\"logEvents\":[{\"id\":\"1\",\"timestamp\":10,\"message\":\"INFO ok\"},"
+                + "{\"message\":\"ERROR first\",\"timestamp\":20,\"id\":\"2\"},"
+                + "{\"id\":\"3\",\"timestamp\":30,\"message\":\"ERROR second\",\"extractedFields\":{\"a\":\"b\"}},"
+                + "{\"id\":\"4\",\"timestamp\":40,\"message\":\"ERROR late\"}]}";
+        CloudWatchLogsEvent.AWSLogs awsLogs = new CloudWatchLogsEvent.AWSLogs().withData(encode(json));
+
+        List<String> ids = new ArrayList<>();
+        awsLogs.readLogEvents((timestamp, message) -> timestamp < 40 && message.toString().startsWith("ERROR"))
+                .forEachRemaining(logEvent -> ids.add(logEvent.getId()));
+
+        assertEquals(Arrays.asList("2", "3"), ids);
+    }
+
+    @Test
+    public void testReadsFieldsAfterLogEvents() {
+        String json = "{\"logGroup\":\"group\",\"logEvents\":[],\"logStream\":\"stream\"}";
+
+        LogEventReader reader = new CloudWatchLogsEvent.AWSLogs().withData(encode(json)).readLogEvents();
+
+        assertEquals("group", reader.getLogGroup());
+        assertNull(reader.getLogStream());
+        assertFalse(reader.hasNext());
+        assertEquals("stream", reader.getLogStream());
+    }
+
+    @Test
+    public void testReadsLargeBatchOneLogEventAtATime() {
+        int count = 50_000;
+        String data = encode(out -> {
+            out.write("{\"messageType\":\"DATA_MESSAGE\",\"logEvents\":[");
+            for (int i = 0; i < count; i++) {
+                out.write((i == 0 ? "" : ",") + "{\"id\":\"" + i + "\",\"timestamp\":" + i
+                        + ",\"message\":\"log line " + i + "\"}");
+            }
+            out.write("]}");
+        });
+
+        LogEventReader reader = new CloudWatchLogsEvent.AWSLogs().withData(data).readLogEvents();
+
+        int read = 0;
+        while (reader.hasNext()) {
+            LogEvent logEvent = reader.next();
+            assertEquals(read, logEvent.getTimestamp());
+            assertEquals("log line " + read++, logEvent.getMessage());
+        }
+        assertEquals(count, read);
+    }
+
+    @Test
+    public void testRejectsMalformedData() {
+        CloudWatchLogsEvent.AWSLogs awsLogs = new CloudWatchLogsEvent.AWSLogs()
+                .withData(encode("{\"logEvents\":[{\"id\":\"1\" \"timestamp\":1}]}"));
+        LogEventReader reader = awsLogs.readLogEvents();
+
+        assertThrows(IllegalArgumentException.class, reader::hasNext);
+        assertThrows(IllegalStateException.class, () -> new CloudWatchLogsEvent.AWSLogs().readLogEvents());
+        assertThrows(UncheckedIOException.class, () -> new CloudWatchLogsEvent.AWSLogs().withData("H4sI*").readLogEvents());
+    }
+
+    @Test
+    public void testClosesReader() {
+        LogEventReader reader = new CloudWatchLogsEvent.AWSLogs()
+                .withData(encode("{\"logEvents\":[{\"id\":\"1\"},{\"id\":\"2\"}]}")).readLogEvents();
+
+        assertTrue(reader.hasNext());
+        reader.close();
+        assertFalse(reader.hasNext());
+    }
+
+    private static String encode(String json) {
+        return encode(out -> out.write(json));
+    }
+
+    private static String encode(JsonWriter json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer out = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            json.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    private interface JsonWriter {
+        void write(Writer out) throws IOException;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.amazonaws.services.lambda.runtime.events.models.kafka;
+
+import com.amazonaws.services.lambda.runtime.events.KafkaEvent;
+import com.amazonaws.services.lambda.runtime.events.KafkaEvent.KafkaEventRecord;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KafkaPartitionTest {
+
+    @Test
+    public void testGroupsRecordsByTopicPartitionInOffsetOrder() {
+        Map<String, List<KafkaEventRecord>> records = new LinkedHashMap<>();
+        records.put("my-topic-1", Arrays.asList(record("my-topic", 1, 12), record("my-topic", 1, 10),
+                record("my-topic", 1, 11)));
+        records.put("other-0", Collections.singletonList(record("other", 0, 5)));
+        records.put("empty-topic-3", Collections.emptyList());
+        KafkaEvent event = KafkaEvent.builder().withRecords(records).build();
+
+        List<KafkaPartition> partitions = event.readPartitions();
+
+        assertEquals(3, partitions.size());
+        assertEquals("my-topic-1", partitions.get(0).getTopicPartition().toString());
+        assertEquals(10, partitions.get(0).get(0).getOffset());
+        assertEquals(11, partitions.get(0).get(1).getOffset());
+        assertEquals(12, partitions.get(0).get(2).getOffset());
+        assertSame(partitions.get(0).get(1), partitions.get(0).get(1));
+        assertEquals("other", partitions.get(1).getTopicPartition().getTopic());
+        assertEquals(0, partitions.get(1).getTopicPartition().getPartition());
+        assertEquals("empty-topic", partitions.get(2).getTopicPartition().getTopic());
+        assertEquals(3, partitions.get(2).getTopicPartition().getPartition());
+        assertTrue(partitions.get(2).isEmpty());
+        assertTrue(new KafkaEvent().readPartitions().isEmpty());
+    }
+
+    @Test
+    public void testDecodesKeyValueAndHeaders() {
+        KafkaEventRecord eventRecord = record("topic", 0, 1);
+        eventRecord.setKey(base64("key"));
+        eventRecord.setValue(base64("value"));
+        Map<String, byte[]> first = Collections.singletonMap("h", utf8("1"));
+        Map<String, byte[]> second = Collections.singletonMap("h", utf8("2"));
+        Map<String, byte[]> third = Collections.singletonMap("other", utf8("3"));
+        eventRecord.setHeaders(Arrays.asList(first, second, third));
+
+        KafkaRecord record = new KafkaRecord(eventRecord);
+
+        assertEquals("key", string(record.getKey()));
+        assertEquals("value", string(record.getValue()));
+        // the buffers are views, reading one does not consume the cached bytes
+        assertEquals("value", record.getValue((topic, data) -> topic + ":" + string(data)).substring(6));
+        assertEquals(3, record.getHeaders().size());
+        assertEquals("2", record.getHeaders().lastValueAsString("h"));
+        assertEquals(2, record.getHeaders().values("h").size());
+        assertArrayEquals(utf8("3"), record.getHeaders().value(2));
+        assertNull(record.getHeaders().lastValue("missing"));
+        assertSame(record.getHeaders(), record.getHeaders());
+    }
+
+    @Test
+    public void testRecordWithoutKeyValueOrHeaders() {
+        KafkaRecord record = new KafkaRecord(record("topic", 0, 1));
+
+        assertNull(record.getKey());
+        assertNull(record.getValue());
+        assertNull(record.getValue((topic, data) -> "unused"));
+        assertEquals(0, record.getHeaders().size());
+        assertTrue(record.getHeaders().values("h").isEmpty());
+    }
+
+    @Test
+    public void testInvalidBase64IsRejectedWhenRead() {
+        KafkaEventRecord eventRecord = record("topic", 0, 1);
+        eventRecord.setValue("not base64!");
+        KafkaRecord record = new KafkaRecord(eventRecord);
+
+        assertThrows(IllegalArgumentException.class, record::getValue);
+    }
+
+    private static KafkaEventRecord record(String topic, int partition, long offset) {
+        return KafkaEventRecord.builder().withTopic(topic).withPartition(partition).withOffset(offset).build();
+    }
+
+    private static String base64(String value) {
+        return Base64.getEncoder().encodeToString(utf8(value));
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer data) {
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.amazonaws.services.lambda.runtime.events.models.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SchemaRegistryDeserializerTest {
+
+    /**
+     * A local stand-in for a schema registry, which counts its lookups.
+     */
+    private static class LocalRegistry implements SchemaRegistryDeserializer.SchemaRegistry<String> {
+        private final Map<Integer, String> schemas = new HashMap<>();
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        LocalRegistry() {
+            schemas.put(1, "upper");
+            schemas.put(2, "lower");
+            schemas.put(3, "reverse");
+        }
+
+        @Override
+        public String getSchema(int id) {
+            lookups.incrementAndGet();
+            return schemas.get(id);
+        }
+    }
+
+    private static String decode(String topic, String schema, ByteBuffer payload) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        switch (schema) {
+            case "upper":
+                return text.toUpperCase();
+            case "lower":
+                return text.toLowerCase();
+            default:
+                return new StringBuilder(text).reverse().toString();
+        }
+    }
+
+    @Test
+    public void testDecodesPayloadWithCachedSchema() {
+        LocalRegistry registry = new LocalRegistry();
+        SchemaRegistryDeserializer<String, String> deserializer =
+                new SchemaRegistryDeserializer<>(registry, SchemaRegistryDeserializerTest::decode);
+
+        assertEquals("ABC", deserializer.deserialize("topic", value(1, "aBc")));
+        assertEquals("abc", deserializer.deserialize("topic", value(2, "aBc")));
+        assertEquals("XYZ", deserializer.deserialize("topic", value(1, "xyz")));
+        assertEquals(2, registry.lookups.get());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedSchema() {
+        LocalRegistry registry = new LocalRegistry();
+        SchemaRegistryDeserializer<String, String> deserializer =
+                new SchemaRegistryDeserializer<>(registry, SchemaRegistryDeserializerTest::decode, 2);
+
+        deserializer.getSchema(1);
+        deserializer.getSchema(2);
+        deserializer.getSchema(1);
+        deserializer.getSchema(3);
+        assertEquals(3, registry.lookups.get());
+
+        deserializer.getSchema(1);
+        assertEquals(3, registry.lookups.get());
+        deserializer.getSchema(2);
+        assertEquals(4, registry.lookups.get());
+    }
+
+    @Test
+    public void testDecodesValueFromBufferPosition() {
+        SchemaRegistryDeserializer<String, String> deserializer =
+                new SchemaRegistryDeserializer<>(new LocalRegistry(), SchemaRegistryDeserializerTest::decode);
+        ByteBuffer value = ByteBuffer.allocate(20);
+        value.put((byte) 9).put(value(3, "abc"));
+        value.flip();
+        value.position(1);
+
+        assertEquals("cba", deserializer.deserialize("topic", value));
+        assertEquals(1, value.position());
+    }
+
+    @Test
+    public void testRejectsInvalidValues() {
+        SchemaRegistryDeserializer<String, String> deserializer =
+                new SchemaRegistryDeserializer<>(new LocalRegistry(), SchemaRegistryDeserializerTest::decode);
+
+        assertThrows(IllegalArgumentException.class, () -> deserializer.deserialize("topic", ByteBuffer.allocate(3)));
+        ByteBuffer wrongMagic = value(1, "abc");
+        wrongMagic.put(0, (byte) 1);
+        assertThrows(IllegalArgumentException.class, () -> deserializer.deserialize("topic", wrongMagic));
+        assertThrows(IllegalArgumentException.class, () -> deserializer.deserialize("topic", value(42, "abc")));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SchemaRegistryDeserializer<>(new LocalRegistry(), SchemaRegistryDeserializerTest::decode, 0));
+    }
+
+    private static ByteBuffer value(int schemaId, String payload) {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer value = ByteBuffer.allocate(5 + bytes.length);
+        value.put((byte) 0).putInt(schemaId).put(bytes);
+        value.flip();
+        return value;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance with
+ * the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package com.amazonaws.services.lambda.runtime.events.models.kinesis;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UserRecordTest {
+
+    private static final byte[] MAGIC = {(byte) 0xF3, (byte) 0x89, (byte) 0x9A, (byte) 0xC2};
+
+    @Test
+    public void testDeaggregatesUserRecords() throws Exception {
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        lengthDelimited(message, 1, utf8("key-a"));
+        lengthDelimited(message, 1, utf8("key-b"));
+        lengthDelimited(message, 2, utf8("1234567890"));
+        lengthDelimited(message, 3, userRecord(0, -1, "first"));
+        lengthDelimited(message, 3, userRecord(1, 0, "second"));
+        // an unknown field, which is skipped
+        varint(message, 9 << 3);
+        varint(message, 300);
+        lengthDelimited(message, 3, userRecord(0, -1, ""));
+        Record record = record(aggregate(message.toByteArray()));
+
+        assertTrue(UserRecord.isAggregated(record));
+        List<UserRecord> userRecords = new ArrayList<>();
+        UserRecord.deaggregate(record).forEachRemaining(userRecords::add);
+
+        assertEquals(3, userRecords.size());
+        assertEquals("first", string(userRecords.get(0).getData()));
+        assertEquals("key-a", userRecords.get(0).getPartitionKey());
+        assertNull(userRecords.get(0).getExplicitHashKey());
+        assertEquals(new BigInteger(1, MessageDigest.getInstance("MD5").digest(utf8("key-a"))).toString(),
+                userRecords.get(0).getEffectiveHashKey());
+        assertEquals("second", string(userRecords.get(1).getData()));
+        assertEquals("key-b", userRecords.get(1).getPartitionKey());
+        assertEquals("1234567890", userRecords.get(1).getEffectiveHashKey());
+        assertEquals(0, userRecords.get(2).getDataLength());
+        for (int i = 0; i < userRecords.size(); i++) {
+            assertEquals(i, userRecords.get(i).getSubSequenceNumber());
+            assertEquals("49590338271490256608559692538361571095921575989136588898", userRecords.get(i).getSequenceNumber());
+            assertTrue(userRecords.get(i).isAggregated());
+        }
+    }
+
+    @Test
+    public void testYieldsRecordThatIsNotAggregated() {
+        Record record = record(utf8("plain data"));
+
+        Iterator<UserRecord> userRecords = UserRecord.deaggregate(record);
+
+        assertFalse(UserRecord.isAggregated(record));
+        UserRecord userRecord = userRecords.next();
+        assertFalse(userRecords.hasNext());
+        assertEquals("plain data", string(userRecord.getData()));
+        assertEquals("partition", userRecord.getPartitionKey());
+        assertEquals(0, userRecord.getSubSequenceNumber());
+        assertFalse(userRecord.isAggregated());
+    }
+
+    @Test
+    public void testTreatsDigestMismatchAsNotAggregated() {
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        lengthDelimited(message, 1, utf8("key-a"));
+        lengthDelimited(message, 3, userRecord(0, -1, "first"));
+        byte[] data = aggregate(message.toByteArray());
+        data[data.length - 1] ^= 1;
+
+        Iterator<UserRecord> userRecords = UserRecord.deaggregate(record(data));
+
+        assertEquals(data.length, userRecords.next().getDataLength());
+        assertFalse(userRecords.hasNext());
+    }
+
+    @Test
+    public void testRejectsMissingPartitionKey() {
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        lengthDelimited(message, 1, utf8("key-a"));
+        lengthDelimited(message, 3, userRecord(1, -1, "first"));
+
+        Iterator<UserRecord> userRecords = UserRecord.deaggregate(record(aggregate(message.toByteArray())));
+
+        assertThrows(IllegalArgumentException.class, userRecords::next);
+    }
+
+    @Test
+    public void testRejectsNegativeFieldLength() {
+        ByteArrayOutputStream table = new ByteArrayOutputStream();
+        varint(table, 1 << 3 | 2);
+        varint(table, -1);
+        table.write('k');
+        assertThrows(IllegalArgumentException.class,
+                () -> UserRecord.deaggregate(record(aggregate(table.toByteArray()))));
+
+        ByteArrayOutputStream userRecord = new ByteArrayOutputStream();
+        varint(userRecord, 1 << 3);
+        varint(userRecord, 0);
+        varint(userRecord, 5 << 3 | 2);
+        varint(userRecord, -2);
+        lengthDelimited(userRecord, 3, utf8("data"));
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        lengthDelimited(message, 1, utf8("key-a"));
+        lengthDelimited(message, 3, userRecord.toByteArray());
+        Iterator<UserRecord> userRecords = UserRecord.deaggregate(record(aggregate(message.toByteArray())));
+
+        assertThrows(IllegalArgumentException.class, userRecords::next);
+    }
+
+    private static Record record(byte[] data) {
+        return new Record()
+                .withSequenceNumber("49590338271490256608559692538361571095921575989136588898")
+                .withPartitionKey("partition")
+                .withData(ByteBuffer.wrap(data));
+    }
+
+    private static byte[] aggregate(byte[] message) {
+        try {
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            data.write(MAGIC);
+            data.write(message);
+            data.write(MessageDigest.getInstance("MD5").digest(message));
+            return data.toByteArray();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] userRecord(int partitionKeyIndex, int explicitHashKeyIndex, String data) {
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        varint(record, 1 << 3);
+        varint(record, partitionKeyIndex);
+        if (explicitHashKeyIndex >= 0) {
+            varint(record, 2 << 3);
+            varint(record, explicitHashKeyIndex);
+        }
+        lengthDelimited(record, 3, utf8(data));
+        // a tag, which is skipped
+        lengthDelimited(record, 4, new byte[]{10, 1, 'k'});
+        return record.toByteArray();
+    }
+
+    private static void lengthDelimited(ByteArrayOutputStream out, int field, byte[] bytes) {
+        varint(out, field << 3 | 2);
+        varint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void varint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+}
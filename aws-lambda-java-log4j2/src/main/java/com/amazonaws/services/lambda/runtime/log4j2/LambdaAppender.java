@@ -3,15 +3,20 @@ package com.amazonaws.services.lambda.runtime.log4j2;
 import com.amazonaws.services.lambda.runtime.LambdaRuntime;
 import com.amazonaws.services.lambda.runtime.LambdaRuntimeInternal;
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
 
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.Filter;
 import org.apache.logging.log4j.core.Layout;
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.appender.AbstractAppender;
 import org.apache.logging.log4j.core.config.plugins.Plugin;
 import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+import org.apache.logging.log4j.core.layout.ByteBufferDestination;
+import org.apache.logging.log4j.core.layout.ByteBufferDestinationHelper;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 
 /**
  * Class to append log4j2 logs from AWS Lambda function to CloudWatch
@@ -25,7 +30,20 @@ public class LambdaAppender extends AbstractAppender {
     public static final String PLUGIN_CATEGORY = "Core";
     public static final String PLUGIN_TYPE = "appender";
 
-    private LambdaLogger logger = LambdaRuntime.getLogger();
+    /**
+     * Whether the LambdaLogger of the runtime can log a range of a byte array with a level. Runtimes built against
+     * an older aws-lambda-java-core only take whole byte arrays.
+     */
+    private static final boolean LOG_BYTE_RANGE_SUPPORTED = isLogByteRangeSupported(LambdaLogger.class);
+
+    private final LambdaLogger logger;
+    private final boolean logByteRangeSupported;
+
+    /**
+     * Buffer each thread encodes its events into, so that appending an event allocates nothing once it has grown
+     * to the size of the events
+     */
+    private final ThreadLocal<EventBuffer> eventBuffer = ThreadLocal.withInitial(EventBuffer::new);
 
     /**
      * Builder class that follows log4j2 plugin convention
@@ -62,15 +80,121 @@ public class LambdaAppender extends AbstractAppender {
      * @param ignoreExceptions whether to show exceptions or not specified in xml
      */
     private LambdaAppender(String name, Filter filter, Layout<? extends Serializable> layout, boolean ignoreExceptions) {
+        this(name, filter, layout, ignoreExceptions, LambdaRuntime.getLogger(), LOG_BYTE_RANGE_SUPPORTED);
+    }
+
+    /**
+     * @param logger logger the events are appended to
+     * @param logByteRangeSupported whether the logger takes a range of a byte array with a level
+     */
+    LambdaAppender(String name, Filter filter, Layout<? extends Serializable> layout, boolean ignoreExceptions,
+                   LambdaLogger logger, boolean logByteRangeSupported) {
         super(name, filter, layout, ignoreExceptions);
+        this.logger = logger;
+        this.logByteRangeSupported = logByteRangeSupported;
         LambdaRuntimeInternal.setUseLog4jAppender(true);
     }
 
     /**
-     * Append log event to System.out
+     * Append log event to System.out. The layout encodes the event into a buffer of the calling thread, which is
+     * handed to the LambdaLogger with the level of the event.
      * @param event log4j event
      */
     public void append(LogEvent event) {
-        logger.log(super.getLayout().toByteArray(event));
+        EventBuffer buffer = eventBuffer.get();
+        if (!logByteRangeSupported || buffer.inUse) {
+            // a layout that logs while it encodes gets here with the buffer of its outer event still in use
+            logger.log(super.getLayout().toByteArray(event));
+            return;
+        }
+        buffer.inUse = true;
+        try {
+            buffer.level = toLogLevel(event.getLevel());
+            super.getLayout().encode(event, buffer);
+            buffer.logAndClear();
+        } finally {
+            buffer.inUse = false;
+        }
+    }
+
+    private static LogLevel toLogLevel(Level level) {
+        switch (level.getStandardLevel()) {
+            case FATAL:
+                return LogLevel.FATAL;
+            case ERROR:
+                return LogLevel.ERROR;
+            case WARN:
+                return LogLevel.WARN;
+            case INFO:
+                return LogLevel.INFO;
+            case DEBUG:
+                return LogLevel.DEBUG;
+            case TRACE:
+                return LogLevel.TRACE;
+            default:
+                return LogLevel.UNDEFINED;
+        }
+    }
+
+    /**
+     * @param loggerClass the LambdaLogger interface of the runtime
+     * @return whether it has log(byte[], int, int, LogLevel)
+     */
+    static boolean isLogByteRangeSupported(Class<?> loggerClass) {
+        try {
+            loggerClass.getMethod("log", byte[].class, int.class, int.class, LogLevel.class);
+            return true;
+        } catch (NoSuchMethodException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * ByteBufferDestination of a single thread. It grows to hold a whole event, up to MAX_CAPACITY bytes. Longer
+     * events are logged in parts of that size.
+     */
+    private final class EventBuffer implements ByteBufferDestination {
+
+        private static final int INITIAL_CAPACITY = 8 * 1024;
+        private static final int MAX_CAPACITY = 256 * 1024;
+
+        private ByteBuffer byteBuffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+        private LogLevel level;
+        private boolean inUse;
+
+        @Override
+        public ByteBuffer getByteBuffer() {
+            return byteBuffer;
+        }
+
+        @Override
+        public ByteBuffer drain(ByteBuffer buf) {
+            if (byteBuffer.capacity() < MAX_CAPACITY) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.min(byteBuffer.capacity() * 2, MAX_CAPACITY));
+                buf.flip();
+                grown.put(buf);
+                byteBuffer = grown;
+            } else {
+                logAndClear();
+            }
+            return byteBuffer;
+        }
+
+        @Override
+        public void writeBytes(ByteBuffer data) {
+            ByteBufferDestinationHelper.writeToUnsynchronized(data, this);
+        }
+
+        @Override
+        public void writeBytes(byte[] data, int offset, int length) {
+            ByteBufferDestinationHelper.writeToUnsynchronized(data, offset, length, this);
+        }
+
+        private void logAndClear() {
+            if (byteBuffer.position() > 0) {
+                logger.log(byteBuffer.array(), byteBuffer.arrayOffset(), byteBuffer.position(), level);
+            }
+            byteBuffer.clear();
+        }
     }
 }
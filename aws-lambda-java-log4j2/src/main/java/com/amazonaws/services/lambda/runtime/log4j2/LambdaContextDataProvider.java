@@ -0,0 +1,97 @@
+package com.amazonaws.services.lambda.runtime.log4j2;
+
+import com.amazonaws.services.lambda.runtime.LambdaRuntimeInternal;
+
+import org.apache.logging.log4j.core.util.ContextDataProvider;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
+import org.apache.logging.log4j.util.StringMap;
+
+import java.util.Map;
+
+/**
+ * Adds the ids of the current invocation to the context data of every log event, for use in layouts like
+ * %X{AWSRequestId}. The runtime publishes them with a single volatile write per invocation, so events logged from
+ * threads the handler started carry them too, unlike values put into the ThreadContext. The context data is built
+ * once per invocation and shared by its events.
+ *
+ * Registered with log4j2 through META-INF/services/org.apache.logging.log4j.core.util.ContextDataProvider.
+ */
+public class LambdaContextDataProvider implements ContextDataProvider {
+
+    public static final String AWS_REQUEST_ID = "AWSRequestId";
+    public static final String AWS_FUNCTION_NAME = "AWSFunctionName";
+    public static final String AWS_XRAY_TRACE_ID = "AWSXRayTraceId";
+
+    private static final String FUNCTION_NAME = System.getenv("AWS_LAMBDA_FUNCTION_NAME");
+
+    private static final StringMap EMPTY = frozen(new SortedArrayStringMap(0));
+
+    /**
+     * Whether the runtime publishes the current invocation. Runtimes built against an older aws-lambda-java-core
+     * put the request id into the ThreadContext instead.
+     */
+    private static final boolean CURRENT_INVOCATION_SUPPORTED = isCurrentInvocationSupported();
+
+    private volatile ContextData contextData;
+
+    public LambdaContextDataProvider() {
+        if (CURRENT_INVOCATION_SUPPORTED) {
+            LambdaRuntimeInternal.setUseLog4jContextDataProvider(true);
+        }
+    }
+
+    @Override
+    public Map<String, String> supplyContextData() {
+        return supplyStringMap().toMap();
+    }
+
+    @Override
+    public StringMap supplyStringMap() {
+        if (!CURRENT_INVOCATION_SUPPORTED) {
+            return EMPTY;
+        }
+        LambdaRuntimeInternal.Invocation invocation = LambdaRuntimeInternal.getCurrentInvocation();
+        if (invocation == null) {
+            return EMPTY;
+        }
+        ContextData current = contextData;
+        if (current == null || current.invocation != invocation) {
+            current = new ContextData(invocation);
+            contextData = current;
+        }
+        return current.stringMap;
+    }
+
+    private static boolean isCurrentInvocationSupported() {
+        try {
+            LambdaRuntimeInternal.class.getMethod("getCurrentInvocation");
+            LambdaRuntimeInternal.class.getMethod("setUseLog4jContextDataProvider", boolean.class);
+            return true;
+        } catch (NoSuchMethodException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static StringMap frozen(StringMap stringMap) {
+        stringMap.freeze();
+        return stringMap;
+    }
+
+    private static final class ContextData {
+        private final LambdaRuntimeInternal.Invocation invocation;
+        private final StringMap stringMap;
+
+        private ContextData(LambdaRuntimeInternal.Invocation invocation) {
+            this.invocation = invocation;
+            StringMap stringMap = new SortedArrayStringMap(3);
+            stringMap.putValue(AWS_REQUEST_ID, invocation.getAwsRequestId());
+            if (FUNCTION_NAME != null) {
+                stringMap.putValue(AWS_FUNCTION_NAME, FUNCTION_NAME);
+            }
+            if (invocation.getXrayTraceId() != null) {
+                stringMap.putValue(AWS_XRAY_TRACE_ID, invocation.getXrayTraceId());
+            }
+            this.stringMap = frozen(stringMap);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.amazonaws.services.lambda.runtime.log4j2;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.layout.AbstractStringLayout;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LambdaAppenderTest {
+
+    private static final PatternLayout MESSAGE_LAYOUT = PatternLayout.newBuilder().withPattern("%m").build();
+
+    @Test
+    public void appendsEventWithItsLevel() {
+        RecordingLogger logger = new RecordingLogger();
+        LambdaAppender appender = new LambdaAppender("Lambda", null, MESSAGE_LAYOUT, true, logger, true);
+
+        appender.append(event(Level.WARN, "message"));
+        appender.append(event(Level.DEBUG, "second"));
+
+        assertEquals(2, logger.messages.size());
+        assertEquals("message", logger.messages.get(0));
+        assertEquals(LogLevel.WARN, logger.levels.get(0));
+        assertEquals("second", logger.messages.get(1));
+        assertEquals(LogLevel.DEBUG, logger.levels.get(1));
+    }
+
+    @Test
+    public void appendsEventLargerThanTheInitialBuffer() {
+        RecordingLogger logger = new RecordingLogger();
+        LambdaAppender appender = new LambdaAppender("Lambda", null, MESSAGE_LAYOUT, true, logger, true);
+        String message = repeat('a', 20 * 1024);
+
+        appender.append(event(Level.INFO, message));
+        appender.append(event(Level.INFO, "small"));
+
+        assertEquals(Arrays.asList(message, "small"), logger.messages);
+    }
+
+    @Test
+    public void appendsEventLargerThanTheMaximumBufferInParts() {
+        RecordingLogger logger = new RecordingLogger();
+        LambdaAppender appender = new LambdaAppender("Lambda", null, MESSAGE_LAYOUT, true, logger, true);
+        String message = repeat('a', 300 * 1024);
+
+        appender.append(event(Level.INFO, message));
+
+        assertEquals(2, logger.messages.size());
+        assertEquals(256 * 1024, logger.messages.get(0).length());
+        assertEquals(message, logger.messages.get(0) + logger.messages.get(1));
+    }
+
+    @Test
+    public void appendsEventOfLayoutThatLogsWhileEncoding() {
+        RecordingLogger logger = new RecordingLogger();
+        ReentrantLayout layout = new ReentrantLayout();
+        LambdaAppender appender = new LambdaAppender("Lambda", null, layout, true, logger, true);
+        layout.appender = appender;
+
+        appender.append(event(Level.ERROR, "outer"));
+        appender.append(event(Level.INFO, "after"));
+
+        // the inner event is logged as a whole array, before the outer one is complete
+        assertEquals(Arrays.asList("inner", "outer", "after"), logger.messages);
+        assertNull(logger.levels.get(0));
+        assertEquals(LogLevel.ERROR, logger.levels.get(1));
+        assertEquals(LogLevel.INFO, logger.levels.get(2));
+    }
+
+    @Test
+    public void appendsWholeArraysToOlderRuntimes() {
+        RecordingLogger logger = new RecordingLogger();
+        LambdaAppender appender = new LambdaAppender("Lambda", null, MESSAGE_LAYOUT, true, logger, false);
+
+        appender.append(event(Level.INFO, "message"));
+
+        assertEquals(Arrays.asList("message"), logger.messages);
+        assertNull(logger.levels.get(0));
+    }
+
+    @Test
+    public void detectsLogByteRange() {
+        assertTrue(LambdaAppender.isLogByteRangeSupported(LambdaLogger.class));
+        assertFalse(LambdaAppender.isLogByteRangeSupported(OlderLambdaLogger.class));
+    }
+
+    private static LogEvent event(Level level, String message) {
+        return Log4jLogEvent.newBuilder()
+                .setLoggerName("test")
+                .setLevel(level)
+                .setMessage(new SimpleMessage(message))
+                .build();
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    /**
+     * The LambdaLogger of aws-lambda-java-core versions without leveled logging
+     */
+    private interface OlderLambdaLogger {
+        void log(String message);
+
+        void log(byte[] message);
+    }
+
+    /**
+     * Records the messages, and their levels if logged with the byte range method
+     */
+    private static class RecordingLogger implements LambdaLogger {
+        private final List<String> messages = new ArrayList<>();
+        private final List<LogLevel> levels = new ArrayList<>();
+
+        @Override
+        public void log(String message) {
+            messages.add(message);
+            levels.add(null);
+        }
+
+        @Override
+        public void log(byte[] message) {
+            log(new String(message, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void log(byte[] message, int offset, int length, LogLevel logLevel) {
+            messages.add(new String(message, offset, length, StandardCharsets.UTF_8));
+            levels.add(logLevel);
+        }
+    }
+
+    /**
+     * Logs an inner event while it encodes the event with the message "outer"
+     */
+    private static class ReentrantLayout extends AbstractStringLayout {
+        private LambdaAppender appender;
+
+        ReentrantLayout() {
+            super(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String toSerializable(LogEvent event) {
+            String message = event.getMessage().getFormattedMessage();
+            if (message.equals("outer")) {
+                appender.append(event(Level.INFO, "inner"));
+            }
+            return message;
+        }
+    }
+}
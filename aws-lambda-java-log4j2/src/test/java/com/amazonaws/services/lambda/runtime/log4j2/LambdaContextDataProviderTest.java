@@ -0,0 +1,96 @@
+package com.amazonaws.services.lambda.runtime.log4j2;
+
+import com.amazonaws.services.lambda.runtime.LambdaRuntimeInternal;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.config.Property;
+import org.apache.logging.log4j.util.StringMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LambdaContextDataProviderTest {
+
+    @Test
+    public void flagsItselfToTheRuntime() {
+        LambdaRuntimeInternal.setUseLog4jContextDataProvider(false);
+
+        new LambdaContextDataProvider();
+
+        assertTrue(LambdaRuntimeInternal.getUseLog4jContextDataProvider());
+    }
+
+    @Test
+    public void suppliesTheIdsOfTheCurrentInvocation() {
+        LambdaContextDataProvider provider = new LambdaContextDataProvider();
+
+        LambdaRuntimeInternal.setCurrentInvocation("request-1", "Root=1-trace");
+        StringMap first = provider.supplyStringMap();
+
+        assertEquals("request-1", first.getValue(LambdaContextDataProvider.AWS_REQUEST_ID));
+        assertEquals("Root=1-trace", first.getValue(LambdaContextDataProvider.AWS_XRAY_TRACE_ID));
+        assertTrue(first.isFrozen());
+        assertSame(first, provider.supplyStringMap());
+
+        LambdaRuntimeInternal.setCurrentInvocation("request-2", null);
+        StringMap second = provider.supplyStringMap();
+
+        assertNotSame(first, second);
+        assertEquals("request-2", second.getValue(LambdaContextDataProvider.AWS_REQUEST_ID));
+        assertNull(second.getValue(LambdaContextDataProvider.AWS_XRAY_TRACE_ID));
+        assertEquals("request-2", provider.supplyContextData().get(LambdaContextDataProvider.AWS_REQUEST_ID));
+    }
+
+    @Test
+    public void logEventsCarryTheRequestId() throws InterruptedException {
+        LoggerContext context = (LoggerContext) LogManager.getContext(false);
+        RecordingAppender appender = new RecordingAppender();
+        appender.start();
+        LoggerConfig rootLogger = context.getConfiguration().getRootLogger();
+        rootLogger.addAppender(appender, Level.ALL, null);
+        context.updateLoggers();
+        try {
+            Logger logger = context.getLogger(LambdaContextDataProviderTest.class.getName());
+
+            LambdaRuntimeInternal.setCurrentInvocation("request-3", null);
+            logger.error("main thread");
+            Thread worker = new Thread(() -> logger.error("worker thread"));
+            worker.start();
+            worker.join();
+
+            assertEquals(2, appender.requestIds.size());
+            assertEquals("request-3", appender.requestIds.get(0));
+            assertEquals("request-3", appender.requestIds.get(1));
+        } finally {
+            rootLogger.removeAppender(appender.getName());
+            context.updateLoggers();
+            appender.stop();
+        }
+    }
+
+    private static class RecordingAppender extends AbstractAppender {
+        private final List<String> requestIds = new ArrayList<>();
+
+        RecordingAppender() {
+            super("Recording", null, null, true, Property.EMPTY_ARRAY);
+        }
+
+        @Override
+        public synchronized void append(LogEvent event) {
+            // events may be reused once appended, the value is read right away
+            requestIds.add(event.getContextData().getValue(LambdaContextDataProvider.AWS_REQUEST_ID));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.amazonaws.services.lambda.runtime.logback;
+
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.amazonaws.services.lambda.runtime.LambdaRuntimeInternal;
+
+/**
+ * Converts to the request id of the current invocation, which the runtime publishes for all threads, so no MDC
+ * lookup is involved. Register it in logback.xml with
+ *
+ * <pre>
+ * {@code
+ * <conversionRule conversionWord="awsRequestId"
+ *                 converterClass="com.amazonaws.services.lambda.runtime.logback.AwsRequestIdConverter" />
+ * }
+ * </pre>
+ *
+ * and use it in a pattern as %awsRequestId. Converts to an empty string outside of an invocation.
+ */
+public class AwsRequestIdConverter extends ClassicConverter {
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        LambdaRuntimeInternal.Invocation invocation = CurrentInvocation.get();
+        return invocation == null ? "" : invocation.getAwsRequestId();
+    }
+}
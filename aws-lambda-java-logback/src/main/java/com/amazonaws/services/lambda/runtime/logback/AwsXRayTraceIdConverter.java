@@ -0,0 +1,18 @@
+package com.amazonaws.services.lambda.runtime.logback;
+
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.amazonaws.services.lambda.runtime.LambdaRuntimeInternal;
+
+/**
+ * Converts to the X-Ray trace header of the current invocation, see {@link AwsRequestIdConverter} for how to register
+ * it. Converts to an empty string outside of an invocation or if it is not traced.
+ */
+public class AwsXRayTraceIdConverter extends ClassicConverter {
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        LambdaRuntimeInternal.Invocation invocation = CurrentInvocation.get();
+        return invocation == null || invocation.getXrayTraceId() == null ? "" : invocation.getXrayTraceId();
+    }
+}
@@ -0,0 +1,33 @@
+package com.amazonaws.services.lambda.runtime.logback;
+
+import com.amazonaws.services.lambda.runtime.LambdaRuntimeInternal;
+
+/**
+ * Reads the current invocation from runtimes that publish it
+ */
+final class CurrentInvocation {
+
+    /**
+     * Runtimes built against an older aws-lambda-java-core do not publish the current invocation
+     */
+    private static final boolean SUPPORTED = isSupported();
+
+    private CurrentInvocation() {
+    }
+
+    /**
+     * @return the current invocation, or null outside of an invocation or if the runtime does not publish it
+     */
+    static LambdaRuntimeInternal.Invocation get() {
+        return SUPPORTED ? LambdaRuntimeInternal.getCurrentInvocation() : null;
+    }
+
+    private static boolean isSupported() {
+        try {
+            LambdaRuntimeInternal.class.getMethod("getCurrentInvocation");
+            return true;
+        } catch (NoSuchMethodException | LinkageError e) {
+            return false;
+        }
+    }
+}
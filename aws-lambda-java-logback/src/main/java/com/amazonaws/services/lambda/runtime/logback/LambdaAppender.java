@@ -0,0 +1,193 @@
+package com.amazonaws.services.lambda.runtime.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Layout;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.LambdaRuntime;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Appender to log Logback events from an AWS Lambda function to CloudWatch. Each event is logged as a single entry,
+ * however many lines it has, with the level of the event, straight through the logger of the runtime instead of
+ * System.out.
+ *
+ * With an encoder that wraps a layout, like the default PatternLayoutEncoder, the layout output is encoded in the
+ * charset of the encoder into a buffer of the calling thread, so the only allocation per event is the one of the
+ * layout. Other encoders are used as they are.
+ */
+public class LambdaAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    /**
+     * LambdaLogger.log(byte[], int, int, LogLevel) came with aws-lambda-java-core 1.2.3, a function deployed on an
+     * older runtime logs whole arrays without levels
+     */
+    private static final boolean LOG_BYTE_RANGE_SUPPORTED = hasLogByteRange(LambdaLogger.class);
+
+    private final LambdaLogger logger;
+
+    private final boolean logByteRangeSupported;
+
+    private Encoder<ILoggingEvent> encoder;
+
+    /**
+     * Layout of the encoder if it wraps one, set on start
+     */
+    private Layout<ILoggingEvent> layout;
+
+    /**
+     * Buffers of the threads, for the charset of the encoder, set on start
+     */
+    private ThreadLocal<EventBuffer> eventBuffer;
+
+    public LambdaAppender() {
+        this(LambdaRuntime.getLogger(), LOG_BYTE_RANGE_SUPPORTED);
+    }
+
+    /**
+     * @param logger logger of the runtime, or a stand-in
+     * @param logByteRangeSupported whether the logger has log(byte[], int, int, LogLevel)
+     */
+    LambdaAppender(LambdaLogger logger, boolean logByteRangeSupported) {
+        this.logger = logger;
+        this.logByteRangeSupported = logByteRangeSupported;
+    }
+
+    public Encoder<ILoggingEvent> getEncoder() {
+        return encoder;
+    }
+
+    public void setEncoder(Encoder<ILoggingEvent> encoder) {
+        this.encoder = encoder;
+    }
+
+    @Override
+    public void start() {
+        if (encoder == null) {
+            addError("No encoder set for the appender named \"" + name + "\".");
+            return;
+        }
+        if (encoder instanceof LayoutWrappingEncoder) {
+            LayoutWrappingEncoder<ILoggingEvent> layoutEncoder = (LayoutWrappingEncoder<ILoggingEvent>) encoder;
+            layout = layoutEncoder.getLayout();
+            // LayoutWrappingEncoder falls back to the platform charset as well
+            Charset charset = layoutEncoder.getCharset() == null ? Charset.defaultCharset() : layoutEncoder.getCharset();
+            eventBuffer = ThreadLocal.withInitial(() -> new EventBuffer(charset));
+        } else {
+            layout = null;
+            eventBuffer = null;
+        }
+        super.start();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (!logByteRangeSupported) {
+            logger.log(encoder.encode(event));
+            return;
+        }
+        LogLevel logLevel = toLogLevel(event.getLevel());
+        EventBuffer buffer = layout == null ? null : eventBuffer.get();
+        if (buffer == null || buffer.inUse) {
+            // without a layout, or when append is called while the layout formats another event on this thread.
+            // doAppend drops such events itself, subclasses calling append directly are not guarded by it.
+            byte[] encoded = encoder.encode(event);
+            logger.log(encoded, 0, encoded.length, logLevel);
+            return;
+        }
+        buffer.inUse = true;
+        try {
+            String formatted = layout.doLayout(event);
+            if (formatted.length() > EventBuffer.MAX_CHARS) {
+                byte[] encoded = formatted.getBytes(buffer.charset);
+                logger.log(encoded, 0, encoded.length, logLevel);
+            } else {
+                ByteBuffer encoded = buffer.encode(formatted);
+                logger.log(encoded.array(), 0, encoded.position(), logLevel);
+            }
+        } finally {
+            buffer.inUse = false;
+        }
+    }
+
+    private static LogLevel toLogLevel(Level level) {
+        switch (level.toInt()) {
+            case Level.ERROR_INT:
+                return LogLevel.ERROR;
+            case Level.WARN_INT:
+                return LogLevel.WARN;
+            case Level.INFO_INT:
+                return LogLevel.INFO;
+            case Level.DEBUG_INT:
+                return LogLevel.DEBUG;
+            case Level.TRACE_INT:
+                return LogLevel.TRACE;
+            default:
+                return LogLevel.UNDEFINED;
+        }
+    }
+
+    static boolean hasLogByteRange(Class<?> loggerClass) {
+        try {
+            loggerClass.getMethod("log", byte[].class, int.class, int.class, LogLevel.class);
+            return true;
+        } catch (NoSuchMethodException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Encoder and buffers of a single thread. They grow to hold the events of up to MAX_CHARS chars, longer ones are
+     * encoded with String.getBytes. Malformed and unmappable chars are replaced, as by String.getBytes.
+     */
+    static final class EventBuffer {
+
+        static final int MAX_CHARS = 64 * 1024;
+
+        private final Charset charset;
+        private final CharsetEncoder charsetEncoder;
+        private CharBuffer chars = CharBuffer.allocate(1024);
+        private ByteBuffer bytes;
+        private boolean inUse;
+
+        EventBuffer(Charset charset) {
+            this.charset = charset;
+            this.charsetEncoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.bytes = ByteBuffer.allocate(maxBytes(chars.capacity()));
+        }
+
+        /**
+         * @return the buffer the string was encoded into, from index 0 to its position
+         */
+        ByteBuffer encode(String s) {
+            int length = s.length();
+            if (length > chars.capacity()) {
+                chars = CharBuffer.allocate(Math.max(length, chars.capacity() * 2));
+                bytes = ByteBuffer.allocate(maxBytes(chars.capacity()));
+            }
+            s.getChars(0, length, chars.array(), 0);
+            chars.clear().limit(length);
+            bytes.clear();
+            // the byte buffer holds the longest encoding of the chars, so neither call can overflow
+            charsetEncoder.reset();
+            charsetEncoder.encode(chars, bytes, true);
+            charsetEncoder.flush(bytes);
+            return bytes;
+        }
+
+        private int maxBytes(int chars) {
+            return (int) Math.ceil(chars * (double) charsetEncoder.maxBytesPerChar());
+        }
+    }
+}
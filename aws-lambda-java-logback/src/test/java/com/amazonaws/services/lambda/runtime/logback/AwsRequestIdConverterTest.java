@@ -0,0 +1,57 @@
+package com.amazonaws.services.lambda.runtime.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.amazonaws.services.lambda.runtime.LambdaRuntimeInternal;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AwsRequestIdConverterTest {
+
+    private static final LoggerContext CONTEXT = new LoggerContext();
+
+    @Test
+    public void convertsToTheIdsOfTheCurrentInvocation() {
+        LambdaRuntimeInternal.setCurrentInvocation("request-1", "Root=1-trace");
+
+        assertEquals("request-1", new AwsRequestIdConverter().convert(event()));
+        assertEquals("Root=1-trace", new AwsXRayTraceIdConverter().convert(event()));
+    }
+
+    @Test
+    public void convertsAnUntracedInvocationToAnEmptyTraceId() {
+        LambdaRuntimeInternal.setCurrentInvocation("request-2", null);
+
+        assertEquals("request-2", new AwsRequestIdConverter().convert(event()));
+        assertEquals("", new AwsXRayTraceIdConverter().convert(event()));
+    }
+
+    @Test
+    public void convertsInPatternsOnOtherThreads() throws InterruptedException {
+        PatternLayout layout = new PatternLayout();
+        layout.setContext(CONTEXT);
+        layout.getInstanceConverterMap().put("awsRequestId", AwsRequestIdConverter.class.getName());
+        layout.getInstanceConverterMap().put("awsXRayTraceId", AwsXRayTraceIdConverter.class.getName());
+        layout.setPattern("%awsRequestId %awsXRayTraceId %m");
+        layout.start();
+        LambdaRuntimeInternal.setCurrentInvocation("request-3", "Root=1-trace");
+
+        AtomicReference<String> formatted = new AtomicReference<>();
+        Thread worker = new Thread(() -> formatted.set(layout.doLayout(event())));
+        worker.start();
+        worker.join();
+
+        assertEquals("request-3 Root=1-trace message", formatted.get());
+    }
+
+    private static ILoggingEvent event() {
+        return new LoggingEvent(AwsRequestIdConverterTest.class.getName(), CONTEXT.getLogger("test"), Level.INFO,
+                "message", null, null);
+    }
+}
@@ -0,0 +1,245 @@
+package com.amazonaws.services.lambda.runtime.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Layout;
+import ch.qos.logback.core.LayoutBase;
+import ch.qos.logback.core.encoder.EncoderBase;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LambdaAppenderTest {
+
+    private static final LoggerContext CONTEXT = new LoggerContext();
+
+    @Test
+    public void appendsEventWithItsLevel() {
+        RecordingLogger logger = new RecordingLogger();
+        LambdaAppender appender = appender(logger, true, patternEncoder(null));
+
+        appender.doAppend(event(Level.WARN, "message"));
+        appender.doAppend(event(Level.DEBUG, "second"));
+
+        assertEquals(Arrays.asList("message", "second"), logger.messages(StandardCharsets.UTF_8));
+        assertEquals(Arrays.asList(LogLevel.WARN, LogLevel.DEBUG), logger.levels);
+    }
+
+    @Test
+    public void encodesLikeStringGetBytes() {
+        String message = "ascii \u00E9 \u20AC \uD83D\uDE00 unpaired \uD800 and \uDC00";
+        for (Charset charset : Arrays.asList(StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1,
+                StandardCharsets.UTF_16BE)) {
+            RecordingLogger logger = new RecordingLogger();
+            LambdaAppender appender = appender(logger, true, patternEncoder(charset));
+
+            appender.doAppend(event(Level.INFO, message));
+
+            assertArrayEquals(message.getBytes(charset), logger.arrays.get(0), charset.name());
+        }
+    }
+
+    @Test
+    public void encodesInThePlatformCharsetWithoutACharset() {
+        RecordingLogger logger = new RecordingLogger();
+        LambdaAppender appender = appender(logger, true, patternEncoder(null));
+
+        appender.doAppend(event(Level.INFO, "\u00E9 \u20AC"));
+
+        assertArrayEquals("\u00E9 \u20AC".getBytes(), logger.arrays.get(0));
+    }
+
+    @Test
+    public void growsTheBufferForLargerEvents() {
+        RecordingLogger logger = new RecordingLogger();
+        LambdaAppender appender = appender(logger, true, patternEncoder(StandardCharsets.UTF_8));
+        String large = repeat('\u20AC', 5000);
+        String tooLargeToBuffer = repeat('a', LambdaAppender.EventBuffer.MAX_CHARS + 1);
+
+        appender.doAppend(event(Level.INFO, "small"));
+        appender.doAppend(event(Level.INFO, large));
+        appender.doAppend(event(Level.INFO, tooLargeToBuffer));
+        appender.doAppend(event(Level.INFO, "small again"));
+
+        assertEquals(Arrays.asList("small", large, tooLargeToBuffer, "small again"),
+                logger.messages(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void appendsEventLoggedByTheLayoutBeforeTheOuterEvent() {
+        RecordingLogger logger = new RecordingLogger();
+        ReentrantLayout layout = new ReentrantLayout();
+        LayoutWrappingEncoder<ILoggingEvent> encoder = new LayoutWrappingEncoder<>();
+        encoder.setContext(CONTEXT);
+        encoder.setLayout(layout);
+        encoder.setCharset(StandardCharsets.UTF_8);
+        encoder.start();
+        LambdaAppender appender = appender(logger, true, encoder);
+        layout.appender = appender;
+
+        // doAppend drops events appended from within itself on the same thread, append does not
+        appender.append(event(Level.ERROR, "outer"));
+        appender.append(event(Level.INFO, "after"));
+
+        assertEquals(Arrays.asList("inner", "outer", "after"), logger.messages(StandardCharsets.UTF_8));
+        assertEquals(Arrays.asList(LogLevel.INFO, LogLevel.ERROR, LogLevel.INFO), logger.levels);
+    }
+
+    @Test
+    public void usesEncodersWithoutALayoutAsTheyAre() {
+        RecordingLogger logger = new RecordingLogger();
+        EncoderBase<ILoggingEvent> encoder = new EncoderBase<ILoggingEvent>() {
+            @Override
+            public byte[] headerBytes() {
+                return null;
+            }
+
+            @Override
+            public byte[] encode(ILoggingEvent event) {
+                return ("encoded " + event.getFormattedMessage()).getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public byte[] footerBytes() {
+                return null;
+            }
+        };
+        encoder.start();
+        LambdaAppender appender = appender(logger, true, encoder);
+
+        appender.doAppend(event(Level.TRACE, "message"));
+
+        assertEquals(Arrays.asList("encoded message"), logger.messages(StandardCharsets.UTF_8));
+        assertEquals(Arrays.asList(LogLevel.TRACE), logger.levels);
+    }
+
+    @Test
+    public void appendsWholeArraysToOlderRuntimes() {
+        RecordingLogger logger = new RecordingLogger();
+        LambdaAppender appender = appender(logger, false, patternEncoder(StandardCharsets.UTF_8));
+
+        appender.doAppend(event(Level.INFO, "message"));
+
+        assertEquals(Arrays.asList("message"), logger.messages(StandardCharsets.UTF_8));
+        assertNull(logger.levels.get(0));
+    }
+
+    @Test
+    public void doesNotStartWithoutAnEncoder() {
+        LambdaAppender appender = new LambdaAppender(new RecordingLogger(), true);
+        appender.setContext(CONTEXT);
+
+        appender.start();
+
+        assertFalse(appender.isStarted());
+    }
+
+    @Test
+    public void detectsLogByteRange() {
+        assertTrue(LambdaAppender.hasLogByteRange(LambdaLogger.class));
+        assertFalse(LambdaAppender.hasLogByteRange(OlderLambdaLogger.class));
+    }
+
+    private static LambdaAppender appender(LambdaLogger logger, boolean logByteRangeSupported,
+                                           ch.qos.logback.core.encoder.Encoder<ILoggingEvent> encoder) {
+        LambdaAppender appender = new LambdaAppender(logger, logByteRangeSupported);
+        appender.setContext(CONTEXT);
+        appender.setEncoder(encoder);
+        appender.start();
+        assertTrue(appender.isStarted());
+        return appender;
+    }
+
+    private static PatternLayoutEncoder patternEncoder(Charset charset) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(CONTEXT);
+        encoder.setPattern("%m");
+        encoder.setCharset(charset);
+        encoder.start();
+        return encoder;
+    }
+
+    private static ILoggingEvent event(Level level, String message) {
+        return new LoggingEvent(LambdaAppenderTest.class.getName(), CONTEXT.getLogger("test"), level, message,
+                null, null);
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    /**
+     * The LambdaLogger of aws-lambda-java-core versions without leveled logging
+     */
+    private interface OlderLambdaLogger {
+        void log(String message);
+
+        void log(byte[] message);
+    }
+
+    /**
+     * Records copies of the logged bytes, and their levels if logged with the byte range method
+     */
+    private static class RecordingLogger implements LambdaLogger {
+        private final List<byte[]> arrays = new ArrayList<>();
+        private final List<LogLevel> levels = new ArrayList<>();
+
+        @Override
+        public void log(String message) {
+            log(message.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void log(byte[] message) {
+            arrays.add(message.clone());
+            levels.add(null);
+        }
+
+        @Override
+        public void log(byte[] message, int offset, int length, LogLevel logLevel) {
+            arrays.add(Arrays.copyOfRange(message, offset, offset + length));
+            levels.add(logLevel);
+        }
+
+        List<String> messages(Charset charset) {
+            List<String> messages = new ArrayList<>();
+            for (byte[] array : arrays) {
+                messages.add(new String(array, charset));
+            }
+            return messages;
+        }
+    }
+
+    /**
+     * Appends an inner event while it lays out the event with the message "outer"
+     */
+    private static class ReentrantLayout extends LayoutBase<ILoggingEvent> implements Layout<ILoggingEvent> {
+        private LambdaAppender appender;
+
+        @Override
+        public String doLayout(ILoggingEvent event) {
+            if (event.getMessage().equals("outer")) {
+                appender.append(event(Level.INFO, "inner"));
+            }
+            return event.getMessage();
+        }
+    }
+}
@@ -6,17 +6,26 @@
 package com.amazonaws.services.lambda.runtime.api.client;
 
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.LambdaRuntimeInternal;
 import com.amazonaws.services.lambda.runtime.api.client.LambdaRequestHandler.UserFaultHandler;
+import com.amazonaws.services.lambda.runtime.api.client.jfr.RuntimeEvents;
+import com.amazonaws.services.lambda.runtime.api.client.jfr.SlowInvocationRecorder;
+import com.amazonaws.services.lambda.runtime.api.client.logging.AsyncFramedTelemetryLogSink;
 import com.amazonaws.services.lambda.runtime.api.client.logging.FramedTelemetryLogSink;
 import com.amazonaws.services.lambda.runtime.api.client.logging.LambdaContextLogger;
 import com.amazonaws.services.lambda.runtime.api.client.logging.LogSink;
+import com.amazonaws.services.lambda.runtime.api.client.logging.LogSinkOutputStream;
+import com.amazonaws.services.lambda.runtime.api.client.logging.RateLimitingLogSink;
 import com.amazonaws.services.lambda.runtime.api.client.logging.StdOutLogSink;
+import com.amazonaws.services.lambda.runtime.api.client.metrics.EmbeddedMetrics;
 import com.amazonaws.services.lambda.runtime.api.client.runtimeapi.InvocationRequest;
 import com.amazonaws.services.lambda.runtime.api.client.runtimeapi.LambdaRuntimeClient;
 import com.amazonaws.services.lambda.runtime.api.client.util.LambdaOutputStream;
 import com.amazonaws.services.lambda.runtime.api.client.util.UnsafeUtil;
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+import com.amazonaws.services.lambda.runtime.metrics.LambdaMetrics;
 import com.amazonaws.services.lambda.runtime.serialization.PojoSerializer;
-import com.amazonaws.services.lambda.runtime.serialization.factories.GsonFactory;
 import com.amazonaws.services.lambda.runtime.serialization.factories.JacksonFactory;
 import com.amazonaws.services.lambda.runtime.serialization.util.ReflectUtil;
 
@@ -30,6 +39,9 @@ import java.io.PrintStream;
 import java.lang.reflect.Constructor;
 import java.net.URLClassLoader;
 import java.security.Security;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -55,6 +67,46 @@ public class AWSLambda {
 
     private static final String DEFAULT_NEGATIVE_CACHE_TTL = "1";
 
+    // opt-in asynchronous telemetry logging, see AsyncFramedTelemetryLogSink
+    private static final String ASYNC_LOGGING_ENV_VAR = "AWS_LAMBDA_JAVA_ASYNC_LOGGING";
+
+    private static final String ASYNC_LOGGING_BUFFER_SIZE_ENV_VAR = "AWS_LAMBDA_JAVA_ASYNC_LOGGING_BUFFER_SIZE";
+
+    private static final String ASYNC_LOGGING_OVERFLOW_ENV_VAR = "AWS_LAMBDA_JAVA_ASYNC_LOGGING_OVERFLOW";
+
+    private static final int DEFAULT_ASYNC_LOGGING_BUFFER_SIZE = 1024;
+
+    // minimum level of the messages logged with a level through the LambdaLogger, e.g. DEBUG
+    private static final String LOG_LEVEL_ENV_VAR = "AWS_LAMBDA_LOG_LEVEL";
+
+    // TEXT or JSON
+    private static final String LOG_FORMAT_ENV_VAR = "AWS_LAMBDA_LOG_FORMAT";
+
+    // opt-in frame types that carry the format and level of a message, see FrameType
+    private static final String LEVELED_FRAME_TYPES_ENV_VAR = "AWS_LAMBDA_JAVA_LEVELED_FRAME_TYPES";
+
+    // opt-in capture of System.out and System.err as multi-line log entries, see LogSinkOutputStream
+    private static final String CAPTURE_STDOUT_ENV_VAR = "AWS_LAMBDA_JAVA_CAPTURE_STDOUT";
+
+    // opt-in per invocation log budget and duplicate collapsing, see RateLimitingLogSink
+    private static final String LOG_MAX_EVENTS_PER_INVOCATION_ENV_VAR = "AWS_LAMBDA_JAVA_LOG_MAX_EVENTS_PER_INVOCATION";
+
+    private static final String LOG_MAX_BYTES_PER_INVOCATION_ENV_VAR = "AWS_LAMBDA_JAVA_LOG_MAX_BYTES_PER_INVOCATION";
+
+    private static final String LOG_OVER_BUDGET_SAMPLE_RATE_ENV_VAR = "AWS_LAMBDA_JAVA_LOG_OVER_BUDGET_SAMPLE_RATE";
+
+    private static final String LOG_COLLAPSE_DUPLICATES_ENV_VAR = "AWS_LAMBDA_JAVA_LOG_COLLAPSE_DUPLICATES";
+
+    // CloudWatch namespace of the metrics recorded through LambdaRuntime.getMetrics()
+    private static final String METRICS_NAMESPACE_ENV_VAR = "AWS_LAMBDA_JAVA_METRICS_NAMESPACE";
+
+    private static final String DEFAULT_METRICS_NAMESPACE = "aws-embedded-metrics";
+
+    // opt-in continuous JFR recording, reported for invocations slower than the threshold, see SlowInvocationRecorder
+    private static final String SLOW_INVOCATION_THRESHOLD_ENV_VAR = "AWS_LAMBDA_JAVA_SLOW_INVOCATION_THRESHOLD_MS";
+
+    private static final String SLOW_INVOCATION_KEEP_DUMPS_ENV_VAR = "AWS_LAMBDA_JAVA_SLOW_INVOCATION_KEEP_DUMPS";
+
     // System property for Lambda tracing, see aws-xray-sdk-java/LambdaSegmentContext
     // https://github.com/aws/aws-xray-sdk-java/blob/2f467e50db61abb2ed2bd630efc21bddeabd64d9/aws-xray-recorder-sdk-core/src/main/java/com/amazonaws/xray/contexts/LambdaSegmentContext.java#L39-L40
     private static final String LAMBDA_TRACE_HEADER_PROP = "com.amazonaws.xray.traceHeader";
@@ -135,6 +187,16 @@ public class AWSLambda {
         );
     }
 
+    public static void setupRuntimeMetrics(LambdaMetrics lambdaMetrics)
+            throws ClassNotFoundException, IllegalAccessException, NoSuchFieldException {
+        ReflectUtil.setStaticField(
+                Class.forName("com.amazonaws.services.lambda.runtime.LambdaRuntime"),
+                "metrics",
+                true,
+                lambdaMetrics
+        );
+    }
+
     public static String getEnvOrExit(String envVariableName) {
         String value = System.getenv(envVariableName);
         if (value == null) {
@@ -169,12 +231,105 @@ public class AWSLambda {
         try {
             int fdInt = Integer.parseInt(fdStr);
             FileDescriptor fd = intToFd(fdInt);
-            return new FramedTelemetryLogSink(fd);
+            boolean leveledFrameTypes = Boolean.parseBoolean(System.getenv(LEVELED_FRAME_TYPES_ENV_VAR));
+            if (Boolean.parseBoolean(System.getenv(ASYNC_LOGGING_ENV_VAR))) {
+                return createAsyncLogSink(fd, leveledFrameTypes);
+            }
+            return new FramedTelemetryLogSink(fd, leveledFrameTypes);
         } catch (Exception e) {
             return new StdOutLogSink();
         }
     }
 
+    private static LogSink createAsyncLogSink(FileDescriptor fd, boolean leveledFrameTypes) {
+        int bufferSize = DEFAULT_ASYNC_LOGGING_BUFFER_SIZE;
+        String bufferSizeStr = System.getenv(ASYNC_LOGGING_BUFFER_SIZE_ENV_VAR);
+        if (bufferSizeStr != null) {
+            try {
+                bufferSize = Integer.parseInt(bufferSizeStr.trim());
+            } catch (NumberFormatException e) {
+                System.err.println("Ignoring invalid " + ASYNC_LOGGING_BUFFER_SIZE_ENV_VAR + ": " + bufferSizeStr);
+            }
+        }
+        AsyncFramedTelemetryLogSink.OverflowPolicy overflowPolicy = AsyncFramedTelemetryLogSink.OverflowPolicy.BLOCK;
+        String overflowStr = System.getenv(ASYNC_LOGGING_OVERFLOW_ENV_VAR);
+        if (overflowStr != null) {
+            try {
+                overflowPolicy = AsyncFramedTelemetryLogSink.OverflowPolicy.valueOf(overflowStr.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Ignoring invalid " + ASYNC_LOGGING_OVERFLOW_ENV_VAR + ": " + overflowStr);
+            }
+        }
+        return new AsyncFramedTelemetryLogSink(fd, Math.max(bufferSize, 1), overflowPolicy, leveledFrameTypes);
+    }
+
+    /**
+     * @param env environment variables of the runtime
+     * @return the sink wrapped in a RateLimitingLogSink if a log budget or duplicate collapsing is configured
+     */
+    static LogSink withRateLimiting(LogSink logSink, Map<String, String> env) {
+        long maxEvents = getEnvLong(env, LOG_MAX_EVENTS_PER_INVOCATION_ENV_VAR, Long.MAX_VALUE);
+        long maxBytes = getEnvLong(env, LOG_MAX_BYTES_PER_INVOCATION_ENV_VAR, Long.MAX_VALUE);
+        long sampleRate = getEnvLong(env, LOG_OVER_BUDGET_SAMPLE_RATE_ENV_VAR, 0);
+        boolean collapseDuplicates = Boolean.parseBoolean(env.get(LOG_COLLAPSE_DUPLICATES_ENV_VAR));
+        if (maxEvents == Long.MAX_VALUE && maxBytes == Long.MAX_VALUE && !collapseDuplicates) {
+            return logSink;
+        }
+        return new RateLimitingLogSink(logSink, Math.max(maxEvents, 0), Math.max(maxBytes, 0),
+                (int) Math.min(Math.max(sampleRate, 0), Integer.MAX_VALUE), collapseDuplicates);
+    }
+
+    private static long getEnvLong(String envVariableName, long defaultValue) {
+        return getEnvLong(System.getenv(), envVariableName, defaultValue);
+    }
+
+    private static long getEnvLong(Map<String, String> env, String envVariableName, long defaultValue) {
+        String valueStr = env.get(envVariableName);
+        if (valueStr != null) {
+            try {
+                return Long.parseLong(valueStr.trim());
+            } catch (NumberFormatException e) {
+                System.err.println("Ignoring invalid " + envVariableName + ": " + valueStr);
+            }
+        }
+        return defaultValue;
+    }
+
+    private static SlowInvocationRecorder createSlowInvocationRecorder(LambdaLogger lambdaLogger) {
+        long thresholdMillis = getEnvLong(SLOW_INVOCATION_THRESHOLD_ENV_VAR, -1);
+        if (thresholdMillis < 0) {
+            return null;
+        }
+        if (!RuntimeEvents.isJfrAvailable()) {
+            System.err.println("Ignoring " + SLOW_INVOCATION_THRESHOLD_ENV_VAR + ", the JVM does not support JFR");
+            return null;
+        }
+        return SlowInvocationRecorder.create(thresholdMillis,
+                Boolean.parseBoolean(System.getenv(SLOW_INVOCATION_KEEP_DUMPS_ENV_VAR)), lambdaLogger);
+    }
+
+    static LambdaContextLogger createLambdaLogger(LogSink logSink) {
+        LogLevel minimumLogLevel = LogLevel.UNDEFINED;
+        String logLevelStr = System.getenv(LOG_LEVEL_ENV_VAR);
+        if (logLevelStr != null) {
+            try {
+                minimumLogLevel = LogLevel.fromString(logLevelStr);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Ignoring invalid " + LOG_LEVEL_ENV_VAR + ": " + logLevelStr);
+            }
+        }
+        LogFormat logFormat = LogFormat.TEXT;
+        String logFormatStr = System.getenv(LOG_FORMAT_ENV_VAR);
+        if (logFormatStr != null) {
+            try {
+                logFormat = LogFormat.fromString(logFormatStr);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Ignoring invalid " + LOG_FORMAT_ENV_VAR + ": " + logFormatStr);
+            }
+        }
+        return new LambdaContextLogger(logSink, minimumLogLevel, logFormat);
+    }
+
     public static void main(String[] args) {
         // TODO validate arguments, show usage
         startRuntime(args[0]);
@@ -182,38 +337,66 @@ public class AWSLambda {
 
     private static void startRuntime(String handler) {
         try (LogSink logSink = createLogSink()) {
-            startRuntime(handler, new LambdaContextLogger(logSink));
+            startRuntime(handler, logSink);
         } catch (Throwable t) {
             throw new Error(t);
         }
     }
 
-    private static void startRuntime(String handler, LambdaLogger lambdaLogger) throws Throwable {
+    private static void startRuntime(String handler, LogSink logSink) throws Throwable {
+        RuntimeEvents.Span runtimeSetup = RuntimeEvents.beginInit(RuntimeEvents.InitPhase.RUNTIME_SETUP);
         UnsafeUtil.disableIllegalAccessWarning();
 
-        System.setOut(new PrintStream(new LambdaOutputStream(System.out), false, "UTF-8"));
-        System.setErr(new PrintStream(new LambdaOutputStream(System.err), false, "UTF-8"));
+        // the StdOutLogSink writes to System.out itself
+        boolean captureStdOutput = Boolean.parseBoolean(System.getenv(CAPTURE_STDOUT_ENV_VAR))
+                && !(logSink instanceof StdOutLogSink);
+        // metrics are not subject to the log budget
+        String metricsNamespace = System.getenv(METRICS_NAMESPACE_ENV_VAR);
+        EmbeddedMetrics metrics = new EmbeddedMetrics(logSink,
+                metricsNamespace != null ? metricsNamespace : DEFAULT_METRICS_NAMESPACE,
+                LambdaEnvironment.FUNCTION_NAME);
+        logSink = withRateLimiting(logSink, System.getenv());
+        LambdaContextLogger lambdaLogger = createLambdaLogger(logSink);
+        LogSinkOutputStream stdOutputCapture = null;
+        if (captureStdOutput) {
+            stdOutputCapture = new LogSinkOutputStream(logSink);
+            System.setOut(new PrintStream(stdOutputCapture, false, "UTF-8"));
+            System.setErr(new PrintStream(stdOutputCapture, false, "UTF-8"));
+        } else {
+            System.setOut(new PrintStream(new LambdaOutputStream(System.out), false, "UTF-8"));
+            System.setErr(new PrintStream(new LambdaOutputStream(System.err), false, "UTF-8"));
+        }
         setupRuntimeLogger(lambdaLogger);
+        setupRuntimeMetrics(metrics);
+        SlowInvocationRecorder slowInvocationRecorder = createSlowInvocationRecorder(lambdaLogger);
 
         String runtimeApi = getEnvOrExit(ReservedRuntimeEnvironmentVariables.AWS_LAMBDA_RUNTIME_API);
         LambdaRuntimeClient runtimeClient = new LambdaRuntimeClient(runtimeApi);
 
+        runtimeSetup.commit();
+
+        RuntimeEvents.Span classLoaderSetup = RuntimeEvents.beginInit(RuntimeEvents.InitPhase.CLASS_LOADER_SETUP);
         String taskRoot = System.getProperty("user.dir");
         String libRoot = "/opt/java";
         // Make system classloader the customer classloader's parent to ensure any aws-lambda-java-core classes
         // are loaded from the system classloader.
         customerClassLoader = new CustomerClassLoader(taskRoot, libRoot, ClassLoader.getSystemClassLoader());
         Thread.currentThread().setContextClassLoader(customerClassLoader);
+        classLoaderSetup.commit();
 
         // Load the user's handler
         LambdaRequestHandler requestHandler;
+        RuntimeEvents.Span handlerLoading = RuntimeEvents.beginInit(RuntimeEvents.InitPhase.HANDLER_LOADING);
         try {
             requestHandler = findRequestHandler(handler, customerClassLoader);
+            handlerLoading.commit();
         } catch (UserFault userFault) {
+            handlerLoading.commit();
             lambdaLogger.log(userFault.reportableError());
             ByteArrayOutputStream payload = new ByteArrayOutputStream(1024);
             Failure failure = new Failure(userFault);
-            GsonFactory.getInstance().getSerializer(Failure.class).toJson(failure, payload);
+            failure.toJson(payload);
+            flushLogs(stdOutputCapture, metrics, logSink);
             runtimeClient.postInitError(payload.toByteArray(), failure.getErrorType());
             System.exit(1);
             return;
@@ -222,7 +405,13 @@ public class AWSLambda {
         boolean shouldExit = false;
         while (!shouldExit) {
             UserFault userFault = null;
+            // the environment may be frozen as soon as the next invocation is requested
+            flushLogs(stdOutputCapture, metrics, logSink);
             InvocationRequest request = runtimeClient.waitForNextInvocation();
+            lambdaLogger.setRequestId(request.getId());
+            LambdaRuntimeInternal.setCurrentInvocation(request.getId(), request.getXrayTraceId());
+            Instant invocationStart = slowInvocationRecorder != null ? Instant.now() : null;
+            RuntimeEvents.Span invocation = RuntimeEvents.beginInvocation(request.getId());
             if (request.getXrayTraceId() != null) {
                 System.setProperty(LAMBDA_TRACE_HEADER_PROP, request.getXrayTraceId());
             } else {
@@ -232,34 +421,64 @@ public class AWSLambda {
             ByteArrayOutputStream payload;
             try {
                 payload = requestHandler.call(request);
+                flushLogs(stdOutputCapture, metrics, logSink);
+                RuntimeEvents.Span responsePost = RuntimeEvents.begin(RuntimeEvents.Phase.RESPONSE_POST, request.getId());
                 // TODO calling payload.toByteArray() creates a new copy of the underlying buffer
                 runtimeClient.postInvocationResponse(request.getId(), payload.toByteArray());
+                responsePost.commit();
             } catch (UserFault f) {
                 userFault = f;
                 UserFault.filterStackTrace(f);
                 payload = new ByteArrayOutputStream(1024);
                 Failure failure = new Failure(f);
-                GsonFactory.getInstance().getSerializer(Failure.class).toJson(failure, payload);
+                failure.toJson(payload);
                 shouldExit = f.fatal;
+                flushLogs(stdOutputCapture, metrics, logSink);
+                RuntimeEvents.Span responsePost = RuntimeEvents.begin(RuntimeEvents.Phase.RESPONSE_POST, request.getId());
                 runtimeClient.postInvocationError(request.getId(), payload.toByteArray(), failure.getErrorType());
+                responsePost.commit();
             } catch (Throwable t) {
                 UserFault.filterStackTrace(t);
                 userFault = UserFault.makeUserFault(t);
                 payload = new ByteArrayOutputStream(1024);
                 Failure failure = new Failure(t);
-                GsonFactory.getInstance().getSerializer(Failure.class).toJson(failure, payload);
+                failure.toJson(payload);
                 // These two categories of errors are considered fatal.
                 shouldExit = Failure.isInvokeFailureFatal(t);
+                String xrayErrorCause = serializeAsXRayJson(t);
+                flushLogs(stdOutputCapture, metrics, logSink);
+                RuntimeEvents.Span responsePost = RuntimeEvents.begin(RuntimeEvents.Phase.RESPONSE_POST, request.getId());
                 runtimeClient.postInvocationError(request.getId(), payload.toByteArray(), failure.getErrorType(),
-                        serializeAsXRayJson(t));
+                        xrayErrorCause);
+                responsePost.commit();
             } finally {
                 if (userFault != null) {
                     lambdaLogger.log(userFault.reportableError());
                 }
+                invocation.commit();
+                if (slowInvocationRecorder != null) {
+                    slowInvocationRecorder.invocationEnded(request.getId(), invocationStart);
+                }
             }
         }
     }
 
+    /**
+     * Writes everything logged so far, including the pending entries of the captured System.out and System.err, and
+     * the metrics recorded so far
+     */
+    private static void flushLogs(LogSinkOutputStream stdOutputCapture, EmbeddedMetrics metrics, LogSink logSink) {
+        LambdaRuntimeInternal.Invocation invocation = LambdaRuntimeInternal.getCurrentInvocation();
+        RuntimeEvents.Span logFlush = RuntimeEvents.begin(RuntimeEvents.Phase.LOG_FLUSH,
+                invocation == null ? null : invocation.getAwsRequestId());
+        metrics.flush();
+        if (stdOutputCapture != null) {
+            stdOutputCapture.flushEntries();
+        }
+        logSink.flush();
+        logFlush.commit();
+    }
+
     private static PojoSerializer<XRayErrorCause> xRayErrorCauseSerializer;
 
     /**
@@ -4,15 +4,16 @@ package com.amazonaws.services.lambda.runtime.api.client;
 
 import com.amazonaws.services.lambda.runtime.ClientContext;
 import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.EventRecords;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
 import com.amazonaws.services.lambda.runtime.LambdaRuntimeInternal;
 
-import com.amazonaws.services.lambda.runtime.api.client.api.LambdaClientContext;
-import com.amazonaws.services.lambda.runtime.api.client.api.LambdaCognitoIdentity;
 import com.amazonaws.services.lambda.runtime.api.client.api.LambdaContext;
+import com.amazonaws.services.lambda.runtime.api.client.jfr.RuntimeEvents;
 import com.amazonaws.services.lambda.runtime.api.client.util.UnsafeUtil;
 import com.amazonaws.services.lambda.runtime.serialization.PojoSerializer;
+import com.amazonaws.services.lambda.runtime.serialization.events.EventRecordIterator;
 import com.amazonaws.services.lambda.runtime.serialization.events.LambdaEventSerializers;
 import com.amazonaws.services.lambda.runtime.serialization.factories.GsonFactory;
 import com.amazonaws.services.lambda.runtime.serialization.factories.JacksonFactory;
@@ -38,6 +39,7 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Optional;
@@ -101,36 +103,24 @@ public final class EventHandlerLoader {
         return serializer;
     }
 
-    private static volatile PojoSerializer<LambdaClientContext> contextSerializer;
-    private static volatile PojoSerializer<LambdaCognitoIdentity> cognitoSerializer;
-
-    private static PojoSerializer<LambdaClientContext> getContextSerializer() {
-        if (contextSerializer == null) {
-            contextSerializer = GsonFactory.getInstance().getSerializer(LambdaClientContext.class);
-        }
-        return contextSerializer;
-    }
-
-    private static PojoSerializer<LambdaCognitoIdentity> getCognitoSerializer() {
-        if (cognitoSerializer == null) {
-            cognitoSerializer = GsonFactory.getInstance().getSerializer(LambdaCognitoIdentity.class);
-        }
-        return cognitoSerializer;
-    }
-
-
     private static Platform getPlatform(Context context) {
-        ClientContext cc = context.getClientContext();
-        if (cc == null) {
-            return Platform.UNKNOWN;
-        }
+        String platform;
+        if (context instanceof LambdaContext) {
+            platform = ((LambdaContext) context).getClientPlatform();
+        } else {
+            ClientContext cc = context.getClientContext();
+            if (cc == null) {
+                return Platform.UNKNOWN;
+            }
 
-        Map<String, String> env = cc.getEnvironment();
-        if (env == null) {
-            return Platform.UNKNOWN;
+            Map<String, String> env = cc.getEnvironment();
+            if (env == null) {
+                return Platform.UNKNOWN;
+            }
+
+            platform = env.get("platform");
         }
 
-        String platform = env.get("platform");
         if (platform == null) {
             return Platform.UNKNOWN;
         }
@@ -148,6 +138,59 @@ public final class EventHandlerLoader {
         return Void.TYPE.equals(type) || (type instanceof Class) && Void.class.isAssignableFrom((Class<?>)type);
     }
 
+    private static boolean isEventRecords(Type type) {
+        return type instanceof ParameterizedType && EventRecords.class.equals(((ParameterizedType) type).getRawType());
+    }
+
+    /**
+     * Reads an {@link EventRecords} input, whose records are read from the payload as the handler iterates over them.
+     * The payload stream stays open until the handler returns, so the iteration must happen in the call.
+     */
+    private static final class EventRecordsReader {
+        private final Class<Object> eventClass;
+
+        private EventRecordsReader(Class<Object> eventClass) {
+            this.eventClass = eventClass;
+        }
+
+        /**
+         * @param type EventRecords type of a handler input
+         * @throws UserFault if the records of its event type cannot be read one at a time
+         */
+        @SuppressWarnings("unchecked")
+        static EventRecordsReader forType(ParameterizedType type) {
+            Type eventType = type.getActualTypeArguments()[0];
+            if (eventType instanceof Class
+                    && LambdaEventSerializers.isRecordIterableEvent(((Class<?>) eventType).getName())) {
+                return new EventRecordsReader((Class<Object>) eventType);
+            }
+            throw makeUserFault("EventRecords does not support the records of " + eventType.getTypeName());
+        }
+
+        Object read(InputStream input) {
+            EventRecordIterator<Object, Object> iterator = LambdaEventSerializers.recordIteratorFor(eventClass,
+                    AWSLambda.customerClassLoader, input);
+            return new EventRecords<Object, Object>() {
+                private boolean iterated;
+
+                @Override
+                public Object getEvent() {
+                    return iterator.getEvent();
+                }
+
+                @Override
+                public Iterator<Object> iterator() {
+                    if (iterated) {
+                        throw new IllegalStateException("The records of the event can only be iterated once");
+                    }
+                    iterated = true;
+                    return iterator;
+                }
+            };
+        }
+
+    }
+
     /**
      * Wraps a RequestHandler as a lower level stream handler using supplied types.
      * Optional types mean that the input and/or output should be ignored respectiveley
@@ -158,6 +201,8 @@ public final class EventHandlerLoader {
         public RequestHandler innerHandler;
         public final Optional<Type> inputType;
         public final Optional<Type> outputType;
+        // reads the input if the handler iterates over the records of a batch event, see EventRecords
+        private final EventRecordsReader eventRecordsReader;
 
         public PojoHandlerAsStreamHandler(
                 RequestHandler innerHandler,
@@ -168,9 +213,18 @@ public final class EventHandlerLoader {
             this.inputType = inputType;
             this.outputType = outputType;
 
+            if (outputType.isPresent() && isEventRecords(outputType.get())) {
+                throw makeUserFault("EventRecords can only be the input of a handler, not its output: "
+                        + outputType.get().getTypeName());
+            }
 
-            if (inputType.isPresent()) {
-                getSerializerCached(Platform.UNKNOWN, inputType.get());
+            if (inputType.isPresent() && isEventRecords(inputType.get())) {
+                eventRecordsReader = EventRecordsReader.forType((ParameterizedType) inputType.get());
+            } else {
+                eventRecordsReader = null;
+                if (inputType.isPresent()) {
+                    getSerializerCached(Platform.UNKNOWN, inputType.get());
+                }
             }
 
             if (outputType.isPresent()) {
@@ -184,23 +238,35 @@ public final class EventHandlerLoader {
                 throws IOException {
             final Object input;
             final Platform platform = getPlatform(context);
+            RuntimeEvents.Span deserialization = RuntimeEvents.begin(RuntimeEvents.Phase.DESERIALIZATION,
+                    context.getAwsRequestId());
             try {
-                if (inputType.isPresent()) {
+                if (eventRecordsReader != null) {
+                    input = eventRecordsReader.read(inputStream);
+                } else if (inputType.isPresent()) {
                     input = getSerializerCached(platform, inputType.get()).fromJson(inputStream);
                 } else {
                     input = null;
                 }
             } catch (Throwable t) {
                 throw new RuntimeException("An error occurred during JSON parsing", filterStackTrace(t));
+            } finally {
+                deserialization.commit();
             }
 
             final Object output;
+            RuntimeEvents.Span handlerExecution = RuntimeEvents.begin(RuntimeEvents.Phase.HANDLER,
+                    context.getAwsRequestId());
             try {
                 output = innerHandler.handleRequest(input, context);
             } catch (Throwable t) {
                 throw UnsafeUtil.throwException(filterStackTrace(t));
+            } finally {
+                handlerExecution.commit();
             }
 
+            RuntimeEvents.Span serialization = RuntimeEvents.begin(RuntimeEvents.Phase.SERIALIZATION,
+                    context.getAwsRequestId());
             try {
                 if (outputType.isPresent()) {
                     PojoSerializer<Object> serializer = getSerializerCached(platform, outputType.get());
@@ -210,6 +276,8 @@ public final class EventHandlerLoader {
                 }
             } catch (Throwable t) {
                 throw new RuntimeException("An error occurred during JSON serialization of response", t);
+            } finally {
+                serialization.commit();
             }
         }
     }
@@ -847,31 +915,52 @@ public final class EventHandlerLoader {
     public static LambdaRequestHandler wrapRequestStreamHandler(final RequestStreamHandler handler) {
         return new LambdaRequestHandler() {
             private final ByteArrayOutputStream output = new ByteArrayOutputStream(1024);
-            private Functions.V2<String, String> log4jContextPutMethod = null;
+            // POJO handlers record their handler phase themselves, between deserialization and serialization
+            private final boolean recordsHandlerPhase = handler instanceof PojoHandlerAsStreamHandler;
+            private Functions.V2<String, String> log4jMdcPutMethod = null;
+            private Functions.V2<String, String> log4jThreadContextPutMethod = null;
+            private boolean log4jContextPutMethodsResolved = false;
+
+            /**
+             * Puts the request id into the log4j MDC and the log4j2 ThreadContext, whichever of them the function
+             * has, resolving their put methods once
+             */
+            private void putRequestIdIntoLog4jContexts(String requestId) {
+                if (!log4jContextPutMethodsResolved) {
+                    log4jContextPutMethodsResolved = true;
+                    log4jMdcPutMethod = loadLog4jContextPutMethod("org.apache.log4j.MDC", Object.class);
+                    log4jThreadContextPutMethod = loadLog4jContextPutMethod("org.apache.logging.log4j.ThreadContext", String.class);
+                    if (log4jMdcPutMethod == null && log4jThreadContextPutMethod == null) {
+                        System.err.println("Customer using log4j appender but unable to load either " +
+                                "org.apache.log4j.MDC or org.apache.logging.log4j.ThreadContext. " +
+                                "Customer cannot see RequestId in log4j log lines.");
+                    }
+                }
+                safePut(log4jMdcPutMethod, requestId);
+                safePut(log4jThreadContextPutMethod, requestId);
+            }
 
-            private void safeAddRequestIdToLog4j(String log4jContextClassName,
-                                                 InvocationRequest request, Class contextMapValueClass) {
+            private void safePut(Functions.V2<String, String> putMethod, String requestId) {
+                if (putMethod != null) {
+                    try {
+                        putMethod.call("AWSRequestId", requestId);
+                    } catch (Exception e) {}
+                }
+            }
+
+            private Functions.V2<String, String> loadLog4jContextPutMethod(String log4jContextClassName,
+                                                                          Class contextMapValueClass) {
                 try {
                     Class<?> log4jContextClass = ReflectUtil.loadClass(AWSLambda.customerClassLoader, log4jContextClassName);
-                    log4jContextPutMethod = ReflectUtil.loadStaticV2(log4jContextClass, "put", false, String.class, contextMapValueClass);
-                    log4jContextPutMethod.call("AWSRequestId", request.getId());
-                } catch (Exception e) {}
+                    return ReflectUtil.loadStaticV2(log4jContextClass, "put", false, String.class, contextMapValueClass);
+                } catch (Exception e) {
+                    return null;
+                }
             }
 
             public ByteArrayOutputStream call(InvocationRequest request) throws Error, Exception {
                 output.reset();
 
-                LambdaCognitoIdentity cognitoIdentity = null;
-                if(request.getCognitoIdentity() != null && !request.getCognitoIdentity().isEmpty()) {
-                    cognitoIdentity = getCognitoSerializer().fromJson(request.getCognitoIdentity());
-                }
-
-                LambdaClientContext clientContext = null;
-                if (request.getClientContext() != null && !request.getClientContext().isEmpty()) {
-                    //Use GSON here because it handles immutable types without requiring annotations
-                    clientContext = getContextSerializer().fromJson(request.getClientContext());
-                }
-
                 LambdaContext context = new LambdaContext(
                         LambdaEnvironment.MEMORY_LIMIT,
                         request.getDeadlineTimeInMs(),
@@ -879,24 +968,27 @@ public final class EventHandlerLoader {
                         LambdaEnvironment.LOG_GROUP_NAME,
                         LambdaEnvironment.LOG_STREAM_NAME,
                         LambdaEnvironment.FUNCTION_NAME,
-                        cognitoIdentity,
+                        request.getCognitoIdentity(),
                         LambdaEnvironment.FUNCTION_VERSION,
                         request.getInvokedFunctionArn(),
-                        clientContext
+                        request.getClientContext()
                 );
 
-                if (LambdaRuntimeInternal.getUseLog4jAppender()) {
-                    safeAddRequestIdToLog4j("org.apache.log4j.MDC", request, Object.class);
-                    safeAddRequestIdToLog4j("org.apache.logging.log4j.ThreadContext", request, String.class);
-                    // if put method not assigned in either call to safeAddRequestIdtoLog4j then log4jContextPutMethod = null
-                    if (log4jContextPutMethod == null) {
-                        System.err.println("Customer using log4j appender but unable to load either " +
-                                "org.apache.log4j.MDC or org.apache.logging.log4j.ThreadContext. " +
-                                "Customer cannot see RequestId in log4j log lines.");
-                    }
+                // the ContextDataProvider of aws-lambda-java-log4j2 reads the request id from LambdaRuntimeInternal
+                if (LambdaRuntimeInternal.getUseLog4jAppender() && !LambdaRuntimeInternal.getUseLog4jContextDataProvider()) {
+                    putRequestIdIntoLog4jContexts(request.getId());
                 }
 
-                handler.handleRequest(request.getContentAsStream(), output, context);
+                if (recordsHandlerPhase) {
+                    handler.handleRequest(request.getContentAsStream(), output, context);
+                    return output;
+                }
+                RuntimeEvents.Span handlerExecution = RuntimeEvents.begin(RuntimeEvents.Phase.HANDLER, request.getId());
+                try {
+                    handler.handleRequest(request.getContentAsStream(), output, context);
+                } finally {
+                    handlerExecution.commit();
+                }
                 return output;
             }
         };
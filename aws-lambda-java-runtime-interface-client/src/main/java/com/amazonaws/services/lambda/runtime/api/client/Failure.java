@@ -2,7 +2,13 @@
 
 package com.amazonaws.services.lambda.runtime.api.client;
 
+import com.amazonaws.services.lambda.runtime.api.client.util.JsonWriter;
+
 import java.io.IOError;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
@@ -81,4 +87,41 @@ public class Failure {
     public String getErrorType() {
         return errorType;
     }
+
+    /**
+     * Writes the failure as JSON, leaving out null fields
+     * @param output OutputStream to write the UTF-8 encoded JSON to
+     */
+    public void toJson(OutputStream output) {
+        try {
+            output.write(appendJson(new StringBuilder(256)).toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private StringBuilder appendJson(StringBuilder builder) {
+        builder.append('{');
+        String separator = "";
+        if (errorMessage != null) {
+            JsonWriter.appendString(builder.append("\"errorMessage\":"), errorMessage);
+            separator = ",";
+        }
+        if (errorType != null) {
+            JsonWriter.appendString(builder.append(separator).append("\"errorType\":"), errorType);
+            separator = ",";
+        }
+        if (stackTrace != null) {
+            builder.append(separator).append("\"stackTrace\":[");
+            for (int i = 0; i < stackTrace.length; i++) {
+                JsonWriter.appendString(i == 0 ? builder : builder.append(','), stackTrace[i]);
+            }
+            builder.append(']');
+            separator = ",";
+        }
+        if (cause != null) {
+            cause.appendJson(builder.append(separator).append("\"cause\":"));
+        }
+        return builder.append('}');
+    }
 }
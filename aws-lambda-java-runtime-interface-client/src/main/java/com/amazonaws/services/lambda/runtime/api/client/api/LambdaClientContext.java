@@ -13,6 +13,15 @@ public class LambdaClientContext implements ClientContext {
     private Map<String, String> custom;
     private Map<String, String> env;
 
+    public LambdaClientContext() {
+    }
+
+    public LambdaClientContext(LambdaClientContextClient client, Map<String, String> custom, Map<String, String> env) {
+        this.client = client;
+        this.custom = custom;
+        this.env = env;
+    }
+
     public Client getClient() {
         return client;
     }
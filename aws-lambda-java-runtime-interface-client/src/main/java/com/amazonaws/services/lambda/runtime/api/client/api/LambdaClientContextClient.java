@@ -16,6 +16,18 @@ public class LambdaClientContextClient implements Client {
 
     private String app_package_name;
 
+    public LambdaClientContextClient() {
+    }
+
+    public LambdaClientContextClient(String installationId, String appTitle, String appVersionName,
+                                     String appVersionCode, String appPackageName) {
+        this.installation_id = installationId;
+        this.app_title = appTitle;
+        this.app_version_name = appVersionName;
+        this.app_version_code = appVersionCode;
+        this.app_package_name = appPackageName;
+    }
+
     public String getInstallationId() {
         return installation_id;
     }
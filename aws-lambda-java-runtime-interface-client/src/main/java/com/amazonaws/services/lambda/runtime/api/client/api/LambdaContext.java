@@ -6,6 +6,11 @@ import com.amazonaws.services.lambda.runtime.ClientContext;
 import com.amazonaws.services.lambda.runtime.CognitoIdentity;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.api.client.util.JsonScanner;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class LambdaContext implements Context {
 
@@ -17,8 +22,10 @@ public class LambdaContext implements Context {
     private final String functionVersion;
     private final String invokedFunctionArn;
     private final long deadlineTimeInMs;
-    private final CognitoIdentity cognitoIdentity;
-    private final ClientContext clientContext;
+    private final String cognitoIdentityJson;
+    private final String clientContextJson;
+    private volatile CognitoIdentity cognitoIdentity;
+    private volatile ClientContext clientContext;
     private final LambdaLogger logger;
 
     public LambdaContext(
@@ -39,6 +46,8 @@ public class LambdaContext implements Context {
         this.logGroupName = logGroupName;
         this.logStreamName = logStreamName;
         this.functionName = functionName;
+        this.cognitoIdentityJson = null;
+        this.clientContextJson = null;
         this.cognitoIdentity = identity;
         this.clientContext = clientContext;
         this.functionVersion = functionVersion;
@@ -46,6 +55,35 @@ public class LambdaContext implements Context {
         this.logger = com.amazonaws.services.lambda.runtime.LambdaRuntime.getLogger();
     }
 
+    /**
+     * Creates a context from the raw JSON the Runtime API sends for the cognito identity and the client context.
+     * Neither is parsed until the handler asks for it, empty strings are treated as absent.
+     */
+    public LambdaContext(
+        int memoryLimit,
+        long deadlineTimeInMs,
+        String requestId,
+        String logGroupName,
+        String logStreamName,
+        String functionName,
+        String cognitoIdentityJson,
+        String functionVersion,
+        String invokedFunctionArn,
+        String clientContextJson
+    ) {
+        this.memoryLimit = memoryLimit;
+        this.deadlineTimeInMs = deadlineTimeInMs;
+        this.awsRequestId = requestId;
+        this.logGroupName = logGroupName;
+        this.logStreamName = logStreamName;
+        this.functionName = functionName;
+        this.cognitoIdentityJson = cognitoIdentityJson == null || cognitoIdentityJson.isEmpty() ? null : cognitoIdentityJson;
+        this.clientContextJson = clientContextJson == null || clientContextJson.isEmpty() ? null : clientContextJson;
+        this.functionVersion = functionVersion;
+        this.invokedFunctionArn = invokedFunctionArn;
+        this.logger = com.amazonaws.services.lambda.runtime.LambdaRuntime.getLogger();
+    }
+
     public int getMemoryLimitInMB() {
         return memoryLimit;
     }
@@ -75,11 +113,35 @@ public class LambdaContext implements Context {
     }
 
     public CognitoIdentity getIdentity() {
-        return cognitoIdentity;
+        CognitoIdentity result = cognitoIdentity;
+        if (result == null && cognitoIdentityJson != null) {
+            // racing threads parse the same JSON, whichever is stored last wins
+            result = parseCognitoIdentity(cognitoIdentityJson);
+            cognitoIdentity = result;
+        }
+        return result;
     }
 
     public ClientContext getClientContext() {
-        return clientContext;
+        ClientContext result = clientContext;
+        if (result == null && clientContextJson != null) {
+            result = parseClientContext(clientContextJson);
+            clientContext = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return the "platform" entry of the client context environment, without parsing the client context if the
+     *         handler did not do that already
+     */
+    public String getClientPlatform() {
+        ClientContext parsed = clientContext;
+        if (parsed == null) {
+            return JsonScanner.findString(clientContextJson, "env", "platform");
+        }
+        Map<String, String> env = parsed.getEnvironment();
+        return env == null ? null : env.get("platform");
     }
 
     public int getRemainingTimeInMillis() {
@@ -91,4 +153,56 @@ public class LambdaContext implements Context {
     public LambdaLogger getLogger() {
         return logger;
     }
+
+    // parsed without a JSON library, so that loading one is left to handlers that need it
+
+    private static LambdaCognitoIdentity parseCognitoIdentity(String json) {
+        Map<String, Object> identity = parseObject(json);
+        return new LambdaCognitoIdentity(stringValue(identity.get("cognitoIdentityId")),
+                stringValue(identity.get("cognitoIdentityPoolId")));
+    }
+
+    private static LambdaClientContext parseClientContext(String json) {
+        Map<String, Object> clientContext = parseObject(json);
+        Object client = clientContext.get("client");
+        LambdaClientContextClient lambdaClient = null;
+        if (client instanceof Map) {
+            Map<?, ?> clientMap = (Map<?, ?>) client;
+            lambdaClient = new LambdaClientContextClient(
+                    stringValue(clientMap.get("installation_id")),
+                    stringValue(clientMap.get("app_title")),
+                    stringValue(clientMap.get("app_version_name")),
+                    stringValue(clientMap.get("app_version_code")),
+                    stringValue(clientMap.get("app_package_name")));
+        }
+        return new LambdaClientContext(lambdaClient, stringMap(clientContext.get("custom")),
+                stringMap(clientContext.get("env")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parseObject(String json) {
+        Object value = JsonScanner.parse(json);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("expected a JSON object but was " + json);
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static Map<String, String> stringMap(Object value) {
+        if (!(value instanceof Map)) {
+            return null;
+        }
+        Map<String, String> result = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+            result.put((String) entry.getKey(), stringValue(entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Gson read these fields into strings, JSON numbers and booleans included, as their literal text
+     */
+    private static String stringValue(Object value) {
+        return value == null || value instanceof Map || value instanceof List ? null : String.valueOf(value);
+    }
 }
@@ -0,0 +1,134 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR event types, only loaded if the JVM supports JFR. The Span interface is implemented by the inherited
+ * Event.commit() method.
+ */
+final class JfrEvents {
+
+    static final String CATEGORY = "AWS Lambda";
+
+    private JfrEvents() {
+    }
+
+    static boolean isAvailable() {
+        return FlightRecorder.isAvailable();
+    }
+
+    static RuntimeEvents.Span beginInit(RuntimeEvents.InitPhase phase) {
+        InitEvent event = new InitEvent();
+        event.phase = phase.name();
+        event.begin();
+        return event;
+    }
+
+    static RuntimeEvents.Span beginInvocation(String requestId) {
+        InvocationStartEvent start = new InvocationStartEvent();
+        start.requestId = requestId;
+        start.commit();
+        InvocationEvent event = new InvocationEvent();
+        event.requestId = requestId;
+        event.begin();
+        return event;
+    }
+
+    static RuntimeEvents.Span begin(RuntimeEvents.Phase phase, String requestId) {
+        PhaseEvent event;
+        switch (phase) {
+            case DESERIALIZATION:
+                event = new DeserializationEvent();
+                break;
+            case HANDLER:
+                event = new HandlerEvent();
+                break;
+            case SERIALIZATION:
+                event = new SerializationEvent();
+                break;
+            case RESPONSE_POST:
+                event = new ResponsePostEvent();
+                break;
+            default:
+                event = new LogFlushEvent();
+        }
+        event.requestId = requestId;
+        event.begin();
+        return event;
+    }
+
+    @Name("aws.lambda.Init")
+    @Label("Init Phase")
+    @Description("A phase of the initialization of the runtime and the function")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class InitEvent extends Event implements RuntimeEvents.Span {
+        @Label("Phase")
+        String phase;
+    }
+
+    @Name("aws.lambda.InvocationStart")
+    @Label("Invocation Start")
+    @Description("The runtime received an invocation")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class InvocationStartEvent extends Event {
+        @Label("Request Id")
+        String requestId;
+    }
+
+    @Name("aws.lambda.Invocation")
+    @Label("Invocation")
+    @Description("An invocation, from its receipt until its response or error is posted")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class InvocationEvent extends Event implements RuntimeEvents.Span {
+        @Label("Request Id")
+        String requestId;
+    }
+
+    @Category({CATEGORY, "Invocation"})
+    @StackTrace(false)
+    abstract static class PhaseEvent extends Event implements RuntimeEvents.Span {
+        @Label("Request Id")
+        String requestId;
+    }
+
+    @Name("aws.lambda.Deserialization")
+    @Label("Deserialization")
+    @Description("Deserialization of the event into the input of the handler")
+    static final class DeserializationEvent extends PhaseEvent {
+    }
+
+    @Name("aws.lambda.Handler")
+    @Label("Handler")
+    @Description("Execution of the handler")
+    static final class HandlerEvent extends PhaseEvent {
+    }
+
+    @Name("aws.lambda.Serialization")
+    @Label("Serialization")
+    @Description("Serialization of the output of the handler into the response")
+    static final class SerializationEvent extends PhaseEvent {
+    }
+
+    @Name("aws.lambda.ResponsePost")
+    @Label("Response Post")
+    @Description("Posting the response or the error of the invocation to the Runtime API")
+    static final class ResponsePostEvent extends PhaseEvent {
+    }
+
+    @Name("aws.lambda.LogFlush")
+    @Label("Log Flush")
+    @Description("Writing the logs and metrics of the invocation")
+    static final class LogFlushEvent extends PhaseEvent {
+    }
+}
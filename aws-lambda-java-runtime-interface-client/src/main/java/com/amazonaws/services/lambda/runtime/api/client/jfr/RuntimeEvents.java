@@ -0,0 +1,80 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.jfr;
+
+/**
+ * Records the phases of the runtime as JDK Flight Recorder events, so that a recording of the JVM can be lined up
+ * with invocations. The events are in the "AWS Lambda" category and named aws.lambda.*, they are recorded by any
+ * recording that is running, e.g. one started with -XX:StartFlightRecording in JAVA_TOOL_OPTIONS.
+ *
+ * On JVMs without JFR, e.g. Java 8 before 8u262, nothing is recorded and the JFR classes are never loaded.
+ */
+public final class RuntimeEvents {
+
+    /**
+     * An event that has begun, committing it ends it and records it if a recording is running
+     */
+    public interface Span {
+        void commit();
+    }
+
+    public enum InitPhase {
+        /**
+         * From the start of the runtime until it loads the customer's code
+         */
+        RUNTIME_SETUP,
+        CLASS_LOADER_SETUP,
+        /**
+         * Loading, initializing and instantiating the handler class
+         */
+        HANDLER_LOADING
+    }
+
+    public enum Phase {
+        DESERIALIZATION,
+        HANDLER,
+        SERIALIZATION,
+        RESPONSE_POST,
+        LOG_FLUSH
+    }
+
+    private static final Span NOOP = () -> {
+    };
+
+    private static final boolean JFR_AVAILABLE = isJfrAvailable();
+
+    private RuntimeEvents() {
+    }
+
+    /**
+     * @return whether the JVM supports JFR
+     */
+    public static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+            return JfrEvents.isAvailable();
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    public static Span beginInit(InitPhase phase) {
+        return JFR_AVAILABLE ? JfrEvents.beginInit(phase) : NOOP;
+    }
+
+    /**
+     * Records an instant event for the start of the invocation
+     *
+     * @return the span of the whole invocation, to be committed once its response is posted
+     */
+    public static Span beginInvocation(String requestId) {
+        return JFR_AVAILABLE ? JfrEvents.beginInvocation(requestId) : NOOP;
+    }
+
+    /**
+     * @param requestId id of the invocation the phase is part of, or null outside of an invocation
+     */
+    public static Span begin(Phase phase, String requestId) {
+        return JFR_AVAILABLE ? JfrEvents.begin(phase, requestId) : NOOP;
+    }
+}
@@ -0,0 +1,214 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.jfr;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps a continuous JFR recording with the default settings, which cost about 1% of throughput, in memory only and
+ * for at most the longest invocation Lambda allows. When an invocation takes longer than the threshold, the recording
+ * is dumped and the runtime logs a summary of what happened during the invocation: the duration of its phases, garbage
+ * collections, the time threads were blocked and the most sampled methods. The dump is kept in /tmp if requested, so it
+ * can be uploaded or analyzed by the function itself, and deleted otherwise.
+ *
+ * The dump is written and read by a daemon thread, so the runtime can ask for the next invocation right away. The
+ * environment may be frozen until then, in which case the summary is logged during the next invocation.
+ *
+ * The class links against jdk.jfr, only use it if {@link RuntimeEvents#isJfrAvailable()}.
+ */
+public final class SlowInvocationRecorder {
+
+    private static final String DUMP_DIRECTORY = "/tmp";
+    private static final int HOTTEST_METHODS = 5;
+
+    /**
+     * the longest an invocation can take, older events are not needed for a summary
+     */
+    private static final Duration MAX_AGE = Duration.ofMinutes(15);
+
+    /**
+     * event types of threads waiting, summed up as blocked time
+     */
+    private static final String[] BLOCKING_EVENTS = {
+            "jdk.JavaMonitorEnter", "jdk.JavaMonitorWait", "jdk.ThreadPark", "jdk.ThreadSleep",
+            "jdk.SocketRead", "jdk.SocketWrite", "jdk.FileRead", "jdk.FileWrite"
+    };
+
+    private final Recording recording;
+    private final long thresholdMillis;
+    private final boolean keepDumps;
+    private final LambdaLogger logger;
+    private final Executor executor;
+
+    private SlowInvocationRecorder(Recording recording, long thresholdMillis, boolean keepDumps,
+                                   LambdaLogger logger, Executor executor) {
+        this.recording = recording;
+        this.thresholdMillis = thresholdMillis;
+        this.keepDumps = keepDumps;
+        this.logger = logger;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts the recording
+     *
+     * @param thresholdMillis duration of an invocation above which it is reported
+     * @param keepDumps whether to keep the recordings of slow invocations in /tmp
+     * @param logger logger for the summaries
+     * @return the recorder, or null if the recording cannot be started
+     */
+    public static SlowInvocationRecorder create(long thresholdMillis, boolean keepDumps, LambdaLogger logger) {
+        return create(thresholdMillis, keepDumps, logger, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "aws-lambda-slow-invocations");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * @param executor runs the dump and summary of slow invocations
+     */
+    static SlowInvocationRecorder create(long thresholdMillis, boolean keepDumps, LambdaLogger logger,
+                                         Executor executor) {
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration("default"));
+            recording.setName("aws-lambda-slow-invocations");
+            recording.setToDisk(false);
+            recording.setMaxAge(MAX_AGE);
+            recording.start();
+            return new SlowInvocationRecorder(recording, thresholdMillis, keepDumps, logger, executor);
+        } catch (Exception e) {
+            System.err.println("Cannot record slow invocations: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Reports the invocation if it took longer than the threshold, without waiting for the report
+     *
+     * @param requestId id of the invocation
+     * @param start wall clock time the invocation was received
+     */
+    public void invocationEnded(String requestId, Instant start) {
+        Instant end = Instant.now();
+        long durationMillis = Duration.between(start, end).toMillis();
+        if (durationMillis <= thresholdMillis) {
+            return;
+        }
+        executor.execute(() -> report(requestId, start, end, durationMillis));
+    }
+
+    private void report(String requestId, Instant start, Instant end, long durationMillis) {
+        Path dump = Paths.get(DUMP_DIRECTORY, "slow-invocation-" + requestId + ".jfr");
+        StringBuilder summary = new StringBuilder("Invocation ").append(requestId).append(" took ")
+                .append(durationMillis).append(" ms, over the threshold of ").append(thresholdMillis).append(" ms.");
+        try {
+            recording.dump(dump);
+            try (RecordingFile events = new RecordingFile(dump)) {
+                summarize(events, requestId, start, end, summary);
+            }
+            if (keepDumps) {
+                summary.append(" JFR recording: ").append(dump);
+            } else {
+                Files.deleteIfExists(dump);
+            }
+        } catch (IOException | RuntimeException e) {
+            summary.append(" Cannot dump the JFR recording: ").append(e);
+        }
+        logger.log(summary.append('\n').toString());
+    }
+
+    /**
+     * Reads the events one at a time, the dump can hold those of up to MAX_AGE
+     */
+    static void summarize(RecordingFile events, String requestId, Instant start, Instant end, StringBuilder summary)
+            throws IOException {
+        Map<String, Duration> phases = new LinkedHashMap<>();
+        int collections = 0;
+        Duration gcPauses = Duration.ZERO;
+        Map<String, Duration> blocked = new LinkedHashMap<>();
+        Map<String, Integer> samples = new HashMap<>();
+        while (events.hasMoreEvents()) {
+            RecordedEvent event = events.readEvent();
+            if (event.getEndTime().isBefore(start) || event.getStartTime().isAfter(end)) {
+                continue;
+            }
+            String type = event.getEventType().getName();
+            if (type.startsWith("aws.lambda.") && !type.equals("aws.lambda.InvocationStart")
+                    && event.hasField("requestId")) {
+                if (requestId.equals(event.getString("requestId"))) {
+                    phases.merge(event.getEventType().getLabel(), event.getDuration(), Duration::plus);
+                }
+            } else if (type.equals("jdk.GarbageCollection")) {
+                collections++;
+                gcPauses = gcPauses.plus(event.getDuration("sumOfPauses"));
+            } else if (type.equals("jdk.ExecutionSample")) {
+                RecordedStackTrace stackTrace = event.getStackTrace();
+                if (stackTrace != null && !stackTrace.getFrames().isEmpty()) {
+                    RecordedFrame frame = stackTrace.getFrames().get(0);
+                    samples.merge(frame.getMethod().getType().getName() + "." + frame.getMethod().getName(), 1,
+                            Integer::sum);
+                }
+            } else {
+                for (String blockingEvent : BLOCKING_EVENTS) {
+                    if (type.equals(blockingEvent)) {
+                        blocked.merge(event.getEventType().getLabel(), event.getDuration(), Duration::plus);
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (!phases.isEmpty()) {
+            summary.append(" Phases:");
+            appendDurations(summary, phases);
+            summary.append('.');
+        }
+        summary.append(" GC: ").append(collections).append(" collections, ").append(gcPauses.toMillis())
+                .append(" ms paused.");
+        if (!blocked.isEmpty()) {
+            summary.append(" Blocked:");
+            appendDurations(summary, blocked);
+            summary.append('.');
+        }
+        if (!samples.isEmpty()) {
+            List<Map.Entry<String, Integer>> hottest = new ArrayList<>(samples.entrySet());
+            hottest.sort((a, b) -> b.getValue() - a.getValue());
+            summary.append(" Most sampled methods:");
+            for (int i = 0; i < Math.min(HOTTEST_METHODS, hottest.size()); i++) {
+                summary.append(i == 0 ? " " : ", ").append(hottest.get(i).getKey())
+                        .append(" (").append(hottest.get(i).getValue()).append(" samples)");
+            }
+            summary.append('.');
+        }
+    }
+
+    private static void appendDurations(StringBuilder summary, Map<String, Duration> durations) {
+        boolean first = true;
+        for (Map.Entry<String, Duration> entry : durations.entrySet()) {
+            summary.append(first ? " " : ", ").append(entry.getKey()).append(' ')
+                    .append(entry.getValue().toMillis()).append(" ms");
+            first = false;
+        }
+    }
+}
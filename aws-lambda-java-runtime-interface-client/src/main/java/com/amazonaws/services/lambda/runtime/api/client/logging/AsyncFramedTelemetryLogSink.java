@@ -0,0 +1,333 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.logging;
+
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Asynchronous variant of {@link FramedTelemetryLogSink} with the same frame format. Logging threads frame their
+ * message into a slot of a bounded ring buffer, timestamped at the time of the call, and return. A single writer
+ * thread drains the ring and coalesces the frames into large writes.
+ *
+ * Claiming and publishing a slot is lock-free. Only {@link #flush()} and producers that wait for a full ring to
+ * drain block. The runtime flushes the sink before it reports the result of an invocation and before it asks for the
+ * next one, so that every log line is written while the environment runs and attributed to its invocation.
+ */
+public class AsyncFramedTelemetryLogSink implements LogSink {
+
+    /**
+     * What a logging thread does when the ring buffer is full
+     */
+    public enum OverflowPolicy {
+        /**
+         * wait until the writer thread made room, no log is lost
+         */
+        BLOCK,
+        /**
+         * drop the message, the number of dropped messages is logged once there is room again
+         */
+        DROP
+    }
+
+    /**
+     * Size of the pooled buffer of each slot. Larger frames get a buffer of their own.
+     */
+    private static final int SLOT_BUFFER_LENGTH = 1024;
+
+    /**
+     * Frames are coalesced into writes of up to this size.
+     */
+    private static final int WRITE_BUFFER_LENGTH = 64 * 1024;
+
+    /**
+     * Published in place of a frame that could not be built, so that the writer thread does not wait for it forever
+     */
+    private static final byte[] EMPTY_FRAME = new byte[0];
+
+    private final FileOutputStream logOutputStream;
+    private final MicrosecondClock clock = new MicrosecondClock();
+    private final OverflowPolicy overflowPolicy;
+    private final boolean leveledFrameTypes;
+
+    private final int capacity;
+    private final int mask;
+    private final byte[][] slotBuffers;
+    private final byte[][] slotFrames;
+    private final int[] slotFrameLengths;
+    /**
+     * sequence number of the frame published in each slot, written and read with volatile semantics so
+     * that the slot contents are visible to the writer thread
+     */
+    private final AtomicLongArray published;
+
+    /**
+     * next sequence number to be claimed by a logging thread
+     */
+    private final AtomicLong claimed = new AtomicLong();
+    /**
+     * all frames with a lower sequence number have been written and their slots can be reused
+     */
+    private volatile long written;
+
+    private final AtomicLong dropped = new AtomicLong();
+    /**
+     * number of writes that failed, only counted by the writer thread
+     */
+    private volatile long failedWrites;
+    private final AtomicLong waiters = new AtomicLong();
+    private final Object waitLock = new Object();
+
+    private final Thread writerThread;
+    private volatile boolean writerParked;
+    private volatile boolean closed;
+
+    /**
+     * @param fd telemetry log file descriptor
+     * @param capacity number of frames the ring buffer holds, rounded up to a power of two
+     * @param overflowPolicy what logging threads do when the ring buffer is full
+     */
+    public AsyncFramedTelemetryLogSink(FileDescriptor fd, int capacity, OverflowPolicy overflowPolicy) {
+        this(fd, capacity, overflowPolicy, false);
+    }
+
+    /**
+     * @param fd telemetry log file descriptor
+     * @param capacity number of frames the ring buffer holds, rounded up to a power of two
+     * @param overflowPolicy what logging threads do when the ring buffer is full
+     * @param leveledFrameTypes whether the frame type carries the format and level of the message, see
+     *                          {@link FrameType}
+     */
+    public AsyncFramedTelemetryLogSink(FileDescriptor fd, int capacity, OverflowPolicy overflowPolicy,
+                                       boolean leveledFrameTypes) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive but was " + capacity);
+        }
+        this.logOutputStream = new FileOutputStream(fd);
+        this.overflowPolicy = overflowPolicy;
+        this.leveledFrameTypes = leveledFrameTypes;
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slotBuffers = new byte[this.capacity][];
+        this.slotFrames = new byte[this.capacity][];
+        this.slotFrameLengths = new int[this.capacity];
+        this.published = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            this.published.set(i, -1);
+        }
+        this.writerThread = new Thread(this::drain, "aws-lambda-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public void log(byte[] message) {
+        log(LogLevel.UNDEFINED, LogFormat.TEXT, message, 0, message.length);
+    }
+
+    @Override
+    public void log(LogLevel logLevel, LogFormat logFormat, byte[] message, int offset, int length) {
+        // checked before a slot is claimed, a claimed slot must be published
+        if (offset < 0 || length < 0 || offset > message.length - length) {
+            throw new IndexOutOfBoundsException("offset " + offset + " and length " + length
+                    + " out of bounds for message of length " + message.length);
+        }
+        long sequence;
+        while (true) {
+            sequence = claimed.get();
+            if (sequence - written >= capacity) {
+                if (overflowPolicy == OverflowPolicy.DROP || closed) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                awaitWritten(sequence - capacity + 1);
+            } else if (claimed.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+
+        int slot = (int) sequence & mask;
+        int frameLength = FramedTelemetryLogSink.HEADER_LENGTH + length;
+        byte[] frame = EMPTY_FRAME;
+        try {
+            if (frameLength <= SLOT_BUFFER_LENGTH) {
+                frame = slotBuffers[slot];
+                if (frame == null) {
+                    frame = new byte[SLOT_BUFFER_LENGTH];
+                    slotBuffers[slot] = frame;
+                }
+            } else {
+                frame = new byte[frameLength];
+            }
+            ByteBuffer header = ByteBuffer.wrap(frame, 0, FramedTelemetryLogSink.HEADER_LENGTH)
+                    .order(ByteOrder.BIG_ENDIAN);
+            int frameType = leveledFrameTypes ? FrameType.getValue(logLevel, logFormat) : FrameType.LOG.getValue();
+            FramedTelemetryLogSink.putHeader(header, frameType, length, clock.currentTimeMicros());
+            System.arraycopy(message, offset, frame, FramedTelemetryLogSink.HEADER_LENGTH, length);
+        } catch (RuntimeException | Error e) {
+            // e.g. out of memory for a large frame, the slot is published empty
+            frame = EMPTY_FRAME;
+            frameLength = 0;
+            throw e;
+        } finally {
+            slotFrames[slot] = frame;
+            slotFrameLengths[slot] = frameLength;
+            published.set(slot, sequence);
+        }
+
+        if (writerParked) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * Blocks until every frame logged before the call has been written
+     */
+    @Override
+    public void flush() {
+        awaitWritten(claimed.get());
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logOutputStream.close();
+    }
+
+    private void awaitWritten(long sequence) {
+        if (written >= sequence) {
+            return;
+        }
+        waiters.incrementAndGet();
+        try {
+            LockSupport.unpark(writerThread);
+            boolean interrupted = false;
+            synchronized (waitLock) {
+                while (written < sequence && writerThread.isAlive()) {
+                    try {
+                        waitLock.wait(100);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Writer thread loop: writes all published frames in order, then parks until more are published
+     */
+    private void drain() {
+        byte[] writeBuffer = new byte[WRITE_BUFFER_LENGTH];
+        while (true) {
+            long next = written;
+            int bufferedLength = 0;
+            while (published.get((int) next & mask) == next) {
+                int slot = (int) next & mask;
+                byte[] frame = slotFrames[slot];
+                int frameLength = slotFrameLengths[slot];
+                if (bufferedLength + frameLength > writeBuffer.length) {
+                    bufferedLength = write(writeBuffer, bufferedLength);
+                }
+                if (frameLength > writeBuffer.length) {
+                    write(frame, frameLength);
+                } else {
+                    System.arraycopy(frame, 0, writeBuffer, bufferedLength, frameLength);
+                    bufferedLength += frameLength;
+                }
+                if (frameLength > SLOT_BUFFER_LENGTH) {
+                    // do not keep frames larger than the pooled buffer alive
+                    slotFrames[slot] = null;
+                }
+                next++;
+            }
+            write(writeBuffer, bufferedLength);
+
+            if (next != written) {
+                written = next;
+                long droppedCount = dropped.getAndSet(0);
+                if (droppedCount > 0) {
+                    writeDroppedNotice(droppedCount);
+                }
+                if (waiters.get() > 0) {
+                    synchronized (waitLock) {
+                        waitLock.notifyAll();
+                    }
+                }
+                continue;
+            }
+
+            if (closed) {
+                return;
+            }
+            writerParked = true;
+            if (published.get((int) next & mask) != next && !closed) {
+                LockSupport.park(this);
+            }
+            writerParked = false;
+        }
+    }
+
+    private void writeDroppedNotice(long droppedCount) {
+        byte[] message = ("Dropped " + droppedCount + " log messages because the log buffer was full\n").getBytes(UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(FramedTelemetryLogSink.HEADER_LENGTH + message.length)
+                .order(ByteOrder.BIG_ENDIAN);
+        FramedTelemetryLogSink.putHeader(frame, FrameType.LOG.getValue(), message.length, clock.currentTimeMicros());
+        frame.put(message);
+        write(frame.array(), frame.capacity());
+    }
+
+    /**
+     * @return 0, the length of the write buffer after writing its contents
+     */
+    private int write(byte[] buffer, int length) {
+        if (length > 0) {
+            try {
+                logOutputStream.write(buffer, 0, length);
+            } catch (IOException e) {
+                reportFailedWrite(e);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Reports the first failed write straight to the standard error file descriptor, and only counts the others.
+     * Logged through a captured System.err, the report would make the writer thread wait for itself.
+     */
+    private void reportFailedWrite(IOException e) {
+        if (failedWrites++ == 0) {
+            FramedTelemetryLogSink.reportFailedWrite(e);
+        }
+    }
+
+    /**
+     * @return number of writes to the telemetry log that failed
+     */
+    long getFailedWrites() {
+        return failedWrites;
+    }
+}
@@ -2,9 +2,24 @@
 
 package com.amazonaws.services.lambda.runtime.api.client.logging;
 
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+
+/**
+ * Type of a telemetry log frame. The platform defines the {@link #LOG} type, which the sinks emit for every message
+ * by default.
+ *
+ * The leveled types of {@link #getValue(LogLevel, LogFormat)} are this runtime's own assumption and not part of the
+ * platform contract, the sinks only emit them when AWS_LAMBDA_JAVA_LEVELED_FRAME_TYPES is true. Their lowest 4 bits
+ * tell the format of the message, 0x3 for text and 0x2 for JSON, and bits 4 to 6 carry the ordinal of its
+ * {@link LogLevel}. A text message without a level has the plain {@link #LOG} type.
+ */
 public enum FrameType {
 
-    LOG(0xa55a0003);
+    LOG(0xa55a0003),
+    JSON_LOG(0xa55a0002);
+
+    private static final int LOG_LEVEL_SHIFT = 4;
 
     private final int val;
 
@@ -15,4 +30,12 @@ public enum FrameType {
     public int getValue() {
         return this.val;
     }
+
+    /**
+     * @return the leveled frame type for a message of the format and level
+     */
+    public static int getValue(LogLevel logLevel, LogFormat logFormat) {
+        FrameType frameType = logFormat == LogFormat.JSON ? JSON_LOG : LOG;
+        return frameType.val | (logLevel.ordinal() << LOG_LEVEL_SHIFT);
+    }
 }
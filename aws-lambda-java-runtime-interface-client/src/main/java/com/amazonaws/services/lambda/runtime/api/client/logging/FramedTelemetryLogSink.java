@@ -2,12 +2,16 @@
 
 package com.amazonaws.services.lambda.runtime.api.client.logging;
 
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+
 import java.io.FileDescriptor;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.time.Instant;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * FramedTelemetryLogSink implements the logging contract between runtimes and the platform. It implements a simple
@@ -21,51 +25,117 @@ import java.time.Instant;
  * }
  * </pre>
  *
- * The first 4 bytes indicate the type of the frame - log frames have a type defined as the hex value 0xa55a0001. The
+ * The first 4 bytes indicate the type of the frame - text log frames without a level have a type defined as the hex
+ * value 0xa55a0003. Every frame has this type unless leveled frame types are enabled, see {@link FrameType}. The
  * second 4 bytes should indicate the message's length. The next 8 bytes contain UNIX timestamp of the message in 
  * microsecond accuracy. The next 'len' bytes contain the message. The byte order is big-endian.
  */
 public class FramedTelemetryLogSink implements LogSink {
 
-    private static final int HEADER_LENGTH = 16;
+    static final int HEADER_LENGTH = 16;
 
+    /**
+     * Frames up to this size are written with a single write call from a reused buffer. Larger messages are written
+     * after the header with a second call, instead of keeping a buffer of their size around.
+     */
+    private static final int MAX_BUFFERED_FRAME_LENGTH = 256 * 1024;
+
+    // a FileOutputStream and not a FileChannel: an interrupted logging thread must not close the log
     private final FileOutputStream logOutputStream;
-    private final ByteBuffer headerBuf;
+    private ByteBuffer frameBuf;
+    private final MicrosecondClock clock = new MicrosecondClock();
+    private final boolean leveledFrameTypes;
+    /**
+     * number of writes that failed, guarded by the lock of the sink
+     */
+    private long failedWrites;
 
     public FramedTelemetryLogSink(FileDescriptor fd) throws IOException {
+        this(fd, false);
+    }
+
+    /**
+     * @param fd telemetry log file descriptor
+     * @param leveledFrameTypes whether the frame type carries the format and level of the message, see
+     *                          {@link FrameType}
+     */
+    public FramedTelemetryLogSink(FileDescriptor fd, boolean leveledFrameTypes) throws IOException {
         this.logOutputStream = new FileOutputStream(fd);
-        this.headerBuf = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.BIG_ENDIAN);
+        this.frameBuf = ByteBuffer.allocate(1024).order(ByteOrder.BIG_ENDIAN);
+        this.leveledFrameTypes = leveledFrameTypes;
+    }
+
+    @Override
+    public void log(byte[] message) {
+        log(LogLevel.UNDEFINED, LogFormat.TEXT, message, 0, message.length);
     }
 
     @Override
-    public synchronized void log(byte[] message) {
+    public synchronized void log(LogLevel logLevel, LogFormat logFormat, byte[] message, int offset, int length) {
         try {
-            writeFrame(message);
+            int frameType = leveledFrameTypes ? FrameType.getValue(logLevel, logFormat) : FrameType.LOG.getValue();
+            writeFrame(frameType, message, offset, length);
         } catch (IOException e) {
-            e.printStackTrace();
+            if (failedWrites++ == 0) {
+                reportFailedWrite(e);
+            }
         }
     }
 
-    private void writeFrame(byte[] message) throws IOException {
-        updateHeader(message.length);
-        this.logOutputStream.write(this.headerBuf.array());
-        this.logOutputStream.write(message);
+    private void writeFrame(int frameType, byte[] message, int offset, int length) throws IOException {
+        int frameLength = HEADER_LENGTH + length;
+        if (frameLength > MAX_BUFFERED_FRAME_LENGTH) {
+            updateHeader(frameType, length);
+            this.logOutputStream.write(this.frameBuf.array(), 0, HEADER_LENGTH);
+            this.logOutputStream.write(message, offset, length);
+            return;
+        }
+        if (frameLength > this.frameBuf.capacity()) {
+            int capacity = Math.min(Integer.highestOneBit(frameLength - 1) << 1, MAX_BUFFERED_FRAME_LENGTH);
+            this.frameBuf = ByteBuffer.allocate(capacity).order(ByteOrder.BIG_ENDIAN);
+        }
+        updateHeader(frameType, length);
+        System.arraycopy(message, offset, this.frameBuf.array(), HEADER_LENGTH, length);
+        this.logOutputStream.write(this.frameBuf.array(), 0, frameLength);
+    }
+
+    /**
+     * Updates the start of the frame ByteBuffer with the header for a message of the provided type and length. The
+     * header comprises the frame type, message length and timestamp.
+     */
+    private void updateHeader(int frameType, int length) {
+        this.frameBuf.clear();
+        putHeader(this.frameBuf, frameType, length, clock.currentTimeMicros());
+    }
+
+    /**
+     * Puts the frame header for a message of the provided type and length at the position of the buffer, in
+     * big-endian order
+     */
+    static void putHeader(ByteBuffer buf, int frameType, int length, long timestampMicros) {
+        buf.putInt(frameType);
+        buf.putInt(length);
+        buf.putLong(timestampMicros);
     }
 
-    private long timestamp() {
-        Instant instant = Instant.now();
-        return instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1000; // microsecond precision
+    /**
+     * Reports a failed write straight to the standard error file descriptor. System.err may be captured into the sink
+     * that failed, so printing the stack trace would log through that sink again.
+     */
+    static void reportFailedWrite(IOException e) {
+        byte[] message = ("Failed to write to the telemetry log: " + e + "\n").getBytes(UTF_8);
+        try {
+            new FileOutputStream(FileDescriptor.err).write(message);
+        } catch (IOException ignored) {
+            // nowhere left to report it
+        }
     }
 
     /**
-     * Updates the header ByteBuffer with the provided length. The header comprises the frame type and message length.
+     * @return number of writes to the telemetry log that failed, only the first one is reported
      */
-    private void updateHeader(int length) {
-        this.headerBuf.clear();
-        this.headerBuf.putInt(FrameType.LOG.getValue());
-        this.headerBuf.putInt(length);
-        this.headerBuf.putLong(timestamp());
-        this.headerBuf.flip();
+    synchronized long getFailedWrites() {
+        return failedWrites;
     }
 
     @Override
@@ -0,0 +1,283 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.logging;
+
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Encodes log messages as JSON objects straight into a reused UTF-8 buffer, e.g.
+ *
+ * <pre>
+ * {@code
+ * {"timestamp":"2022-11-07T17:41:46.123Z","level":"INFO","message":"hello world","AWSRequestId":"..."}
+ * }
+ * </pre>
+ *
+ * The level is omitted for messages without a level and the request id outside of an invocation. Strings are escaped
+ * the same way as by {@link com.amazonaws.services.lambda.runtime.api.client.util.JsonWriter}. Byte array messages
+ * are expected to be UTF-8, only their ASCII characters are escaped. Not thread-safe, the buffer is overwritten by
+ * the next message.
+ */
+class JsonLogFormatter {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(UTF_8);
+    private static final byte[] TIMESTAMP_FIELD = "{\"timestamp\":\"".getBytes(UTF_8);
+    private static final byte[] LEVEL_FIELD = "\",\"level\":\"".getBytes(UTF_8);
+    private static final byte[] MESSAGE_FIELD = "\",\"message\":".getBytes(UTF_8);
+    private static final byte[] REQUEST_ID_FIELD = ",\"AWSRequestId\":".getBytes(UTF_8);
+    private static final byte[] NULL = "null".getBytes(UTF_8);
+    private static final byte[][] LEVEL_NAMES = new byte[LogLevel.values().length][];
+
+    static {
+        for (LogLevel logLevel : LogLevel.values()) {
+            LEVEL_NAMES[logLevel.ordinal()] = logLevel.name().getBytes(UTF_8);
+        }
+    }
+
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000;
+
+    private static final int INITIAL_BUFFER_LENGTH = 1024;
+
+    /**
+     * A buffer that grew beyond this size for a large message is dropped by {@link #trimBuffer()}
+     */
+    static final int MAX_RETAINED_BUFFER_LENGTH = 64 * 1024;
+
+    private byte[] buf = new byte[INITIAL_BUFFER_LENGTH];
+    private int length;
+
+    /**
+     * range of the quoted message field value in the buffer
+     */
+    private int messageOffset;
+    private int messageLength;
+
+    /**
+     * epoch day of the last message and its "yyyy-MM-ddT" timestamp prefix
+     */
+    private long cachedDay = Long.MIN_VALUE;
+    private byte[] cachedDate;
+
+    /**
+     * @return the buffer holding the last encoded message from index 0
+     */
+    byte[] getBuffer() {
+        return buf;
+    }
+
+    /**
+     * Replaces a buffer that grew beyond {@link #MAX_RETAINED_BUFFER_LENGTH}, which can be up to 6 times the length of
+     * the largest message, so that it is not kept for the lifetime of the formatter. Called once the last encoded
+     * message has been logged.
+     */
+    void trimBuffer() {
+        if (buf.length > MAX_RETAINED_BUFFER_LENGTH) {
+            buf = new byte[INITIAL_BUFFER_LENGTH];
+        }
+    }
+
+    /**
+     * @return the offset of the quoted message field value of the last encoded message in the buffer. Unlike the
+     *         whole message, it does not change with the timestamp.
+     */
+    int getMessageOffset() {
+        return messageOffset;
+    }
+
+    /**
+     * @return the length of the quoted message field value of the last encoded message, see
+     *         {@link #getMessageOffset()}
+     */
+    int getMessageLength() {
+        return messageLength;
+    }
+
+    /**
+     * @param message message to encode, may be null
+     * @return the length of the encoded message, see {@link #getBuffer()}
+     */
+    int format(String message, LogLevel logLevel, String requestId, long epochMillis) {
+        startObject(logLevel, epochMillis);
+        if (message == null) {
+            append(NULL);
+        } else {
+            appendString(message);
+        }
+        return endObject(requestId);
+    }
+
+    /**
+     * @param message UTF-8 encoded message to encode, may be null
+     * @return the length of the encoded message, see {@link #getBuffer()}
+     */
+    int format(byte[] message, LogLevel logLevel, String requestId, long epochMillis) {
+        return message == null
+                ? format((String) null, logLevel, requestId, epochMillis)
+                : format(message, 0, message.length, logLevel, requestId, epochMillis);
+    }
+
+    /**
+     * @param message array holding the UTF-8 encoded message to encode from offset
+     * @return the length of the encoded message, see {@link #getBuffer()}
+     */
+    int format(byte[] message, int offset, int length, LogLevel logLevel, String requestId, long epochMillis) {
+        startObject(logLevel, epochMillis);
+        appendUtf8String(message, offset, length);
+        return endObject(requestId);
+    }
+
+    /**
+     * Appends the timestamp and level fields and the name of the message field
+     */
+    private void startObject(LogLevel logLevel, long epochMillis) {
+        length = 0;
+        append(TIMESTAMP_FIELD);
+        appendTimestamp(epochMillis);
+        if (logLevel != LogLevel.UNDEFINED) {
+            append(LEVEL_FIELD);
+            append(LEVEL_NAMES[logLevel.ordinal()]);
+        }
+        append(MESSAGE_FIELD);
+        messageOffset = length;
+    }
+
+    private int endObject(String requestId) {
+        messageLength = length - messageOffset;
+        if (requestId != null) {
+            append(REQUEST_ID_FIELD);
+            appendString(requestId);
+        }
+        ensureCapacity(1);
+        buf[length++] = '}';
+        return length;
+    }
+
+    /**
+     * Appends the timestamp as yyyy-MM-ddTHH:mm:ss.SSSZ, the date part is only formatted when the day changes
+     */
+    private void appendTimestamp(long epochMillis) {
+        long day = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        if (day != cachedDay) {
+            cachedDate = (LocalDate.ofEpochDay(day) + "T").getBytes(UTF_8);
+            cachedDay = day;
+        }
+        append(cachedDate);
+        int millisOfDay = (int) Math.floorMod(epochMillis, MILLIS_PER_DAY);
+        ensureCapacity(13);
+        appendTwoDigits(millisOfDay / 3_600_000);
+        buf[length++] = ':';
+        appendTwoDigits(millisOfDay / 60_000 % 60);
+        buf[length++] = ':';
+        appendTwoDigits(millisOfDay / 1000 % 60);
+        buf[length++] = '.';
+        int millis = millisOfDay % 1000;
+        buf[length++] = (byte) ('0' + millis / 100);
+        appendTwoDigits(millis % 100);
+        buf[length++] = 'Z';
+    }
+
+    private void appendTwoDigits(int value) {
+        buf[length++] = (byte) ('0' + value / 10);
+        buf[length++] = (byte) ('0' + value % 10);
+    }
+
+    /**
+     * Appends the string quoted, escaped and UTF-8 encoded
+     */
+    private void appendString(String value) {
+        // each char takes at most 6 bytes, escaped or as the 3 bytes of a char in the BMP
+        ensureCapacity(value.length() * 6 + 2);
+        byte[] b = buf;
+        int pos = length;
+        b[pos++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    b[pos++] = (byte) c;
+                } else {
+                    pos = escape(b, pos, c);
+                }
+            } else if (c < 0x800) {
+                b[pos++] = (byte) (0xc0 | (c >> 6));
+                b[pos++] = (byte) (0x80 | (c & 0x3f));
+            } else if (c == '\u2028' || c == '\u2029') {
+                pos = escape(b, pos, c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                b[pos++] = (byte) (0xf0 | (codePoint >> 18));
+                b[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                b[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                b[pos++] = (byte) (0x80 | (codePoint & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate, replaced the same way as by String.getBytes
+                b[pos++] = '?';
+            } else {
+                b[pos++] = (byte) (0xe0 | (c >> 12));
+                b[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                b[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        b[pos++] = '"';
+        length = pos;
+    }
+
+    /**
+     * Appends the UTF-8 encoded string quoted and with its ASCII characters escaped
+     */
+    private void appendUtf8String(byte[] value, int offset, int len) {
+        ensureCapacity(len * 6 + 2);
+        byte[] b = buf;
+        int pos = length;
+        b[pos++] = '"';
+        for (int i = offset; i < offset + len; i++) {
+            byte c = value[i];
+            if ((c >= 0x20 && c != '"' && c != '\\') || c < 0) {
+                b[pos++] = c;
+            } else {
+                pos = escape(b, pos, (char) c);
+            }
+        }
+        b[pos++] = '"';
+        length = pos;
+    }
+
+    private static int escape(byte[] b, int pos, char c) {
+        b[pos++] = '\\';
+        switch (c) {
+            case '"': b[pos++] = '"'; break;
+            case '\\': b[pos++] = '\\'; break;
+            case '\n': b[pos++] = 'n'; break;
+            case '\r': b[pos++] = 'r'; break;
+            case '\t': b[pos++] = 't'; break;
+            case '\b': b[pos++] = 'b'; break;
+            case '\f': b[pos++] = 'f'; break;
+            default:
+                b[pos++] = 'u';
+                b[pos++] = HEX[c >> 12];
+                b[pos++] = HEX[(c >> 8) & 0xf];
+                b[pos++] = HEX[(c >> 4) & 0xf];
+                b[pos++] = HEX[c & 0xf];
+        }
+        return pos;
+    }
+
+    private void append(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buf, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void ensureCapacity(int additional) {
+        int required = length + additional;
+        if (required > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(required, buf.length * 2));
+        }
+    }
+}
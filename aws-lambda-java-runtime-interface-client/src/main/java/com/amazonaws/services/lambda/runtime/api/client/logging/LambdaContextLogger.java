@@ -3,6 +3,8 @@
 package com.amazonaws.services.lambda.runtime.api.client.logging;
 
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -12,23 +14,94 @@ public class LambdaContextLogger implements LambdaLogger {
     private static final byte[] NULL_BYTES_VALUE = "null".getBytes(UTF_8);
 
     private final transient LogSink sink;
+    private final LogLevel minimumLogLevel;
+    private final LogFormat logFormat;
+    // guards its reused buffer, which the sink copies before log returns
+    private final JsonLogFormatter jsonFormatter;
+    private volatile String requestId;
 
     public LambdaContextLogger(LogSink sink) {
+        this(sink, LogLevel.UNDEFINED, LogFormat.TEXT);
+    }
+
+    /**
+     * @param minimumLogLevel messages with a lower level are dropped, messages without a level are always logged
+     * @param logFormat format of the logged messages
+     */
+    public LambdaContextLogger(LogSink sink, LogLevel minimumLogLevel, LogFormat logFormat) {
         this.sink = sink;
+        this.minimumLogLevel = minimumLogLevel;
+        this.logFormat = logFormat;
+        this.jsonFormatter = logFormat == LogFormat.JSON ? new JsonLogFormatter() : null;
+    }
+
+    /**
+     * @param requestId id of the current invocation, added to messages in the JSON format
+     */
+    public void setRequestId(String requestId) {
+        this.requestId = requestId;
     }
 
     public void log(byte[] message) {
-        if (message == null) {
-            message = NULL_BYTES_VALUE;
-        }
-        sink.log(message);
+        log(message, LogLevel.UNDEFINED);
     }
 
     public void log(String message) {
+        log(message, LogLevel.UNDEFINED);
+    }
+
+    @Override
+    public void log(byte[] message, LogLevel logLevel) {
         if (message == null) {
-            this.log(NULL_BYTES_VALUE);
+            log((String) null, logLevel);
         } else {
-            this.log(message.getBytes(UTF_8));
+            log(message, 0, message.length, logLevel);
+        }
+    }
+
+    @Override
+    public void log(byte[] message, int offset, int length, LogLevel logLevel) {
+        if (!isEnabled(logLevel)) {
+            return;
+        }
+        if (jsonFormatter != null) {
+            synchronized (jsonFormatter) {
+                int jsonLength = jsonFormatter.format(message, offset, length, logLevel, requestId,
+                        System.currentTimeMillis());
+                logJson(logLevel, jsonLength);
+            }
+            return;
+        }
+        sink.log(logLevel, logFormat, message, offset, length);
+    }
+
+    @Override
+    public void log(String message, LogLevel logLevel) {
+        if (!isEnabled(logLevel)) {
+            return;
         }
+        if (jsonFormatter != null) {
+            synchronized (jsonFormatter) {
+                int length = jsonFormatter.format(message, logLevel, requestId, System.currentTimeMillis());
+                logJson(logLevel, length);
+            }
+            return;
+        }
+        byte[] bytes = message == null ? NULL_BYTES_VALUE : message.getBytes(UTF_8);
+        sink.log(logLevel, logFormat, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Logs the message the JSON formatter holds, identified by its message field for sinks that collapse repeated
+     * messages, since the timestamp differs between repetitions
+     */
+    private void logJson(LogLevel logLevel, int length) {
+        sink.log(logLevel, logFormat, jsonFormatter.getBuffer(), 0, length, jsonFormatter.getMessageOffset(),
+                jsonFormatter.getMessageLength());
+        jsonFormatter.trimBuffer();
+    }
+
+    private boolean isEnabled(LogLevel logLevel) {
+        return logLevel == LogLevel.UNDEFINED || logLevel.ordinal() >= minimumLogLevel.ordinal();
     }
 }
@@ -2,10 +2,39 @@
 
 package com.amazonaws.services.lambda.runtime.api.client.logging;
 
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+
 import java.io.Closeable;
+import java.util.Arrays;
 
 public interface LogSink extends Closeable {
 
     void log(byte[] message);
 
+    /**
+     * Logs length bytes of the message starting at offset. Sinks that frame their messages carry the level and format
+     * in the frame type. The bytes are copied before the call returns, so the caller may reuse the array.
+     */
+    default void log(LogLevel logLevel, LogFormat logFormat, byte[] message, int offset, int length) {
+        log(Arrays.copyOfRange(message, offset, offset + length));
+    }
+
+    /**
+     * Logs a formatted message like {@link #log(LogLevel, LogFormat, byte[], int, int)}. The range keyOffset to
+     * keyOffset + keyLength of the array identifies the message without what the formatting adds per message, like
+     * the timestamp, for sinks that compare messages with each other.
+     */
+    default void log(LogLevel logLevel, LogFormat logFormat, byte[] message, int offset, int length, int keyOffset,
+                     int keyLength) {
+        log(logLevel, logFormat, message, offset, length);
+    }
+
+    /**
+     * Blocks until every message logged before the call has been written. The runtime calls this before it reports
+     * the result of an invocation, sinks that write synchronously have nothing to do.
+     */
+    default void flush() {
+    }
+
 }
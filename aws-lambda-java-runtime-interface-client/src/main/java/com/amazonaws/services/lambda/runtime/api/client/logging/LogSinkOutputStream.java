@@ -0,0 +1,204 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.logging;
+
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+
+import java.io.OutputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Captures what is written to System.out and System.err and logs it to a {@link LogSink}, one entry per message
+ * instead of one per line. Each thread writes to a buffer of its own. A line that starts with whitespace, a closing
+ * bracket or "Caused by: " continues the entry of the line before, so a stack trace or a pretty-printed JSON document
+ * becomes a single entry. An entry is logged when the first line of the next one is complete, when it reaches
+ * {@link #MAX_ENTRY_LENGTH}, when its thread calls {@link #flush()} or when the runtime calls {@link #flushEntries()}.
+ */
+public class LogSinkOutputStream extends OutputStream {
+
+    /**
+     * Longer entries are split, this also bounds the buffer each thread keeps
+     */
+    static final int MAX_ENTRY_LENGTH = 64 * 1024;
+
+    private static final byte[] CAUSED_BY = "Caused by: ".getBytes();
+
+    private final LogSink sink;
+    private final Set<Entry> entries = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<Entry> currentEntry = ThreadLocal.withInitial(this::newEntry);
+
+    public LogSinkOutputStream(LogSink sink) {
+        this.sink = sink;
+    }
+
+    private Entry newEntry() {
+        Entry entry = new Entry(Thread.currentThread());
+        entries.add(entry);
+        return entry;
+    }
+
+    @Override
+    public void write(int b) {
+        Entry entry = currentEntry.get();
+        synchronized (entry) {
+            entry.write((byte) b);
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes) {
+        write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        Entry entry = currentEntry.get();
+        synchronized (entry) {
+            entry.write(bytes, offset, length);
+        }
+    }
+
+    /**
+     * Logs the pending entry of the calling thread
+     */
+    @Override
+    public void flush() {
+        Entry entry = currentEntry.get();
+        synchronized (entry) {
+            entry.flush();
+        }
+    }
+
+    /**
+     * Logs the pending entries of all threads. The runtime calls this before it flushes the sink.
+     */
+    public void flushEntries() {
+        for (Entry entry : entries) {
+            synchronized (entry) {
+                entry.flush();
+            }
+            if (!entry.owner.isAlive()) {
+                entries.remove(entry);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flushEntries();
+    }
+
+    private final class Entry {
+        private final Thread owner;
+        private byte[] buf = new byte[256];
+        private int length;
+        /**
+         * start of the line being written, the lines before it are complete
+         */
+        private int lineStart;
+
+        private Entry(Thread owner) {
+            this.owner = owner;
+        }
+
+        private void write(byte b) {
+            if (length == MAX_ENTRY_LENGTH) {
+                log(length);
+            }
+            ensureCapacity(1);
+            buf[length++] = b;
+            if (b == '\n') {
+                lineCompleted();
+            }
+        }
+
+        private void write(byte[] bytes, int offset, int len) {
+            int end = offset + len;
+            while (offset < end) {
+                int lineEnd = offset;
+                while (lineEnd < end && bytes[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                boolean completesLine = lineEnd < end;
+                int chunkEnd = completesLine ? lineEnd + 1 : end;
+                append(bytes, offset, chunkEnd - offset);
+                if (completesLine) {
+                    lineCompleted();
+                }
+                offset = chunkEnd;
+            }
+        }
+
+        private void append(byte[] bytes, int offset, int len) {
+            if (length + len > MAX_ENTRY_LENGTH) {
+                log(length);
+                if (len > MAX_ENTRY_LENGTH) {
+                    sink.log(LogLevel.UNDEFINED, LogFormat.TEXT, bytes, offset, len);
+                    return;
+                }
+            }
+            ensureCapacity(len);
+            System.arraycopy(bytes, offset, buf, length, len);
+            length += len;
+        }
+
+        /**
+         * Logs the lines before the completed one unless it continues them
+         */
+        private void lineCompleted() {
+            if (lineStart > 0 && !isContinuation(lineStart)) {
+                log(lineStart);
+            }
+            lineStart = length;
+        }
+
+        private boolean isContinuation(int start) {
+            byte first = buf[start];
+            if (first == ' ' || first == '\t' || first == '\r' || first == '\n'
+                    || first == '}' || first == ']' || first == ')') {
+                return true;
+            }
+            if (length - start < CAUSED_BY.length) {
+                return false;
+            }
+            for (int i = 0; i < CAUSED_BY.length; i++) {
+                if (buf[start + i] != CAUSED_BY[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void flush() {
+            if (lineStart > 0 && lineStart < length && !isContinuation(lineStart)) {
+                // the line being written does not continue the complete ones
+                log(lineStart);
+            }
+            log(length);
+        }
+
+        /**
+         * Logs the first count bytes and moves the rest to the start of the buffer
+         */
+        private void log(int count) {
+            if (count == 0) {
+                return;
+            }
+            sink.log(LogLevel.UNDEFINED, LogFormat.TEXT, buf, 0, count);
+            System.arraycopy(buf, count, buf, 0, length - count);
+            length -= count;
+            lineStart = Math.max(lineStart - count, 0);
+        }
+
+        private void ensureCapacity(int additional) {
+            int required = length + additional;
+            if (required > buf.length) {
+                byte[] grown = new byte[Math.min(Math.max(required, buf.length * 2), MAX_ENTRY_LENGTH)];
+                System.arraycopy(buf, 0, grown, 0, length);
+                buf = grown;
+            }
+        }
+    }
+}
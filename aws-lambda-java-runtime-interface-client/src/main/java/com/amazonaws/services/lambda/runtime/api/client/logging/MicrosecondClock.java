@@ -0,0 +1,54 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.logging;
+
+import java.time.Instant;
+
+/**
+ * UNIX timestamps in microseconds for log frames, taken from System.nanoTime relative to a wall clock reading. The wall
+ * clock is read again once a second, so the timestamps follow adjustments of it, but never go back in time.
+ * Safe for use by multiple threads.
+ */
+final class MicrosecondClock {
+
+    private static final long ANCHOR_INTERVAL_NANOS = 1_000_000_000L;
+
+    private volatile Anchor anchor;
+
+    MicrosecondClock() {
+        // wall clock first, a slow reading must not put the projected timestamps ahead of it
+        long micros = wallClockMicros();
+        this.anchor = new Anchor(micros, System.nanoTime());
+    }
+
+    long currentTimeMicros() {
+        long nanos = System.nanoTime();
+        Anchor current = this.anchor;
+        if (nanos - current.nanos >= ANCHOR_INTERVAL_NANOS) {
+            long micros = wallClockMicros();
+            nanos = System.nanoTime();
+            current = new Anchor(Math.max(micros, current.micros(nanos)), nanos);
+            this.anchor = current;
+        }
+        return current.micros(nanos);
+    }
+
+    private static long wallClockMicros() {
+        Instant instant = Instant.now();
+        return instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1000; // microsecond precision
+    }
+
+    private static final class Anchor {
+        private final long micros;
+        private final long nanos;
+
+        private Anchor(long micros, long nanos) {
+            this.micros = micros;
+            this.nanos = nanos;
+        }
+
+        private long micros(long nanoTime) {
+            return micros + (nanoTime - nanos) / 1000;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.logging;
+
+import com.amazonaws.services.lambda.runtime.LambdaRuntimeInternal;
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Bounds what an invocation can log, so that an error storm does not inflate its duration and the ingestion cost.
+ * Wraps the sink that writes the messages:
+ *
+ * <ul>
+ * <li>A message identical to the one logged before it is not logged again, only counted. A notice with the number of
+ * repetitions is logged with the next different message or at the end of the invocation. Formatted messages are compared by their key, see
+ * {@link LogSink#log(LogLevel, LogFormat, byte[], int, int, int, int)}, e.g. JSON messages by their level and message
+ * field and not their timestamp.</li>
+ * <li>Once an invocation has logged its budget of messages or bytes, only one in sampleRate further messages is
+ * logged, or none if sampleRate is 0. A summary of the dropped messages is logged at the end of the invocation.</li>
+ * </ul>
+ *
+ * The runtime flushes the sink at the end of every invocation, which is when the budget is reset.
+ */
+public class RateLimitingLogSink implements LogSink {
+
+    private final LogSink sink;
+    private final long maxEventsPerInvocation;
+    private final long maxBytesPerInvocation;
+    private final int sampleRate;
+    private final boolean collapseDuplicates;
+
+    private long events;
+    private long bytes;
+    private long overBudgetEvents;
+    private long droppedEvents;
+    private long droppedBytes;
+
+    /**
+     * copy of the key of the last logged message, for collapsing duplicates
+     */
+    private byte[] lastMessage = new byte[256];
+    private int lastMessageLength = -1;
+    private LogLevel lastLogLevel;
+    private LogFormat lastLogFormat = LogFormat.TEXT;
+    private long repetitions;
+
+    /**
+     * formats the notices of the sink when the messages are JSON, created with the first one
+     */
+    private JsonLogFormatter jsonFormatter;
+
+    /**
+     * @param maxEventsPerInvocation number of messages an invocation can log before sampling starts
+     * @param maxBytesPerInvocation number of bytes an invocation can log before sampling starts
+     * @param sampleRate one in sampleRate messages over the budget is logged, none if 0
+     * @param collapseDuplicates whether to count repetitions of the last message instead of logging them
+     */
+    public RateLimitingLogSink(LogSink sink, long maxEventsPerInvocation, long maxBytesPerInvocation, int sampleRate,
+                               boolean collapseDuplicates) {
+        this.sink = sink;
+        this.maxEventsPerInvocation = maxEventsPerInvocation;
+        this.maxBytesPerInvocation = maxBytesPerInvocation;
+        this.sampleRate = sampleRate;
+        this.collapseDuplicates = collapseDuplicates;
+    }
+
+    @Override
+    public void log(byte[] message) {
+        log(LogLevel.UNDEFINED, LogFormat.TEXT, message, 0, message.length);
+    }
+
+    @Override
+    public void log(LogLevel logLevel, LogFormat logFormat, byte[] message, int offset, int length) {
+        log(logLevel, logFormat, message, offset, length, offset, length);
+    }
+
+    @Override
+    public synchronized void log(LogLevel logLevel, LogFormat logFormat, byte[] message, int offset, int length,
+                                 int keyOffset, int keyLength) {
+        if (collapseDuplicates && isLastMessage(logLevel, logFormat, message, keyOffset, keyLength)) {
+            repetitions++;
+            return;
+        }
+        logRepetitions();
+        lastLogFormat = logFormat;
+
+        if (events >= maxEventsPerInvocation || bytes + length > maxBytesPerInvocation) {
+            overBudgetEvents++;
+            if (sampleRate == 0 || overBudgetEvents % sampleRate != 0) {
+                droppedEvents++;
+                droppedBytes += length;
+                // repetitions of a dropped message are not collapsed into it
+                lastMessageLength = -1;
+                return;
+            }
+        }
+        events++;
+        bytes += length;
+        sink.log(logLevel, logFormat, message, offset, length);
+        if (collapseDuplicates) {
+            rememberLastMessage(logLevel, message, keyOffset, keyLength);
+        }
+    }
+
+    /**
+     * Logs the pending repetition count and the summary of the messages dropped by the invocation, resets the
+     * budget and flushes the wrapped sink
+     */
+    @Override
+    public void flush() {
+        synchronized (this) {
+            logRepetitions();
+            if (droppedEvents > 0) {
+                logNotice(LogLevel.WARN, "Dropped " + droppedEvents + " log messages (" + droppedBytes
+                        + " bytes) of this invocation because it exceeded its log budget");
+            }
+            events = 0;
+            bytes = 0;
+            overBudgetEvents = 0;
+            droppedEvents = 0;
+            droppedBytes = 0;
+            lastMessageLength = -1;
+        }
+        sink.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        sink.close();
+    }
+
+    private boolean isLastMessage(LogLevel logLevel, LogFormat logFormat, byte[] message, int offset, int length) {
+        return length == lastMessageLength && logLevel == lastLogLevel && logFormat == lastLogFormat
+                && rangeEquals(message, offset, lastMessage, length);
+    }
+
+    private static boolean rangeEquals(byte[] message, int offset, byte[] other, int length) {
+        for (int i = 0; i < length; i++) {
+            if (message[offset + i] != other[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rememberLastMessage(LogLevel logLevel, byte[] message, int offset, int length) {
+        if (length > lastMessage.length) {
+            lastMessage = new byte[Math.max(length, lastMessage.length * 2)];
+        }
+        System.arraycopy(message, offset, lastMessage, 0, length);
+        lastMessageLength = length;
+        lastLogLevel = logLevel;
+    }
+
+    private void logRepetitions() {
+        if (repetitions > 0) {
+            logNotice(lastLogLevel, "Previous message repeated " + repetitions + " more times");
+            repetitions = 0;
+        }
+    }
+
+    /**
+     * Logs a message of the runtime in the format of the last message, it does not count against the budget
+     */
+    private void logNotice(LogLevel logLevel, String notice) {
+        if (lastLogFormat != LogFormat.JSON) {
+            byte[] bytes = (notice + "\n").getBytes(UTF_8);
+            sink.log(logLevel, LogFormat.TEXT, bytes, 0, bytes.length);
+            return;
+        }
+        if (jsonFormatter == null) {
+            jsonFormatter = new JsonLogFormatter();
+        }
+        LambdaRuntimeInternal.Invocation invocation = LambdaRuntimeInternal.getCurrentInvocation();
+        int length = jsonFormatter.format(notice, logLevel, invocation == null ? null : invocation.getAwsRequestId(),
+                System.currentTimeMillis());
+        sink.log(logLevel, LogFormat.JSON, jsonFormatter.getBuffer(), 0, length);
+    }
+}
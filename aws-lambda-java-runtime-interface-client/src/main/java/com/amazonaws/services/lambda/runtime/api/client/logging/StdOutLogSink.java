@@ -2,7 +2,11 @@
 
 package com.amazonaws.services.lambda.runtime.api.client.logging;
 
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+
 import java.io.IOException;
+import java.io.PrintStream;
 
 public class StdOutLogSink implements LogSink {
     @Override
@@ -14,6 +18,22 @@ public class StdOutLogSink implements LogSink {
         }
     }
 
+    /**
+     * Writes JSON messages one per line, unlike text messages they do not end with a line break
+     */
+    @Override
+    public void log(LogLevel logLevel, LogFormat logFormat, byte[] message, int offset, int length) {
+        PrintStream out = System.out;
+        if (logFormat == LogFormat.JSON) {
+            synchronized (out) {
+                out.write(message, offset, length);
+                out.write('\n');
+            }
+        } else {
+            out.write(message, offset, length);
+        }
+    }
+
     @Override
     public void close() {}
 }
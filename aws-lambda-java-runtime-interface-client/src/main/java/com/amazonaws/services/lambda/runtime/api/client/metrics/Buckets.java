@@ -0,0 +1,110 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Counts and sums of values by logarithmic bucket, in an open addressing hash table of primitive arrays so that
+ * adding to an existing bucket does not allocate. Buckets are 1% wide: a value v > 0 is in bucket
+ * floor(log(v) / log(1.01)), negative values in buckets of their own and 0 in a bucket of its own. Not thread-safe.
+ */
+class Buckets {
+
+    private static final double INVERSE_LOG_BASE = 1 / Math.log(1.01);
+    private static final long ZERO_KEY = Long.MIN_VALUE;
+
+    private long[] keys = new long[16];
+    private long[] counts = new long[16];
+    private double[] sums = new double[16];
+    private int size;
+
+    /**
+     * @param value finite value
+     * @return key of the bucket of the value
+     */
+    static long key(double value) {
+        if (value == 0) {
+            return ZERO_KEY;
+        }
+        long index = (long) Math.floor(Math.log(Math.abs(value)) * INVERSE_LOG_BASE);
+        return value < 0 ? index * 2 + 1 : index * 2;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return whether the bucket was empty before
+     */
+    boolean add(long key, long count, double sum) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (counts[i] != 0) {
+            if (keys[i] == key) {
+                counts[i] += count;
+                sums[i] += sum;
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        counts[i] = count;
+        sums[i] = sum;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    void addTo(Buckets other) {
+        for (int i = 0; i < keys.length; i++) {
+            if (counts[i] != 0) {
+                other.add(keys[i], counts[i], sums[i]);
+            }
+        }
+    }
+
+    /**
+     * Copies the mean and the count of each bucket to the arrays, which have a length of at least size()
+     */
+    void copyMeans(double[] means, long[] valueCounts) {
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (counts[i] != 0) {
+                means[n] = sums[i] / counts[i];
+                valueCounts[n] = counts[i];
+                n++;
+            }
+        }
+    }
+
+    /**
+     * Empties the buckets but keeps the table, so that the next invocation fills it without allocating
+     */
+    void clear() {
+        Arrays.fill(counts, 0);
+        size = 0;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        double[] oldSums = sums;
+        keys = new long[oldKeys.length * 2];
+        counts = new long[oldKeys.length * 2];
+        sums = new double[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                add(oldKeys[i], oldCounts[i], oldSums[i]);
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,380 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.metrics;
+
+import com.amazonaws.services.lambda.runtime.LambdaRuntimeInternal;
+import com.amazonaws.services.lambda.runtime.api.client.logging.LogSink;
+import com.amazonaws.services.lambda.runtime.api.client.util.JsonWriter;
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+import com.amazonaws.services.lambda.runtime.metrics.LambdaMetrics;
+import com.amazonaws.services.lambda.runtime.metrics.MetricUnit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Aggregates metrics in memory and publishes them as CloudWatch embedded metric format documents through a log sink,
+ * e.g.
+ *
+ * <pre>
+ * {@code
+ * {"_aws":{"Timestamp":1667842906123,"CloudWatchMetrics":[{"Namespace":"aws-embedded-metrics",
+ * "Dimensions":[["FunctionName"]],"Metrics":[{"Name":"Latency","Unit":"Milliseconds"}]}]},
+ * "FunctionName":"my-function","AWSRequestId":"...","Latency":[12,12,15]}
+ * }
+ * </pre>
+ *
+ * Counters are LongAdders and gauges hold the bits of their last value in an AtomicLong. A counter that was added to is
+ * published even if its deltas add up to 0. Distributions count their values in buckets of about 1% width, the
+ * buckets are striped by thread so that threads recording at the same time rarely contend. A bucket is published as
+ * the mean of its values, repeated as often as they were recorded.
+ *
+ * A document holds at most 100 metrics with at most 100 values each, larger aggregates are split across documents.
+ * The runtime flushes the metrics at the end of every invocation, the recording thread flushes them earlier once the
+ * distributions hold many distinct values.
+ */
+public class EmbeddedMetrics implements LambdaMetrics {
+
+    static final int MAX_METRICS_PER_DOCUMENT = 100;
+    static final int MAX_VALUES_PER_METRIC = 100;
+
+    /**
+     * number of distribution buckets created since the last flush after which the recording thread flushes
+     */
+    static final int MAX_PENDING_BUCKETS = 10_000;
+
+    private static final int STRIPES = stripes();
+
+    /**
+     * top-level members of the documents, a metric of the same name would collide with them
+     */
+    private static final Set<String> RESERVED_NAMES = new HashSet<>(Arrays.asList("_aws", "FunctionName",
+            "AWSRequestId"));
+
+    private final LogSink sink;
+    private final String namespace;
+    private final String functionName;
+    private final ConcurrentHashMap<String, Metric> metrics = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingBuckets = new AtomicInteger();
+
+    /**
+     * @param sink sink to write the documents to
+     * @param namespace CloudWatch namespace of the metrics
+     * @param functionName value of the FunctionName dimension, or null to publish the metrics without dimensions
+     */
+    public EmbeddedMetrics(LogSink sink, String namespace, String functionName) {
+        this.sink = sink;
+        this.namespace = namespace;
+        this.functionName = functionName;
+    }
+
+    @Override
+    public void count(String name, long delta) {
+        Metric metric = metrics.get(name);
+        if (metric == null) {
+            checkName(name);
+            metric = metrics.computeIfAbsent(name, Counter::new);
+        }
+        if (!(metric instanceof Counter)) {
+            throw kindMismatch(metric, "counter");
+        }
+        ((Counter) metric).add(delta);
+    }
+
+    @Override
+    public void gauge(String name, double value, MetricUnit unit) {
+        Metric metric = metrics.get(name);
+        if (metric == null) {
+            checkName(name);
+            metric = metrics.computeIfAbsent(name, n -> new Gauge(n, unit));
+        }
+        if (!(metric instanceof Gauge)) {
+            throw kindMismatch(metric, "gauge");
+        }
+        if (isFinite(value)) {
+            ((Gauge) metric).bits.set(Double.doubleToLongBits(value));
+        }
+    }
+
+    @Override
+    public void record(String name, double value, MetricUnit unit) {
+        Metric metric = metrics.get(name);
+        if (metric == null) {
+            checkName(name);
+            metric = metrics.computeIfAbsent(name, n -> new Distribution(n, unit));
+        }
+        if (!(metric instanceof Distribution)) {
+            throw kindMismatch(metric, "distribution");
+        }
+        // flushing outside of the stripe lock, the flush takes the stripe locks in turn
+        if (isFinite(value) && ((Distribution) metric).record(value)
+                && pendingBuckets.incrementAndGet() >= MAX_PENDING_BUCKETS) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the datapoints recorded since the last flush, nothing if there are none
+     */
+    public synchronized void flush() {
+        pendingBuckets.set(0);
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (Metric metric : metrics.values()) {
+            Snapshot snapshot = metric.snapshot();
+            if (snapshot != null) {
+                snapshots.add(snapshot);
+            }
+        }
+        if (snapshots.isEmpty()) {
+            return;
+        }
+
+        LambdaRuntimeInternal.Invocation invocation = LambdaRuntimeInternal.getCurrentInvocation();
+        String requestId = invocation == null ? null : invocation.getAwsRequestId();
+        long timestamp = System.currentTimeMillis();
+        StringBuilder document = new StringBuilder(1024);
+        while (!snapshots.isEmpty()) {
+            int metricCount = Math.min(snapshots.size(), MAX_METRICS_PER_DOCUMENT);
+            document.setLength(0);
+            document.append("{\"_aws\":{\"Timestamp\":").append(timestamp)
+                    .append(",\"CloudWatchMetrics\":[{\"Namespace\":");
+            JsonWriter.appendString(document, namespace);
+            document.append(functionName == null ? ",\"Dimensions\":[[]]" : ",\"Dimensions\":[[\"FunctionName\"]]");
+            document.append(",\"Metrics\":[");
+            for (int i = 0; i < metricCount; i++) {
+                Snapshot snapshot = snapshots.get(i);
+                document.append(i == 0 ? "{\"Name\":" : ",{\"Name\":");
+                JsonWriter.appendString(document, snapshot.name);
+                document.append(",\"Unit\":");
+                JsonWriter.appendString(document, snapshot.unit.getCloudWatchName()).append('}');
+            }
+            document.append("]}]}");
+            if (functionName != null) {
+                JsonWriter.appendString(document.append(",\"FunctionName\":"), functionName);
+            }
+            if (requestId != null) {
+                JsonWriter.appendString(document.append(",\"AWSRequestId\":"), requestId);
+            }
+            for (int i = 0; i < metricCount; i++) {
+                Snapshot snapshot = snapshots.get(i);
+                JsonWriter.appendString(document.append(','), snapshot.name).append(':');
+                snapshot.appendValues(document);
+            }
+            document.append("}\n");
+
+            for (int i = metricCount - 1; i >= 0; i--) {
+                if (snapshots.get(i).isExhausted()) {
+                    snapshots.remove(i);
+                }
+            }
+            byte[] bytes = document.toString().getBytes(UTF_8);
+            sink.log(LogLevel.UNDEFINED, LogFormat.TEXT, bytes, 0, bytes.length);
+        }
+    }
+
+    private static boolean isFinite(double value) {
+        return !Double.isNaN(value) && !Double.isInfinite(value);
+    }
+
+    private static void checkName(String name) {
+        if (RESERVED_NAMES.contains(name)) {
+            throw new IllegalArgumentException("Metric name " + name + " is reserved");
+        }
+    }
+
+    private static IllegalArgumentException kindMismatch(Metric metric, String kind) {
+        return new IllegalArgumentException("Metric " + metric.name + " is a " + metric.kind() + ", not a " + kind);
+    }
+
+    private static int stripes() {
+        int stripes = 1;
+        while (stripes < Runtime.getRuntime().availableProcessors() && stripes < 32) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    static void appendNumber(StringBuilder builder, double value) {
+        if (value == (long) value && Math.abs(value) < 1e15) {
+            builder.append((long) value);
+        } else {
+            builder.append(value);
+        }
+    }
+
+    private abstract static class Metric {
+        final String name;
+        final MetricUnit unit;
+
+        Metric(String name, MetricUnit unit) {
+            this.name = name;
+            this.unit = unit;
+        }
+
+        abstract String kind();
+
+        /**
+         * @return the datapoints recorded since the last snapshot, or null if there are none
+         */
+        abstract Snapshot snapshot();
+    }
+
+    private static final class Counter extends Metric {
+        private final LongAdder adder = new LongAdder();
+        /**
+         * whether the counter was added to since the last snapshot, set after the adder so that a snapshot that
+         * clears it before summing does not miss a delta
+         */
+        private volatile boolean touched;
+
+        Counter(String name) {
+            super(name, MetricUnit.COUNT);
+        }
+
+        void add(long delta) {
+            adder.add(delta);
+            if (!touched) {
+                touched = true;
+            }
+        }
+
+        @Override
+        String kind() {
+            return "counter";
+        }
+
+        @Override
+        Snapshot snapshot() {
+            if (!touched) {
+                return null;
+            }
+            touched = false;
+            // published even if the deltas add up to 0
+            return new Snapshot(name, unit, new double[]{adder.sumThenReset()}, new long[]{1});
+        }
+    }
+
+    private static final class Gauge extends Metric {
+        private static final long UNSET = Double.doubleToLongBits(Double.NaN);
+
+        final AtomicLong bits = new AtomicLong(UNSET);
+
+        Gauge(String name, MetricUnit unit) {
+            super(name, unit);
+        }
+
+        @Override
+        String kind() {
+            return "gauge";
+        }
+
+        @Override
+        Snapshot snapshot() {
+            long value = bits.getAndSet(UNSET);
+            return value == UNSET ? null
+                    : new Snapshot(name, unit, new double[]{Double.longBitsToDouble(value)}, new long[]{1});
+        }
+    }
+
+    private static final class Distribution extends Metric {
+        private final Buckets[] stripes = new Buckets[STRIPES];
+
+        Distribution(String name, MetricUnit unit) {
+            super(name, unit);
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new Buckets();
+            }
+        }
+
+        @Override
+        String kind() {
+            return "distribution";
+        }
+
+        /**
+         * @return whether the value created a new bucket
+         */
+        boolean record(double value) {
+            long key = Buckets.key(value);
+            Buckets stripe = stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+            synchronized (stripe) {
+                return stripe.add(key, 1, value);
+            }
+        }
+
+        @Override
+        Snapshot snapshot() {
+            Buckets merged = new Buckets();
+            for (Buckets stripe : stripes) {
+                synchronized (stripe) {
+                    if (stripe.size() > 0) {
+                        stripe.addTo(merged);
+                        stripe.clear();
+                    }
+                }
+            }
+            if (merged.size() == 0) {
+                return null;
+            }
+            double[] values = new double[merged.size()];
+            long[] counts = new long[merged.size()];
+            merged.copyMeans(values, counts);
+            return new Snapshot(name, unit, values, counts);
+        }
+    }
+
+    /**
+     * Values of a metric left to write, each value repeated as often as it was recorded
+     */
+    private static final class Snapshot {
+        final String name;
+        final MetricUnit unit;
+        private final double[] values;
+        private final long[] counts;
+        private final boolean singleValue;
+        private int index;
+        private long written;
+
+        Snapshot(String name, MetricUnit unit, double[] values, long[] counts) {
+            this.name = name;
+            this.unit = unit;
+            this.values = values;
+            this.counts = counts;
+            this.singleValue = values.length == 1 && counts[0] == 1;
+        }
+
+        void appendValues(StringBuilder builder) {
+            if (singleValue) {
+                appendNumber(builder, values[0]);
+                index = 1;
+                return;
+            }
+            builder.append('[');
+            for (int n = 0; n < MAX_VALUES_PER_METRIC && index < values.length; n++) {
+                if (n > 0) {
+                    builder.append(',');
+                }
+                appendNumber(builder, values[index]);
+                if (++written == counts[index]) {
+                    index++;
+                    written = 0;
+                }
+            }
+            builder.append(']');
+        }
+
+        boolean isExhausted() {
+            return index == values.length;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader for the runtime's own documents, so that reading them does not load a JSON library.
+ * {@link #findString} finds a single scalar value without building the document, e.g. to read the platform out of a
+ * client context. {@link #parse} builds the document from maps, lists and strings.
+ */
+public final class JsonScanner {
+
+    private final String json;
+    private int pos;
+
+    private JsonScanner(String json) {
+        this.json = json;
+    }
+
+    /**
+     * @param json JSON document
+     * @param path object keys leading to the value, e.g. "env", "platform"
+     * @return the string value at the path, or the literal text of a number or boolean, null if it is missing, null,
+     *         an object or array or the document is malformed
+     */
+    public static String findString(String json, String... path) {
+        if (json == null || path.length == 0) {
+            return null;
+        }
+        try {
+            return new JsonScanner(json).findString(path, 0);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param json JSON document
+     * @return objects as Map, arrays as List, strings as String, numbers and booleans as their literal text as String
+     *         and null as null
+     * @throws IllegalArgumentException if the document is malformed
+     */
+    public static Object parse(String json) {
+        JsonScanner scanner = new JsonScanner(json);
+        try {
+            Object result = scanner.readValue();
+            scanner.skipTrailingWhitespace();
+            if (scanner.pos != json.length()) {
+                throw new IllegalArgumentException("unexpected content at " + scanner.pos);
+            }
+            return result;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("unexpected end of JSON", e);
+        }
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        char c = json.charAt(pos);
+        if (c == '"') {
+            return readString();
+        } else if (c == '{') {
+            pos++;
+            Map<String, Object> object = new LinkedHashMap<>();
+            skipWhitespace();
+            if (json.charAt(pos) == '}') {
+                pos++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = readString();
+                skipWhitespace();
+                expect(':');
+                object.put(key, readValue());
+                skipWhitespace();
+                if (json.charAt(pos) == '}') {
+                    pos++;
+                    return object;
+                }
+                expect(',');
+            }
+        } else if (c == '[') {
+            pos++;
+            List<Object> array = new ArrayList<>();
+            skipWhitespace();
+            if (json.charAt(pos) == ']') {
+                pos++;
+                return array;
+            }
+            while (true) {
+                array.add(readValue());
+                skipWhitespace();
+                if (json.charAt(pos) == ']') {
+                    pos++;
+                    return array;
+                }
+                expect(',');
+            }
+        }
+        int start = pos;
+        skipValue();
+        String literal = json.substring(start, pos);
+        if (literal.isEmpty()) {
+            throw new IllegalArgumentException("unexpected character at " + pos);
+        }
+        return "null".equals(literal) ? null : literal;
+    }
+
+    private String findString(String[] path, int depth) {
+        skipWhitespace();
+        if (json.charAt(pos) != '{') {
+            return null;
+        }
+        pos++;
+        skipWhitespace();
+        if (json.charAt(pos) == '}') {
+            return null;
+        }
+        while (true) {
+            skipWhitespace();
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            if (key.equals(path[depth])) {
+                if (depth == path.length - 1) {
+                    char c = json.charAt(pos);
+                    return c == '{' || c == '[' ? null : (String) readValue();
+                }
+                return findString(path, depth + 1);
+            }
+            skipValue();
+            skipWhitespace();
+            if (json.charAt(pos) == '}') {
+                return null;
+            }
+            expect(',');
+        }
+    }
+
+    private void skipValue() {
+        char c = json.charAt(pos);
+        if (c == '"') {
+            readString();
+        } else if (c == '{' || c == '[') {
+            int nesting = 0;
+            do {
+                c = json.charAt(pos);
+                if (c == '"') {
+                    readString();
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    nesting++;
+                } else if (c == '}' || c == ']') {
+                    nesting--;
+                }
+                pos++;
+            } while (nesting > 0);
+        } else {
+            // number, true, false or null
+            while (pos < json.length() && ",}] \t\r\n".indexOf(json.charAt(pos)) < 0) {
+                pos++;
+            }
+        }
+    }
+
+    private String readString() {
+        expect('"');
+        int start = pos;
+        StringBuilder unescaped = null;
+        while (true) {
+            char c = json.charAt(pos);
+            if (c == '"') {
+                String result = unescaped == null
+                        ? json.substring(start, pos)
+                        : unescaped.append(json, start, pos).toString();
+                pos++;
+                return result;
+            }
+            if (c != '\\') {
+                pos++;
+                continue;
+            }
+            if (unescaped == null) {
+                unescaped = new StringBuilder();
+            }
+            unescaped.append(json, start, pos);
+            char escaped = json.charAt(pos + 1);
+            pos += 2;
+            switch (escaped) {
+                case 'b': unescaped.append('\b'); break;
+                case 'f': unescaped.append('\f'); break;
+                case 'n': unescaped.append('\n'); break;
+                case 'r': unescaped.append('\r'); break;
+                case 't': unescaped.append('\t'); break;
+                case 'u':
+                    unescaped.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                    pos += 4;
+                    break;
+                default: unescaped.append(escaped);
+            }
+            start = pos;
+        }
+    }
+
+    private void expect(char c) {
+        if (json.charAt(pos) != c) {
+            throw new IllegalArgumentException("expected '" + c + "' at " + pos);
+        }
+        pos++;
+    }
+
+    private void skipTrailingWhitespace() {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private void skipWhitespace() {
+        while (Character.isWhitespace(json.charAt(pos))) {
+            pos++;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.util;
+
+/**
+ * Minimal JSON writer for the runtime's own documents, so that writing them does not load a JSON library.
+ * Strings are escaped the same way as by the Gson configuration of the serialization library.
+ */
+public final class JsonWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private JsonWriter() {
+    }
+
+    /**
+     * @param builder builder to append to
+     * @param value string to append as quoted and escaped JSON string, or null to append a JSON null
+     * @return the builder
+     */
+    public static StringBuilder appendString(StringBuilder builder, String value) {
+        if (value == null) {
+            return builder.append("null");
+        }
+        builder.append('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c == '"') {
+                replacement = "\\\"";
+            } else if (c == '\\') {
+                replacement = "\\\\";
+            } else if (c == '\n') {
+                replacement = "\\n";
+            } else if (c == '\r') {
+                replacement = "\\r";
+            } else if (c == '\t') {
+                replacement = "\\t";
+            } else if (c == '\b') {
+                replacement = "\\b";
+            } else if (c == '\f') {
+                replacement = "\\f";
+            } else if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                replacement = null;
+            } else {
+                continue;
+            }
+            builder.append(value, start, i);
+            if (replacement != null) {
+                builder.append(replacement);
+            } else {
+                builder.append("\\u").append(HEX[c >> 12]).append(HEX[(c >> 8) & 0xf])
+                        .append(HEX[(c >> 4) & 0xf]).append(HEX[c & 0xf]);
+            }
+            start = i + 1;
+        }
+        return builder.append(value, start, value.length()).append('"');
+    }
+}
@@ -14,7 +14,7 @@ public class LambdaOutputStream extends OutputStream {
 
     @Override
     public void write(int b) throws IOException {
-        write(new byte[] {(byte)b});
+        inner.write(b);
     }
 
     @Override
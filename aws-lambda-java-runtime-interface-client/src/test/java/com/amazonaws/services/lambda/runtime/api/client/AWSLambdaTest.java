@@ -0,0 +1,66 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client;
+
+import com.amazonaws.services.lambda.runtime.api.client.logging.LambdaContextLogger;
+import com.amazonaws.services.lambda.runtime.api.client.logging.LogSink;
+import com.amazonaws.services.lambda.runtime.api.client.logging.RateLimitingLogSink;
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AWSLambdaTest {
+
+    private static class RecordingLogSink implements LogSink {
+        final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void log(byte[] message) {
+            log(LogLevel.UNDEFINED, LogFormat.TEXT, message, 0, message.length);
+        }
+
+        @Override
+        public void log(LogLevel logLevel, LogFormat logFormat, byte[] message, int offset, int length) {
+            messages.add(new String(message, offset, length, UTF_8));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    public void lambdaLoggerLogsThroughRateLimitingLogSink() {
+        RecordingLogSink recording = new RecordingLogSink();
+        LogSink logSink = AWSLambda.withRateLimiting(recording,
+                Collections.singletonMap("AWS_LAMBDA_JAVA_LOG_MAX_EVENTS_PER_INVOCATION", "2"));
+        assertTrue(logSink instanceof RateLimitingLogSink);
+
+        LambdaContextLogger lambdaLogger = AWSLambda.createLambdaLogger(logSink);
+        for (int i = 0; i < 5; i++) {
+            lambdaLogger.log("message " + i + "\n");
+        }
+        logSink.flush();
+
+        assertEquals(3, recording.messages.size());
+        assertEquals("message 0\n", recording.messages.get(0));
+        assertEquals("message 1\n", recording.messages.get(1));
+        assertTrue(recording.messages.get(2).startsWith("Dropped 3 log messages"));
+    }
+
+    @Test
+    public void logSinkIsNotWrappedWithoutLimits() {
+        RecordingLogSink recording = new RecordingLogSink();
+
+        assertSame(recording, AWSLambda.withRateLimiting(recording, Collections.emptyMap()));
+    }
+}
@@ -0,0 +1,45 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.EventRecords;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventHandlerLoaderTest {
+
+    public static class EventRecordsOutputHandler implements RequestHandler<String, EventRecords<Object, Object>> {
+        @Override
+        public EventRecords<Object, Object> handleRequest(String input, Context context) {
+            return null;
+        }
+    }
+
+    public static class UnsupportedEventRecordsHandler implements RequestHandler<EventRecords<String, Object>, String> {
+        @Override
+        public String handleRequest(EventRecords<String, Object> input, Context context) {
+            return null;
+        }
+    }
+
+    @Test
+    public void rejectsEventRecordsOutputOnLoad() {
+        LambdaRequestHandler handler = EventHandlerLoader.wrapRequestHandlerClass(EventRecordsOutputHandler.class);
+
+        assertTrue(handler instanceof LambdaRequestHandler.UserFaultHandler, handler.toString());
+        String message = ((LambdaRequestHandler.UserFaultHandler) handler).fault.msg;
+        assertTrue(message.startsWith("EventRecords can only be the input of a handler"), message);
+    }
+
+    @Test
+    public void rejectsEventRecordsOfUnsupportedEventsOnLoad() {
+        LambdaRequestHandler handler = EventHandlerLoader.wrapRequestHandlerClass(UnsupportedEventRecordsHandler.class);
+
+        assertTrue(handler instanceof LambdaRequestHandler.UserFaultHandler, handler.toString());
+        String message = ((LambdaRequestHandler.UserFaultHandler) handler).fault.msg;
+        assertTrue(message.startsWith("EventRecords does not support the records of java.lang.String"), message);
+    }
+}
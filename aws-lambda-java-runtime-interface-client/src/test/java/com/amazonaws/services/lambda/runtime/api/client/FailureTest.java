@@ -2,8 +2,10 @@
 
 package com.amazonaws.services.lambda.runtime.api.client;
 
+import com.amazonaws.services.lambda.runtime.serialization.factories.GsonFactory;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOError;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -61,4 +63,22 @@ public class FailureTest {
         ClassNotFoundException classNotFoundException = new ClassNotFoundException();
         assertEquals("java.lang.ClassNotFoundException", Failure.getReportableExceptionClassName(classNotFoundException));
     }
+
+    @Test
+    public void toJsonMatchesGson() {
+        Throwable throwable = new RuntimeException("quote \" backslash \\ tab \t control \u0001 line \u2028 <html> é",
+                new IllegalStateException());
+        assertToJsonMatchesGson(new Failure(throwable));
+        assertToJsonMatchesGson(new Failure(new UserFault("message", "exception", null)));
+    }
+
+    private static void assertToJsonMatchesGson(Failure failure) {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        GsonFactory.getInstance().getSerializer(Failure.class).toJson(failure, expected);
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+
+        failure.toJson(actual);
+
+        assertEquals(expected.toString(), actual.toString());
+    }
 }
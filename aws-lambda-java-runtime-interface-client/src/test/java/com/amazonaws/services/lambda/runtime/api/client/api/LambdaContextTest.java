@@ -2,9 +2,13 @@
 
 package com.amazonaws.services.lambda.runtime.api.client.api;
 
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.serialization.factories.GsonFactory;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class LambdaContextTest {
@@ -52,6 +56,61 @@ public class LambdaContextTest {
         assertEquals(0, ctx.getRemainingTimeInMillis());
     }
 
+    @Test
+    public void getIdentityAndClientContext_ParsedFromJson() {
+        LambdaContext ctx = createContextWithJson(
+                "{\"cognitoIdentityId\":\"identity-id\",\"cognitoIdentityPoolId\":\"pool-id\"}",
+                "{\"client\":{\"app_title\":\"title\"},\"custom\":{\"platform\":\"custom\"},\"env\":{\"platform\":\"Android\"}}");
+
+        assertEquals("Android", ctx.getClientPlatform());
+        assertEquals("identity-id", ctx.getIdentity().getIdentityId());
+        assertEquals("pool-id", ctx.getIdentity().getIdentityPoolId());
+        assertEquals("title", ctx.getClientContext().getClient().getAppTitle());
+        assertEquals("custom", ctx.getClientContext().getCustom().get("platform"));
+        assertSame(ctx.getClientContext(), ctx.getClientContext());
+        assertEquals("Android", ctx.getClientPlatform());
+    }
+
+    @Test
+    public void getClientContext_MatchesGson() {
+        String json = "{\"client\":{\"installation_id\":\"id\",\"app_title\":\"title\",\"app_version_name\":\"1.0\"," +
+                "\"app_version_code\":42,\"app_package_name\":\"com.example\"}," +
+                "\"custom\":{\"n\":5,\"d\":1.50,\"b\":false,\"s\":\"text\",\"nothing\":null}," +
+                "\"env\":{\"platform\":\"Android\",\"platform_version\":9}}";
+        ClientContext expected = GsonFactory.getInstance().getSerializer(LambdaClientContext.class).fromJson(json);
+
+        ClientContext actual = createContextWithJson(null, json).getClientContext();
+
+        assertEquals("42", actual.getClient().getAppVersionCode());
+        assertEquals("5", actual.getCustom().get("n"));
+        assertEquals(expected.getClient().getInstallationId(), actual.getClient().getInstallationId());
+        assertEquals(expected.getClient().getAppTitle(), actual.getClient().getAppTitle());
+        assertEquals(expected.getClient().getAppVersionName(), actual.getClient().getAppVersionName());
+        assertEquals(expected.getClient().getAppVersionCode(), actual.getClient().getAppVersionCode());
+        assertEquals(expected.getClient().getAppPackageName(), actual.getClient().getAppPackageName());
+        assertEquals(expected.getCustom(), actual.getCustom());
+        assertEquals(expected.getEnvironment(), actual.getEnvironment());
+
+        LambdaContext numericPlatform = createContextWithJson(null, "{\"env\":{\"platform\":7}}");
+        assertEquals("7", numericPlatform.getClientPlatform());
+        numericPlatform.getClientContext();
+        assertEquals("7", numericPlatform.getClientPlatform());
+    }
+
+    @Test
+    public void getIdentityAndClientContext_EmptyJson() {
+        LambdaContext ctx = createContextWithJson("", null);
+
+        assertNull(ctx.getIdentity());
+        assertNull(ctx.getClientContext());
+        assertNull(ctx.getClientPlatform());
+    }
+
+    private LambdaContext createContextWithJson(String cognitoIdentityJson, String clientContextJson) {
+        return new LambdaContext(MEMORY_LIMIT, 0, REQUEST_ID, LOG_GROUP_NAME, LOG_STREAM_NAME,
+                FUNCTION_NAME, cognitoIdentityJson, FUNCTION_VERSION, INVOKED_FUNCTION_ARN, clientContextJson);
+    }
+
     private LambdaContext createContextWithDeadline(long deadlineTimeInMs) {
         return new LambdaContext(MEMORY_LIMIT, deadlineTimeInMs, REQUEST_ID, LOG_GROUP_NAME, LOG_STREAM_NAME,
                 FUNCTION_NAME, IDENTITY, FUNCTION_VERSION, INVOKED_FUNCTION_ARN, CLIENT_CONTEXT);
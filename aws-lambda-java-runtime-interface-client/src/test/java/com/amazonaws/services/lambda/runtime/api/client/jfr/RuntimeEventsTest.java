@@ -0,0 +1,130 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.jfr;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RuntimeEventsTest {
+
+    @Test
+    public void recordsPhasesOfInvocation() throws IOException {
+        assertTrue(RuntimeEvents.isJfrAvailable());
+        Path dump = Files.createTempFile("runtime-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("aws.lambda.Init");
+            recording.enable("aws.lambda.InvocationStart");
+            recording.enable("aws.lambda.Invocation");
+            recording.enable("aws.lambda.Handler");
+            recording.start();
+
+            RuntimeEvents.beginInit(RuntimeEvents.InitPhase.HANDLER_LOADING).commit();
+            RuntimeEvents.Span invocation = RuntimeEvents.beginInvocation("request-1");
+            RuntimeEvents.begin(RuntimeEvents.Phase.HANDLER, "request-1").commit();
+            invocation.commit();
+
+            recording.stop();
+            recording.dump(dump);
+
+            List<String> names = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+                // the recordings of other tests may still be running, with more event types enabled
+                if (!event.getEventType().getName().startsWith("aws.lambda.")) {
+                    continue;
+                }
+                names.add(event.getEventType().getName());
+                if (event.hasField("requestId")) {
+                    assertEquals("request-1", event.getString("requestId"));
+                } else {
+                    assertEquals("HANDLER_LOADING", event.getString("phase"));
+                }
+            }
+            names.sort(null);
+            assertEquals(4, names.size(), names.toString());
+            assertEquals("aws.lambda.Handler", names.get(0));
+            assertEquals("aws.lambda.Init", names.get(1));
+            assertEquals("aws.lambda.Invocation", names.get(2));
+            assertEquals("aws.lambda.InvocationStart", names.get(3));
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    @Test
+    public void summarizesSlowInvocation() throws InterruptedException {
+        List<String> messages = new ArrayList<>();
+        LambdaLogger logger = new LambdaLogger() {
+            @Override
+            public void log(String message) {
+                messages.add(message);
+            }
+
+            @Override
+            public void log(byte[] message) {
+            }
+        };
+        SlowInvocationRecorder recorder = SlowInvocationRecorder.create(20, false, logger, Runnable::run);
+        assertNotNull(recorder);
+
+        Instant start = Instant.now();
+        recorder.invocationEnded("fast", start);
+        RuntimeEvents.Span invocation = RuntimeEvents.beginInvocation("slow");
+        RuntimeEvents.Span handler = RuntimeEvents.begin(RuntimeEvents.Phase.HANDLER, "slow");
+        Thread.sleep(50);
+        handler.commit();
+        invocation.commit();
+        recorder.invocationEnded("slow", start);
+
+        assertEquals(1, messages.size());
+        String summary = messages.get(0);
+        assertTrue(summary.startsWith("Invocation slow took "), summary);
+        assertTrue(summary.contains("Phases: "), summary);
+        assertTrue(summary.contains("Handler "), summary);
+        assertTrue(summary.contains(" GC: "), summary);
+        assertTrue(summary.contains("Thread Sleep"), summary);
+        assertTrue(summary.endsWith("\n"), summary);
+    }
+
+    @Test
+    public void summarizesOffTheInvocationThread() throws InterruptedException {
+        CountDownLatch logged = new CountDownLatch(1);
+        AtomicReference<String> loggingThread = new AtomicReference<>();
+        LambdaLogger logger = new LambdaLogger() {
+            @Override
+            public void log(String message) {
+                loggingThread.set(Thread.currentThread().getName());
+                logged.countDown();
+            }
+
+            @Override
+            public void log(byte[] message) {
+            }
+        };
+        SlowInvocationRecorder recorder = SlowInvocationRecorder.create(0, false, logger);
+        assertNotNull(recorder);
+
+        Instant start = Instant.now();
+        Thread.sleep(5);
+        recorder.invocationEnded("slow", start);
+
+        assertTrue(logged.await(30, TimeUnit.SECONDS));
+        assertEquals("aws-lambda-slow-invocations", loggingThread.get());
+    }
+}
@@ -0,0 +1,180 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.logging;
+
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncFramedTelemetryLogSinkTest {
+
+    @TempDir
+    public Path tmpFolder;
+
+    @Test
+    public void flushWritesFramesOfAllThreadsInOrder() throws Exception {
+        File tmpFile = tmpFolder.resolve("pipe").toFile();
+        int threadCount = 4;
+        int messagesPerThread = 5000;
+        try (FileOutputStream fos = new FileOutputStream(tmpFile);
+             AsyncFramedTelemetryLogSink logSink = new AsyncFramedTelemetryLogSink(fos.getFD(), 64,
+                     AsyncFramedTelemetryLogSink.OverflowPolicy.BLOCK)) {
+            Thread[] threads = new Thread[threadCount];
+            for (int t = 0; t < threadCount; t++) {
+                final int thread = t;
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < messagesPerThread; i++) {
+                        logSink.log((thread + ":" + i).getBytes(UTF_8));
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            logSink.log(new byte[5000]);
+            logSink.flush();
+
+            List<byte[]> messages = readFrames(tmpFile);
+            assertEquals(threadCount * messagesPerThread + 1, messages.size());
+            Map<String, Integer> nextPerThread = new HashMap<>();
+            for (byte[] message : messages.subList(0, messages.size() - 1)) {
+                String[] parts = new String(message, UTF_8).split(":");
+                int expected = nextPerThread.getOrDefault(parts[0], 0);
+                assertEquals(expected, Integer.parseInt(parts[1]));
+                nextPerThread.put(parts[0], expected + 1);
+            }
+            assertArrayEquals(new byte[5000], messages.get(messages.size() - 1));
+        }
+    }
+
+    @Test
+    public void dropPolicyReportsDroppedMessages() throws Exception {
+        File tmpFile = tmpFolder.resolve("pipe").toFile();
+        int logged = 10000;
+        try (FileOutputStream fos = new FileOutputStream(tmpFile);
+             AsyncFramedTelemetryLogSink logSink = new AsyncFramedTelemetryLogSink(fos.getFD(), 2,
+                     AsyncFramedTelemetryLogSink.OverflowPolicy.DROP)) {
+            for (int i = 0; i < logged; i++) {
+                logSink.log("message".getBytes(UTF_8));
+            }
+            logSink.flush();
+            // the notice for messages dropped last is written with the next batch
+            logSink.log("last".getBytes(UTF_8));
+            logSink.flush();
+        }
+
+        int written = 0;
+        int dropped = 0;
+        for (byte[] message : readFrames(tmpFile)) {
+            String text = new String(message, UTF_8);
+            if (text.equals("message")) {
+                written++;
+            } else if (text.startsWith("Dropped ")) {
+                dropped += Integer.parseInt(text.split(" ")[1]);
+            }
+        }
+        assertTrue(written > 0);
+        assertEquals(logged, written + dropped);
+    }
+
+    @Test
+    public void interruptedThread() throws Exception {
+        File tmpFile = tmpFolder.resolve("pipe").toFile();
+        byte[] message = "hello world\n".getBytes(UTF_8);
+        try (FileOutputStream fos = new FileOutputStream(tmpFile);
+             AsyncFramedTelemetryLogSink logSink = new AsyncFramedTelemetryLogSink(fos.getFD(), 8,
+                     AsyncFramedTelemetryLogSink.OverflowPolicy.BLOCK)) {
+            Thread.currentThread().interrupt();
+            logSink.log(message);
+            logSink.flush();
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+
+        assertEquals(1, readFrames(tmpFile).size());
+        assertArrayEquals(message, readFrames(tmpFile).get(0));
+    }
+
+    @Test
+    public void outOfRangeSliceIsRejectedBeforeFlush() throws Exception {
+        File tmpFile = tmpFolder.resolve("pipe").toFile();
+        byte[] message = "hello".getBytes(UTF_8);
+        try (FileOutputStream fos = new FileOutputStream(tmpFile);
+             AsyncFramedTelemetryLogSink logSink = new AsyncFramedTelemetryLogSink(fos.getFD(), 8,
+                     AsyncFramedTelemetryLogSink.OverflowPolicy.BLOCK)) {
+            assertThrows(IndexOutOfBoundsException.class,
+                    () -> logSink.log(LogLevel.UNDEFINED, LogFormat.TEXT, message, 3, 5));
+            assertThrows(IndexOutOfBoundsException.class,
+                    () -> logSink.log(LogLevel.UNDEFINED, LogFormat.TEXT, message, 0, -1));
+            assertThrows(IndexOutOfBoundsException.class,
+                    () -> logSink.log(LogLevel.UNDEFINED, LogFormat.TEXT, message, -1, 2));
+            logSink.log(LogLevel.UNDEFINED, LogFormat.TEXT, message, 1, 3);
+            assertTimeoutPreemptively(Duration.ofSeconds(10), logSink::flush);
+        }
+
+        assertEquals(1, readFrames(tmpFile).size());
+        assertArrayEquals("ell".getBytes(UTF_8), readFrames(tmpFile).get(0));
+    }
+
+    @Test
+    public void failedWritesAreNotLoggedThroughSystemErr() throws Exception {
+        File tmpFile = tmpFolder.resolve("pipe").toFile();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        PrintStream originalErr = System.err;
+        FileOutputStream fos = new FileOutputStream(tmpFile);
+        AsyncFramedTelemetryLogSink logSink = new AsyncFramedTelemetryLogSink(fos.getFD(), 2,
+                AsyncFramedTelemetryLogSink.OverflowPolicy.BLOCK);
+        // writes to the closed file descriptor fail
+        fos.close();
+        System.setErr(new PrintStream(err));
+        try {
+            for (int i = 0; i < 10; i++) {
+                logSink.log("message".getBytes(UTF_8));
+            }
+            assertTimeoutPreemptively(Duration.ofSeconds(10), logSink::flush);
+        } finally {
+            System.setErr(originalErr);
+            logSink.close();
+        }
+
+        assertTrue(logSink.getFailedWrites() > 0);
+        assertEquals(0, err.size());
+    }
+
+    private static List<byte[]> readFrames(File file) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        List<byte[]> messages = new ArrayList<>();
+        while (buf.hasRemaining()) {
+            assertEquals(FrameType.LOG.getValue(), buf.getInt());
+            byte[] message = new byte[buf.getInt()];
+            long timestamp = buf.getLong();
+            assertTrue(timestamp > 0);
+            buf.get(message);
+            messages.add(message);
+        }
+        return messages;
+    }
+}
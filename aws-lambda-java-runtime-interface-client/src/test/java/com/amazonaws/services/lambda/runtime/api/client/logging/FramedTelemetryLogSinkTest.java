@@ -2,6 +2,8 @@
 
 package com.amazonaws.services.lambda.runtime.api.client.logging;
 
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -10,8 +12,10 @@ import java.io.FileDescriptor;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.util.Arrays;
@@ -121,6 +125,107 @@ public class FramedTelemetryLogSinkTest {
             assertEquals(ZERO_BYTE, buf.get());
     }
 
+    @Test
+    public void logFramesOfGrowingSize() throws IOException {
+        File tmpFile = tmpFolder.resolve("pipe").toFile();
+        FileOutputStream fos = new FileOutputStream(tmpFile);
+        FileDescriptor fd = fos.getFD();
+        int[] sizes = {0, 10, 5000, 300 * 1024, 20};
+        long lastTimestamp = 0;
+        try (FramedTelemetryLogSink logSink = new FramedTelemetryLogSink(fd)) {
+            for (int i = 0; i < sizes.length; i++) {
+                byte[] message = new byte[sizes[i]];
+                Arrays.fill(message, (byte) ('a' + i));
+                logSink.log(message);
+            }
+        }
+
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(tmpFile.toPath()));
+        for (int i = 0; i < sizes.length; i++) {
+            assertEquals(FrameType.LOG.getValue(), buf.getInt());
+            assertEquals(sizes[i], buf.getInt());
+            long timestamp = buf.getLong();
+            assertTrue(lastTimestamp <= timestamp);
+            lastTimestamp = timestamp;
+            byte[] expected = new byte[sizes[i]];
+            Arrays.fill(expected, (byte) ('a' + i));
+            byte[] actual = new byte[sizes[i]];
+            buf.get(actual);
+            assertArrayEquals(expected, actual);
+        }
+        assertEquals(0, buf.remaining());
+    }
+
+    @Test
+    public void logFrameTypeByDefault() throws IOException {
+        byte[] message = "message".getBytes();
+        File tmpFile = tmpFolder.resolve("pipe").toFile();
+        FileOutputStream fos = new FileOutputStream(tmpFile);
+        FileDescriptor fd = fos.getFD();
+        try (FramedTelemetryLogSink logSink = new FramedTelemetryLogSink(fd)) {
+            logSink.log(LogLevel.ERROR, LogFormat.TEXT, message, 0, message.length);
+            logSink.log(LogLevel.DEBUG, LogFormat.JSON, message, 0, message.length);
+        }
+
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(tmpFile.toPath()));
+        for (int i = 0; i < 2; i++) {
+            assertEquals(FrameType.LOG.getValue(), buf.getInt());
+            assertEquals(message.length, buf.getInt());
+            buf.getLong();
+            buf.position(buf.position() + message.length);
+        }
+        assertEquals(0, buf.remaining());
+    }
+
+    @Test
+    public void logLevelAndFormatInLeveledFrameType() throws IOException {
+        byte[] message = "[message]".getBytes();
+        File tmpFile = tmpFolder.resolve("pipe").toFile();
+        FileOutputStream fos = new FileOutputStream(tmpFile);
+        FileDescriptor fd = fos.getFD();
+        try (FramedTelemetryLogSink logSink = new FramedTelemetryLogSink(fd, true)) {
+            logSink.log(LogLevel.ERROR, LogFormat.TEXT, message, 1, 7);
+            logSink.log(LogLevel.DEBUG, LogFormat.JSON, message, 0, message.length);
+        }
+
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(tmpFile.toPath()));
+        assertEquals(0xa55a0053, buf.getInt());
+        assertEquals(7, buf.getInt());
+        buf.getLong();
+        byte[] actual = new byte[7];
+        buf.get(actual);
+        assertArrayEquals("message".getBytes(), actual);
+
+        assertEquals(0xa55a0022, buf.getInt());
+        assertEquals(message.length, buf.getInt());
+        buf.getLong();
+        actual = new byte[message.length];
+        buf.get(actual);
+        assertArrayEquals(message, actual);
+        assertEquals(0, buf.remaining());
+    }
+
+    @Test
+    public void failedWritesAreNotLoggedThroughCapturedSystemErr() throws IOException {
+        File tmpFile = tmpFolder.resolve("pipe").toFile();
+        FileOutputStream fos = new FileOutputStream(tmpFile);
+        FramedTelemetryLogSink logSink = new FramedTelemetryLogSink(fos.getFD());
+        // writes to the closed file descriptor fail
+        fos.close();
+        LogSinkOutputStream capturedErr = new LogSinkOutputStream(logSink);
+        PrintStream originalErr = System.err;
+        System.setErr(new PrintStream(capturedErr, true));
+        try {
+            System.err.println("first message");
+            System.err.println("second message");
+            capturedErr.flushEntries();
+        } finally {
+            System.setErr(originalErr);
+        }
+
+        assertEquals(2, logSink.getFailedWrites());
+    }
+
     /**
      * The implementation of FramedTelemetryLogSink was based on java.nio.channels.WritableByteChannel which would
      * throw ClosedByInterruptException if Thread.currentThread.interrupt() was called. The implementation was changed
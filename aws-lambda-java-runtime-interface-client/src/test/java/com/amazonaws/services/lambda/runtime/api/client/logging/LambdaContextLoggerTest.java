@@ -0,0 +1,135 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.logging;
+
+import com.amazonaws.services.lambda.runtime.api.client.util.JsonScanner;
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LambdaContextLoggerTest {
+
+    private static class RecordingLogSink implements LogSink {
+        final List<LogLevel> levels = new ArrayList<>();
+        final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void log(byte[] message) {
+            log(LogLevel.UNDEFINED, LogFormat.TEXT, message, 0, message.length);
+        }
+
+        @Override
+        public void log(LogLevel logLevel, LogFormat logFormat, byte[] message, int offset, int length) {
+            levels.add(logLevel);
+            messages.add(new String(message, offset, length, UTF_8));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    public void dropsMessagesBelowMinimumLevel() {
+        RecordingLogSink sink = new RecordingLogSink();
+        LambdaContextLogger logger = new LambdaContextLogger(sink, LogLevel.INFO, LogFormat.TEXT);
+
+        logger.log("trace", LogLevel.TRACE);
+        logger.log("debug".getBytes(UTF_8), LogLevel.DEBUG);
+        logger.log("info", LogLevel.INFO);
+        logger.log("error".getBytes(UTF_8), LogLevel.ERROR);
+        logger.log("[debug]".getBytes(UTF_8), 1, 5, LogLevel.DEBUG);
+        logger.log("[warn]".getBytes(UTF_8), 1, 4, LogLevel.WARN);
+        logger.log("no level");
+
+        assertEquals(Arrays.asList("info", "error", "warn", "no level"), sink.messages);
+        assertEquals(Arrays.asList(LogLevel.INFO, LogLevel.ERROR, LogLevel.WARN, LogLevel.UNDEFINED), sink.levels);
+    }
+
+    @Test
+    public void logsNullAsText() {
+        RecordingLogSink sink = new RecordingLogSink();
+        LambdaContextLogger logger = new LambdaContextLogger(sink);
+
+        logger.log((String) null);
+        logger.log((byte[]) null);
+
+        assertEquals(Arrays.asList("null", "null"), sink.messages);
+    }
+
+    @Test
+    public void logsJson() {
+        RecordingLogSink sink = new RecordingLogSink();
+        LambdaContextLogger logger = new LambdaContextLogger(sink, LogLevel.UNDEFINED, LogFormat.JSON);
+        String message = "line\n\"quoted\" \\ \t \u0001 \u00e9 \u20ac \ud83d\ude00 \u2028";
+
+        long before = System.currentTimeMillis();
+        logger.log(message, LogLevel.WARN);
+        logger.setRequestId("request-id");
+        logger.log(message.getBytes(UTF_8));
+        logger.log((String) null, LogLevel.INFO);
+        logger.log("[message]".getBytes(UTF_8), 1, 7, LogLevel.ERROR);
+        long after = System.currentTimeMillis();
+
+        Map<String, Object> first = parse(sink.messages.get(0));
+        assertEquals(message, first.get("message"));
+        assertEquals("WARN", first.get("level"));
+        assertFalse(first.containsKey("AWSRequestId"));
+        long timestamp = Instant.parse((String) first.get("timestamp")).toEpochMilli();
+        assertTrue(before <= timestamp && timestamp <= after);
+
+        Map<String, Object> second = parse(sink.messages.get(1));
+        assertEquals(message, second.get("message"));
+        assertFalse(second.containsKey("level"));
+        assertEquals("request-id", second.get("AWSRequestId"));
+
+        Map<String, Object> third = parse(sink.messages.get(2));
+        assertTrue(third.containsKey("message"));
+        assertNull(third.get("message"));
+        assertEquals("message", parse(sink.messages.get(3)).get("message"));
+        assertEquals(Arrays.asList(LogLevel.WARN, LogLevel.UNDEFINED, LogLevel.INFO, LogLevel.ERROR), sink.levels);
+    }
+
+    @Test
+    public void logsJsonTimestampsInIsoFormat() {
+        JsonLogFormatter formatter = new JsonLogFormatter();
+        for (long millis : new long[]{0, 951782400999L, 1667842906123L, -1}) {
+            int length = formatter.format("m", LogLevel.INFO, null, millis);
+            Map<String, Object> json = parse(new String(formatter.getBuffer(), 0, length, UTF_8));
+            assertEquals(Instant.ofEpochMilli(millis), Instant.parse((String) json.get("timestamp")));
+        }
+    }
+
+    @Test
+    public void dropsJsonBufferOfLargeMessages() {
+        JsonLogFormatter formatter = new JsonLogFormatter();
+        char[] message = new char[JsonLogFormatter.MAX_RETAINED_BUFFER_LENGTH];
+        Arrays.fill(message, '\n');
+        int length = formatter.format(new String(message), LogLevel.INFO, null, 0);
+        assertEquals(message.length, parse(new String(formatter.getBuffer(), 0, length, UTF_8)).get("message")
+                .toString().length());
+        formatter.trimBuffer();
+        assertTrue(formatter.getBuffer().length <= JsonLogFormatter.MAX_RETAINED_BUFFER_LENGTH);
+
+        length = formatter.format("small", LogLevel.INFO, null, 0);
+        formatter.trimBuffer();
+        assertEquals("small", parse(new String(formatter.getBuffer(), 0, length, UTF_8)).get("message"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parse(String json) {
+        return (Map<String, Object>) JsonScanner.parse(json);
+    }
+}
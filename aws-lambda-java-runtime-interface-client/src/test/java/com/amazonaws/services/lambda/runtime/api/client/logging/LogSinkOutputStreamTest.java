@@ -0,0 +1,122 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.logging;
+
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogSinkOutputStreamTest {
+
+    private static class RecordingLogSink implements LogSink {
+        final List<String> messages = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void log(byte[] message) {
+            log(LogLevel.UNDEFINED, LogFormat.TEXT, message, 0, message.length);
+        }
+
+        @Override
+        public void log(LogLevel logLevel, LogFormat logFormat, byte[] message, int offset, int length) {
+            messages.add(new String(message, offset, length, UTF_8));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    public void groupsStackTraceAndPrettyPrintedJson() throws UnsupportedEncodingException {
+        RecordingLogSink sink = new RecordingLogSink();
+        LogSinkOutputStream capture = new LogSinkOutputStream(sink);
+        PrintStream out = new PrintStream(capture, false, "UTF-8");
+
+        out.println("first");
+        out.println("java.lang.RuntimeException: outer");
+        out.println("\tat Handler.handleRequest(Handler.java:10)");
+        out.println("Caused by: java.lang.IllegalStateException: inner");
+        out.println("\t... 1 more");
+        out.println("{");
+        out.println("  \"key\": \"value\"");
+        out.println("}");
+        out.print("no newline");
+        assertEquals(Arrays.asList(
+                "first\n",
+                "java.lang.RuntimeException: outer\n"
+                        + "\tat Handler.handleRequest(Handler.java:10)\n"
+                        + "Caused by: java.lang.IllegalStateException: inner\n"
+                        + "\t... 1 more\n"), sink.messages);
+
+        capture.flushEntries();
+        assertEquals(Arrays.asList("{\n  \"key\": \"value\"\n}\n", "no newline"),
+                sink.messages.subList(2, sink.messages.size()));
+    }
+
+    @Test
+    public void writesSingleBytes() {
+        RecordingLogSink sink = new RecordingLogSink();
+        LogSinkOutputStream capture = new LogSinkOutputStream(sink);
+
+        for (byte b : "one\n two\nthree\n".getBytes(UTF_8)) {
+            capture.write(b);
+        }
+        capture.flush();
+
+        assertEquals(Arrays.asList("one\n two\n", "three\n"), sink.messages);
+    }
+
+    @Test
+    public void splitsLongEntries() {
+        RecordingLogSink sink = new RecordingLogSink();
+        LogSinkOutputStream capture = new LogSinkOutputStream(sink);
+        byte[] line = new byte[1000];
+        Arrays.fill(line, (byte) ' ');
+        line[line.length - 1] = '\n';
+        int lines = LogSinkOutputStream.MAX_ENTRY_LENGTH / line.length + 1;
+        for (int i = 0; i < lines; i++) {
+            capture.write(line, 0, line.length);
+        }
+        byte[] huge = new byte[LogSinkOutputStream.MAX_ENTRY_LENGTH + 1];
+        Arrays.fill(huge, (byte) 'x');
+        capture.write(huge, 0, huge.length);
+        capture.flushEntries();
+
+        int total = 0;
+        for (String message : sink.messages) {
+            assertTrue(message.length() <= LogSinkOutputStream.MAX_ENTRY_LENGTH + 1);
+            total += message.length();
+        }
+        assertEquals(lines * line.length + huge.length, total);
+        assertEquals(huge.length, sink.messages.get(sink.messages.size() - 1).length());
+    }
+
+    @Test
+    public void buffersPerThread() throws Exception {
+        RecordingLogSink sink = new RecordingLogSink();
+        LogSinkOutputStream capture = new LogSinkOutputStream(sink);
+
+        capture.write("main\n".getBytes(UTF_8));
+        Thread thread = new Thread(() -> capture.write("\tother thread\n".getBytes(UTF_8)));
+        thread.start();
+        thread.join();
+        capture.write("\tmain again\n".getBytes(UTF_8));
+        capture.flushEntries();
+
+        List<String> messages = new ArrayList<>(sink.messages);
+        Collections.sort(messages);
+        assertEquals(Arrays.asList("\tother thread\n", "main\n\tmain again\n"), messages);
+    }
+}
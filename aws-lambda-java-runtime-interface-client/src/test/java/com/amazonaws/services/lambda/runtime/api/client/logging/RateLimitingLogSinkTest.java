@@ -0,0 +1,160 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.logging;
+
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimitingLogSinkTest {
+
+    private static class RecordingLogSink implements LogSink {
+        final List<LogLevel> levels = new ArrayList<>();
+        final List<String> messages = new ArrayList<>();
+        int flushes;
+
+        @Override
+        public void log(byte[] message) {
+            log(LogLevel.UNDEFINED, LogFormat.TEXT, message, 0, message.length);
+        }
+
+        @Override
+        public void log(LogLevel logLevel, LogFormat logFormat, byte[] message, int offset, int length) {
+            levels.add(logLevel);
+            messages.add(new String(message, offset, length, UTF_8));
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static void log(LogSink sink, LogLevel logLevel, String message) {
+        byte[] bytes = ("[" + message + "]").getBytes(UTF_8);
+        sink.log(logLevel, LogFormat.TEXT, bytes, 1, bytes.length - 2);
+    }
+
+    @Test
+    public void collapsesRepeatedMessages() {
+        RecordingLogSink recording = new RecordingLogSink();
+        RateLimitingLogSink sink = new RateLimitingLogSink(recording, Long.MAX_VALUE, Long.MAX_VALUE, 0, true);
+
+        log(sink, LogLevel.ERROR, "failed\n");
+        log(sink, LogLevel.ERROR, "failed\n");
+        log(sink, LogLevel.ERROR, "failed\n");
+        log(sink, LogLevel.WARN, "failed\n");
+        log(sink, LogLevel.WARN, "retrying\n");
+        log(sink, LogLevel.WARN, "retrying\n");
+        sink.flush();
+
+        assertEquals(Arrays.asList("failed\n", "Previous message repeated 2 more times\n", "failed\n", "retrying\n",
+                "Previous message repeated 1 more times\n"), recording.messages);
+        assertEquals(Arrays.asList(LogLevel.ERROR, LogLevel.ERROR, LogLevel.WARN, LogLevel.WARN, LogLevel.WARN),
+                recording.levels);
+        assertEquals(1, recording.flushes);
+    }
+
+    @Test
+    public void keepsRepeatedMessagesWithoutCollapsing() {
+        RecordingLogSink recording = new RecordingLogSink();
+        RateLimitingLogSink sink = new RateLimitingLogSink(recording, Long.MAX_VALUE, Long.MAX_VALUE, 0, false);
+
+        sink.log("same\n".getBytes(UTF_8));
+        sink.log("same\n".getBytes(UTF_8));
+        sink.flush();
+
+        assertEquals(Arrays.asList("same\n", "same\n"), recording.messages);
+    }
+
+    @Test
+    public void samplesMessagesOverEventBudget() {
+        RecordingLogSink recording = new RecordingLogSink();
+        RateLimitingLogSink sink = new RateLimitingLogSink(recording, 2, Long.MAX_VALUE, 3, false);
+
+        for (int i = 0; i < 8; i++) {
+            log(sink, LogLevel.INFO, "m" + i + "\n");
+        }
+        sink.flush();
+
+        assertEquals(Arrays.asList("m0\n", "m1\n", "m4\n", "m7\n",
+                "Dropped 4 log messages (12 bytes) of this invocation because it exceeded its log budget\n"),
+                recording.messages);
+    }
+
+    @Test
+    public void dropsMessagesOverByteBudgetAndResetsOnFlush() {
+        RecordingLogSink recording = new RecordingLogSink();
+        RateLimitingLogSink sink = new RateLimitingLogSink(recording, Long.MAX_VALUE, 10, 0, false);
+
+        log(sink, LogLevel.INFO, "12345\n");
+        log(sink, LogLevel.INFO, "123456\n");
+        log(sink, LogLevel.INFO, "123\n");
+        sink.flush();
+        log(sink, LogLevel.INFO, "123456\n");
+        sink.flush();
+
+        assertEquals(Arrays.asList("12345\n", "123\n",
+                "Dropped 1 log messages (7 bytes) of this invocation because it exceeded its log budget\n",
+                "123456\n"), recording.messages);
+        assertEquals(2, recording.flushes);
+    }
+
+    @Test
+    public void collapsesRepeatedJsonMessagesWithDifferentTimestamps() throws InterruptedException {
+        RecordingLogSink recording = new RecordingLogSink();
+        RateLimitingLogSink sink = new RateLimitingLogSink(recording, Long.MAX_VALUE, Long.MAX_VALUE, 0, true);
+        LambdaContextLogger logger = new LambdaContextLogger(sink, LogLevel.UNDEFINED, LogFormat.JSON);
+
+        logger.log("failed", LogLevel.ERROR);
+        Thread.sleep(2);
+        logger.log("failed".getBytes(UTF_8), LogLevel.ERROR);
+        Thread.sleep(2);
+        logger.log("failed", LogLevel.ERROR);
+        logger.log("failed", LogLevel.WARN);
+        sink.flush();
+
+        assertEquals(3, recording.messages.size());
+        assertJsonMessage(recording.messages.get(0), "ERROR", "failed");
+        assertJsonMessage(recording.messages.get(1), "ERROR", "Previous message repeated 2 more times");
+        assertJsonMessage(recording.messages.get(2), "WARN", "failed");
+    }
+
+    @Test
+    public void logsNoticesInFormatOfLastMessage() {
+        RecordingLogSink recording = new RecordingLogSink();
+        RateLimitingLogSink sink = new RateLimitingLogSink(recording, 1, Long.MAX_VALUE, 0, true);
+        LambdaContextLogger logger = new LambdaContextLogger(sink, LogLevel.UNDEFINED, LogFormat.JSON);
+
+        logger.log("hi", LogLevel.INFO);
+        logger.log("hi", LogLevel.INFO);
+        logger.log("other", LogLevel.INFO);
+        sink.flush();
+
+        assertEquals(3, recording.messages.size());
+        assertJsonMessage(recording.messages.get(0), "INFO", "hi");
+        assertJsonMessage(recording.messages.get(1), "INFO", "Previous message repeated 1 more times");
+        assertJsonMessage(recording.messages.get(2), "WARN",
+                "Dropped 1 log messages (73 bytes) of this invocation because it exceeded its log budget");
+        assertEquals(Arrays.asList(LogLevel.INFO, LogLevel.INFO, LogLevel.WARN), recording.levels);
+    }
+
+    private static void assertJsonMessage(String json, String level, String message) {
+        String pattern = "\\{\"timestamp\":\"\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\.\\d{3}Z\",\"level\":\""
+                + level + "\",\"message\":\"" + Pattern.quote(message) + "\"(,\"AWSRequestId\":\"[^\"]*\")?}";
+        assertTrue(json.matches(pattern), json);
+    }
+}
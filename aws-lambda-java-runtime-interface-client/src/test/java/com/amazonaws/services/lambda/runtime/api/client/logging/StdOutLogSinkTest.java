@@ -2,6 +2,8 @@
 
 package com.amazonaws.services.lambda.runtime.api.client.logging;
 
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -50,4 +52,21 @@ public class StdOutLogSinkTest {
         assertEquals("hello\nworldhello again", bos.toString());
     }
 
+    @Test
+    public void testJsonMessagesOnePerLine() {
+        byte[] first = "{\"message\":\"hello\"}".getBytes();
+        byte[] second = "[{\"message\":\"world\"}]".getBytes();
+        System.setOut(capturedOutPrintStream);
+        try {
+            try (StdOutLogSink logSink = new StdOutLogSink()) {
+                logSink.log(LogLevel.INFO, LogFormat.JSON, first, 0, first.length);
+                logSink.log(LogLevel.INFO, LogFormat.JSON, second, 1, second.length - 2);
+                logSink.log(LogLevel.INFO, LogFormat.TEXT, "text\n".getBytes(), 0, 5);
+            }
+        } finally {
+            System.setOut(originalOutPrintStream);
+        }
+
+        assertEquals("{\"message\":\"hello\"}\n{\"message\":\"world\"}\ntext\n", bos.toString());
+    }
 }
@@ -0,0 +1,239 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.metrics;
+
+import com.amazonaws.services.lambda.runtime.api.client.logging.LogSink;
+import com.amazonaws.services.lambda.runtime.api.client.util.JsonScanner;
+import com.amazonaws.services.lambda.runtime.logging.LogFormat;
+import com.amazonaws.services.lambda.runtime.logging.LogLevel;
+import com.amazonaws.services.lambda.runtime.metrics.MetricUnit;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EmbeddedMetricsTest {
+
+    private static class RecordingLogSink implements LogSink {
+        final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void log(byte[] message) {
+            log(LogLevel.UNDEFINED, LogFormat.TEXT, message, 0, message.length);
+        }
+
+        @Override
+        public void log(LogLevel logLevel, LogFormat logFormat, byte[] message, int offset, int length) {
+            messages.add(new String(message, offset, length, UTF_8));
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> document(int index) {
+            String message = messages.get(index);
+            assertTrue(message.endsWith("\n"));
+            return (Map<String, Object>) JsonScanner.parse(message);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> directive(Map<String, Object> document) {
+        Map<String, Object> aws = (Map<String, Object>) document.get("_aws");
+        return ((List<Map<String, Object>>) aws.get("CloudWatchMetrics")).get(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> definitions(Map<String, Object> document) {
+        return (List<Map<String, Object>>) directive(document).get("Metrics");
+    }
+
+    @Test
+    public void aggregatesInvocationIntoOneDocument() {
+        RecordingLogSink sink = new RecordingLogSink();
+        EmbeddedMetrics metrics = new EmbeddedMetrics(sink, "my-namespace", "my-function");
+
+        metrics.count("Records");
+        metrics.count("Records", 4);
+        metrics.gauge("QueueDepth", 3, MetricUnit.COUNT);
+        metrics.gauge("QueueDepth", 7.5, MetricUnit.COUNT);
+        metrics.record("Latency", 12, MetricUnit.MILLISECONDS);
+        metrics.record("Latency", 12, MetricUnit.MILLISECONDS);
+        metrics.record("Latency", 40, MetricUnit.MILLISECONDS);
+        metrics.flush();
+
+        assertEquals(1, sink.messages.size());
+        Map<String, Object> document = sink.document(0);
+        assertEquals("my-namespace", directive(document).get("Namespace"));
+        assertEquals(Collections.singletonList(Collections.singletonList("FunctionName")),
+                directive(document).get("Dimensions"));
+        assertEquals("my-function", document.get("FunctionName"));
+        assertEquals("5", document.get("Records"));
+        assertEquals("7.5", document.get("QueueDepth"));
+        List<String> latencies = new ArrayList<>((List<String>) document.get("Latency"));
+        Collections.sort(latencies);
+        assertEquals(Arrays.asList("12", "12", "40"), latencies);
+        for (Map<String, Object> definition : definitions(document)) {
+            assertEquals(definition.get("Name").equals("Latency") ? "Milliseconds" : "Count", definition.get("Unit"));
+        }
+    }
+
+    @Test
+    public void writesNothingWithoutDatapoints() {
+        RecordingLogSink sink = new RecordingLogSink();
+        EmbeddedMetrics metrics = new EmbeddedMetrics(sink, "ns", null);
+
+        metrics.flush();
+        metrics.count("Records");
+        metrics.flush();
+        metrics.flush();
+
+        assertEquals(1, sink.messages.size());
+        assertEquals(Collections.singletonList(Collections.emptyList()), directive(sink.document(0)).get("Dimensions"));
+        assertFalse(sink.document(0).containsKey("FunctionName"));
+    }
+
+    @Test
+    public void keepsDistributionValuesToAboutOnePercent() {
+        RecordingLogSink sink = new RecordingLogSink();
+        EmbeddedMetrics metrics = new EmbeddedMetrics(sink, "ns", null);
+
+        metrics.record("Size", 1000, MetricUnit.BYTES);
+        metrics.record("Size", 1004, MetricUnit.BYTES);
+        metrics.record("Size", -2.5, MetricUnit.BYTES);
+        metrics.record("Size", 0, MetricUnit.BYTES);
+        metrics.record("Size", Double.NaN, MetricUnit.BYTES);
+        metrics.flush();
+
+        List<String> values = (List<String>) sink.document(0).get("Size");
+        assertEquals(4, values.size());
+        assertTrue(values.contains("-2.5"));
+        assertTrue(values.contains("0"));
+        values.removeAll(Arrays.asList("-2.5", "0"));
+        for (String value : values) {
+            double size = Double.parseDouble(value);
+            assertTrue(size >= 1000 && size <= 1004, value);
+        }
+    }
+
+    @Test
+    public void splitsLargeAggregatesAcrossDocuments() {
+        RecordingLogSink sink = new RecordingLogSink();
+        EmbeddedMetrics metrics = new EmbeddedMetrics(sink, "ns", null);
+
+        for (int i = 0; i < 250; i++) {
+            metrics.record("Latency", i % 3, MetricUnit.MILLISECONDS);
+        }
+        for (int i = 0; i < EmbeddedMetrics.MAX_METRICS_PER_DOCUMENT + 10; i++) {
+            metrics.count("Counter" + i);
+        }
+        metrics.flush();
+
+        int latencies = 0;
+        int counters = 0;
+        for (int i = 0; i < sink.messages.size(); i++) {
+            Map<String, Object> document = sink.document(i);
+            assertTrue(definitions(document).size() <= EmbeddedMetrics.MAX_METRICS_PER_DOCUMENT);
+            for (Map<String, Object> definition : definitions(document)) {
+                Object value = document.get(definition.get("Name"));
+                if (value instanceof List) {
+                    assertTrue(((List<?>) value).size() <= EmbeddedMetrics.MAX_VALUES_PER_METRIC);
+                    latencies += ((List<?>) value).size();
+                } else {
+                    assertEquals("1", value);
+                    counters++;
+                }
+            }
+        }
+        assertEquals(250, latencies);
+        assertEquals(EmbeddedMetrics.MAX_METRICS_PER_DOCUMENT + 10, counters);
+        assertEquals(3, sink.messages.size());
+    }
+
+    @Test
+    public void flushesOnceDistributionsHoldManyValues() {
+        RecordingLogSink sink = new RecordingLogSink();
+        EmbeddedMetrics metrics = new EmbeddedMetrics(sink, "ns", null);
+
+        for (int i = 0; i < EmbeddedMetrics.MAX_PENDING_BUCKETS; i++) {
+            metrics.record("Distinct", Math.pow(1.03, i % 20_000 - 5_000), MetricUnit.NONE);
+        }
+
+        assertFalse(sink.messages.isEmpty());
+    }
+
+    @Test
+    public void countsFromManyThreads() throws InterruptedException {
+        RecordingLogSink sink = new RecordingLogSink();
+        EmbeddedMetrics metrics = new EmbeddedMetrics(sink, "ns", null);
+
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    metrics.count("Records");
+                    metrics.record("Latency", 5, MetricUnit.MILLISECONDS);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        metrics.flush();
+
+        assertEquals("80000", sink.document(0).get("Records"));
+        int latencies = 0;
+        for (int i = 0; i < sink.messages.size(); i++) {
+            Object value = sink.document(i).get("Latency");
+            latencies += value == null ? 0 : ((List<?>) value).size();
+        }
+        assertEquals(80_000, latencies);
+    }
+
+    @Test
+    public void rejectsNameOfAnotherKind() {
+        EmbeddedMetrics metrics = new EmbeddedMetrics(new RecordingLogSink(), "ns", null);
+
+        metrics.count("Records");
+
+        assertThrows(IllegalArgumentException.class, () -> metrics.gauge("Records", 1, MetricUnit.COUNT));
+        assertThrows(IllegalArgumentException.class, () -> metrics.record("Records", 1, MetricUnit.COUNT));
+    }
+
+    @Test
+    public void rejectsReservedNames() {
+        EmbeddedMetrics metrics = new EmbeddedMetrics(new RecordingLogSink(), "ns", "my-function");
+
+        assertThrows(IllegalArgumentException.class, () -> metrics.count("FunctionName"));
+        assertThrows(IllegalArgumentException.class, () -> metrics.gauge("AWSRequestId", 1, MetricUnit.COUNT));
+        assertThrows(IllegalArgumentException.class, () -> metrics.record("_aws", 1, MetricUnit.COUNT));
+    }
+
+    @Test
+    public void publishesCounterThatAddsUpToZero() {
+        RecordingLogSink sink = new RecordingLogSink();
+        EmbeddedMetrics metrics = new EmbeddedMetrics(sink, "ns", null);
+
+        metrics.count("InFlight", 2);
+        metrics.count("InFlight", -2);
+        metrics.count("Errors", 0);
+        metrics.flush();
+        metrics.flush();
+
+        assertEquals(1, sink.messages.size());
+        assertEquals("0", sink.document(0).get("InFlight"));
+        assertEquals("0", sink.document(0).get("Errors"));
+    }
+}
@@ -0,0 +1,73 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.api.client.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonScannerTest {
+
+    @Test
+    public void findString_SkipsOtherValues() {
+        String json = "{ \"client\" : {\"env\": {\"platform\": \"wrong\"}, \"list\": [1, \"]}\", {}]},\n" +
+                "\"number\": -1.5e3, \"flag\": true, \"nothing\": null, \"env\": {\"make\": \"x\", \"platform\": \"iPhoneOS\"} }";
+
+        assertEquals("iPhoneOS", JsonScanner.findString(json, "env", "platform"));
+        assertEquals("x", JsonScanner.findString(json, "env", "make"));
+    }
+
+    @Test
+    public void findString_UnescapesValue() {
+        assertEquals("a\"b\\cé", JsonScanner.findString("{\"k\":\"a\\\"b\\\\c\\u00e9\"}", "k"));
+    }
+
+    @Test
+    public void findString_LiteralOfNumberOrBoolean() {
+        assertEquals("1", JsonScanner.findString("{\"env\":{\"platform\":1}}", "env", "platform"));
+        assertEquals("true", JsonScanner.findString("{\"env\":{\"platform\":true}}", "env", "platform"));
+    }
+
+    @Test
+    public void findString_MissingOrNotScalar() {
+        assertNull(JsonScanner.findString("{\"env\":{\"platform\":{}}}", "env", "platform"));
+        assertNull(JsonScanner.findString("{\"env\":{\"platform\":[\"a\"]}}", "env", "platform"));
+        assertNull(JsonScanner.findString("{\"env\":{\"platform\":null}}", "env", "platform"));
+        assertNull(JsonScanner.findString("{\"env\":{}}", "env", "platform"));
+        assertNull(JsonScanner.findString("{}", "env", "platform"));
+        assertNull(JsonScanner.findString("[]", "env"));
+        assertNull(JsonScanner.findString(null, "env"));
+    }
+
+    @Test
+    public void findString_Malformed() {
+        assertNull(JsonScanner.findString("{\"env\":{\"platform\"", "env", "platform"));
+        assertNull(JsonScanner.findString("{\"a\" 1}", "env"));
+        assertNull(JsonScanner.findString("", "env"));
+    }
+
+    @Test
+    public void parse() {
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("s", "v\n");
+        expected.put("n", "-1.5e3");
+        expected.put("b", "true");
+        expected.put("z", null);
+        expected.put("a", Arrays.asList("1", new HashMap<>()));
+
+        assertEquals(expected, JsonScanner.parse(" {\"s\":\"v\\n\", \"n\":-1.5e3,\"b\":true,\"z\":null,\"a\":[1,{}]} "));
+    }
+
+    @Test
+    public void parse_Malformed() {
+        assertThrows(IllegalArgumentException.class, () -> JsonScanner.parse("{\"a\":"));
+        assertThrows(IllegalArgumentException.class, () -> JsonScanner.parse("{\"a\":1} x"));
+        assertThrows(IllegalArgumentException.class, () -> JsonScanner.parse("{\"a\":,}"));
+    }
+}
@@ -0,0 +1,177 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.serialization.events;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the records of a batch event, reading each record from the payload only when the iteration reaches
+ * it. The fields of the event other than its records are read into a tree as the parser passes them and bound to the
+ * event class on demand, see {@link #getEvent()}.
+ *
+ * @param <E> event type
+ * @param <R> record type
+ * @see LambdaEventSerializers#recordIteratorFor(Class, ClassLoader, InputStream)
+ */
+public final class EventRecordIterator<E, R> implements Iterator<R>, Closeable {
+
+    private final JsonParser parser;
+    private final ObjectMapper mapper;
+    private final ObjectReader eventReader;
+    private final ObjectReader recordReader;
+    private final String recordsProperty;
+    private final boolean groupedRecords;
+    private final ObjectNode fields;
+
+    private boolean inGroups;
+    private boolean inArray;
+    private boolean finished;
+    private R next;
+    private E event;
+
+    EventRecordIterator(ObjectMapper mapper, ObjectReader eventReader, ObjectReader recordReader,
+                        String recordsProperty, boolean groupedRecords, InputStream input) {
+        this.mapper = mapper;
+        this.eventReader = eventReader;
+        this.recordReader = recordReader;
+        this.recordsProperty = recordsProperty;
+        this.groupedRecords = groupedRecords;
+        this.fields = mapper.createObjectNode();
+        try {
+            this.parser = mapper.getFactory().createParser(input);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw JsonMappingException.from(parser, "Expected an event object");
+            }
+            readFields();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the event with the fields read so far and null records. Fields that follow the records in the payload
+     * are set once {@link #hasNext()} has returned false.
+     * @return the event without its records
+     */
+    public E getEvent() {
+        if (event == null) {
+            try {
+                event = eventReader.readValue(fields);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return event;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = readRecord();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public R next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        R record = next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+        next = null;
+        try {
+            parser.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the next record, or null once the records are exhausted and the remaining fields have been read
+     */
+    private R readRecord() throws IOException {
+        while (true) {
+            if (inArray) {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.VALUE_NULL) {
+                    // a null element is skipped, a null record would end the iteration
+                    continue;
+                }
+                if (token != JsonToken.END_ARRAY) {
+                    return recordReader.readValue(parser);
+                }
+                inArray = false;
+            } else if (inGroups) {
+                // records of one topic partition after another, e.g. {"topic-0":[...],"topic-1":[...]}
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.END_OBJECT) {
+                    inGroups = false;
+                } else if (enterArray(parser.nextToken())) {
+                    inArray = true;
+                }
+            } else {
+                readFields();
+                if (!inArray && !inGroups) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the fields up to the start of the records, or to the end of the event
+     */
+    private void readFields() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (name.equals(recordsProperty)) {
+                if (groupedRecords ? value == JsonToken.START_OBJECT : enterArray(value)) {
+                    inGroups = groupedRecords;
+                    inArray = !groupedRecords;
+                    return;
+                }
+                parser.skipChildren();
+            } else {
+                fields.set(name, mapper.readTree(parser));
+                event = null;
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw JsonMappingException.from(parser, "Unexpected " + token + " in event object");
+        }
+        finished = true;
+    }
+
+    private boolean enterArray(JsonToken token) throws IOException {
+        if (token == JsonToken.START_ARRAY) {
+            return true;
+        }
+        parser.skipChildren();
+        return false;
+    }
+}
@@ -2,33 +2,26 @@
 
 package com.amazonaws.services.lambda.runtime.serialization.events;
 
-import com.amazonaws.services.lambda.runtime.serialization.events.mixins.CloudFormationCustomResourceEventMixin;
-import com.amazonaws.services.lambda.runtime.serialization.events.mixins.CloudFrontEventMixin;
-import com.amazonaws.services.lambda.runtime.serialization.events.mixins.CloudWatchLogsEventMixin;
-import com.amazonaws.services.lambda.runtime.serialization.events.mixins.CodeCommitEventMixin;
-import com.amazonaws.services.lambda.runtime.serialization.events.mixins.ConnectEventMixin;
-import com.amazonaws.services.lambda.runtime.serialization.events.mixins.DynamodbEventMixin;
-import com.amazonaws.services.lambda.runtime.serialization.events.mixins.DynamodbTimeWindowEventMixin;
-import com.amazonaws.services.lambda.runtime.serialization.events.mixins.KinesisEventMixin;
-import com.amazonaws.services.lambda.runtime.serialization.events.mixins.KinesisTimeWindowEventMixin;
-import com.amazonaws.services.lambda.runtime.serialization.events.mixins.SNSEventMixin;
-import com.amazonaws.services.lambda.runtime.serialization.events.mixins.SQSEventMixin;
-import com.amazonaws.services.lambda.runtime.serialization.events.mixins.ScheduledEventMixin;
-import com.amazonaws.services.lambda.runtime.serialization.events.mixins.SecretsManagerRotationEventMixin;
 import com.amazonaws.services.lambda.runtime.serialization.factories.JacksonFactory;
 import com.amazonaws.services.lambda.runtime.serialization.PojoSerializer;
-import com.amazonaws.services.lambda.runtime.serialization.util.ReflectUtil;
-import com.amazonaws.services.lambda.runtime.serialization.util.SerializeUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.fasterxml.jackson.databind.introspect.ClassIntrospector;
 import com.amazonaws.services.lambda.runtime.serialization.events.modules.DateModule;
 import com.amazonaws.services.lambda.runtime.serialization.events.modules.DateTimeModule;
 import com.amazonaws.services.lambda.runtime.serialization.events.serializers.OrgJsonSerializer;
 import com.amazonaws.services.lambda.runtime.serialization.events.serializers.S3EventSerializer;
+import com.amazonaws.services.lambda.runtime.serialization.util.ClassLoaderCache;
 
+import java.io.InputStream;
+import java.lang.reflect.Method;
 import java.util.AbstractMap.SimpleEntry;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -40,17 +33,21 @@ import java.util.stream.Stream;
  * Option 1 (Preferred):
  * 1. Add Class name to SUPPORTED_EVENTS
  * 2. Add Mixin Class to com.amazonaws.services.lambda.runtime.serialization.events.mixins package (if needed)
- * 3. Add entries to MIXIN_MAP for event class and sub classes (if needed)
- * 4. Add entries to NESTED_CLASS_MAP for event class and sub classes (if needed)
- * 5. Add entry to NAMING_STRATEGY_MAP (if needed i.e. Could be used in place of a mixin)
+ * 3. Add entries to MIXIN_MAP for event class and nested classes (if needed)
+ * 4. Add entry to NAMING_STRATEGY_MAP (if needed i.e. Could be used in place of a mixin)
  *
  * Option 2 (longer - for event models that do not work with Jackson or GSON):
  * 1. Add Class name to SUPPORTED_EVENTS
- * 2. Add serializer (using org.json) to com.amazonaws.services.lambda.runtime.serialization.events.serializers
+ * 2. Add serializer (implementing OrgJsonSerializer, see S3EventSerializer) to com.amazonaws.services.lambda.runtime.serialization.events.serializers
  * 3. Add class name and serializer to SERIALIZER_MAP
+ *
+ * Serializers are built once per class loader and event class: all Jackson based event serializers of a class loader
+ * share a single ObjectMapper (plus one per naming strategy) and resolve their mixins by class name on demand.
  */
 public class LambdaEventSerializers {
 
+    private static final String MIXINS_PACKAGE = "com.amazonaws.services.lambda.runtime.serialization.events.mixins.";
+
     /**
      * list of supported events
      */
@@ -87,117 +84,88 @@ public class LambdaEventSerializers {
      * 1. different constructor/setter types from getter types
      * 2. various bugs within Jackson
      */
-    private static final Map<String, OrgJsonSerializer> SERIALIZER_MAP  = Stream.of(
-            new SimpleEntry<>("com.amazonaws.services.s3.event.S3EventNotification", new S3EventSerializer<>()),
-            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.models.s3.S3EventNotification", new S3EventSerializer<>()),
-            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.S3Event", new S3EventSerializer<>()))
+    @SuppressWarnings("rawtypes")
+    private static final Map<String, Supplier<OrgJsonSerializer>> SERIALIZER_MAP  = Stream.<SimpleEntry<String, Supplier<OrgJsonSerializer>>>of(
+            new SimpleEntry<>("com.amazonaws.services.s3.event.S3EventNotification", S3EventSerializer::new),
+            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.models.s3.S3EventNotification", S3EventSerializer::new),
+            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.S3Event", S3EventSerializer::new))
             .collect(Collectors.toMap(SimpleEntry::getKey, SimpleEntry::getValue));
 
     /**
-     * Maps supported event classes to mixin classes with Jackson annotations.
+     * Maps supported event classes (and their nested classes) to mixin classes with Jackson annotations.
      * Jackson annotations are not loaded through the ClassLoader so if a Java field is serialized or deserialized from a
      * json field that does not match the Jave field name, then a Mixin is required.
+     * Mixins are referenced by name so that they are only loaded once Jackson introspects the class they apply to.
      */
-    @SuppressWarnings("rawtypes")
-    private static final Map<String, Class> MIXIN_MAP = Stream.of(
+    private static final Map<String, String> MIXIN_MAP = Stream.of(
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.CloudFormationCustomResourceEvent",
-                    CloudFormationCustomResourceEventMixin.class),
+                    MIXINS_PACKAGE + "CloudFormationCustomResourceEventMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.CloudFrontEvent",
-                    CloudFrontEventMixin.class),
+                    MIXINS_PACKAGE + "CloudFrontEventMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.CloudWatchLogsEvent",
-                    CloudWatchLogsEventMixin.class),
+                    MIXINS_PACKAGE + "CloudWatchLogsEventMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.CodeCommitEvent",
-                    CodeCommitEventMixin.class),
+                    MIXINS_PACKAGE + "CodeCommitEventMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.CodeCommitEvent$Record",
-                    CodeCommitEventMixin.RecordMixin.class),
+                    MIXINS_PACKAGE + "CodeCommitEventMixin$RecordMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.ConnectEvent",
-                    ConnectEventMixin.class),
+                    MIXINS_PACKAGE + "ConnectEventMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.ConnectEvent$Details",
-                    ConnectEventMixin.DetailsMixin.class),
+                    MIXINS_PACKAGE + "ConnectEventMixin$DetailsMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.ConnectEvent$ContactData",
-                    ConnectEventMixin.ContactDataMixin.class),
+                    MIXINS_PACKAGE + "ConnectEventMixin$ContactDataMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.ConnectEvent$CustomerEndpoint",
-                    ConnectEventMixin.CustomerEndpointMixin.class),
+                    MIXINS_PACKAGE + "ConnectEventMixin$CustomerEndpointMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.ConnectEvent$SystemEndpoint",
-                    ConnectEventMixin.SystemEndpointMixin.class),
+                    MIXINS_PACKAGE + "ConnectEventMixin$SystemEndpointMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.DynamodbEvent",
-                    DynamodbEventMixin.class),
+                    MIXINS_PACKAGE + "DynamodbEventMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.DynamodbEvent$DynamodbStreamRecord",
-                    DynamodbEventMixin.DynamodbStreamRecordMixin.class),
+                    MIXINS_PACKAGE + "DynamodbEventMixin$DynamodbStreamRecordMixin"),
             new SimpleEntry<>("com.amazonaws.services.dynamodbv2.model.StreamRecord",
-                    DynamodbEventMixin.StreamRecordMixin.class),
+                    MIXINS_PACKAGE + "DynamodbEventMixin$StreamRecordMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord",
-                    DynamodbEventMixin.StreamRecordMixin.class),
+                    MIXINS_PACKAGE + "DynamodbEventMixin$StreamRecordMixin"),
             new SimpleEntry<>("com.amazonaws.services.dynamodbv2.model.AttributeValue",
-                    DynamodbEventMixin.AttributeValueMixin.class),
+                    MIXINS_PACKAGE + "DynamodbEventMixin$AttributeValueMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue",
-                    DynamodbEventMixin.AttributeValueMixin.class),
+                    MIXINS_PACKAGE + "DynamodbEventMixin$AttributeValueMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.DynamodbTimeWindowEvent",
-                DynamodbTimeWindowEventMixin.class),
+                    MIXINS_PACKAGE + "DynamodbTimeWindowEventMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.KinesisEvent",
-                    KinesisEventMixin.class),
+                    MIXINS_PACKAGE + "KinesisEventMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.KinesisEvent$Record",
-                    KinesisEventMixin.RecordMixin.class),
+                    MIXINS_PACKAGE + "KinesisEventMixin$RecordMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.KinesisTimeWindowEvent",
-                KinesisTimeWindowEventMixin.class),
+                    MIXINS_PACKAGE + "KinesisTimeWindowEventMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.ScheduledEvent",
-                    ScheduledEventMixin.class),
+                    MIXINS_PACKAGE + "ScheduledEventMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.SecretsManagerRotationEvent",
-                    SecretsManagerRotationEventMixin.class),
+                    MIXINS_PACKAGE + "SecretsManagerRotationEventMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.SNSEvent",
-                    SNSEventMixin.class),
+                    MIXINS_PACKAGE + "SNSEventMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.SNSEvent$SNSRecord",
-                    SNSEventMixin.SNSRecordMixin.class),
+                    MIXINS_PACKAGE + "SNSEventMixin$SNSRecordMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.SQSEvent",
-                    SQSEventMixin.class),
+                    MIXINS_PACKAGE + "SQSEventMixin"),
             new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.SQSEvent$SQSMessage",
-                    SQSEventMixin.SQSMessageMixin.class))
+                    MIXINS_PACKAGE + "SQSEventMixin$SQSMessageMixin"))
             .collect(Collectors.toMap(SimpleEntry::getKey, SimpleEntry::getValue));
 
     /**
-     * If mixins are required for inner classes of an event, then those nested classes must be specified here.
+     * Maps event classes with binary fields to mixins that bind the base64 text of these fields to their encoded
+     * accessors, e.g. setEncodedData(String) instead of setData(ByteBuffer), so that the text is only decoded if the
+     * handler reads the binary value. Versions of the event classes without these accessors get their MIXIN_MAP mixin.
      */
-    @SuppressWarnings("rawtypes")
-    private static final Map<String, List<NestedClass>> NESTED_CLASS_MAP = Stream.of(
-            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.CodeCommitEvent",
-                    Arrays.asList(
-                            new NestedClass("com.amazonaws.services.lambda.runtime.events.CodeCommitEvent$Record"))),
-            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.CognitoEvent",
-                    Arrays.asList(
-                            new NestedClass("com.amazonaws.services.lambda.runtime.events.CognitoEvent$DatasetRecord"))),
-            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.ConnectEvent",
-                    Arrays.asList(
-                            new NestedClass("com.amazonaws.services.lambda.runtime.events.ConnectEvent$Details"),
-                            new NestedClass("com.amazonaws.services.lambda.runtime.events.ConnectEvent$ContactData"),
-                            new NestedClass("com.amazonaws.services.lambda.runtime.events.ConnectEvent$CustomerEndpoint"),
-                            new NestedClass("com.amazonaws.services.lambda.runtime.events.ConnectEvent$SystemEndpoint"))),
-            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.DynamodbEvent",
-                    Arrays.asList(
-                            new AlternateNestedClass(
-                                    "com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue",
-                                    "com.amazonaws.services.dynamodbv2.model.AttributeValue"),
-                            new AlternateNestedClass(
-                                    "com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord",
-                                    "com.amazonaws.services.dynamodbv2.model.StreamRecord"),
-                            new NestedClass("com.amazonaws.services.lambda.runtime.events.DynamodbEvent$DynamodbStreamRecord"))),
-            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.DynamodbTimeWindowEvent",
-                Arrays.asList(
-                    new AlternateNestedClass(
-                        "com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue",
-                        "com.amazonaws.services.dynamodbv2.model.AttributeValue"),
-                    new AlternateNestedClass(
-                        "com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord",
-                        "com.amazonaws.services.dynamodbv2.model.StreamRecord"),
-                    new NestedClass("com.amazonaws.services.lambda.runtime.events.DynamodbEvent$DynamodbStreamRecord"))),
-            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.KinesisEvent",
-                    Arrays.asList(
-                            new NestedClass("com.amazonaws.services.lambda.runtime.events.KinesisEvent$Record"))),
-            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.SNSEvent",
-                    Arrays.asList(
-                            new NestedClass("com.amazonaws.services.lambda.runtime.events.SNSEvent$SNSRecord"))),
-            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.SQSEvent",
-                    Arrays.asList(
-                            new NestedClass("com.amazonaws.services.lambda.runtime.events.SQSEvent$SQSMessage"))))
+    private static final Map<String, String> ENCODED_BINARY_MIXIN_MAP = Stream.of(
+            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.KinesisEvent$Record",
+                    MIXINS_PACKAGE + "KinesisEventMixin$EncodedRecordMixin"),
+            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.KinesisFirehoseEvent$Record",
+                    MIXINS_PACKAGE + "KinesisFirehoseEventMixin$EncodedRecordMixin"),
+            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.SQSEvent$MessageAttribute",
+                    MIXINS_PACKAGE + "SQSEventMixin$EncodedMessageAttributeMixin"),
+            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue",
+                    MIXINS_PACKAGE + "DynamodbEventMixin$EncodedAttributeValueMixin"))
             .collect(Collectors.toMap(SimpleEntry::getKey, SimpleEntry::getValue));
 
     /**
@@ -209,6 +177,23 @@ public class LambdaEventSerializers {
                     new PropertyNamingStrategy.PascalCaseStrategy()))
             .collect(Collectors.toMap(SimpleEntry::getKey, SimpleEntry::getValue));
 
+    /**
+     * Batch events whose records can be iterated one at a time, mapped to the property holding their records and the
+     * class of a record. KafkaEvent groups its records by topic partition, in an object of arrays.
+     */
+    private static final Map<String, RecordsProperty> RECORDS_PROPERTY_MAP = Stream.of(
+            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.SQSEvent",
+                    new RecordsProperty("Records", "com.amazonaws.services.lambda.runtime.events.SQSEvent$SQSMessage", false)),
+            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.KinesisEvent",
+                    new RecordsProperty("Records", "com.amazonaws.services.lambda.runtime.events.KinesisEvent$KinesisEventRecord", false)),
+            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.DynamodbEvent",
+                    new RecordsProperty("Records", "com.amazonaws.services.lambda.runtime.events.DynamodbEvent$DynamodbStreamRecord", false)),
+            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.KinesisFirehoseEvent",
+                    new RecordsProperty("records", "com.amazonaws.services.lambda.runtime.events.KinesisFirehoseEvent$Record", false)),
+            new SimpleEntry<>("com.amazonaws.services.lambda.runtime.events.KafkaEvent",
+                    new RecordsProperty("records", "com.amazonaws.services.lambda.runtime.events.KafkaEvent$KafkaEventRecord", true)))
+            .collect(Collectors.toMap(SimpleEntry::getKey, SimpleEntry::getValue));
+
     /**
      * Returns whether the class name is a Lambda supported event model.
      * @param className class name as string
@@ -218,87 +203,170 @@ public class LambdaEventSerializers {
         return SUPPORTED_EVENTS.contains(className);
     }
 
+    /**
+     * Returns whether the records of the event can be iterated one at a time.
+     * @param className class name as string
+     * @return whether {@link #recordIteratorFor(Class, ClassLoader, InputStream)} supports the event
+     */
+    public static boolean isRecordIterableEvent(String className) {
+        return RECORDS_PROPERTY_MAP.containsKey(className);
+    }
+
+    /**
+     * Serializer registries, one per class loader the event classes are loaded from. The cache does not keep the class
+     * loaders alive.
+     */
+    private static final ClassLoaderCache<SerializerRegistry> REGISTRIES = new ClassLoaderCache<>(SerializerRegistry::new);
+
     /**
      * Return a serializer for the event class
-     * @return a specific PojoSerializer or modified JacksonFactory instance with mixins and modules added in
+     * @return a specific PojoSerializer or a Jackson serializer with mixins and modules added in. Serializers are
+     * cached, subsequent calls for the same event class and class loader return the same instance.
      */
-    @SuppressWarnings({"unchecked"})
     public static <T> PojoSerializer<T> serializerFor(Class<T> eventClass, ClassLoader classLoader) {
-        // if serializer specifically defined for event then use that
-        if (SERIALIZER_MAP.containsKey(eventClass.getName())) {
-            return SERIALIZER_MAP.get(eventClass.getName()).withClass(eventClass).withClassLoader(classLoader);
+        return REGISTRIES.get(classLoader).serializerFor(eventClass);
+    }
+
+    /**
+     * Return an iterator over the records of a batch event, which reads each record from the input when the iteration
+     * reaches it rather than deserializing the whole event upfront.
+     * @param eventClass event class, see {@link #isRecordIterableEvent(String)}
+     * @param classLoader class loader of the event classes
+     * @param input event payload
+     * @return an iterator positioned at the first record, with the event fields that precede the records already read
+     * @throws IllegalArgumentException if the records of the event cannot be iterated
+     */
+    public static <E, R> EventRecordIterator<E, R> recordIteratorFor(Class<E> eventClass, ClassLoader classLoader,
+                                                                     InputStream input) {
+        return REGISTRIES.get(classLoader).recordIteratorFor(eventClass, input);
+    }
+
+    /**
+     * Name of the property holding the records of a batch event, and the class name of a record
+     */
+    private static final class RecordsProperty {
+        private final String name;
+        private final String recordClassName;
+        private final boolean groupedRecords;
+
+        private RecordsProperty(String name, String recordClassName, boolean groupedRecords) {
+            this.name = name;
+            this.recordClassName = recordClassName;
+            this.groupedRecords = groupedRecords;
+        }
+    }
+
+    /**
+     * Holds the serializers of the event classes loaded through a single class loader. The Jackson mapper is copied
+     * from the global {@link JacksonFactory} mapper once, the global mapper itself is never modified.
+     */
+    private static final class SerializerRegistry {
+        private final ClassLoader classLoader;
+        private final JacksonFactory factory;
+        private final Map<PropertyNamingStrategy, JacksonFactory> namingStrategyFactories = new ConcurrentHashMap<>();
+        private final Map<Class<?>, PojoSerializer<?>> serializers = new ConcurrentHashMap<>();
+        private final Map<Class<?>, ObjectReader[]> recordReaders = new ConcurrentHashMap<>();
+
+        private SerializerRegistry(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+            this.factory = JacksonFactory.getInstance().withMixInResolver(new MixInByNameResolver());
+            this.factory.getMapper().registerModules(new DateModule(), new DateTimeModule(classLoader));
         }
-        // else use a Jackson ObjectMapper instance
-        JacksonFactory factory = JacksonFactory.getInstance();
-        // if mixins required for class, then apply
-        if (MIXIN_MAP.containsKey(eventClass.getName())) {
-            factory = factory.withMixin(eventClass, MIXIN_MAP.get(eventClass.getName()));
+
+        @SuppressWarnings({"unchecked"})
+        private <T> PojoSerializer<T> serializerFor(Class<T> eventClass) {
+            return (PojoSerializer<T>) serializers.computeIfAbsent(eventClass, this::createSerializer);
         }
-        // if event model has nested classes then load those classes and check if mixins apply
-        if (NESTED_CLASS_MAP.containsKey(eventClass.getName())) {
-            List<NestedClass> nestedClasses = NESTED_CLASS_MAP.get(eventClass.getName());
-            for (NestedClass nestedClass: nestedClasses) {
-                // if mixin exists for nested class then apply
-                if (MIXIN_MAP.containsKey(nestedClass.className)) {
-                    factory = tryLoadingNestedClass(classLoader, factory, nestedClass);
-                }
+
+        @SuppressWarnings({"unchecked"})
+        private <T> PojoSerializer<T> createSerializer(Class<T> eventClass) {
+            // if serializer specifically defined for event then use that
+            if (SERIALIZER_MAP.containsKey(eventClass.getName())) {
+                return SERIALIZER_MAP.get(eventClass.getName()).get().withClass(eventClass).withClassLoader(classLoader);
             }
+            // else use the shared Jackson ObjectMapper, or its copy with a naming strategy if needed
+            return factoryFor(eventClass).getSerializer(eventClass);
         }
-        // load DateModules
-        factory.getMapper().registerModules(new DateModule(), new DateTimeModule(classLoader));
-        // load naming strategy if needed
-        if (NAMING_STRATEGY_MAP.containsKey(eventClass.getName())) {
-            factory = factory.withNamingStrategy(NAMING_STRATEGY_MAP.get(eventClass.getName()));
+
+        private <E, R> EventRecordIterator<E, R> recordIteratorFor(Class<E> eventClass, InputStream input) {
+            RecordsProperty records = RECORDS_PROPERTY_MAP.get(eventClass.getName());
+            if (records == null) {
+                throw new IllegalArgumentException("Records of " + eventClass.getName() + " cannot be iterated");
+            }
+            // event and record readers, ObjectReaders are immutable and cache their deserializers
+            ObjectReader[] readers = recordReaders.computeIfAbsent(eventClass, this::createRecordReaders);
+            return new EventRecordIterator<>(factoryFor(eventClass).getMapper(), readers[0], readers[1],
+                    records.name, records.groupedRecords, input);
         }
-        return factory.getSerializer(eventClass);
-    }
 
-    /**
-     * Tries to load a nested class with its defined mixin from {@link #MIXIN_MAP} into the {@link JacksonFactory} object.
-     * Will allow initial failure for {@link AlternateNestedClass} objects and try again with their alternate class name
-     * @return a modified JacksonFactory instance with mixins added in
-     */
-    private static JacksonFactory tryLoadingNestedClass(ClassLoader classLoader, JacksonFactory factory, NestedClass nestedClass) {
-        Class<?> eventClazz;
-        Class<?> mixinClazz;
-        try {
-            eventClazz = SerializeUtil.loadCustomerClass(nestedClass.getClassName(), classLoader);
-            mixinClazz = MIXIN_MAP.get(nestedClass.getClassName());
-        } catch (ReflectUtil.ReflectException e) {
-            if (nestedClass instanceof AlternateNestedClass) {
-                AlternateNestedClass alternateNestedClass = (AlternateNestedClass) nestedClass;
-                eventClazz = SerializeUtil.loadCustomerClass(alternateNestedClass.getAlternateClassName(), classLoader);
-                mixinClazz = MIXIN_MAP.get(alternateNestedClass.getAlternateClassName());
-            } else {
-                throw e;
+        private ObjectReader[] createRecordReaders(Class<?> eventClass) {
+            Class<?> recordClass;
+            try {
+                recordClass = Class.forName(RECORDS_PROPERTY_MAP.get(eventClass.getName()).recordClassName, true,
+                        eventClass.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("Records of " + eventClass.getName() + " cannot be iterated", e);
             }
+            ObjectMapper mapper = factoryFor(eventClass).getMapper();
+            return new ObjectReader[]{mapper.readerFor(eventClass), mapper.readerFor(recordClass)};
         }
 
-        return factory.withMixin(eventClazz, mixinClazz);
+        private JacksonFactory factoryFor(Class<?> eventClass) {
+            PropertyNamingStrategy strategy = NAMING_STRATEGY_MAP.get(eventClass.getName());
+            if (strategy == null) {
+                return factory;
+            }
+            return namingStrategyFactories.computeIfAbsent(strategy, factory::withNamingStrategy);
+        }
     }
 
-    private static class NestedClass {
-        private final String className;
+    /**
+     * Resolves mixins from {@link #MIXIN_MAP} by the name of the class Jackson introspects. This applies mixins to
+     * nested event classes and alternate (e.g. AWS SDK) classes without loading any of them upfront.
+     */
+    private static final class MixInByNameResolver implements ClassIntrospector.MixInResolver {
+        private final Map<String, Optional<Class<?>>> mixins = new ConcurrentHashMap<>();
 
-        protected NestedClass(String className) {
-            this.className = className;
+        @Override
+        public Class<?> findMixInClassFor(Class<?> cls) {
+            String encodedMixinClassName = ENCODED_BINARY_MIXIN_MAP.get(cls.getName());
+            if (encodedMixinClassName != null) {
+                Class<?> mixin = mixins.computeIfAbsent(encodedMixinClassName, MixInByNameResolver::loadMixin)
+                        .orElse(null);
+                if (mixin != null && hasMethodsOf(cls, mixin)) {
+                    return mixin;
+                }
+            }
+            String mixinClassName = MIXIN_MAP.get(cls.getName());
+            if (mixinClassName == null) {
+                return null;
+            }
+            return mixins.computeIfAbsent(mixinClassName, MixInByNameResolver::loadMixin).orElse(null);
         }
 
-        protected String getClassName() {
-            return className;
+        @Override
+        public ClassIntrospector.MixInResolver copy() {
+            // the only state is a cache of loaded mixin classes, which copies can share
+            return this;
         }
-    }
 
-    private static class AlternateNestedClass extends NestedClass {
-        private final String alternateClassName;
-
-        private AlternateNestedClass(String className, String alternateClassName) {
-            super(className);
-            this.alternateClassName = alternateClassName;
+        private static boolean hasMethodsOf(Class<?> cls, Class<?> mixin) {
+            for (Method method : mixin.getDeclaredMethods()) {
+                try {
+                    cls.getMethod(method.getName(), method.getParameterTypes());
+                } catch (NoSuchMethodException e) {
+                    return false;
+                }
+            }
+            return true;
         }
 
-        private String getAlternateClassName() {
-            return alternateClassName;
+        private static Optional<Class<?>> loadMixin(String mixinClassName) {
+            try {
+                return Optional.of(Class.forName(mixinClassName, false, LambdaEventSerializers.class.getClassLoader()));
+            } catch (ClassNotFoundException e) {
+                return Optional.empty();
+            }
         }
     }
 }
@@ -2,9 +2,11 @@
 
 package com.amazonaws.services.lambda.runtime.serialization.events.mixins;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -51,7 +53,17 @@ public abstract class DynamodbEventMixin {
 
     }
 
-    public abstract class AttributeValueMixin {
+    public abstract class AttributeValueMixin extends NonBinaryAttributeValueMixin {
+
+        // needed because Jackson expects "b" instead of "B"
+        @JsonProperty("B") abstract ByteBuffer getB();
+        @JsonProperty("B") abstract void setB(ByteBuffer b);
+        // needed because Jackson expects "bs" instead of "BS"
+        @JsonProperty("BS") abstract List<String> getBS();
+        @JsonProperty("BS") abstract void setBS(List<String> bS);
+    }
+
+    public abstract class NonBinaryAttributeValueMixin {
 
         // needed because Jackson expects "s" instead of "S"
         @JsonProperty("S") abstract String getS();
@@ -59,9 +71,6 @@ public abstract class DynamodbEventMixin {
         // needed because Jackson expects "n" instead of "N"
         @JsonProperty("N") abstract String getN();
         @JsonProperty("N") abstract void setN(String n);
-        // needed because Jackson expects "b" instead of "B"
-        @JsonProperty("B") abstract ByteBuffer getB();
-        @JsonProperty("B") abstract void setB(ByteBuffer b);
         // needed because Jackson expects "null" instead of "NULL"
         @JsonProperty("NULL") abstract Boolean isNULL();
         @JsonProperty("NULL") abstract void setNULL(Boolean nU);
@@ -74,9 +83,6 @@ public abstract class DynamodbEventMixin {
         // needed because Jackson expects "ns" instead of "NS"
         @JsonProperty("NS") abstract List<String> getNS();
         @JsonProperty("NS") abstract void setNS(List<String> nS);
-        // needed because Jackson expects "bs" instead of "BS"
-        @JsonProperty("BS") abstract List<String> getBS();
-        @JsonProperty("BS") abstract void setBS(List<String> bS);
         // needed because Jackson expects "m" instead of "M"
         @JsonProperty("M") abstract Map<String, ?> getM();
         @JsonProperty("M") abstract void setM(Map<String, ?> val);
@@ -85,4 +91,17 @@ public abstract class DynamodbEventMixin {
         @JsonProperty("L") abstract void setL(List<?> val);
 
     }
+
+    public abstract class EncodedAttributeValueMixin extends NonBinaryAttributeValueMixin {
+
+        // needed so that binary attributes are kept as base64 text and only decoded when the handler reads them
+        @JsonIgnore abstract ByteBuffer getB();
+        @JsonIgnore abstract void setB(ByteBuffer b);
+        @JsonProperty("B") abstract String getEncodedB();
+        @JsonProperty("B") abstract void setEncodedB(String encodedB);
+        @JsonIgnore abstract List<ByteBuffer> getBS();
+        @JsonIgnore abstract void setBS(Collection<ByteBuffer> bS);
+        @JsonProperty("BS") abstract List<String> getEncodedBS();
+        @JsonProperty("BS") abstract void setEncodedBS(List<String> encodedBS);
+    }
 }
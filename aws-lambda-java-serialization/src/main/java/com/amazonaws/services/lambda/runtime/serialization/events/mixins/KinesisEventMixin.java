@@ -2,8 +2,10 @@
 
 package com.amazonaws.services.lambda.runtime.serialization.events.mixins;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 public abstract class KinesisEventMixin {
@@ -20,4 +22,13 @@ public abstract class KinesisEventMixin {
 
     }
 
+    public abstract class EncodedRecordMixin extends RecordMixin {
+
+        // needed so that the data is kept as base64 text and only decoded when the handler reads it
+        @JsonIgnore abstract ByteBuffer getData();
+        @JsonIgnore abstract void setData(ByteBuffer data);
+        @JsonProperty("data") abstract String getEncodedData();
+        @JsonProperty("data") abstract void setEncodedData(String encodedData);
+    }
+
 }
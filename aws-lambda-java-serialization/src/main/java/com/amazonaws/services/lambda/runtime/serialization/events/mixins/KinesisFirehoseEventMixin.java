@@ -0,0 +1,20 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.serialization.events.mixins;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.nio.ByteBuffer;
+
+public abstract class KinesisFirehoseEventMixin {
+
+    public abstract class EncodedRecordMixin {
+
+        // needed so that the data is kept as base64 text and only decoded when the handler reads it
+        @JsonIgnore abstract ByteBuffer getData();
+        @JsonIgnore abstract void setData(ByteBuffer data);
+        @JsonProperty("data") abstract String getEncodedData();
+        @JsonProperty("data") abstract void setEncodedData(String encodedData);
+    }
+}
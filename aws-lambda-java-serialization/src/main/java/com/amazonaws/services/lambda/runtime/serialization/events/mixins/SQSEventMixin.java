@@ -2,8 +2,10 @@
 
 package com.amazonaws.services.lambda.runtime.serialization.events.mixins;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 public abstract class SQSEventMixin {
@@ -19,4 +21,17 @@ public abstract class SQSEventMixin {
         @JsonProperty("eventSourceARN") abstract void setEventSourceArn(String eventSourceArn);
     }
 
+    public abstract class EncodedMessageAttributeMixin {
+
+        // needed so that binary values are kept as base64 text and only decoded when the handler reads them
+        @JsonIgnore abstract ByteBuffer getBinaryValue();
+        @JsonIgnore abstract void setBinaryValue(ByteBuffer binaryValue);
+        @JsonProperty("binaryValue") abstract String getEncodedBinaryValue();
+        @JsonProperty("binaryValue") abstract void setEncodedBinaryValue(String encodedBinaryValue);
+        @JsonIgnore abstract List<ByteBuffer> getBinaryListValues();
+        @JsonIgnore abstract void setBinaryListValues(List<ByteBuffer> binaryListValues);
+        @JsonProperty("binaryListValues") abstract List<String> getEncodedBinaryListValues();
+        @JsonProperty("binaryListValues") abstract void setEncodedBinaryListValues(List<String> encodedBinaryListValues);
+    }
+
 }
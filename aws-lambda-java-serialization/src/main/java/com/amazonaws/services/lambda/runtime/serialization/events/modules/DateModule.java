@@ -56,7 +56,7 @@ public class DateModule extends SimpleModule {
     }
 
     public DateModule() {
-        super(PackageVersion.VERSION);
+        super(DateModule.class.getSimpleName(), PackageVersion.VERSION);
         addSerializer(Date.class, new Serializer());
         addDeserializer(Date.class, new Deserializer());
     }
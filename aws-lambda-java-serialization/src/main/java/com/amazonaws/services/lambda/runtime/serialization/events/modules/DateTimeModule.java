@@ -2,7 +2,7 @@
 
 package com.amazonaws.services.lambda.runtime.serialization.events.modules;
 
-import com.amazonaws.services.lambda.runtime.serialization.util.SerializeUtil;
+import com.amazonaws.services.lambda.runtime.serialization.util.JodaTimeHandles;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -24,19 +24,21 @@ public class DateTimeModule extends SimpleModule {
      * creates a DateTimeModule using customer class loader to pull org.joda.time.DateTime
      */
     public DateTimeModule(ClassLoader classLoader) {
-        super(PackageVersion.VERSION);
-        Class dateTimeClass = SerializeUtil.loadCustomerClass("org.joda.time.DateTime", classLoader);
-        this.addSerializer(dateTimeClass, getSerializer(dateTimeClass, classLoader));
-        this.addDeserializer(dateTimeClass, getDeserializer(dateTimeClass));
+        // explicit name, modules created with the version only are all named after its artifact and
+        // Jackson would ignore every registration but the first one as a duplicate
+        super(DateTimeModule.class.getSimpleName(), PackageVersion.VERSION);
+        JodaTimeHandles jodaTimeHandles = JodaTimeHandles.forClassLoader(classLoader);
+        Class dateTimeClass = jodaTimeHandles.getDateTimeClass();
+        this.addSerializer(dateTimeClass, getSerializer(jodaTimeHandles));
+        this.addDeserializer(dateTimeClass, getDeserializer(jodaTimeHandles));
     }
 
     /**
      * @param <T> refers to type org.joda.time.DateTime
-     * @param dateTimeClass org.joda.time.DateTime class of the customer
-     * @param classLoader classLoader that's used to load any DateTime classes
+     * @param jodaTimeHandles handles resolved from the classLoader that's used to load any DateTime classes
      * @return JsonSerializer with generic DateTime
      */
-    private <T> JsonSerializer<T> getSerializer(Class<T> dateTimeClass, ClassLoader classLoader) {
+    private <T> JsonSerializer<T> getSerializer(JodaTimeHandles jodaTimeHandles) {
         return new JsonSerializer<T>() {
 
             /**
@@ -49,17 +51,17 @@ public class DateTimeModule extends SimpleModule {
             @Override
             public void serialize(T dateTime, JsonGenerator jsonGenerator, SerializerProvider serializerProvider)
                     throws IOException, JsonProcessingException {
-                jsonGenerator.writeString(SerializeUtil.serializeDateTime(dateTime, classLoader));
+                jsonGenerator.writeString(jodaTimeHandles.print(dateTime));
             }
         };
     }
 
     /**
-     * @param dateTimeClass org.joda.time.DateTime class of the customer
+     * @param jodaTimeHandles handles resolved from the classLoader that's used to load any DateTime classes
      * @param <T> refers to type org.joda.time.DateTime
      * @return JsonDeserializer with generic DateTime
      */
-    private <T> JsonDeserializer<T> getDeserializer(Class<T> dateTimeClass) {
+    private <T> JsonDeserializer<T> getDeserializer(JodaTimeHandles jodaTimeHandles) {
         return new JsonDeserializer<T>() {
 
             /**
@@ -72,7 +74,7 @@ public class DateTimeModule extends SimpleModule {
             @Override
             public T deserialize(JsonParser jsonParser, DeserializationContext deserializationContext)
                     throws IOException, JsonProcessingException {
-                return SerializeUtil.deserializeDateTime(dateTimeClass, jsonParser.getValueAsString());
+                return jodaTimeHandles.parse(jsonParser.getValueAsString());
             }
         };
     }
@@ -8,7 +8,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 
 /**
- * Interface for event serializers that use org json
+ * Interface for event serializers that do not go through Jackson databind or GSON, originally built on org json
  */
 public interface OrgJsonSerializer<T> extends PojoSerializer<T> {
 
@@ -5,23 +5,26 @@ package com.amazonaws.services.lambda.runtime.serialization.events.serializers;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.UncheckedIOException;
-import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 
 import com.amazonaws.services.lambda.runtime.serialization.util.Functions;
+import com.amazonaws.services.lambda.runtime.serialization.util.JodaTimeHandles;
 import com.amazonaws.services.lambda.runtime.serialization.util.ReflectUtil;
-import com.amazonaws.services.lambda.runtime.serialization.util.SerializeUtil;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
 /**
  * Serializer for S3 event
  * NOTE: Because the s3 event class provided by the SDK does not play well with Jackson through a class laoder,
- * this class uses the low level org json library to serialize and deserialize the event. If new events are added
- * that do not work well with Jackson or GSON, this is the fallback method that will always work but is more verbose.
+ * this class reads and writes the event with the low level streaming parser and generator, and builds the models
+ * through their constructors and getters. Those are resolved once per serializer, from the class loader of the
+ * customer. If new events are added that do not work well with Jackson or GSON, this is the fallback method that
+ * will always work but is more verbose.
  */
 public class S3EventSerializer<T> implements OrgJsonSerializer<T> {
 
@@ -37,6 +40,8 @@ public class S3EventSerializer<T> implements OrgJsonSerializer<T> {
     private static final String S3_EVENT_NOTIFICATION_CLASS_V3 = "com.amazonaws.services.lambda.runtime.events.models.s3.S3EventNotification";
     private static final String S3_EVENT_NOTIFICATION_CLASS_V2 = "com.amazonaws.services.s3.event.S3EventNotification";
 
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     /**
      * S3 event class
      * @see com.amazonaws.services.lambda.runtime.events.S3Event;
@@ -50,6 +55,11 @@ public class S3EventSerializer<T> implements OrgJsonSerializer<T> {
      */
     private ClassLoader classLoader;
 
+    /**
+     * constructors and getters of the S3 event classes, resolved on first use
+     */
+    private volatile S3EventBindings<T> bindings;
+
     /**
      * Construct s3Event Serialize from specific s3 event class from user
      * @param eventClass s3 event class
@@ -60,6 +70,7 @@ public class S3EventSerializer<T> implements OrgJsonSerializer<T> {
     @Override
     public S3EventSerializer<T> withClass(Class<T> eventClass) {
         this.eventClass = eventClass;
+        this.bindings = null;
         return this;
     }
 
@@ -70,6 +81,7 @@ public class S3EventSerializer<T> implements OrgJsonSerializer<T> {
     @Override
     public S3EventSerializer<T> withClassLoader(ClassLoader classLoader) {
         this.classLoader = classLoader;
+        this.bindings = null;
         return this;
     }
 
@@ -80,7 +92,11 @@ public class S3EventSerializer<T> implements OrgJsonSerializer<T> {
      * @return S3Event Object
      */
     public T fromJson(InputStream input) {
-        return fromJson(SerializeUtil.convertStreamToString(input));
+        try (JsonParser parser = JSON_FACTORY.createParser(input)) {
+            return getBindings().readEvent(parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
@@ -89,8 +105,11 @@ public class S3EventSerializer<T> implements OrgJsonSerializer<T> {
      * @return s3Event object
      */
     public T fromJson(String input) {
-        JSONObject jsonObject = new JSONObject((input));
-        return deserializeEvent(jsonObject);
+        try (JsonParser parser = JSON_FACTORY.createParser(input)) {
+            return getBindings().readEvent(parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
@@ -99,456 +118,519 @@ public class S3EventSerializer<T> implements OrgJsonSerializer<T> {
      * @param output OutputStream serializing to
      */
     public void toJson(T value, OutputStream output) {
-        JSONObject jsonObject;
-        try {
-            // Try to load newer version of S3EventNotification from aws-lambda-java-events v3+
-            Class eventNotificationRecordClass = SerializeUtil.loadCustomerClass(
-                    S3_EVENT_NOTIFICATION_CLASS_V3 + "$S3EventNotificationRecord", classLoader);
-            jsonObject = serializeEvent(eventNotificationRecordClass, value, S3_EVENT_NOTIFICATION_CLASS_V3);
-
-        } catch (Exception ex) {
-            // Fallback to aws-lambda-java-events pre-v3 (relies on aws-s3-sdk)
-            Class eventNotificationRecordClass = SerializeUtil.loadCustomerClass(
-                    S3_EVENT_NOTIFICATION_CLASS_V2 + "$S3EventNotificationRecord", classLoader);
-            jsonObject = serializeEvent(eventNotificationRecordClass, value, S3_EVENT_NOTIFICATION_CLASS_V2);
-        }
-
-        // Writer in try block so that writer gets flushed and closed
-        try (Writer writer = new OutputStreamWriter(output)) {
-            writer.write(jsonObject.toString());
+        // generator in try block so that it gets flushed and closed
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(output)) {
+            getBindings().writeEvent(value, generator);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
-    /**
-     * serialize an s3 event
-     * @param eventNotificationRecordClass class holding the s3 event notification record
-     * @param value s3 event object
-     * @param baseClassName base class name
-     * @return JSONObject that contains s3 event
-     */
-    @SuppressWarnings({"unchecked"})
-    private JSONObject serializeEvent(Class eventNotificationRecordClass, T value, String baseClassName) {
-        JSONObject jsonObject = new JSONObject();
-        Functions.R0<List> getRecordsMethod = ReflectUtil.bindInstanceR0(value, "getRecords", true, List.class);
-        jsonObject.put("Records", serializeEventNotificationRecordList(getRecordsMethod.call(), eventNotificationRecordClass, baseClassName));
-        return jsonObject;
+    private S3EventBindings<T> getBindings() {
+        S3EventBindings<T> result = bindings;
+        if (result == null) {
+            // racing threads resolve equivalent bindings, whichever is stored last wins
+            result = new S3EventBindings<>(eventClass, classLoader, getBaseClassName());
+            bindings = result;
+        }
+        return result;
     }
 
     /**
-     * deserialize an s3 event
-     * @param jsonObject JSONObject with s3 data
-     * @return S3 Event Object
+     * @return name of the S3EventNotification class the event class is built on
      */
-    @SuppressWarnings({"unchecked"})
-    private T deserializeEvent(JSONObject jsonObject) {
-        Functions.R1<T, List> constructor = ReflectUtil.loadConstructor1(eventClass, true, List.class);
-        JSONArray records = jsonObject.optJSONArray("Records");
+    private String getBaseClassName() {
+        // events from aws-lambda-java-events pre-v3 extend the aws-s3-sdk class, everything else uses the v3+ model
         try {
-            // Try to load newer version of S3EventNotification from aws-lambda-java-events v3+
-            Class recordClass = SerializeUtil.loadCustomerClass(
-                    S3_EVENT_NOTIFICATION_CLASS_V3 + "$S3EventNotificationRecord", classLoader);
-            return (T) constructor.call(deserializeEventNotificationRecordList(records, recordClass,
-                    S3_EVENT_NOTIFICATION_CLASS_V3));
-
-        } catch (Exception ex) {
-            // Fallback to aws-lambda-java-events pre-v3 (relies on aws-s3-sdk)
-            Class eventNotificationRecordClass = SerializeUtil.loadCustomerClass(
-                    S3_EVENT_NOTIFICATION_CLASS_V2 + "$S3EventNotificationRecord", classLoader);
-            return (T) constructor.call(deserializeEventNotificationRecordList(records, eventNotificationRecordClass,
-                    S3_EVENT_NOTIFICATION_CLASS_V2));
-        }
+            Class<?> s3EventNotificationClass = ReflectUtil.loadClass(classLoader, S3_EVENT_NOTIFICATION_CLASS_V2);
+            if (s3EventNotificationClass.isAssignableFrom(eventClass)) {
+                return S3_EVENT_NOTIFICATION_CLASS_V2;
+            }
+        } catch (ReflectUtil.ReflectException ignored) {}
+        return S3_EVENT_NOTIFICATION_CLASS_V3;
     }
 
     /**
-     * serialize an s3 event notification record list
-     * @param eventNotificationRecords List of event notification records
-     * @param <A> EventNotificationRecord
-     * @return JSONArray with s3 event records
+     * Constructors and getters of one S3 event model, either the aws-lambda-java-events v3+ one or the aws-s3-sdk one.
+     * All of them are resolved when the bindings are created, reading and writing an event only invokes them.
+     * @param <T> S3 event type
      */
     @SuppressWarnings({"unchecked"})
-    private <A> JSONArray serializeEventNotificationRecordList(List eventNotificationRecords,
-                                                               Class<A> eventNotificationRecordClass,
-                                                               String baseClassName) {
-        JSONArray jsonRecords = new JSONArray();
-        for (Object eventNotificationRecord: eventNotificationRecords) {
-            jsonRecords.put(serializeEventNotificationRecord((A) eventNotificationRecord, baseClassName));
+    private static final class S3EventBindings<T> {
+
+        private final JodaTimeHandles jodaTimeHandles;
+
+        private final Functions.R1<T, List> eventConstructor;
+        private final Functions.R1<List, T> getRecords;
+
+        private final Functions.R9<Object, String, String, String, String, String, Object, Object, Object, Object> recordConstructor;
+        private final Functions.R1<String, Object> getAwsRegion;
+        private final Functions.R1<String, Object> getEventName;
+        private final Functions.R1<String, Object> getEventSource;
+        private final Functions.R1<Object, Object> getEventTime;
+        private final Functions.R1<String, Object> getEventVersion;
+        private final Functions.R1<Object, Object> getRequestParameters;
+        private final Functions.R1<Object, Object> getResponseElements;
+        private final Functions.R1<Object, Object> getS3;
+        private final Functions.R1<Object, Object> getUserIdentity;
+
+        private final Functions.R4<Object, String, Object, Object, String> s3EntityConstructor;
+        private final Functions.R1<String, Object> getConfigurationId;
+        private final Functions.R1<Object, Object> getBucket;
+        private final Functions.R1<Object, Object> getObject;
+        private final Functions.R1<String, Object> getS3SchemaVersion;
+
+        private final Functions.R3<Object, String, Object, String> s3BucketConstructor;
+        private final Functions.R1<String, Object> getName;
+        private final Functions.R1<Object, Object> getOwnerIdentity;
+        private final Functions.R1<String, Object> getArn;
+
+        /**
+         * legacy s3 event models only have the constructor without a sequencer and no
+         * getUrlDecodedKey/getSequencer methods, the missing ones are null
+         */
+        private final Functions.R5<Object, String, Long, String, String, String> s3ObjectConstructor;
+        private final Functions.R4<Object, String, Long, String, String> legacyS3ObjectConstructor;
+        private final Functions.R1<String, Object> getKey;
+        private final Functions.R1<Long, Object> getSizeAsLong;
+        private final Functions.R1<String, Object> getETag;
+        private final Functions.R1<String, Object> getVersionId;
+        private final Functions.R1<String, Object> getUrlDecodedKey;
+        private final Functions.R1<String, Object> getSequencer;
+
+        private final Functions.R1<Object, String> userIdentityConstructor;
+        private final Functions.R1<String, Object> getPrincipalId;
+
+        private final Functions.R1<Object, String> requestParametersConstructor;
+        private final Functions.R1<String, Object> getSourceIPAddress;
+
+        private final Functions.R2<Object, String, String> responseElementsConstructor;
+        private final Functions.R1<String, Object> getXAmzId2;
+        private final Functions.R1<String, Object> getXAmzRequestId;
+
+        private S3EventBindings(Class<T> eventClass, ClassLoader classLoader, String baseClassName) {
+            // reflect load all the classes we need
+            Class recordClass = ReflectUtil.loadClass(classLoader, baseClassName + "$S3EventNotificationRecord");
+            Class s3EntityClass = ReflectUtil.loadClass(classLoader, baseClassName + "$S3Entity");
+            Class s3BucketClass = ReflectUtil.loadClass(classLoader, baseClassName + "$S3BucketEntity");
+            Class s3ObjectClass = ReflectUtil.loadClass(classLoader, baseClassName + "$S3ObjectEntity");
+            Class requestParametersClass = ReflectUtil.loadClass(classLoader, baseClassName + "$RequestParametersEntity");
+            Class responseElementsClass = ReflectUtil.loadClass(classLoader, baseClassName + "$ResponseElementsEntity");
+            Class userIdentityClass = ReflectUtil.loadClass(classLoader, baseClassName + "$UserIdentityEntity");
+            this.jodaTimeHandles = JodaTimeHandles.forClassLoader(classLoader);
+            Class dateTimeClass = jodaTimeHandles.getDateTimeClass();
+
+            this.eventConstructor = ReflectUtil.loadConstructor1(eventClass, true, List.class);
+            this.getRecords = ReflectUtil.loadInstanceR0(eventClass, "getRecords", true, List.class);
+
+            this.recordConstructor = ReflectUtil.loadConstuctor9(recordClass, true, String.class, String.class,
+                    String.class, String.class, String.class, requestParametersClass, responseElementsClass,
+                    s3EntityClass, userIdentityClass);
+            this.getAwsRegion = ReflectUtil.loadInstanceR0(recordClass, "getAwsRegion", true, String.class);
+            this.getEventName = ReflectUtil.loadInstanceR0(recordClass, "getEventName", true, String.class);
+            this.getEventSource = ReflectUtil.loadInstanceR0(recordClass, "getEventSource", true, String.class);
+            this.getEventTime = ReflectUtil.loadInstanceR0(recordClass, "getEventTime", true, dateTimeClass);
+            this.getEventVersion = ReflectUtil.loadInstanceR0(recordClass, "getEventVersion", true, String.class);
+            this.getRequestParameters =
+                    ReflectUtil.loadInstanceR0(recordClass, "getRequestParameters", true, requestParametersClass);
+            this.getResponseElements =
+                    ReflectUtil.loadInstanceR0(recordClass, "getResponseElements", true, responseElementsClass);
+            this.getS3 = ReflectUtil.loadInstanceR0(recordClass, "getS3", true, s3EntityClass);
+            this.getUserIdentity = ReflectUtil.loadInstanceR0(recordClass, "getUserIdentity", true, userIdentityClass);
+
+            this.s3EntityConstructor = ReflectUtil.loadConstuctor4(s3EntityClass, true, String.class, s3BucketClass,
+                    s3ObjectClass, String.class);
+            this.getConfigurationId = ReflectUtil.loadInstanceR0(s3EntityClass, "getConfigurationId", true, String.class);
+            this.getBucket = ReflectUtil.loadInstanceR0(s3EntityClass, "getBucket", true, s3BucketClass);
+            this.getObject = ReflectUtil.loadInstanceR0(s3EntityClass, "getObject", true, s3ObjectClass);
+            this.getS3SchemaVersion = ReflectUtil.loadInstanceR0(s3EntityClass, "getS3SchemaVersion", true, String.class);
+
+            this.s3BucketConstructor = ReflectUtil.loadConstuctor3(s3BucketClass, true, String.class, userIdentityClass,
+                    String.class);
+            this.getName = ReflectUtil.loadInstanceR0(s3BucketClass, "getName", true, String.class);
+            this.getOwnerIdentity = ReflectUtil.loadInstanceR0(s3BucketClass, "getOwnerIdentity", true, userIdentityClass);
+            this.getArn = ReflectUtil.loadInstanceR0(s3BucketClass, "getArn", true, String.class);
+
+            Functions.R5<Object, String, Long, String, String, String> s3ObjectConstructor = null;
+            Functions.R4<Object, String, Long, String, String> legacyS3ObjectConstructor = null;
+            try {
+                s3ObjectConstructor = ReflectUtil.loadConstuctor5(s3ObjectClass, true, String.class, Long.class,
+                        String.class, String.class, String.class);
+            } catch (Exception e) {
+                legacyS3ObjectConstructor = ReflectUtil.loadConstuctor4(s3ObjectClass, true, String.class, Long.class,
+                        String.class, String.class);
+            }
+            this.s3ObjectConstructor = s3ObjectConstructor;
+            this.legacyS3ObjectConstructor = legacyS3ObjectConstructor;
+            this.getKey = ReflectUtil.loadInstanceR0(s3ObjectClass, "getKey", true, String.class);
+            this.getSizeAsLong = ReflectUtil.loadInstanceR0(s3ObjectClass, "getSizeAsLong", true, Long.class);
+            this.getETag = ReflectUtil.loadInstanceR0(s3ObjectClass, "geteTag", true, String.class);
+            this.getVersionId = ReflectUtil.loadInstanceR0(s3ObjectClass, "getVersionId", true, String.class);
+            this.getUrlDecodedKey = loadOptionalGetter(s3ObjectClass, "getUrlDecodedKey");
+            this.getSequencer = loadOptionalGetter(s3ObjectClass, "getSequencer");
+
+            this.userIdentityConstructor = ReflectUtil.loadConstructor1(userIdentityClass, true, String.class);
+            this.getPrincipalId = ReflectUtil.loadInstanceR0(userIdentityClass, "getPrincipalId", true, String.class);
+
+            this.requestParametersConstructor = ReflectUtil.loadConstructor1(requestParametersClass, true, String.class);
+            this.getSourceIPAddress =
+                    ReflectUtil.loadInstanceR0(requestParametersClass, "getSourceIPAddress", true, String.class);
+
+            this.responseElementsConstructor =
+                    ReflectUtil.loadConstructor2(responseElementsClass, true, String.class, String.class);
+            this.getXAmzId2 = ReflectUtil.loadInstanceR0(responseElementsClass, "getxAmzId2", true, String.class);
+            this.getXAmzRequestId =
+                    ReflectUtil.loadInstanceR0(responseElementsClass, "getxAmzRequestId", true, String.class);
         }
-        return jsonRecords;
-    }
 
-    /**
-     * deserialize an s3 event notification record
-     * @param jsonRecords JSONArray of event notification records
-     * @param eventNotificiationRecordClass Event notification record class
-     * @param <A> Event notification record type
-     * @return List of event notification records
-     */
-    @SuppressWarnings({"unchecked"})
-    private <A> List<A> deserializeEventNotificationRecordList(JSONArray jsonRecords,
-                                                               Class<A> eventNotificiationRecordClass,
-                                                               String baseClassName) {
-        if (jsonRecords == null) {
-            jsonRecords = new JSONArray();
+        private static Functions.R1<String, Object> loadOptionalGetter(Class clazz, String name) {
+            try {
+                return ReflectUtil.loadInstanceR0(clazz, name, true, String.class);
+            } catch (Exception e) {
+                return null;
+            }
         }
-        Class s3EntityClass = SerializeUtil.loadCustomerClass(baseClassName + "$S3Entity", classLoader);
-        Class s3BucketClass = SerializeUtil.loadCustomerClass(baseClassName + "$S3BucketEntity", classLoader);
-        Class s3ObjectClass = SerializeUtil.loadCustomerClass(baseClassName + "$S3ObjectEntity", classLoader);
-        Class requestParametersClass = SerializeUtil.loadCustomerClass(baseClassName + "$RequestParametersEntity", classLoader);
-        Class responseElementsClass = SerializeUtil.loadCustomerClass(baseClassName + "$ResponseElementsEntity", classLoader);
-        Class userIdentityClass = SerializeUtil.loadCustomerClass(baseClassName + "$UserIdentityEntity", classLoader);
-
-        List<A> records = new ArrayList<>();
-        for (int i=0; i < jsonRecords.length(); i++) {
-            records.add((A) deserializeEventNotificationRecord(
-                    jsonRecords.getJSONObject(i), eventNotificiationRecordClass, s3EntityClass, s3BucketClass,
-                    s3ObjectClass, requestParametersClass, responseElementsClass, userIdentityClass));
+
+        /**
+         * deserialize an s3 event
+         * @param parser parser positioned before the event
+         * @return S3 Event Object
+         */
+        private T readEvent(JsonParser parser) throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "S3 event must be a JSON object");
+            }
+            List<Object> records = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("Records".equals(field) && token == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        records.add(readEventNotificationRecord(parser));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return eventConstructor.call(records);
         }
-        return records;
-    }
 
-    /**
-     * serialize an s3 event notification record
-     * @param eventNotificationRecord Event notification record
-     * @param <A> Event notification record type
-     * @return JSONObject
-     */
-    private <A> JSONObject serializeEventNotificationRecord(A eventNotificationRecord, String baseClassName) {
-        // reflect load all the classes we need
-        Class s3EntityClass = SerializeUtil.loadCustomerClass(baseClassName + "$S3Entity", classLoader);
-        Class requestParametersClass = SerializeUtil.loadCustomerClass(baseClassName + "$RequestParametersEntity", classLoader);
-        Class responseElementsClass = SerializeUtil.loadCustomerClass(baseClassName + "$ResponseElementsEntity", classLoader);
-        Class userIdentityClass = SerializeUtil.loadCustomerClass(baseClassName + "$UserIdentityEntity", classLoader);
-        Class dateTimeClass = SerializeUtil.loadCustomerClass("org.joda.time.DateTime", classLoader);
-        // serialize object
-        JSONObject jsonObject = new JSONObject();
-        Functions.R0<String> getAwsRegionMethod =
-                ReflectUtil.bindInstanceR0(eventNotificationRecord, "getAwsRegion", true, String.class);
-        jsonObject.put("awsRegion", getAwsRegionMethod.call());
-        Functions.R0<String> getEventNameMethod =
-                ReflectUtil.bindInstanceR0(eventNotificationRecord, "getEventName", true, String.class);
-        jsonObject.put("eventName", getEventNameMethod.call());
-        Functions.R0<String> getEventSourceMethod =
-                ReflectUtil.bindInstanceR0(eventNotificationRecord, "getEventSource", true, String.class);
-        jsonObject.put("eventSource", getEventSourceMethod.call());
-        Functions.R0<?> getEventTimeMethod =
-                ReflectUtil.bindInstanceR0(eventNotificationRecord, "getEventTime", true, dateTimeClass);
-        jsonObject.put("eventTime", SerializeUtil.serializeDateTime(getEventTimeMethod.call(), classLoader));
-        Functions.R0<String> getEventVersionMethod =
-                ReflectUtil.bindInstanceR0(eventNotificationRecord, "getEventVersion", true, String.class);
-        jsonObject.put("eventVersion", getEventVersionMethod.call());
-        Functions.R0<?> getRequestParametersMethod =
-                ReflectUtil.bindInstanceR0(eventNotificationRecord, "getRequestParameters", true, requestParametersClass);
-        jsonObject.put("requestParameters", serializeRequestParameters(getRequestParametersMethod.call()));
-        Functions.R0<?> getResponseElementsMethod =
-                ReflectUtil.bindInstanceR0(eventNotificationRecord, "getResponseElements", true, responseElementsClass);
-        jsonObject.put("responseElements", serializeResponseElements(getResponseElementsMethod.call()));
-        Functions.R0<?> getS3EntityMethod =
-                ReflectUtil.bindInstanceR0(eventNotificationRecord, "getS3", true, s3EntityClass);
-        jsonObject.put("s3", serializeS3Entity(getS3EntityMethod.call(), baseClassName));
-        Functions.R0<?> getUserIdentityMethod =
-                ReflectUtil.bindInstanceR0(eventNotificationRecord, "getUserIdentity", true, userIdentityClass);
-        jsonObject.put("userIdentity", serializeUserIdentity(getUserIdentityMethod.call()));
-        return jsonObject;
-    }
+        /**
+         * deserialize an event notification record
+         * @param parser parser positioned at the record value
+         * @return event notification record object
+         */
+        private Object readEventNotificationRecord(JsonParser parser) throws IOException {
+            String awsRegion = "";
+            String eventName = "";
+            String eventSource = "";
+            String eventTime = "";
+            String eventVersion = "";
+            Object requestParameters = null;
+            Object responseElements = null;
+            Object s3 = null;
+            Object userIdentity = null;
+            if (enterObject(parser)) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "awsRegion": awsRegion = readString(parser); break;
+                        case "eventName": eventName = readString(parser); break;
+                        case "eventSource": eventSource = readString(parser); break;
+                        case "eventTime": eventTime = readString(parser); break;
+                        case "eventVersion": eventVersion = readString(parser); break;
+                        case "requestParameters": requestParameters = readRequestParameters(parser); break;
+                        case "responseElements": responseElements = readResponseElements(parser); break;
+                        case "s3": s3 = readS3Entity(parser); break;
+                        case "userIdentity": userIdentity = readUserIdentity(parser); break;
+                        default: parser.skipChildren();
+                    }
+                }
+            }
+            // missing nested objects are built with empty values, the same way as empty JSON objects
+            if (requestParameters == null) {
+                requestParameters = requestParametersConstructor.call("");
+            }
+            if (responseElements == null) {
+                responseElements = responseElementsConstructor.call("", "");
+            }
+            if (s3 == null) {
+                s3 = s3EntityConstructor.call("", newS3Bucket("", null, ""), newS3Object("", 0L, "", "", ""), "");
+            }
+            if (userIdentity == null) {
+                userIdentity = userIdentityConstructor.call("");
+            }
+            return recordConstructor.call(awsRegion, eventName, eventSource, eventTime, eventVersion,
+                    requestParameters, responseElements, s3, userIdentity);
+        }
 
-    /**
-     * deserialize an event notification record
-     * NOTE: Yes there are a lot of generics. They are needed for the compiler to correctly associate instance types
-     * with class types
-     * @param jsonObject JSONObject to deserialize from
-     * @param eventNotificationRecordClass event notification record class
-     * @param s3EntityClass s3 entity class
-     * @param s3BucketClass s3 bucket class
-     * @param s3ObjectClass s3 object class
-     * @param requestParametersClass request parameters class
-     * @param responseElementsClass response elements class
-     * @param userIdentityClass user identity class
-     * @param <A> event notification record type
-     * @param <B> s3 entity type
-     * @param <C> s3 bucket type
-     * @param <D> s3 object type
-     * @param <E> request parameters type
-     * @param <F> response elements type
-     * @param <G> user identity class
-     * @return event notification record object
-     */
-    private <A, B, C, D, E, F, G> A deserializeEventNotificationRecord(JSONObject jsonObject,
-                                                                       Class<A> eventNotificationRecordClass,
-                                                                       Class<B> s3EntityClass,
-                                                                       Class<C> s3BucketClass,
-                                                                       Class<D> s3ObjectClass,
-                                                                       Class<E> requestParametersClass,
-                                                                       Class<F> responseElementsClass,
-                                                                       Class<G> userIdentityClass) {
-        if (jsonObject == null) {
-            jsonObject = new JSONObject();
+        private Object readS3Entity(JsonParser parser) throws IOException {
+            String configurationId = "";
+            Object bucket = null;
+            Object object = null;
+            String schemaVersion = "";
+            if (enterObject(parser)) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "configurationId": configurationId = readString(parser); break;
+                        case "bucket": bucket = readS3Bucket(parser); break;
+                        case "object": object = readS3Object(parser); break;
+                        case "s3SchemaVersion": schemaVersion = readString(parser); break;
+                        default: parser.skipChildren();
+                    }
+                }
+            }
+            if (bucket == null) {
+                bucket = newS3Bucket("", null, "");
+            }
+            if (object == null) {
+                object = newS3Object("", 0L, "", "", "");
+            }
+            return s3EntityConstructor.call(configurationId, bucket, object, schemaVersion);
         }
-        String awsRegion = jsonObject.optString("awsRegion");
-        String eventName = jsonObject.optString("eventName");
-        String eventSource = jsonObject.optString("eventSource");
-        String eventTime = jsonObject.optString("eventTime");
-        String eventVersion = jsonObject.optString("eventVersion");
-        E requestParameters = deserializeRequestParameters(jsonObject.optJSONObject("requestParameters"), requestParametersClass);
-        F responseElements = deserializeResponseElements(jsonObject.optJSONObject("responseElements"), responseElementsClass);
-        B s3 = deserializeS3Entity(jsonObject.optJSONObject("s3"), s3EntityClass, s3BucketClass, s3ObjectClass, userIdentityClass);
-        G userIdentity = deserializeUserIdentity(jsonObject.optJSONObject("userIdentity"), userIdentityClass);
-        Functions.R9<A, String, String, String, String, String, E, F, B, G> constructor =
-                ReflectUtil.loadConstuctor9(eventNotificationRecordClass, true, String.class, String.class,
-                        String.class, String.class, String.class, requestParametersClass, responseElementsClass,
-                        s3EntityClass, userIdentityClass);
-        return constructor.call(awsRegion, eventName, eventSource, eventTime, eventVersion, requestParameters,
-                responseElements, s3, userIdentity);
-    }
 
-    /**
-     * serialize an s3 entity
-     * @param s3Entity S3 entity object
-     * @param <A> S3 entity type
-     * @return JSONObject with serialized s3 entity
-     */
-    private <A> JSONObject serializeS3Entity(A s3Entity, String baseClassName) {
-        Class s3BucketClass = SerializeUtil.loadCustomerClass(baseClassName + "$S3BucketEntity", classLoader);
-        Class s3ObjectClass = SerializeUtil.loadCustomerClass(baseClassName + "$S3ObjectEntity", classLoader);
-        JSONObject jsonObject = new JSONObject();
-        Functions.R0<String> getConfigurationIdMethod =
-                ReflectUtil.bindInstanceR0(s3Entity, "getConfigurationId", true, String.class);
-        jsonObject.put("configurationId", getConfigurationIdMethod.call());
-        Functions.R0<?> getBucketMethod =
-                ReflectUtil.bindInstanceR0(s3Entity, "getBucket", true, s3BucketClass);
-        jsonObject.put("bucket", serializeS3Bucket(getBucketMethod.call(), baseClassName));
-        Functions.R0<?> getObjectMethod =
-                ReflectUtil.bindInstanceR0(s3Entity, "getObject", true, s3ObjectClass);
-        jsonObject.put("object", serializeS3Object(getObjectMethod.call()));
-        Functions.R0<String> getSchemaVersionMethod =
-                ReflectUtil.bindInstanceR0(s3Entity, "getS3SchemaVersion", true, String.class);
-        jsonObject.put("s3SchemaVersion", getSchemaVersionMethod.call());
-        return jsonObject;
-    }
+        private Object readS3Bucket(JsonParser parser) throws IOException {
+            String name = "";
+            Object ownerIdentity = null;
+            String arn = "";
+            if (enterObject(parser)) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "name": name = readString(parser); break;
+                        case "ownerIdentity": ownerIdentity = readUserIdentity(parser); break;
+                        case "arn": arn = readString(parser); break;
+                        default: parser.skipChildren();
+                    }
+                }
+            }
+            return newS3Bucket(name, ownerIdentity, arn);
+        }
 
-    /**
-     * deserialize an S3 entity object
-     * @param jsonObject json object to deserialize from
-     * @param s3EntityClass s3 entity class
-     * @param s3BucketClass s3 bucket class
-     * @param s3ObjectClass s3 object class
-     * @param userIdentityClass s3 user identity class
-     * @param <A> s3 entity type
-     * @param <B> s3 bucket type
-     * @param <C> s3 object type
-     * @param <D> s3 user identity type
-     * @return s3 entity object
-     */
-    private <A, B, C, D> A deserializeS3Entity(JSONObject jsonObject, Class<A> s3EntityClass, Class<B> s3BucketClass,
-                                               Class<C> s3ObjectClass, Class<D> userIdentityClass) {
-        if (jsonObject == null) {
-            jsonObject = new JSONObject();
+        private Object newS3Bucket(String name, Object ownerIdentity, String arn) {
+            if (ownerIdentity == null) {
+                ownerIdentity = userIdentityConstructor.call("");
+            }
+            return s3BucketConstructor.call(name, ownerIdentity, arn);
         }
-        String configurationId = jsonObject.optString("configurationId");
-        B bucket = deserializeS3Bucket(jsonObject.optJSONObject("bucket"), s3BucketClass, userIdentityClass);
-        C object = deserializeS3Object(jsonObject.optJSONObject("object"), s3ObjectClass);
-        String schemaVersion = jsonObject.optString("s3SchemaVersion");
-        Functions.R4<A, String, B, C, String> constructor =
-                ReflectUtil.loadConstuctor4(s3EntityClass, true, String.class, s3BucketClass, s3ObjectClass, String.class);
-        return constructor.call(configurationId, bucket, object, schemaVersion);
-    }
 
-    /**
-     * serialize an s3 bucket object
-     * @param s3Bucket S3 bucket object
-     * @param <A> S3 bucket type
-     * @return JSONObject
-     */
-    private <A> JSONObject serializeS3Bucket(A s3Bucket, String baseClassName) {
-        Class userIdentityClass = SerializeUtil.loadCustomerClass(baseClassName + "$UserIdentityEntity", classLoader);
-        JSONObject jsonObject = new JSONObject();
-        Functions.R0<String> getNameMethod =
-                ReflectUtil.bindInstanceR0(s3Bucket, "getName", true, String.class);
-        jsonObject.put("name", getNameMethod.call());
-        Functions.R0<?> getOwnerIdentityMethod =
-                ReflectUtil.bindInstanceR0(s3Bucket, "getOwnerIdentity", true, userIdentityClass);
-        jsonObject.put("ownerIdentity", serializeUserIdentity(getOwnerIdentityMethod.call()));
-        Functions.R0<String> getArnMethod = ReflectUtil.bindInstanceR0(s3Bucket, "getArn", true, String.class);
-        jsonObject.put("arn", getArnMethod.call());
-        return jsonObject;
-    }
+        private Object readS3Object(JsonParser parser) throws IOException {
+            String key = "";
+            long size = 0L;
+            String eTag = "";
+            String versionId = "";
+            String sequencer = "";
+            if (enterObject(parser)) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "key": key = readString(parser); break;
+                        case "size": size = readLong(parser); break;
+                        case "eTag": eTag = readString(parser); break;
+                        case "versionId": versionId = readString(parser); break;
+                        case "sequencer": sequencer = readString(parser); break;
+                        default: parser.skipChildren();
+                    }
+                }
+            }
+            return newS3Object(key, size, eTag, versionId, sequencer);
+        }
 
-    /**
-     * deserialize an s3 bucket object
-     * @param jsonObject JSONObject to deserialize from
-     * @param s3BucketClass S3Bucket class
-     * @param userIdentityClass user identity class
-     * @param <A> s3 bucket type
-     * @param <B> user identity type
-     * @return s3 bucket object
-     */
-    private <A, B> A deserializeS3Bucket(JSONObject jsonObject, Class<A> s3BucketClass, Class<B> userIdentityClass) {
-        if (jsonObject == null) {
-            jsonObject = new JSONObject();
+        private Object newS3Object(String key, Long size, String eTag, String versionId, String sequencer) {
+            if (s3ObjectConstructor != null) {
+                return s3ObjectConstructor.call(key, size, eTag, versionId, sequencer);
+            }
+            return legacyS3ObjectConstructor.call(key, size, eTag, versionId);
         }
-        String name = jsonObject.optString("name");
-        B ownerIdentity = deserializeUserIdentity(jsonObject.optJSONObject("ownerIdentity"), userIdentityClass);
-        String arn = jsonObject.optString("arn");
-        Functions.R3<A, String, B, String> constructor =
-                ReflectUtil.loadConstuctor3(s3BucketClass, true, String.class, userIdentityClass, String.class);
-        return constructor.call(name, ownerIdentity, arn);
-    }
 
-    /**
-     * serialize an s3 object
-     * @param s3Object s3Object object
-     * @param <A> s3 object type
-     * @return s3Object object
-     */
-    private <A> JSONObject serializeS3Object(A s3Object) {
-        JSONObject jsonObject = new JSONObject();
-        Functions.R0<String> getKeyMethod =
-                ReflectUtil.bindInstanceR0(s3Object, "getKey", true, String.class);
-        jsonObject.put("key", getKeyMethod.call());
-        Functions.R0<Long> getSizeMethod =
-                ReflectUtil.bindInstanceR0(s3Object, "getSizeAsLong", true, Long.class);
-        jsonObject.put("size", getSizeMethod.call().longValue());
-        Functions.R0<String> getETagMethod =
-                ReflectUtil.bindInstanceR0(s3Object, "geteTag", true, String.class);
-        jsonObject.put("eTag", getETagMethod.call());
-        Functions.R0<String> getVersionIdMethod =
-                ReflectUtil.bindInstanceR0(s3Object, "getVersionId", true, String.class);
-        jsonObject.put("versionId", getVersionIdMethod.call());
-        // legacy s3 event models do not have these methods
-        try {
-            Functions.R0<String> getUrlEncodedKeyMethod =
-                    ReflectUtil.bindInstanceR0(s3Object,  "getUrlDecodedKey", true, String.class);
-            jsonObject.put("urlDecodedKey", getUrlEncodedKeyMethod.call());
-            Functions.R0<String> getSequencerMethod =
-                    ReflectUtil.bindInstanceR0(s3Object, "getSequencer", true, String.class);
-            jsonObject.put("sequencer", getSequencerMethod.call());
-        } catch (Exception ignored) {}
-        return jsonObject;
-    }
+        private Object readUserIdentity(JsonParser parser) throws IOException {
+            String principalId = "";
+            if (enterObject(parser)) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("principalId".equals(field)) {
+                        principalId = readString(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            return userIdentityConstructor.call(principalId);
+        }
 
-    /**
-     * deserialize an s3Object
-     * @param jsonObject json object to deserialize from
-     * @param s3ObjectClass class of s3Object
-     * @param <A> s3Object type
-     * @return s3Object object
-     */
-    private <A> A deserializeS3Object(JSONObject jsonObject, Class<A> s3ObjectClass) {
-        if (jsonObject == null) {
-            jsonObject = new JSONObject();
+        private Object readRequestParameters(JsonParser parser) throws IOException {
+            String sourceIpAddress = "";
+            if (enterObject(parser)) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("sourceIPAddress".equals(field)) {
+                        sourceIpAddress = readString(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            return requestParametersConstructor.call(sourceIpAddress);
         }
-        String key = jsonObject.optString("key");
-        Long size = jsonObject.optLong("size");
-        String eTag = jsonObject.optString("eTag");
-        String versionId = jsonObject.optString("versionId");
-        String sequencer = jsonObject.optString("sequencer");
-        // legacy s3 event uses constructor in catch statement
-        try {
-            Functions.R5<A, String, Long, String, String, String> constructor =
-                    ReflectUtil.loadConstuctor5(s3ObjectClass, true, String.class, Long.class, String.class, String.class, String.class);
-            return constructor.call(key, size, eTag, versionId, sequencer);
-        } catch (Exception e) {
-            Functions.R4<A, String, Long, String, String> constructor =
-                    ReflectUtil.loadConstuctor4(s3ObjectClass, true, String.class, Long.class, String.class, String.class);
-            return constructor.call(key, size, eTag, versionId);
+
+        private Object readResponseElements(JsonParser parser) throws IOException {
+            String xAmzId2 = "";
+            String xAmzRequestId = "";
+            if (enterObject(parser)) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "x-amz-id-2": xAmzId2 = readString(parser); break;
+                        case "x-amz-request-id": xAmzRequestId = readString(parser); break;
+                        default: parser.skipChildren();
+                    }
+                }
+            }
+            return responseElementsConstructor.call(xAmzId2, xAmzRequestId);
         }
-    }
 
-    /**
-     * serialize an s3 user identity
-     * @param userIdentity user identity object
-     * @param <A> user identity type
-     * @return JSONObject with serialized user identity
-     */
-    private <A> JSONObject serializeUserIdentity(A userIdentity) {
-        JSONObject jsonObject = new JSONObject();
-        Functions.R0<String> getPrincipalIdMethod =
-                ReflectUtil.bindInstanceR0(userIdentity, "getPrincipalId", true, String.class);
-        jsonObject.put("principalId", getPrincipalIdMethod.call());
-        return jsonObject;
-    }
+        /**
+         * @return true if the current value is an object, otherwise skips the value and treats it as an empty object
+         */
+        private static boolean enterObject(JsonParser parser) throws IOException {
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+                return true;
+            }
+            parser.skipChildren();
+            return false;
+        }
 
-    /**
-     * deserialize a user identity
-     * @param jsonObject JSONObject to deserialize from
-     * @param userIdentityClass User Identity Class
-     * @param <A> User Identity Type
-     * @return User Identity Object
-     */
-    private <A> A deserializeUserIdentity(JSONObject jsonObject, Class<A> userIdentityClass) {
-        if (jsonObject == null) {
-            jsonObject = new JSONObject();
+        /**
+         * @return scalar values as their text and anything else as an empty string
+         */
+        private static String readString(JsonParser parser) throws IOException {
+            if (parser.currentToken().isStructStart()) {
+                parser.skipChildren();
+                return "";
+            }
+            return parser.getValueAsString("");
         }
-        String principalId = jsonObject.optString("principalId");
-        Functions.R1<A, String> constructor =
-                ReflectUtil.loadConstructor1(userIdentityClass, true, String.class);
-        return constructor.call(principalId);
-    }
 
-    /**
-     * serialize request parameters
-     * @param requestParameters request parameters object
-     * @param <A> request parameters type
-     * @return JSONObject with serialized request parameters
-     */
-    private <A> JSONObject serializeRequestParameters(A requestParameters) {
-        JSONObject jsonObject = new JSONObject();
-        Functions.R0<String> getSourceIpMethod =
-                ReflectUtil.bindInstanceR0(requestParameters, "getSourceIPAddress", true, String.class);
-        jsonObject.put("sourceIPAddress", getSourceIpMethod.call());
-        return jsonObject;
-    }
+        /**
+         * @return numbers and numeric strings as long and anything else as 0
+         */
+        private static long readLong(JsonParser parser) throws IOException {
+            if (parser.currentToken().isStructStart()) {
+                parser.skipChildren();
+                return 0L;
+            }
+            return parser.getValueAsLong(0L);
+        }
 
-    /**
-     * deserialize request parameters
-     * @param jsonObject JSONObject to deserialize from
-     * @param requestParametersClass RequestParameters class
-     * @param <A> RequestParameters type
-     * @return RequestParameters object
-     */
-    private <A> A deserializeRequestParameters(JSONObject jsonObject, Class<A> requestParametersClass) {
-        if (jsonObject == null) {
-            jsonObject = new JSONObject();
+        /**
+         * serialize an s3 event, null values are left out
+         * @param value s3 event object
+         * @param generator generator writing the event
+         */
+        private void writeEvent(T value, JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("Records");
+            List records = getRecords.call(value);
+            if (records != null) {
+                for (Object record : records) {
+                    writeEventNotificationRecord(record, generator);
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
         }
-        String sourceIpAddress = jsonObject.optString("sourceIPAddress");
-        Functions.R1<A, String> constructor = ReflectUtil.loadConstructor1(requestParametersClass, true, String.class);
-        return constructor.call(sourceIpAddress);
-    }
 
-    /**
-     * serialize response elements object
-     * @param responseElements response elements object
-     * @param <A> response elements type
-     * @return JSONObject with serialized responseElements
-     */
-    private <A> JSONObject serializeResponseElements(A responseElements) {
-        JSONObject jsonObject = new JSONObject();
-        Functions.R0<String> getXAmzId2Method =
-                ReflectUtil.bindInstanceR0(responseElements, "getxAmzId2", true, String.class);
-        jsonObject.put("x-amz-id-2", getXAmzId2Method.call());
-        Functions.R0<String> getXAmzRequestId =
-                ReflectUtil.bindInstanceR0(responseElements, "getxAmzRequestId", true, String.class);
-        jsonObject.put("x-amz-request-id", getXAmzRequestId.call());
-        return jsonObject;
-    }
+        private void writeEventNotificationRecord(Object record, JsonGenerator generator) throws IOException {
+            if (record == null) {
+                generator.writeNull();
+                return;
+            }
+            generator.writeStartObject();
+            writeStringField(generator, "awsRegion", getAwsRegion.call(record));
+            writeStringField(generator, "eventName", getEventName.call(record));
+            writeStringField(generator, "eventSource", getEventSource.call(record));
+            Object eventTime = getEventTime.call(record);
+            if (eventTime != null) {
+                generator.writeStringField("eventTime", jodaTimeHandles.print(eventTime));
+            }
+            writeStringField(generator, "eventVersion", getEventVersion.call(record));
+            Object requestParameters = getRequestParameters.call(record);
+            if (requestParameters != null) {
+                generator.writeObjectFieldStart("requestParameters");
+                writeStringField(generator, "sourceIPAddress", getSourceIPAddress.call(requestParameters));
+                generator.writeEndObject();
+            }
+            Object responseElements = getResponseElements.call(record);
+            if (responseElements != null) {
+                generator.writeObjectFieldStart("responseElements");
+                writeStringField(generator, "x-amz-id-2", getXAmzId2.call(responseElements));
+                writeStringField(generator, "x-amz-request-id", getXAmzRequestId.call(responseElements));
+                generator.writeEndObject();
+            }
+            Object s3 = getS3.call(record);
+            if (s3 != null) {
+                generator.writeFieldName("s3");
+                writeS3Entity(s3, generator);
+            }
+            writeUserIdentityField(generator, "userIdentity", getUserIdentity.call(record));
+            generator.writeEndObject();
+        }
 
-    /**
-     * deserialize response elements
-     * @param jsonObject JSONObject deserializing from
-     * @param responseElementsClass response elements class
-     * @param <A> response elements type
-     * @return Response elements object
-     */
-    private <A> A deserializeResponseElements(JSONObject jsonObject, Class<A> responseElementsClass) {
-        if (jsonObject == null) {
-            jsonObject = new JSONObject();
+        private void writeS3Entity(Object s3Entity, JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            writeStringField(generator, "configurationId", getConfigurationId.call(s3Entity));
+            Object bucket = getBucket.call(s3Entity);
+            if (bucket != null) {
+                generator.writeObjectFieldStart("bucket");
+                writeStringField(generator, "name", getName.call(bucket));
+                writeUserIdentityField(generator, "ownerIdentity", getOwnerIdentity.call(bucket));
+                writeStringField(generator, "arn", getArn.call(bucket));
+                generator.writeEndObject();
+            }
+            Object object = getObject.call(s3Entity);
+            if (object != null) {
+                generator.writeObjectFieldStart("object");
+                writeStringField(generator, "key", getKey.call(object));
+                Long size = getSizeAsLong.call(object);
+                if (size != null) {
+                    generator.writeNumberField("size", size);
+                }
+                writeStringField(generator, "eTag", getETag.call(object));
+                writeStringField(generator, "versionId", getVersionId.call(object));
+                if (getUrlDecodedKey != null) {
+                    writeStringField(generator, "urlDecodedKey", getUrlDecodedKey.call(object));
+                }
+                if (getSequencer != null) {
+                    writeStringField(generator, "sequencer", getSequencer.call(object));
+                }
+                generator.writeEndObject();
+            }
+            writeStringField(generator, "s3SchemaVersion", getS3SchemaVersion.call(s3Entity));
+            generator.writeEndObject();
+        }
+
+        private void writeUserIdentityField(JsonGenerator generator, String name, Object userIdentity)
+                throws IOException {
+            if (userIdentity != null) {
+                generator.writeObjectFieldStart(name);
+                writeStringField(generator, "principalId", getPrincipalId.call(userIdentity));
+                generator.writeEndObject();
+            }
+        }
+
+        private static void writeStringField(JsonGenerator generator, String name, String value) throws IOException {
+            if (value != null) {
+                generator.writeStringField(name, value);
+            }
         }
-        String xAmzId2 = jsonObject.optString("x-amz-id-2");
-        String xAmzRequestId = jsonObject.optString("x-amz-request-id");
-        Functions.R2<A, String, String> constructor =
-                ReflectUtil.loadConstructor2(responseElementsClass, true, String.class, String.class);
-        return constructor.call(xAmzId2, xAmzRequestId);
     }
 
 }
@@ -19,6 +19,7 @@ import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.PropertyNamingStrategy;
 import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.ClassIntrospector;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 
 import java.io.IOException;
@@ -234,5 +235,9 @@ public class JacksonFactory implements PojoSerializerFactory {
     public JacksonFactory withMixin(Class<?> clazz, Class<?> mixin) {
         return new JacksonFactory(this.mapper.copy().addMixIn(clazz, mixin));
     }
+
+    public JacksonFactory withMixInResolver(ClassIntrospector.MixInResolver resolver) {
+        return new JacksonFactory(this.mapper.copy().setMixInResolver(resolver));
+    }
     
 }
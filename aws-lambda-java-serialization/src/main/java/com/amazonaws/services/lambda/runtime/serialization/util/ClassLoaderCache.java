@@ -0,0 +1,52 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.serialization.util;
+
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+/**
+ * Values computed once per class loader, which do not keep the class loader alive. The class loaders are weak keys,
+ * and since a value usually references its class loader through the classes it holds, the values are held softly:
+ * once the class loader is unreachable otherwise, the garbage collector can clear both. A value cleared while its
+ * class loader is still in use is computed again.
+ *
+ * The bootstrap class loader, represented by null, is never unloaded and its value is held strongly.
+ *
+ * @param <V> type of the values
+ */
+public final class ClassLoaderCache<V> {
+
+    private final Function<ClassLoader, V> factory;
+    private final Map<ClassLoader, SoftReference<V>> values = new WeakHashMap<>();
+    private V bootstrapValue;
+
+    /**
+     * @param factory computes the value of a class loader, called at most once at a time
+     */
+    public ClassLoaderCache(Function<ClassLoader, V> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * @param classLoader class loader, or null for the bootstrap class loader
+     * @return the value of the class loader
+     */
+    public synchronized V get(ClassLoader classLoader) {
+        if (classLoader == null) {
+            if (bootstrapValue == null) {
+                bootstrapValue = factory.apply(null);
+            }
+            return bootstrapValue;
+        }
+        SoftReference<V> reference = values.get(classLoader);
+        V value = reference == null ? null : reference.get();
+        if (value == null) {
+            value = factory.apply(classLoader);
+            values.put(classLoader, new SoftReference<>(value));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,102 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.serialization.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Method handles for the customer's org.joda.time classes. The handles are resolved once per class loader, so
+ * parsing and printing a DateTime does not involve any reflective lookups. The cache of the handles does not keep the
+ * class loaders alive. Underneath the handles, this class does the following:
+ *
+ * DateTime.parse(dateTimeString);
+ * ISODateTimeFormat.dateTime().print(dateTime);
+ */
+public final class JodaTimeHandles {
+
+    private static final ClassLoaderCache<JodaTimeHandles> HANDLES = new ClassLoaderCache<>(JodaTimeHandles::new);
+
+    private final Class<?> dateTimeClass;
+
+    /**
+     * DateTime.parse(String) adapted to type (String)Object
+     */
+    private final MethodHandle parse;
+
+    /**
+     * DateTimeFormatter.print(ReadableInstant) bound to ISODateTimeFormat.dateTime() and adapted to type (Object)String
+     */
+    private final MethodHandle print;
+
+    private JodaTimeHandles(ClassLoader classLoader) {
+        this.dateTimeClass = ReflectUtil.loadClass(classLoader, "org.joda.time.DateTime");
+        Class<?> dateTimeFormatterClass = ReflectUtil.loadClass(classLoader, "org.joda.time.format.DateTimeFormatter");
+        Class<?> dateTimeFormatClass = ReflectUtil.loadClass(classLoader, "org.joda.time.format.ISODateTimeFormat");
+        Class<?> readableInstantInterface = ReflectUtil.loadClass(classLoader, "org.joda.time.ReadableInstant");
+
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        try {
+            this.parse = lookup
+                    .findStatic(dateTimeClass, "parse", MethodType.methodType(dateTimeClass, String.class))
+                    .asType(MethodType.methodType(Object.class, String.class));
+            Object dateTimeFormatter = lookup
+                    .findStatic(dateTimeFormatClass, "dateTime", MethodType.methodType(dateTimeFormatterClass))
+                    .invoke();
+            this.print = lookup
+                    .findVirtual(dateTimeFormatterClass, "print",
+                            MethodType.methodType(String.class, readableInstantInterface))
+                    .bindTo(dateTimeFormatter)
+                    .asType(MethodType.methodType(String.class, Object.class));
+        } catch (Throwable t) {
+            throw new ReflectUtil.ReflectException(t);
+        }
+    }
+
+    /**
+     * @param classLoader class loader to load the org.joda.time classes from
+     * @return handles for the org.joda.time classes of the class loader
+     * @throws ReflectUtil.ReflectException if the classes or methods cannot be loaded
+     */
+    public static JodaTimeHandles forClassLoader(ClassLoader classLoader) {
+        return HANDLES.get(classLoader);
+    }
+
+    /**
+     * @return org.joda.time.DateTime class the handles were resolved for
+     */
+    public Class<?> getDateTimeClass() {
+        return dateTimeClass;
+    }
+
+    /**
+     * @param dateTimeString string to deserialize from
+     * @param <T> DateTime type
+     * @return DateTime instance
+     */
+    @SuppressWarnings({"unchecked"})
+    public <T> T parse(String dateTimeString) {
+        try {
+            return (T) (Object) parse.invokeExact(dateTimeString);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new ReflectUtil.ReflectException(t);
+        }
+    }
+
+    /**
+     * @param dateTime DateTime object to serialize
+     * @return timestamp formatted with ISODateTimeFormat.dateTime()
+     */
+    public String print(Object dateTime) {
+        try {
+            return (String) print.invokeExact(dateTime);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new ReflectUtil.ReflectException(t);
+        }
+    }
+}
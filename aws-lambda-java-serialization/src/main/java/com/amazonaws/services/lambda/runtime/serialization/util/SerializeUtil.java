@@ -42,7 +42,7 @@ public class SerializeUtil {
 
     /**
      * deserialize a joda datetime object
-     * Underneath the reflection, this method does the following:
+     * Underneath the method handles, this method does the following:
      *
      * DateTime.parse(jsonParser.getValueAsString());
      *
@@ -50,16 +50,15 @@ public class SerializeUtil {
      * @param dateTimeString string to deserialize from
      * @param <T> DateTime type
      * @return DateTime instance
+     * @see JodaTimeHandles
      */
     public static <T> T deserializeDateTime(Class<T> dateTimeClass, String dateTimeString) {
-        Functions.R1<T, String> parseMethod =
-                ReflectUtil.loadStaticR1(dateTimeClass, "parse", true, dateTimeClass, String.class);
-        return parseMethod.call(dateTimeString);
+        return JodaTimeHandles.forClassLoader(dateTimeClass.getClassLoader()).parse(dateTimeString);
     }
 
     /**
      * serialize a DateTime object
-     * Underneath the reflection, this method does the following:
+     * Underneath the method handles, this method does the following:
      *
      * DateTimeFormatter formatter = ISODateTimeFormat.dateTime();
      * jsonGenerator.writeString(formatter.print(customerDateTime)
@@ -68,36 +67,10 @@ public class SerializeUtil {
      * @param <T> DateTime type
      * @param classLoader ClassLoader used to load DateTime classes
      * @return timestamp as formatted string
+     * @see JodaTimeHandles
      */
-    @SuppressWarnings({"unchecked"})
     public static <T> String serializeDateTime(T dateTime, ClassLoader classLoader) {
-        Class dateTimeFormatterClass = loadCustomerClass("org.joda.time.format.DateTimeFormatter", classLoader);
-        Class dateTimeFormatClass = loadCustomerClass("org.joda.time.format.ISODateTimeFormat", classLoader);
-        Class readableInstantInterface = loadCustomerClass("org.joda.time.ReadableInstant", classLoader);
-        return serializeDateTimeHelper(dateTime, dateTimeFormatterClass, dateTimeFormatClass, readableInstantInterface);
-    }
-
-    /**
-     * Helper method to serialize DateTime objects (We need some way to define generics to get code to compile)
-     * @param dateTime DAteTime object
-     * @param dateTimeFormatterClass DAteTime formatter class
-     * @param dateTimeFormatClass DateTime ISO format class
-     * @param readableInstantInterface DateTime readable instant interface (Needed because reflection is type specific)
-     * @param <S> DAteTime type
-     * @param <T> DateTimeFormatter type
-     * @param <U> DateTimeFormat type
-     * @param <V> ReadableInstant type
-     * @return String with serialized date time
-     */
-    private static <S extends V, T, U, V> String serializeDateTimeHelper(S dateTime, Class<T> dateTimeFormatterClass,
-                                                                         Class<U> dateTimeFormatClass,
-                                                                         Class<V> readableInstantInterface) {
-        Functions.R0<T> dateTimeFormatterConstructor =
-                ReflectUtil.loadStaticR0(dateTimeFormatClass, "dateTime", true, dateTimeFormatterClass);
-        T dateTimeFormatter = dateTimeFormatterConstructor.call();
-        Functions.R1<String, S> printMethod =
-                ReflectUtil.bindInstanceR1(dateTimeFormatter, "print", true, String.class, readableInstantInterface);
-        return printMethod.call(dateTime);
+        return JodaTimeHandles.forClassLoader(classLoader).print(dateTime);
     }
 
 }
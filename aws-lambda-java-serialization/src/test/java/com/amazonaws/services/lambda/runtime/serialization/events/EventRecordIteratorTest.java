@@ -0,0 +1,185 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.serialization.events;
+
+import com.amazonaws.services.lambda.runtime.events.*;
+import com.amazonaws.services.lambda.runtime.serialization.PojoSerializer;
+import com.amazonaws.services.lambda.runtime.serialization.factories.JacksonFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventRecordIteratorTest {
+
+    private static final ClassLoader SYSTEM_CLASS_LOADER = ClassLoader.getSystemClassLoader();
+
+    private static Stream<Arguments> batchEvents() {
+        return Stream.of(
+            Arguments.of("dynamodb_event.json", DynamodbEvent.class),
+            Arguments.of("kinesis_event.json", KinesisEvent.class),
+            Arguments.of("kinesis_firehose_event.json", KinesisFirehoseEvent.class),
+            Arguments.of("sqs_event.json", SQSEvent.class)
+        );
+    }
+
+    @ParameterizedTest(name = "Iterate {0} Records")
+    @MethodSource("batchEvents")
+    public void testIteratesRecordsOfDeserializedEvent(String json, Class<?> eventClass) throws Exception {
+        byte[] payload = Files.readAllBytes(Paths.get("src", "test", "resources", "event_models", json));
+        Object event = LambdaEventSerializers.serializerFor(eventClass, SYSTEM_CLASS_LOADER)
+                .fromJson(new ByteArrayInputStream(payload));
+        List<?> expected = (List<?>) eventClass.getMethod("getRecords").invoke(event);
+
+        List<String> actual = new ArrayList<>();
+        EventRecordIterator<?, ?> records = LambdaEventSerializers.recordIteratorFor(eventClass, SYSTEM_CLASS_LOADER,
+                new ByteArrayInputStream(payload));
+        records.forEachRemaining(record -> actual.add(toJson(record)));
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(toJson(expected.get(i)), actual.get(i));
+        }
+        assertNull(eventClass.getMethod("getRecords").invoke(records.getEvent()));
+    }
+
+    @Test
+    public void testReadsFieldsAroundRecords() {
+        String json = "{\"invocationId\":\"invocation1\",\"records\":[{\"recordId\":\"r1\",\"data\":\"SGk=\"}],"
+                + "\"region\":\"us-west-2\"}";
+        EventRecordIterator<KinesisFirehoseEvent, KinesisFirehoseEvent.Record> records =
+                LambdaEventSerializers.recordIteratorFor(KinesisFirehoseEvent.class, SYSTEM_CLASS_LOADER, stream(json));
+
+        assertEquals("invocation1", records.getEvent().getInvocationId());
+        assertNull(records.getEvent().getRegion());
+        KinesisFirehoseEvent.Record record = records.next();
+        assertEquals("r1", record.getRecordId());
+        assertEquals("Hi", UTF_8.decode(record.getData()).toString());
+        assertFalse(records.hasNext());
+        assertEquals("invocation1", records.getEvent().getInvocationId());
+        assertEquals("us-west-2", records.getEvent().getRegion());
+        assertNull(records.getEvent().getRecords());
+    }
+
+    @Test
+    public void testFlattensKafkaTopicPartitions() {
+        String json = "{\"eventSource\":\"aws:kafka\",\"records\":{"
+                + "\"orders-0\":[{\"topic\":\"orders\",\"partition\":0,\"offset\":15},"
+                + "{\"topic\":\"orders\",\"partition\":0,\"offset\":16}],"
+                + "\"orders-1\":[],"
+                + "\"orders-2\":[{\"topic\":\"orders\",\"partition\":2,\"offset\":3}]},"
+                + "\"bootstrapServers\":\"b-1:9092\"}";
+        EventRecordIterator<KafkaEvent, KafkaEvent.KafkaEventRecord> records =
+                LambdaEventSerializers.recordIteratorFor(KafkaEvent.class, SYSTEM_CLASS_LOADER, stream(json));
+
+        List<String> offsets = new ArrayList<>();
+        records.forEachRemaining(record -> offsets.add(record.getPartition() + ":" + record.getOffset()));
+
+        assertEquals(Arrays.asList("0:15", "0:16", "2:3"), offsets);
+        assertEquals("aws:kafka", records.getEvent().getEventSource());
+        assertEquals("b-1:9092", records.getEvent().getBootstrapServers());
+    }
+
+    @Test
+    public void testReadsRecordsOnDemand() {
+        StringBuilder json = new StringBuilder("{\"Records\":[");
+        for (int i = 0; i < 10_000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"messageId\":\"").append(i).append("\",\"body\":\"hello\"}");
+        }
+        byte[] payload = json.append("]}").toString().getBytes(UTF_8);
+        CountingInputStream input = new CountingInputStream(new ByteArrayInputStream(payload));
+
+        EventRecordIterator<SQSEvent, SQSEvent.SQSMessage> records =
+                LambdaEventSerializers.recordIteratorFor(SQSEvent.class, SYSTEM_CLASS_LOADER, input);
+        assertEquals("0", records.next().getMessageId());
+        assertTrue(input.count < payload.length / 10, "read " + input.count + " bytes");
+
+        int count = 1;
+        while (records.hasNext()) {
+            assertEquals(String.valueOf(count++), records.next().getMessageId());
+        }
+        assertEquals(10_000, count);
+        assertEquals(payload.length, input.count);
+    }
+
+    @Test
+    public void testSkipsNullRecords() {
+        EventRecordIterator<SQSEvent, SQSEvent.SQSMessage> records =
+                LambdaEventSerializers.recordIteratorFor(SQSEvent.class, SYSTEM_CLASS_LOADER, stream("{\"Records\":null}"));
+
+        assertFalse(records.hasNext());
+        assertNull(records.getEvent().getRecords());
+    }
+
+    @Test
+    public void testSkipsNullElementsOfRecords() {
+        EventRecordIterator<SQSEvent, SQSEvent.SQSMessage> records = LambdaEventSerializers.recordIteratorFor(
+                SQSEvent.class, SYSTEM_CLASS_LOADER,
+                stream("{\"Records\":[null,{\"messageId\":\"1\"},null,null,{\"messageId\":\"2\"},null]}"));
+
+        assertEquals("1", records.next().getMessageId());
+        assertEquals("2", records.next().getMessageId());
+        assertFalse(records.hasNext());
+    }
+
+    @Test
+    public void testRejectsEventsWithoutRecords() {
+        assertFalse(LambdaEventSerializers.isRecordIterableEvent(ScheduledEvent.class.getName()));
+        assertThrows(IllegalArgumentException.class, () ->
+                LambdaEventSerializers.recordIteratorFor(ScheduledEvent.class, SYSTEM_CLASS_LOADER, stream("{}")));
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(UTF_8));
+    }
+
+    private static String toJson(Object value) {
+        @SuppressWarnings("unchecked")
+        PojoSerializer<Object> serializer = JacksonFactory.getInstance().getSerializer((Class<Object>) value.getClass());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        serializer.toJson(value, output);
+        return new String(output.toByteArray(), UTF_8);
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            count += b < 0 ? 0 : 1;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            count += Math.max(n, 0);
+            return n;
+        }
+    }
+}
@@ -4,6 +4,7 @@ package com.amazonaws.services.lambda.runtime.serialization.events;
 
 import com.amazonaws.services.lambda.runtime.events.*;
 import com.amazonaws.services.lambda.runtime.serialization.PojoSerializer;
+import com.amazonaws.services.lambda.runtime.serialization.factories.JacksonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -12,13 +13,18 @@ import org.junit.jupiter.params.provider.MethodSource;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class LambdaEventSerializersTest {
 
@@ -64,6 +70,39 @@ public class LambdaEventSerializersTest {
         assertJsonEqual(expected, actual);
     }
 
+    @Test
+    public void testSerializerIsCachedPerEventClass() {
+        PojoSerializer<SNSEvent> first = LambdaEventSerializers.serializerFor(SNSEvent.class, SYSTEM_CLASS_LOADER);
+        PojoSerializer<SNSEvent> second = LambdaEventSerializers.serializerFor(SNSEvent.class, SYSTEM_CLASS_LOADER);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testGlobalMapperIsNotModified() throws IOException {
+        Set<Object> moduleIds = new HashSet<>(JacksonFactory.getInstance().getMapper().getRegisteredModuleIds());
+
+        deserializeSerializeJsonToString(readEvent("scheduled_event.json"), ScheduledEvent.class);
+        deserializeSerializeJsonToString(readEvent("sqs_event.json"), SQSEvent.class);
+
+        assertEquals(moduleIds, JacksonFactory.getInstance().getMapper().getRegisteredModuleIds());
+    }
+
+    @Test
+    public void testBinaryFieldsAreKeptEncoded() throws IOException {
+        PojoSerializer<SQSEvent> serializer = LambdaEventSerializers.serializerFor(SQSEvent.class, SYSTEM_CLASS_LOADER);
+
+        SQSEvent.MessageAttribute attribute = serializer.fromJson(readEvent("sqs_event.json"))
+                .getRecords().get(0).getMessageAttributes().get("Attribute3");
+
+        assertEquals("MTEwMA==", attribute.getEncodedBinaryValue());
+        assertEquals(Arrays.asList("MA==", "MQ==", "MA=="), attribute.getEncodedBinaryListValues());
+        assertEquals("1100", StandardCharsets.US_ASCII.decode(attribute.getBinaryValue()).toString());
+        ByteBuffer destination = ByteBuffer.allocate(4);
+        assertEquals(4, attribute.decodeBinaryValue(destination));
+        assertEquals("1100", new String(destination.array(), StandardCharsets.US_ASCII));
+    }
+
     private String readEvent(String filename) throws IOException {
         Path filePath = Paths.get("src", "test", "resources", "event_models", filename);
         byte[] bytes = Files.readAllBytes(filePath);
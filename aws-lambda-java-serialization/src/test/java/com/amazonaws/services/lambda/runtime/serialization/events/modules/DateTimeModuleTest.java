@@ -0,0 +1,26 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.serialization.events.modules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DateTimeModuleTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .registerModule(new DateTimeModule(ClassLoader.getSystemClassLoader()));
+
+    @Test
+    public void testJodaDateTimeRoundTrip() throws IOException {
+        DateTime dateTime = OBJECT_MAPPER.readValue("\"2019-08-01T10:15:30.123Z\"", DateTime.class);
+
+        assertEquals(DateTime.parse("2019-08-01T10:15:30.123Z").getMillis(), dateTime.getMillis());
+        assertEquals("\"2019-08-01T10:15:30.123Z\"", OBJECT_MAPPER.writeValueAsString(dateTime.toDateTime(DateTimeZone.UTC)));
+    }
+}
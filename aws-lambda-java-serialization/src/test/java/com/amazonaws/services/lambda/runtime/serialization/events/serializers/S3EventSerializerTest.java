@@ -7,6 +7,7 @@ import com.amazonaws.services.lambda.runtime.events.models.s3.S3EventNotificatio
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -42,6 +43,27 @@ public class S3EventSerializerTest {
         assertJsonEqual(expected, actual);
     }
 
+    @Test
+    public void testDeserializeS3EventFromStreamWithUnknownAndMissingFields() {
+        S3EventSerializer<S3Event> s3EventSerializer = getS3EventSerializerWithClass(S3Event.class);
+        String json = "{\"unknown\":[{\"a\":1}],\"Records\":[" +
+                "{\"eventTime\":\"1970-01-01T00:00:00.000Z\",\"s3\":{\"object\":{\"key\":\"a\",\"size\":\"42\"}}}," +
+                "{\"eventTime\":\"1970-01-01T00:00:00.000Z\",\"extra\":{\"nested\":[1,2]},\"awsRegion\":\"us-east-1\"}]}";
+
+        S3Event event = s3EventSerializer.fromJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, event.getRecords().size());
+        S3EventNotification.S3EventNotificationRecord first = event.getRecords().get(0);
+        assertEquals("a", first.getS3().getObject().getKey());
+        assertEquals(42L, first.getS3().getObject().getSizeAsLong());
+        assertEquals("", first.getAwsRegion());
+        assertEquals("", first.getS3().getBucket().getOwnerIdentity().getPrincipalId());
+        S3EventNotification.S3EventNotificationRecord second = event.getRecords().get(1);
+        assertEquals("us-east-1", second.getAwsRegion());
+        assertEquals(0L, second.getS3().getObject().getSizeAsLong());
+        assertEquals("", second.getRequestParameters().getSourceIPAddress());
+    }
+
     private <T> S3EventSerializer<T> getS3EventSerializerWithClass(Class<T> modelClass) {
         return new S3EventSerializer<T>()
                 .withClass(modelClass)
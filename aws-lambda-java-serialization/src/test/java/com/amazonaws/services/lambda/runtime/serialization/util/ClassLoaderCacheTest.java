@@ -0,0 +1,61 @@
+/* Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved. */
+
+package com.amazonaws.services.lambda.runtime.serialization.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ClassLoaderCacheTest {
+
+    @Test
+    public void testComputesValueOncePerClassLoader() {
+        AtomicInteger computed = new AtomicInteger();
+        ClassLoaderCache<Object> cache = new ClassLoaderCache<>(classLoader -> {
+            computed.incrementAndGet();
+            return new Object();
+        });
+        ClassLoader other = new URLClassLoader(new URL[0]);
+
+        Object value = cache.get(ClassLoader.getSystemClassLoader());
+
+        assertSame(value, cache.get(ClassLoader.getSystemClassLoader()));
+        cache.get(other);
+        assertEquals(2, computed.get());
+    }
+
+    @Test
+    public void testBootstrapClassLoader() {
+        AtomicInteger computed = new AtomicInteger();
+        ClassLoaderCache<String> cache = new ClassLoaderCache<>(classLoader -> {
+            computed.incrementAndGet();
+            return String.valueOf(classLoader);
+        });
+
+        assertEquals("null", cache.get(null));
+        assertEquals("null", cache.get(null));
+        assertEquals(1, computed.get());
+    }
+
+    @Test
+    public void testDoesNotKeepClassLoaderAlive() throws InterruptedException {
+        ClassLoaderCache<Object> cache = new ClassLoaderCache<>(classLoader -> new Object());
+        ClassLoader classLoader = new URLClassLoader(new URL[0]);
+        cache.get(classLoader);
+        WeakReference<ClassLoader> reference = new WeakReference<>(classLoader);
+        classLoader = null;
+
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+    }
+}
@@ -2,35 +2,31 @@ package example;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.batch.FirehoseBatchProcessor;
 import com.amazonaws.services.lambda.runtime.events.KinesisAnalyticsInputPreprocessingResponse;
 import com.amazonaws.services.lambda.runtime.events.KinesisFirehoseEvent;
 
-import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
-
 import static com.amazonaws.services.lambda.runtime.events.KinesisAnalyticsInputPreprocessingResponse.Result.Ok;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
- * A sample KinesisFirehoseEvent handler
+ * A sample KinesisFirehoseEvent handler, which transforms the records of a batch on all available processors
  *
  * For more information see the developer guide - https://docs.aws.amazon.com/firehose/latest/dev/data-transformation.html
  */
 public class KinesisFirehoseEventHandler implements RequestHandler<KinesisFirehoseEvent, KinesisAnalyticsInputPreprocessingResponse> {
 
+    private final FirehoseBatchProcessor processor = FirehoseBatchProcessor.builder().build();
+
     @Override
     public KinesisAnalyticsInputPreprocessingResponse handleRequest(KinesisFirehoseEvent kinesisFirehoseEvent, Context context) {
-        List<KinesisAnalyticsInputPreprocessingResponse.Record> records = new ArrayList<>();
-
-        for (KinesisFirehoseEvent.Record record : kinesisFirehoseEvent.getRecords()) {
-            String recordData = new String(record.getData().array());
-            // Your business logic
+        return processor.process(kinesisFirehoseEvent, context, (recordId, data, output) -> {
+            String recordData = UTF_8.decode(data).toString();
+            // Your business logic, an exception returns the record as ProcessingFailed
             String reversedString = new StringBuilder(recordData).reverse().toString();
 
-            records.add(new KinesisAnalyticsInputPreprocessingResponse.Record(record.getRecordId(), Ok, ByteBuffer.wrap(reversedString.getBytes(UTF_8))));
-        }
-
-        return new KinesisAnalyticsInputPreprocessingResponse(records);
+            output.write(reversedString.getBytes(UTF_8));
+            return Ok;
+        });
     }
 }